@@ -0,0 +1,99 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.build.jmh;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+
+import me.champeau.gradle.JMHPlugin;
+import me.champeau.gradle.JMHPluginExtension;
+import org.gradle.api.Plugin;
+import org.gradle.api.Project;
+import org.gradle.api.file.DuplicatesStrategy;
+import org.gradle.api.plugins.JavaPlugin;
+
+/**
+ * {@link Plugin} that applies the JMH Gradle plugin with the Spring Framework
+ * conventions for micro-benchmarks.
+ * <p>Benchmarks are located in the {@code src/jmh/java} source set of a module
+ * and are run with {@code "./gradlew :spring-core:jmh"}. The run is configured
+ * with fixed fork, warmup and measurement settings so that results are
+ * reproducible, and written as JSON to {@code build/results/jmh/results.json}
+ * for comparison between commits.
+ * <p>The following project properties can be used to narrow down or tune a run
+ * on the CLI: {@code "./gradlew :spring-core:jmh -PjmhInclude=StringDecoder"}.
+ * <ul>
+ * <li>{@code jmhInclude}: regular expression for the benchmarks to run
+ * <li>{@code jmhForks}, {@code jmhWarmupIterations}, {@code jmhIterations}:
+ * override the default run settings
+ * <li>{@code jmhProfilers}: comma-separated list of JMH profilers, e.g. "gc"
+ * <li>{@code jmhResultsFile}: alternative location for the JSON results
+ * </ul>
+ */
+public class JmhConventionsPlugin implements Plugin<Project> {
+
+	/**
+	 * The JMH version used for compiling and running benchmarks.
+	 */
+	public static final String JMH_VERSION = "1.21";
+
+	private static final int DEFAULT_FORKS = 1;
+
+	private static final int DEFAULT_WARMUP_ITERATIONS = 3;
+
+	private static final int DEFAULT_ITERATIONS = 5;
+
+	@Override
+	public void apply(Project project) {
+		project.getPlugins().withType(JavaPlugin.class, javaPlugin -> {
+			project.getPlugins().apply(JMHPlugin.class);
+			configureJmh(project, project.getExtensions().getByType(JMHPluginExtension.class));
+		});
+	}
+
+	/**
+	 * Applies the common JMH run settings, possibly overridden by project properties.
+	 * @param project the current project
+	 * @param jmh the JMH extension to configure
+	 */
+	private void configureJmh(Project project, JMHPluginExtension jmh) {
+		jmh.setJmhVersion(JMH_VERSION);
+		jmh.setDuplicateClassesStrategy(DuplicatesStrategy.EXCLUDE);
+		jmh.setFork(intProperty(project, "jmhForks", DEFAULT_FORKS));
+		jmh.setWarmupIterations(intProperty(project, "jmhWarmupIterations", DEFAULT_WARMUP_ITERATIONS));
+		jmh.setIterations(intProperty(project, "jmhIterations", DEFAULT_ITERATIONS));
+		jmh.setResultFormat("JSON");
+		Object resultsFile = project.findProperty("jmhResultsFile");
+		jmh.setResultsFile(resultsFile != null ? project.file(resultsFile) :
+				new File(project.getBuildDir(), "results/jmh/results.json"));
+		Object include = project.findProperty("jmhInclude");
+		if (include != null) {
+			jmh.setInclude(Collections.singletonList(include.toString()));
+		}
+		Object profilers = project.findProperty("jmhProfilers");
+		if (profilers != null) {
+			jmh.setProfilers(Arrays.asList(profilers.toString().split(",")));
+		}
+	}
+
+	private static int intProperty(Project project, String name, int defaultValue) {
+		Object value = project.findProperty(name);
+		return (value != null ? Integer.parseInt(value.toString()) : defaultValue);
+	}
+
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans.factory;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.RuntimeBeanReference;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+
+/**
+ * Benchmarks for the creation of prototype beans and the retrieval of singleton
+ * beans through a {@link DefaultListableBeanFactory}.
+ */
+@BenchmarkMode(Mode.Throughput)
+public class DefaultListableBeanFactoryBenchmark {
+
+	@Benchmark
+	public Object prototypeCreation(BenchmarkState state) {
+		return state.beanFactory.getBean("prototype");
+	}
+
+	@Benchmark
+	public Object singletonLookupByName(BenchmarkState state) {
+		return state.beanFactory.getBean("singleton");
+	}
+
+	@Benchmark
+	public Object singletonLookupByType(BenchmarkState state) {
+		return state.beanFactory.getBean(SingletonBean.class);
+	}
+
+
+	@State(Scope.Benchmark)
+	public static class BenchmarkState {
+
+		@Param({"constructor", "properties", "autowireConstructor", "autowireByType"})
+		public String mode;
+
+		public DefaultListableBeanFactory beanFactory;
+
+		@Setup(Level.Trial)
+		public void setup() {
+			this.beanFactory = new DefaultListableBeanFactory();
+			this.beanFactory.registerBeanDefinition("singleton", new RootBeanDefinition(SingletonBean.class));
+
+			RootBeanDefinition prototype = new RootBeanDefinition(PrototypeBean.class);
+			prototype.setScope(BeanDefinition.SCOPE_PROTOTYPE);
+			switch (this.mode) {
+				case "constructor":
+					prototype.getConstructorArgumentValues().addGenericArgumentValue(new RuntimeBeanReference("singleton"));
+					prototype.getConstructorArgumentValues().addGenericArgumentValue("name");
+					break;
+				case "properties":
+					prototype.getPropertyValues().add("singleton", new RuntimeBeanReference("singleton"));
+					prototype.getPropertyValues().add("name", "name");
+					break;
+				case "autowireConstructor":
+					prototype.setAutowireMode(RootBeanDefinition.AUTOWIRE_CONSTRUCTOR);
+					break;
+				case "autowireByType":
+					prototype.setAutowireMode(RootBeanDefinition.AUTOWIRE_BY_TYPE);
+					break;
+				default:
+					throw new IllegalStateException("Unknown mode: " + this.mode);
+			}
+			this.beanFactory.registerBeanDefinition("prototype", prototype);
+			this.beanFactory.preInstantiateSingletons();
+		}
+	}
+
+
+	public static class SingletonBean {
+	}
+
+
+	public static class PrototypeBean {
+
+		private SingletonBean singleton;
+
+		private String name;
+
+		public PrototypeBean() {
+		}
+
+		public PrototypeBean(SingletonBean singleton) {
+			this.singleton = singleton;
+		}
+
+		public PrototypeBean(SingletonBean singleton, String name) {
+			this.singleton = singleton;
+			this.name = name;
+		}
+
+		public void setSingleton(SingletonBean singleton) {
+			this.singleton = singleton;
+		}
+
+		public SingletonBean getSingleton() {
+			return this.singleton;
+		}
+
+		public void setName(String name) {
+			this.name = name;
+		}
+
+		public String getName() {
+			return this.name;
+		}
+	}
+
+}
@@ -30,7 +30,9 @@ import java.security.PrivilegedAction;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashSet;
 import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
@@ -39,7 +41,11 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
 import java.util.stream.Stream;
@@ -48,6 +54,7 @@ import javax.inject.Provider;
 
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.BeansException;
+import org.springframework.beans.PropertyValue;
 import org.springframework.beans.TypeConverter;
 import org.springframework.beans.factory.BeanCreationException;
 import org.springframework.beans.factory.BeanCurrentlyInCreationException;
@@ -71,8 +78,10 @@ import org.springframework.beans.factory.config.BeanDefinitionHolder;
 import org.springframework.beans.factory.config.BeanPostProcessor;
 import org.springframework.beans.factory.config.ConfigurableBeanFactory;
 import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.config.ConstructorArgumentValues;
 import org.springframework.beans.factory.config.DependencyDescriptor;
 import org.springframework.beans.factory.config.NamedBeanHolder;
+import org.springframework.beans.factory.config.RuntimeBeanReference;
 import org.springframework.core.OrderComparator;
 import org.springframework.core.ResolvableType;
 import org.springframework.core.annotation.MergedAnnotation;
@@ -152,6 +161,9 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 	/** Whether to allow eager class loading even for lazy-init beans. */
 	private boolean allowEagerClassLoading = true;
 
+	/** Number of threads to pre-instantiate singletons with. */
+	private int preInstantiationParallelism = 1;
+
 	/** Optional OrderComparator for dependency Lists and arrays. */
 	@Nullable
 	private Comparator<Object> dependencyComparator;
@@ -268,6 +280,36 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 		return this.allowEagerClassLoading;
 	}
 
+	/**
+	 * Set the number of threads to pre-instantiate non-lazy singletons with.
+	 * <p>Default is 1, creating all singletons sequentially on the thread that
+	 * calls {@link #preInstantiateSingletons()}. A higher value creates singletons
+	 * on a {@link ForkJoinPool} with the given parallelism, each singleton once
+	 * the singletons referenced in its bean definition have been created. This may
+	 * considerably speed up the startup of large applications with singletons that
+	 * perform slow initialization such as remote calls, provided that those
+	 * singletons do not rely on side effects of other singletons that they do not
+	 * depend on.
+	 * <p>Circular references are resolved as with sequential creation, and
+	 * {@link SmartInitializingSingleton} callbacks are still invoked sequentially
+	 * once all singletons have been created. Note that singleton creation does
+	 * not hold the {@link #getSingletonMutex() singleton mutex} in parallel mode.
+	 * @since 5.2.1
+	 * @see #setParallelSingletonCreation
+	 */
+	public void setPreInstantiationParallelism(int preInstantiationParallelism) {
+		Assert.isTrue(preInstantiationParallelism > 0, "Parallelism must be greater than 0");
+		this.preInstantiationParallelism = preInstantiationParallelism;
+	}
+
+	/**
+	 * Return the number of threads to pre-instantiate non-lazy singletons with.
+	 * @since 5.2.1
+	 */
+	public int getPreInstantiationParallelism() {
+		return this.preInstantiationParallelism;
+	}
+
 	/**
 	 * Set a {@link java.util.Comparator} for dependency Lists and arrays.
 	 * @since 4.0
@@ -323,6 +365,7 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 			DefaultListableBeanFactory otherListableFactory = (DefaultListableBeanFactory) otherFactory;
 			this.allowBeanDefinitionOverriding = otherListableFactory.allowBeanDefinitionOverriding;
 			this.allowEagerClassLoading = otherListableFactory.allowEagerClassLoading;
+			this.preInstantiationParallelism = otherListableFactory.preInstantiationParallelism;
 			this.dependencyComparator = otherListableFactory.dependencyComparator;
 			// A clone of the AutowireCandidateResolver since it is potentially BeanFactoryAware...
 			setAutowireCandidateResolver(
@@ -854,35 +897,15 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 		List<String> beanNames = new ArrayList<>(this.beanDefinitionNames);
 
 		// Trigger initialization of all non-lazy singleton beans...
-		for (String beanName : beanNames) {
-			RootBeanDefinition bd = getMergedLocalBeanDefinition(beanName);
-			//判断是否符合加载的条件
-			if (!bd.isAbstract() && bd.isSingleton() && !bd.isLazyInit()) {
-				//是否是一个factoryBean
-				if (isFactoryBean(beanName)) {
-					//=============factoryBean 的初始化流程
-					Object bean = getBean(FACTORY_BEAN_PREFIX + beanName);
-					if (bean instanceof FactoryBean) {
-						final FactoryBean<?> factory = (FactoryBean<?>) bean;
-						boolean isEagerInit;
-						if (System.getSecurityManager() != null && factory instanceof SmartFactoryBean) {
-							isEagerInit = AccessController.doPrivileged((PrivilegedAction<Boolean>)
-											((SmartFactoryBean<?>) factory)::isEagerInit,
-									getAccessControlContext());
-						}
-						else {
-							isEagerInit = (factory instanceof SmartFactoryBean &&
-									((SmartFactoryBean<?>) factory).isEagerInit());
-						}
-						if (isEagerInit) {
-							getBean(beanName);
-						}
-					}
-				}
-				else {
-					//obtain bean
-					//第一次调用getBean 方法 不是factoryBean的初始化
-					getBean(beanName);
+		if (this.preInstantiationParallelism > 1) {
+			preInstantiateSingletonsInParallel(beanNames);
+		}
+		else {
+			for (String beanName : beanNames) {
+				RootBeanDefinition bd = getMergedLocalBeanDefinition(beanName);
+				//判断是否符合加载的条件
+				if (!bd.isAbstract() && bd.isSingleton() && !bd.isLazyInit()) {
+					preInstantiateSingleton(beanName);
 				}
 			}
 		}
@@ -906,6 +929,134 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 	}
 
 
+	private void preInstantiateSingleton(String beanName) {
+		//是否是一个factoryBean
+		if (isFactoryBean(beanName)) {
+			//=============factoryBean 的初始化流程
+			Object bean = getBean(FACTORY_BEAN_PREFIX + beanName);
+			if (bean instanceof FactoryBean) {
+				final FactoryBean<?> factory = (FactoryBean<?>) bean;
+				boolean isEagerInit;
+				if (System.getSecurityManager() != null && factory instanceof SmartFactoryBean) {
+					isEagerInit = AccessController.doPrivileged((PrivilegedAction<Boolean>)
+									((SmartFactoryBean<?>) factory)::isEagerInit,
+							getAccessControlContext());
+				}
+				else {
+					isEagerInit = (factory instanceof SmartFactoryBean &&
+							((SmartFactoryBean<?>) factory).isEagerInit());
+				}
+				if (isEagerInit) {
+					getBean(beanName);
+				}
+			}
+		}
+		else {
+			//obtain bean
+			//第一次调用getBean 方法 不是factoryBean的初始化
+			getBean(beanName);
+		}
+	}
+
+	/**
+	 * Pre-instantiate the non-lazy singletons among the given beans on a
+	 * {@link ForkJoinPool}, creating each singleton once the singletons that
+	 * its bean definition refers to have been created. Dependencies that are
+	 * only discovered during creation, e.g. through autowiring, are created on
+	 * demand by the requesting thread or awaited if in creation by another thread.
+	 * @see #setPreInstantiationParallelism
+	 * @see #setParallelSingletonCreation
+	 */
+	private void preInstantiateSingletonsInParallel(List<String> beanNames) {
+		Map<String, Set<String>> dependencies = new LinkedHashMap<>();
+		for (String beanName : beanNames) {
+			RootBeanDefinition bd = getMergedLocalBeanDefinition(beanName);
+			if (!bd.isAbstract() && bd.isSingleton() && !bd.isLazyInit()) {
+				Set<String> references = new LinkedHashSet<>();
+				collectBeanReferences(bd, references);
+				dependencies.put(beanName, references);
+			}
+		}
+
+		ForkJoinPool pool = new ForkJoinPool(this.preInstantiationParallelism);
+		ParallelPreInstantiation preInstantiation = new ParallelPreInstantiation(dependencies, pool);
+		setParallelSingletonCreation(true);
+		try {
+			dependencies.keySet().forEach(preInstantiation::schedule);
+			preInstantiation.awaitCompletion();
+		}
+		finally {
+			setParallelSingletonCreation(false);
+			pool.shutdown();
+		}
+
+		Throwable ex = preInstantiation.getFailure();
+		if (ex instanceof RuntimeException) {
+			throw (RuntimeException) ex;
+		}
+		if (ex instanceof Error) {
+			throw (Error) ex;
+		}
+		if (ex != null) {
+			throw new IllegalStateException("Failed to pre-instantiate singletons", ex);
+		}
+	}
+
+	/**
+	 * Collect the names of the beans that the given bean definition refers to:
+	 * through "depends-on", its factory bean, and references in constructor
+	 * arguments and property values, including those of inner beans.
+	 */
+	private void collectBeanReferences(BeanDefinition bd, Set<String> references) {
+		String[] dependsOn = bd.getDependsOn();
+		if (dependsOn != null) {
+			Collections.addAll(references, dependsOn);
+		}
+		if (bd.getFactoryBeanName() != null) {
+			references.add(bd.getFactoryBeanName());
+		}
+		if (bd.hasConstructorArgumentValues()) {
+			ConstructorArgumentValues args = bd.getConstructorArgumentValues();
+			for (ConstructorArgumentValues.ValueHolder valueHolder : args.getIndexedArgumentValues().values()) {
+				collectBeanReferences(valueHolder.getValue(), references);
+			}
+			for (ConstructorArgumentValues.ValueHolder valueHolder : args.getGenericArgumentValues()) {
+				collectBeanReferences(valueHolder.getValue(), references);
+			}
+		}
+		if (bd.hasPropertyValues()) {
+			for (PropertyValue pv : bd.getPropertyValues().getPropertyValues()) {
+				collectBeanReferences(pv.getValue(), references);
+			}
+		}
+	}
+
+	private void collectBeanReferences(@Nullable Object value, Set<String> references) {
+		if (value instanceof RuntimeBeanReference) {
+			RuntimeBeanReference reference = (RuntimeBeanReference) value;
+			if (!reference.isToParent()) {
+				references.add(reference.getBeanName());
+			}
+		}
+		else if (value instanceof BeanDefinitionHolder) {
+			collectBeanReferences(((BeanDefinitionHolder) value).getBeanDefinition(), references);
+		}
+		else if (value instanceof BeanDefinition) {
+			collectBeanReferences((BeanDefinition) value, references);
+		}
+		else if (value instanceof Collection) {
+			for (Object element : (Collection<?>) value) {
+				collectBeanReferences(element, references);
+			}
+		}
+		else if (value instanceof Map) {
+			for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+				collectBeanReferences(entry.getKey(), references);
+				collectBeanReferences(entry.getValue(), references);
+			}
+		}
+	}
+
 	//---------------------------------------------------------------------
 	// Implementation of BeanDefinitionRegistry interface
 	//---------------------------------------------------------------------
@@ -2040,4 +2191,95 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 		}
 	}
 
+
+
+	/**
+	 * Schedules the pre-instantiation of singletons according to the bean
+	 * references in their bean definitions, running independent singletons
+	 * in parallel.
+	 */
+	private class ParallelPreInstantiation {
+
+		private final Map<String, Set<String>> dependencies;
+
+		private final Executor executor;
+
+		@Nullable
+		private final ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+
+		private final Map<String, CompletableFuture<Void>> tasks = new LinkedHashMap<>();
+
+		private final Set<String> currentlyScheduled = new HashSet<>();
+
+		private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+		public ParallelPreInstantiation(Map<String, Set<String>> dependencies, Executor executor) {
+			this.dependencies = dependencies;
+			this.executor = executor;
+		}
+
+		/**
+		 * Schedule the pre-instantiation of the given bean after the beans that
+		 * it refers to, unless scheduled already.
+		 * @return the scheduled task, or {@code null} in case of a circular
+		 * reference which is left to be resolved on creation
+		 */
+		@Nullable
+		public CompletableFuture<Void> schedule(String beanName) {
+			CompletableFuture<Void> task = this.tasks.get(beanName);
+			if (task != null || !this.currentlyScheduled.add(beanName)) {
+				return task;
+			}
+			List<CompletableFuture<Void>> dependencyTasks = new ArrayList<>();
+			for (String reference : this.dependencies.get(beanName)) {
+				String dependency = canonicalName(BeanFactoryUtils.transformedBeanName(reference));
+				if (this.dependencies.containsKey(dependency)) {
+					CompletableFuture<Void> dependencyTask = schedule(dependency);
+					if (dependencyTask != null) {
+						dependencyTasks.add(dependencyTask);
+					}
+				}
+			}
+			this.currentlyScheduled.remove(beanName);
+			task = CompletableFuture.allOf(dependencyTasks.toArray(new CompletableFuture<?>[0]))
+					.thenRunAsync(() -> preInstantiate(beanName), this.executor);
+			this.tasks.put(beanName, task);
+			return task;
+		}
+
+		private void preInstantiate(String beanName) {
+			if (this.failure.get() != null) {
+				// Skip remaining singletons, the context is going to be closed anyway
+				return;
+			}
+			Thread currentThread = Thread.currentThread();
+			ClassLoader originalClassLoader = currentThread.getContextClassLoader();
+			currentThread.setContextClassLoader(this.contextClassLoader);
+			try {
+				preInstantiateSingleton(beanName);
+			}
+			catch (Throwable ex) {
+				this.failure.compareAndSet(null, ex);
+			}
+			finally {
+				currentThread.setContextClassLoader(originalClassLoader);
+			}
+		}
+
+		/**
+		 * Wait for all scheduled tasks to complete.
+		 */
+		public void awaitCompletion() {
+			CompletableFuture.allOf(this.tasks.values().toArray(new CompletableFuture<?>[0])).join();
+		}
+
+		/**
+		 * Return the first failure that occurred, if any.
+		 */
+		@Nullable
+		public Throwable getFailure() {
+			return this.failure.get();
+		}
+	}
+
 }
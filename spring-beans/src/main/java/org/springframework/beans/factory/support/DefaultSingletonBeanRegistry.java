@@ -25,6 +25,7 @@ import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 
 import org.springframework.beans.factory.BeanCreationException;
 import org.springframework.beans.factory.BeanCreationNotAllowedException;
@@ -32,6 +33,7 @@ import org.springframework.beans.factory.BeanCurrentlyInCreationException;
 import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.ObjectFactory;
 import org.springframework.beans.factory.config.SingletonBeanRegistry;
+import org.springframework.core.NamedThreadLocal;
 import org.springframework.core.SimpleAliasRegistry;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
@@ -94,6 +96,19 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 	@Nullable
 	private Set<Exception> suppressedExceptions;
 
+	/** Suppressed Exceptions per thread while singletons are created in parallel. */
+	private final ThreadLocal<Set<Exception>> parallelSuppressedExceptions =
+			new NamedThreadLocal<>("Suppressed exceptions of singletons created in parallel");
+
+	/** Flag that indicates whether singletons may currently be created by several threads. */
+	private volatile boolean parallelSingletonCreation = false;
+
+	/** Threads holding a singleton creation lock: bean name to thread. Also serves as lock monitor. */
+	private final Map<String, Thread> singletonCreationThreads = new HashMap<>(16);
+
+	/** Threads waiting for a singleton creation lock: thread to awaited bean name. */
+	private final Map<Thread, String> awaitedSingletons = new HashMap<>(16);
+
 	/** Flag that indicates whether we're currently within destroySingletons. */
 	private boolean singletonsCurrentlyInDestruction = false;
 
@@ -177,7 +192,8 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 		//直接从单例池 singletonObjects中获取这个bean的对象
 		Object singletonObject = this.singletonObjects.get(beanName);
 
-		if (singletonObject == null && isSingletonCurrentlyInCreation(beanName)) {//如果这个单例对象不存在 且正在创建
+		if (singletonObject == null && isSingletonCurrentlyInCreation(beanName) &&
+				(!this.parallelSingletonCreation || isEarlySingletonVisible(beanName))) {//如果这个单例对象不存在 且正在创建
 			synchronized (this.singletonObjects) {
 				singletonObject = this.earlySingletonObjects.get(beanName);
 				if (singletonObject == null && allowEarlyReference) {
@@ -206,55 +222,109 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 	 */
 	public Object getSingleton(String beanName, ObjectFactory<?> singletonFactory) {
 		Assert.notNull(beanName, "Bean name must not be null");
+		if (this.parallelSingletonCreation) {
+			return getSingletonInParallel(beanName, singletonFactory);
+		}
 		synchronized (this.singletonObjects) {
 			Object singletonObject = this.singletonObjects.get(beanName);
 			if (singletonObject == null) {
-				if (this.singletonsCurrentlyInDestruction) {
-					throw new BeanCreationNotAllowedException(beanName,
-							"Singleton bean creation not allowed while singletons of this factory are in destruction " +
-							"(Do not request a bean from a BeanFactory in a destroy method implementation!)");
-				}
-				if (logger.isDebugEnabled()) {
-					logger.debug("Creating shared instance of singleton bean '" + beanName + "'");
-				}
-				beforeSingletonCreation(beanName);
-				boolean newSingleton = false;
-				boolean recordSuppressedExceptions = (this.suppressedExceptions == null);
-				if (recordSuppressedExceptions) {
-					this.suppressedExceptions = new LinkedHashSet<>();
-				}
-				try {
-					singletonObject = singletonFactory.getObject();
-					newSingleton = true;
-				}
-				catch (IllegalStateException ex) {
-					// Has the singleton object implicitly appeared in the meantime ->
-					// if yes, proceed with it since the exception indicates that state.
-					singletonObject = this.singletonObjects.get(beanName);
-					if (singletonObject == null) {
-						throw ex;
-					}
-				}
-				catch (BeanCreationException ex) {
-					if (recordSuppressedExceptions) {
-						for (Exception suppressedException : this.suppressedExceptions) {
-							ex.addRelatedCause(suppressedException);
-						}
-					}
-					throw ex;
-				}
-				finally {
-					if (recordSuppressedExceptions) {
-						this.suppressedExceptions = null;
-					}
-					afterSingletonCreation(beanName);
-				}
-				if (newSingleton) {
-					addSingleton(beanName, singletonObject);
-				}
+				singletonObject = createSingleton(beanName, singletonFactory);
+			}
+			return singletonObject;
+		}
+	}
+
+	/**
+	 * Variant of {@link #getSingleton(String, ObjectFactory)} for parallel creation,
+	 * holding the creation lock for the given bean instead of the singleton mutex.
+	 */
+	private Object getSingletonInParallel(String beanName, ObjectFactory<?> singletonFactory) {
+		Object singletonObject = this.singletonObjects.get(beanName);
+		if (singletonObject != null) {
+			return singletonObject;
+		}
+		boolean locked = acquireSingletonCreationLock(beanName);
+		try {
+			singletonObject = getSingleton(beanName, !locked);
+			if (singletonObject == null) {
+				singletonObject = createSingleton(beanName, singletonFactory);
 			}
 			return singletonObject;
 		}
+		finally {
+			if (locked) {
+				releaseSingletonCreationLock(beanName);
+			}
+		}
+	}
+
+	private Object createSingleton(String beanName, ObjectFactory<?> singletonFactory) {
+		if (this.singletonsCurrentlyInDestruction) {
+			throw new BeanCreationNotAllowedException(beanName,
+					"Singleton bean creation not allowed while singletons of this factory are in destruction " +
+					"(Do not request a bean from a BeanFactory in a destroy method implementation!)");
+		}
+		if (logger.isDebugEnabled()) {
+			logger.debug("Creating shared instance of singleton bean '" + beanName + "'");
+		}
+		beforeSingletonCreation(beanName);
+		Object singletonObject;
+		boolean newSingleton = false;
+		Set<Exception> suppressedExceptions = getSuppressedExceptions();
+		boolean recordSuppressedExceptions = (suppressedExceptions == null);
+		if (recordSuppressedExceptions) {
+			suppressedExceptions = new LinkedHashSet<>();
+			setSuppressedExceptions(suppressedExceptions);
+		}
+		try {
+			singletonObject = singletonFactory.getObject();
+			newSingleton = true;
+		}
+		catch (IllegalStateException ex) {
+			// Has the singleton object implicitly appeared in the meantime ->
+			// if yes, proceed with it since the exception indicates that state.
+			singletonObject = this.singletonObjects.get(beanName);
+			if (singletonObject == null) {
+				throw ex;
+			}
+		}
+		catch (BeanCreationException ex) {
+			if (recordSuppressedExceptions) {
+				for (Exception suppressedException : suppressedExceptions) {
+					ex.addRelatedCause(suppressedException);
+				}
+			}
+			throw ex;
+		}
+		finally {
+			if (recordSuppressedExceptions) {
+				setSuppressedExceptions(null);
+			}
+			afterSingletonCreation(beanName);
+		}
+		if (newSingleton) {
+			addSingleton(beanName, singletonObject);
+		}
+		return singletonObject;
+	}
+
+	@Nullable
+	private Set<Exception> getSuppressedExceptions() {
+		return (this.parallelSingletonCreation ? this.parallelSuppressedExceptions.get() : this.suppressedExceptions);
+	}
+
+	private void setSuppressedExceptions(@Nullable Set<Exception> suppressedExceptions) {
+		if (this.parallelSingletonCreation) {
+			if (suppressedExceptions != null) {
+				this.parallelSuppressedExceptions.set(suppressedExceptions);
+			}
+			else {
+				this.parallelSuppressedExceptions.remove();
+			}
+		}
+		else {
+			this.suppressedExceptions = suppressedExceptions;
+		}
 	}
 
 	/**
@@ -264,8 +334,9 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 	 */
 	protected void onSuppressedException(Exception ex) {
 		synchronized (this.singletonObjects) {
-			if (this.suppressedExceptions != null) {
-				this.suppressedExceptions.add(ex);
+			Set<Exception> suppressedExceptions = getSuppressedExceptions();
+			if (suppressedExceptions != null) {
+				suppressedExceptions.add(ex);
 			}
 		}
 	}
@@ -357,6 +428,168 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 		}
 	}
 
+	/**
+	 * Set whether singletons may be created by several threads in parallel.
+	 * <p>By default, singleton creation happens while holding the
+	 * {@link #getSingletonMutex() singleton mutex}, serializing the creation
+	 * of all singletons. In parallel mode, a separate creation lock is held
+	 * per bean instead: a thread requesting a singleton that is currently
+	 * being created by another thread waits for its completion, and early
+	 * references to a singleton in creation are only exposed to the creating
+	 * thread itself. A circular reference across threads is resolved just like
+	 * within a single thread, since the creating thread is blocked anyway.
+	 * A thread that waits while holding the singleton mutex releases the mutex
+	 * until the singleton has been created.
+	 * <p>Only to be switched while no singleton is being created.
+	 * @since 5.2.1
+	 * @see #doWithSingletonLock
+	 */
+	protected void setParallelSingletonCreation(boolean parallelSingletonCreation) {
+		this.parallelSingletonCreation = parallelSingletonCreation;
+	}
+
+	/**
+	 * Return whether singletons may currently be created by several threads in parallel.
+	 * @since 5.2.1
+	 */
+	protected boolean isParallelSingletonCreation() {
+		return this.parallelSingletonCreation;
+	}
+
+	/**
+	 * Perform the given singleton creation step for the specified bean,
+	 * holding the singleton mutex or, in parallel mode, the creation lock
+	 * for the given bean.
+	 * @param beanName the name of the bean
+	 * @param action the creation step to perform
+	 * @return the result of the creation step
+	 * @since 5.2.1
+	 * @see #setParallelSingletonCreation
+	 */
+	protected <T> T doWithSingletonLock(String beanName, Supplier<T> action) {
+		if (this.parallelSingletonCreation) {
+			boolean locked = acquireSingletonCreationLock(beanName);
+			try {
+				return action.get();
+			}
+			finally {
+				if (locked) {
+					releaseSingletonCreationLock(beanName);
+				}
+			}
+		}
+		synchronized (this.singletonObjects) {
+			return action.get();
+		}
+	}
+
+	/**
+	 * Acquire the creation lock for the given bean, waiting for another thread
+	 * to release it if necessary.
+	 * <p>A thread holding the {@link #getSingletonMutex() singleton mutex} waits
+	 * on the mutex itself, releasing it for the duration of the wait since the
+	 * thread holding the creation lock may need it to complete the singleton.
+	 * @return {@code true} if the lock has been acquired, or {@code false} if the
+	 * current thread holds it already or may not wait for it, in case of a thread
+	 * that holds the lock and waits for the current thread
+	 */
+	private boolean acquireSingletonCreationLock(String beanName) {
+		Thread currentThread = Thread.currentThread();
+		boolean holdsMutex = Thread.holdsLock(this.singletonObjects);
+		while (true) {
+			synchronized (this.singletonCreationThreads) {
+				Thread lockingThread = this.singletonCreationThreads.get(beanName);
+				if (lockingThread == null) {
+					this.singletonCreationThreads.put(beanName, currentThread);
+					return true;
+				}
+				if (lockingThread == currentThread || isAwaiting(lockingThread, currentThread)) {
+					return false;
+				}
+				this.awaitedSingletons.put(currentThread, beanName);
+				if (!holdsMutex) {
+					try {
+						awaitSingletonCreationLock(beanName, this.singletonCreationThreads);
+					}
+					finally {
+						this.awaitedSingletons.remove(currentThread);
+					}
+					continue;
+				}
+			}
+			// The releasing thread notifies the mutex only once it is free,
+			// that is, once the current thread has started waiting on it.
+			try {
+				awaitSingletonCreationLock(beanName, this.singletonObjects);
+			}
+			finally {
+				synchronized (this.singletonCreationThreads) {
+					this.awaitedSingletons.remove(currentThread);
+				}
+			}
+		}
+	}
+
+	private void awaitSingletonCreationLock(String beanName, Object monitor) {
+		try {
+			monitor.wait();
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new BeanCreationException(beanName,
+					"Interrupted while waiting for singleton creation in another thread", ex);
+		}
+	}
+
+	private void releaseSingletonCreationLock(String beanName) {
+		boolean awaited;
+		synchronized (this.singletonCreationThreads) {
+			this.singletonCreationThreads.remove(beanName);
+			this.singletonCreationThreads.notifyAll();
+			awaited = this.awaitedSingletons.containsValue(beanName);
+		}
+		if (awaited) {
+			// Wake up threads waiting on the singleton mutex as well
+			synchronized (this.singletonObjects) {
+				this.singletonObjects.notifyAll();
+			}
+		}
+	}
+
+	/**
+	 * Determine whether an early reference to the given singleton in creation
+	 * may be exposed to the current thread in parallel mode.
+	 */
+	private boolean isEarlySingletonVisible(String beanName) {
+		Thread currentThread = Thread.currentThread();
+		synchronized (this.singletonCreationThreads) {
+			Thread lockingThread = this.singletonCreationThreads.get(beanName);
+			return (lockingThread == null || lockingThread == currentThread ||
+					isAwaiting(lockingThread, currentThread));
+		}
+	}
+
+	/**
+	 * Determine whether the given thread is waiting, directly or through
+	 * other waiting threads, for a creation lock held by the candidate thread.
+	 * To be called while synchronized on the creation locks.
+	 */
+	private boolean isAwaiting(Thread thread, Thread candidate) {
+		Set<Thread> seen = new HashSet<>();
+		String awaitedBeanName = this.awaitedSingletons.get(thread);
+		while (awaitedBeanName != null) {
+			Thread lockingThread = this.singletonCreationThreads.get(awaitedBeanName);
+			if (lockingThread == candidate) {
+				return true;
+			}
+			if (lockingThread == null || !seen.add(lockingThread)) {
+				return false;
+			}
+			awaitedBeanName = this.awaitedSingletons.get(lockingThread);
+		}
+		return false;
+	}
+
 
 	/**
 	 * Add the given bean to the list of disposable beans in this registry.
@@ -0,0 +1,225 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans.factory;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.beans.factory.config.RuntimeBeanReference;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.tests.sample.beans.TestBean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+/**
+ * Tests for parallel singleton pre-instantiation in {@link DefaultListableBeanFactory}.
+ */
+public class ParallelPreInstantiationTests {
+
+	private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+	private final DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+
+
+	@Test
+	public void independentSingletonsCreatedInParallel() {
+		CyclicBarrier barrier = new CyclicBarrier(4);
+		for (int i = 0; i < 4; i++) {
+			this.beanFactory.registerBeanDefinition("bean" + i,
+					new RootBeanDefinition(Object.class, () -> awaitAndCreate(barrier)));
+		}
+		this.beanFactory.setPreInstantiationParallelism(4);
+
+		assertTimeoutPreemptively(TIMEOUT, this.beanFactory::preInstantiateSingletons);
+		assertThat(this.beanFactory.getSingletonCount()).isEqualTo(4);
+	}
+
+	@Test
+	public void referencedSingletonsCreatedFirst() {
+		List<String> created = new CopyOnWriteArrayList<>();
+		RootBeanDefinition first = new RootBeanDefinition(TestBean.class, () -> {
+			sleep(200);
+			created.add("first");
+			return new TestBean("first");
+		});
+		RootBeanDefinition second = new RootBeanDefinition(TestBean.class, () -> {
+			created.add("second");
+			return new TestBean("second");
+		});
+		second.getPropertyValues().add("spouse", new RuntimeBeanReference("first"));
+		RootBeanDefinition third = new RootBeanDefinition(TestBean.class, () -> {
+			created.add("third");
+			return new TestBean("third");
+		});
+		third.setDependsOn("second");
+		this.beanFactory.registerBeanDefinition("third", third);
+		this.beanFactory.registerBeanDefinition("second", second);
+		this.beanFactory.registerBeanDefinition("first", first);
+		this.beanFactory.setPreInstantiationParallelism(3);
+
+		assertTimeoutPreemptively(TIMEOUT, this.beanFactory::preInstantiateSingletons);
+		assertThat(created).containsExactly("first", "second", "third");
+		assertThat(this.beanFactory.getBean("second", TestBean.class).getSpouse())
+				.isSameAs(this.beanFactory.getBean("first"));
+	}
+
+	@Test
+	public void circularReferenceInBeanDefinitions() {
+		RootBeanDefinition husband = new RootBeanDefinition(TestBean.class);
+		husband.getPropertyValues().add("spouse", new RuntimeBeanReference("wife"));
+		RootBeanDefinition wife = new RootBeanDefinition(TestBean.class);
+		wife.getPropertyValues().add("spouse", new RuntimeBeanReference("husband"));
+		this.beanFactory.registerBeanDefinition("husband", husband);
+		this.beanFactory.registerBeanDefinition("wife", wife);
+		this.beanFactory.setPreInstantiationParallelism(2);
+
+		assertTimeoutPreemptively(TIMEOUT, this.beanFactory::preInstantiateSingletons);
+		TestBean husbandBean = this.beanFactory.getBean("husband", TestBean.class);
+		TestBean wifeBean = this.beanFactory.getBean("wife", TestBean.class);
+		assertThat(husbandBean.getSpouse()).isSameAs(wifeBean);
+		assertThat(wifeBean.getSpouse()).isSameAs(husbandBean);
+	}
+
+	@Test
+	public void circularReferenceAcrossThreads() {
+		CyclicBarrier barrier = new CyclicBarrier(2);
+		this.beanFactory.registerBeanDefinition("a",
+				new RootBeanDefinition(Partner.class, () -> new Partner("b", barrier)));
+		this.beanFactory.registerBeanDefinition("b",
+				new RootBeanDefinition(Partner.class, () -> new Partner("a", barrier)));
+		this.beanFactory.setPreInstantiationParallelism(2);
+
+		assertTimeoutPreemptively(TIMEOUT, this.beanFactory::preInstantiateSingletons);
+		Partner a = this.beanFactory.getBean("a", Partner.class);
+		Partner b = this.beanFactory.getBean("b", Partner.class);
+		assertThat(a.partner).isSameAs(b);
+		assertThat(b.partner).isSameAs(a);
+	}
+
+	@Test
+	public void singletonRequestedByAnotherThreadIsAwaited() {
+		List<Object> references = new CopyOnWriteArrayList<>();
+		CyclicBarrier barrier = new CyclicBarrier(2);
+		this.beanFactory.registerBeanDefinition("slow", new RootBeanDefinition(Object.class, () -> {
+			await(barrier);
+			sleep(200);
+			return new Object();
+		}));
+		this.beanFactory.registerBeanDefinition("requesting", new RootBeanDefinition(Object.class, () -> {
+			await(barrier);
+			references.add(this.beanFactory.getBean("slow"));
+			return new Object();
+		}));
+		this.beanFactory.setPreInstantiationParallelism(2);
+
+		assertTimeoutPreemptively(TIMEOUT, this.beanFactory::preInstantiateSingletons);
+		assertThat(references).containsExactly(this.beanFactory.getBean("slow"));
+	}
+
+	@Test
+	public void singletonRequestedUnderSingletonMutexIsAwaited() {
+		List<Object> references = new CopyOnWriteArrayList<>();
+		CyclicBarrier barrier = new CyclicBarrier(2);
+		this.beanFactory.registerBeanDefinition("slow", new RootBeanDefinition(Object.class, () -> {
+			await(barrier);
+			sleep(200);
+			return new Object();
+		}));
+		this.beanFactory.registerBeanDefinition("requesting", new RootBeanDefinition(Object.class, () -> {
+			await(barrier);
+			synchronized (this.beanFactory.getSingletonMutex()) {
+				references.add(this.beanFactory.getBean("slow"));
+			}
+			return new Object();
+		}));
+		this.beanFactory.setPreInstantiationParallelism(2);
+
+		assertTimeoutPreemptively(TIMEOUT, this.beanFactory::preInstantiateSingletons);
+		assertThat(references).containsExactly(this.beanFactory.getBean("slow"));
+	}
+
+	@Test
+	public void failureIsPropagated() {
+		this.beanFactory.registerBeanDefinition("ok", new RootBeanDefinition(Object.class));
+		this.beanFactory.registerBeanDefinition("failing", new RootBeanDefinition(Object.class, () -> {
+			throw new IllegalArgumentException("Expected failure");
+		}));
+		this.beanFactory.setPreInstantiationParallelism(2);
+
+		assertThatExceptionOfType(BeanCreationException.class)
+				.isThrownBy(this.beanFactory::preInstantiateSingletons)
+				.satisfies(ex -> assertThat(ex.getBeanName()).isEqualTo("failing"));
+	}
+
+
+	private static Object awaitAndCreate(CyclicBarrier barrier) {
+		await(barrier);
+		return new Object();
+	}
+
+	private static void await(CyclicBarrier barrier) {
+		try {
+			barrier.await(TIMEOUT.getSeconds(), TimeUnit.SECONDS);
+		}
+		catch (Exception ex) {
+			throw new IllegalStateException(ex);
+		}
+	}
+
+	private static void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+
+	private static class Partner implements BeanFactoryAware, InitializingBean {
+
+		private final String partnerName;
+
+		private BeanFactory beanFactory;
+
+		Object partner;
+
+		Partner(String partnerName, CyclicBarrier barrier) {
+			this.partnerName = partnerName;
+			await(barrier);
+		}
+
+		@Override
+		public void setBeanFactory(BeanFactory beanFactory) {
+			this.beanFactory = beanFactory;
+		}
+
+		@Override
+		public void afterPropertiesSet() {
+			this.partner = this.beanFactory.getBean(this.partnerName);
+		}
+	}
+
+}
@@ -16,10 +16,17 @@
 
 package org.springframework.cache.caffeine;
 
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
 import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.github.benmanes.caffeine.cache.Policy;
 
 import org.springframework.cache.support.AbstractValueAdaptingCache;
 import org.springframework.lang.Nullable;
@@ -105,11 +112,21 @@ public class CaffeineCache extends AbstractValueAdaptingCache {
 		return this.cache.getIfPresent(key);
 	}
 
+	@Override
+	public Map<Object, ValueWrapper> getAll(Collection<?> keys) {
+		return toValueWrappers(this.cache.getAllPresent(keys));
+	}
+
 	@Override
 	public void put(Object key, @Nullable Object value) {
 		this.cache.put(key, toStoreValue(value));
 	}
 
+	@Override
+	public void putAll(Map<?, ?> entries) {
+		this.cache.putAll(toStoreValues(entries));
+	}
+
 	@Override
 	@Nullable
 	public ValueWrapper putIfAbsent(Object key, @Nullable final Object value) {
@@ -118,11 +135,46 @@ public class CaffeineCache extends AbstractValueAdaptingCache {
 		return (callable.called ? null : toValueWrapper(result));
 	}
 
+	@Override
+	@Nullable
+	public Duration getTimeToLive(Object key) {
+		Policy<Object, Object> policy = this.cache.policy();
+		Optional<Policy.VarExpiration<Object, Object>> variable = policy.expireVariably();
+		if (variable.isPresent()) {
+			OptionalLong expiresAfter = variable.get().getExpiresAfter(key, TimeUnit.NANOSECONDS);
+			return (expiresAfter.isPresent() ? Duration.ofNanos(expiresAfter.getAsLong()) : null);
+		}
+		Duration afterWrite = getTimeToLive(key, policy.expireAfterWrite());
+		Duration afterAccess = getTimeToLive(key, policy.expireAfterAccess());
+		if (afterWrite != null && afterAccess != null) {
+			return (afterWrite.compareTo(afterAccess) <= 0 ? afterWrite : afterAccess);
+		}
+		return (afterWrite != null ? afterWrite : afterAccess);
+	}
+
+	@Nullable
+	private Duration getTimeToLive(Object key, Optional<Policy.Expiration<Object, Object>> expiration) {
+		if (!expiration.isPresent()) {
+			return null;
+		}
+		OptionalLong age = expiration.get().ageOf(key, TimeUnit.NANOSECONDS);
+		if (!age.isPresent()) {
+			return null;
+		}
+		long expiresAfter = expiration.get().getExpiresAfter(TimeUnit.NANOSECONDS);
+		return Duration.ofNanos(Math.max(0, expiresAfter - age.getAsLong()));
+	}
+
 	@Override
 	public void evict(Object key) {
 		this.cache.invalidate(key);
 	}
 
+	@Override
+	public void evictAll(Collection<?> keys) {
+		this.cache.invalidateAll(keys);
+	}
+
 	@Override
 	public boolean evictIfPresent(Object key) {
 		return (this.cache.asMap().remove(key) != null);
@@ -16,6 +16,10 @@
 
 package org.springframework.cache.jcache;
 
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.Callable;
 
 import javax.cache.Cache;
@@ -89,11 +93,21 @@ public class JCacheCache extends AbstractValueAdaptingCache {
 		}
 	}
 
+	@Override
+	public Map<Object, ValueWrapper> getAll(Collection<?> keys) {
+		return toValueWrappers(this.cache.getAll(toSet(keys)));
+	}
+
 	@Override
 	public void put(Object key, @Nullable Object value) {
 		this.cache.put(key, toStoreValue(value));
 	}
 
+	@Override
+	public void putAll(Map<?, ?> entries) {
+		this.cache.putAll(toStoreValues(entries));
+	}
+
 	@Override
 	@Nullable
 	public ValueWrapper putIfAbsent(Object key, @Nullable Object value) {
@@ -106,6 +120,11 @@ public class JCacheCache extends AbstractValueAdaptingCache {
 		this.cache.remove(key);
 	}
 
+	@Override
+	public void evictAll(Collection<?> keys) {
+		this.cache.removeAll(toSet(keys));
+	}
+
 	@Override
 	public boolean evictIfPresent(Object key) {
 		return this.cache.remove(key);
@@ -123,6 +142,10 @@ public class JCacheCache extends AbstractValueAdaptingCache {
 		return notEmpty;
 	}
 
+	private static Set<?> toSet(Collection<?> keys) {
+		return (keys instanceof Set ? (Set<?>) keys : new LinkedHashSet<>(keys));
+	}
+
 
 	private class ValueLoaderEntryProcessor<T> implements EntryProcessor<Object, Object, T> {
 
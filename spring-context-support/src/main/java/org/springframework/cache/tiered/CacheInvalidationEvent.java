@@ -0,0 +1,92 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.tiered;
+
+import org.springframework.context.ApplicationEvent;
+import org.springframework.lang.Nullable;
+
+/**
+ * Event signalling that an entry, or all entries, of a cache have been modified
+ * so that other instances need to drop their local copies. Published through a
+ * {@link CacheInvalidationPublisher} and handled by
+ * {@link TieredCacheManager#onApplicationEvent}.
+ *
+ * @since 5.2.1
+ * @see TieredCache#handleInvalidation
+ */
+@SuppressWarnings("serial")
+public class CacheInvalidationEvent extends ApplicationEvent {
+
+	private final String origin;
+
+	private final String cacheName;
+
+	@Nullable
+	private final Object key;
+
+
+	/**
+	 * Create a new {@code CacheInvalidationEvent}.
+	 * @param source the object on which the event initially occurred
+	 * @param origin the identifier of the cache instance that published the event
+	 * @param cacheName the name of the affected cache
+	 * @param key the affected key, or {@code null} if the entire cache was cleared
+	 */
+	public CacheInvalidationEvent(Object source, String origin, String cacheName, @Nullable Object key) {
+		super(source);
+		this.origin = origin;
+		this.cacheName = cacheName;
+		this.key = key;
+	}
+
+
+	/**
+	 * Return the identifier of the cache instance that published the event.
+	 */
+	public String getOrigin() {
+		return this.origin;
+	}
+
+	/**
+	 * Return the name of the affected cache.
+	 */
+	public String getCacheName() {
+		return this.cacheName;
+	}
+
+	/**
+	 * Return the affected key, or {@code null} if the entire cache was cleared.
+	 */
+	@Nullable
+	public Object getKey() {
+		return this.key;
+	}
+
+	/**
+	 * Return whether the entire cache was cleared.
+	 */
+	public boolean isCacheWide() {
+		return (this.key == null);
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + ": cache '" + this.cacheName + "', " +
+				(this.key != null ? "key [" + this.key + "]" : "all entries") + ", origin '" + this.origin + "'";
+	}
+
+}
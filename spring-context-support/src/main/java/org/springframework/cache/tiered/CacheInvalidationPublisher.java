@@ -0,0 +1,39 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.tiered;
+
+/**
+ * Strategy for propagating {@link CacheInvalidationEvent CacheInvalidationEvents}
+ * to other instances sharing the same backing cache, e.g. through a message broker.
+ *
+ * <p>For local propagation, or with a bus relaying application events across
+ * instances, an {@link org.springframework.context.ApplicationEventPublisher}
+ * can be adapted as {@code applicationEventPublisher::publishEvent}.
+ *
+ * @since 5.2.1
+ * @see TieredCacheManager#setInvalidationPublisher
+ */
+@FunctionalInterface
+public interface CacheInvalidationPublisher {
+
+	/**
+	 * Publish the given invalidation event.
+	 * @param event the event to publish
+	 */
+	void publishInvalidation(CacheInvalidationEvent event);
+
+}
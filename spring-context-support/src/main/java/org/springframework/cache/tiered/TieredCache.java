@@ -0,0 +1,437 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.tiered;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import org.springframework.cache.Cache;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * {@link Cache} implementation that serves lookups from a local cache in front
+ * of a backing remote cache, populating the local tier on a remote hit.
+ * Modifications are written through to both tiers.
+ *
+ * <p>Since other instances sharing the remote cache may hold a copy of a modified
+ * entry in their local tier, each modification can be announced through a
+ * {@link CacheInvalidationPublisher}. Received events are applied through
+ * {@link #handleInvalidation}, evicting local entries only. Without such
+ * propagation, the local tier should be configured to expire entries after
+ * a tolerable period of staleness.
+ *
+ * <p>The local tier is only populated with a value read from the remote tier
+ * if no modification or invalidation of the same key happened during the read,
+ * so that a concurrent invalidation cannot be overwritten by the stale value.
+ *
+ * @since 5.2.1
+ * @see TieredCacheManager
+ */
+public class TieredCache implements Cache {
+
+	private static final int INVALIDATION_STRIPES = 64;
+
+
+	private final Cache localCache;
+
+	private final Cache remoteCache;
+
+	@Nullable
+	private final CacheInvalidationPublisher invalidationPublisher;
+
+	private final String origin = UUID.randomUUID().toString();
+
+	private final AtomicLongArray keyInvalidations = new AtomicLongArray(INVALIDATION_STRIPES);
+
+	private final AtomicLong cacheInvalidations = new AtomicLong();
+
+	private final LongAdder localHits = new LongAdder();
+
+	private final LongAdder remoteHits = new LongAdder();
+
+	private final LongAdder misses = new LongAdder();
+
+
+	/**
+	 * Create a new {@code TieredCache} for the given local and remote caches.
+	 * @param localCache the local cache to serve lookups from first
+	 * @param remoteCache the backing cache
+	 */
+	public TieredCache(Cache localCache, Cache remoteCache) {
+		this(localCache, remoteCache, null);
+	}
+
+	/**
+	 * Create a new {@code TieredCache} for the given local and remote caches.
+	 * @param localCache the local cache to serve lookups from first
+	 * @param remoteCache the backing cache
+	 * @param invalidationPublisher the publisher to announce modifications to
+	 * other instances with, if any
+	 */
+	public TieredCache(Cache localCache, Cache remoteCache,
+			@Nullable CacheInvalidationPublisher invalidationPublisher) {
+
+		Assert.notNull(localCache, "Local Cache must not be null");
+		Assert.notNull(remoteCache, "Remote Cache must not be null");
+		this.localCache = localCache;
+		this.remoteCache = remoteCache;
+		this.invalidationPublisher = invalidationPublisher;
+	}
+
+
+	/**
+	 * Return the local cache that lookups are served from first.
+	 */
+	public Cache getLocalCache() {
+		return this.localCache;
+	}
+
+	/**
+	 * Return the backing remote cache.
+	 */
+	public Cache getRemoteCache() {
+		return this.remoteCache;
+	}
+
+	/**
+	 * Return the identifier of this cache instance, used as the origin of the
+	 * {@link CacheInvalidationEvent CacheInvalidationEvents} it publishes.
+	 */
+	public String getOrigin() {
+		return this.origin;
+	}
+
+	/**
+	 * Return a snapshot of the lookup statistics of this cache.
+	 */
+	public TieredCacheStatistics getStatistics() {
+		return new TieredCacheStatistics(this.localHits.sum(), this.remoteHits.sum(), this.misses.sum());
+	}
+
+	@Override
+	public String getName() {
+		return this.remoteCache.getName();
+	}
+
+	@Override
+	public Object getNativeCache() {
+		return this.remoteCache.getNativeCache();
+	}
+
+	@Override
+	@Nullable
+	public ValueWrapper get(Object key) {
+		ValueWrapper valueWrapper = this.localCache.get(key);
+		if (valueWrapper != null) {
+			this.localHits.increment();
+			return valueWrapper;
+		}
+		long invalidations = getInvalidations(key);
+		valueWrapper = this.remoteCache.get(key);
+		if (valueWrapper != null) {
+			this.remoteHits.increment();
+			putLocal(key, valueWrapper.get(), invalidations);
+		}
+		else {
+			this.misses.increment();
+		}
+		return valueWrapper;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	@Nullable
+	public <T> T get(Object key, @Nullable Class<T> type) {
+		ValueWrapper valueWrapper = get(key);
+		Object value = (valueWrapper != null ? valueWrapper.get() : null);
+		if (value != null && type != null && !type.isInstance(value)) {
+			throw new IllegalStateException(
+					"Cached value is not of required type [" + type.getName() + "]: " + value);
+		}
+		return (T) value;
+	}
+
+	@Override
+	public Map<Object, ValueWrapper> getAll(Collection<?> keys) {
+		Map<Object, ValueWrapper> result = new LinkedHashMap<>(this.localCache.getAll(keys));
+		this.localHits.add(result.size());
+		if (result.size() < keys.size()) {
+			// Missing keys along with their invalidation count before the remote read
+			Map<Object, Long> missingKeys = new LinkedHashMap<>(keys.size() - result.size());
+			for (Object key : keys) {
+				if (!result.containsKey(key)) {
+					missingKeys.put(key, getInvalidations(key));
+				}
+			}
+			Map<Object, ValueWrapper> remoteResult = this.remoteCache.getAll(missingKeys.keySet());
+			this.remoteHits.add(remoteResult.size());
+			this.misses.add(missingKeys.size() - remoteResult.size());
+			remoteResult.forEach((key, valueWrapper) -> {
+				Long invalidations = missingKeys.get(key);
+				if (invalidations != null) {
+					putLocal(key, valueWrapper.get(), invalidations);
+				}
+			});
+			result.putAll(remoteResult);
+		}
+		return result;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	@Nullable
+	public <T> T get(Object key, Callable<T> valueLoader) {
+		ValueWrapper valueWrapper = this.localCache.get(key);
+		if (valueWrapper != null) {
+			this.localHits.increment();
+			return (T) valueWrapper.get();
+		}
+		long invalidations = getInvalidations(key);
+		LoadTracker loadTracker = new LoadTracker();
+		T value = this.remoteCache.get(key, () -> {
+			loadTracker.loaded = true;
+			return valueLoader.call();
+		});
+		loadTracker.record();
+		putLocal(key, value, invalidations);
+		return value;
+	}
+
+	@Override
+	@Nullable
+	public CompletableFuture<ValueWrapper> retrieve(Object key) {
+		ValueWrapper valueWrapper = this.localCache.get(key);
+		if (valueWrapper != null) {
+			this.localHits.increment();
+			return CompletableFuture.completedFuture(valueWrapper);
+		}
+		long invalidations = getInvalidations(key);
+		CompletableFuture<ValueWrapper> result = this.remoteCache.retrieve(key);
+		if (result == null) {
+			this.misses.increment();
+			return null;
+		}
+		return result.thenApply(remoteWrapper -> {
+			if (remoteWrapper != null) {
+				this.remoteHits.increment();
+				putLocal(key, remoteWrapper.get(), invalidations);
+			}
+			else {
+				this.misses.increment();
+			}
+			return remoteWrapper;
+		});
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public <T> CompletableFuture<T> retrieve(Object key, Supplier<CompletableFuture<T>> valueLoader) {
+		ValueWrapper valueWrapper = this.localCache.get(key);
+		if (valueWrapper != null) {
+			this.localHits.increment();
+			return CompletableFuture.completedFuture((T) valueWrapper.get());
+		}
+		long invalidations = getInvalidations(key);
+		LoadTracker loadTracker = new LoadTracker();
+		return this.remoteCache.retrieve(key, () -> {
+			loadTracker.loaded = true;
+			return valueLoader.get();
+		}).thenApply(value -> {
+			loadTracker.record();
+			putLocal(key, value, invalidations);
+			return value;
+		});
+	}
+
+	@Override
+	public void put(Object key, @Nullable Object value) {
+		recordInvalidation(key);
+		this.remoteCache.put(key, value);
+		this.localCache.put(key, value);
+		publishInvalidation(key);
+	}
+
+	@Override
+	public void putAll(Map<?, ?> entries) {
+		entries.keySet().forEach(this::recordInvalidation);
+		this.remoteCache.putAll(entries);
+		this.localCache.putAll(entries);
+		entries.keySet().forEach(this::publishInvalidation);
+	}
+
+	@Override
+	@Nullable
+	public ValueWrapper putIfAbsent(Object key, @Nullable Object value) {
+		recordInvalidation(key);
+		ValueWrapper existingValue = this.remoteCache.putIfAbsent(key, value);
+		if (existingValue != null) {
+			this.localCache.put(key, existingValue.get());
+		}
+		else {
+			this.localCache.put(key, value);
+			publishInvalidation(key);
+		}
+		return existingValue;
+	}
+
+	@Override
+	public void evict(Object key) {
+		recordInvalidation(key);
+		this.remoteCache.evict(key);
+		this.localCache.evict(key);
+		publishInvalidation(key);
+	}
+
+	@Override
+	public void evictAll(Collection<?> keys) {
+		keys.forEach(this::recordInvalidation);
+		this.remoteCache.evictAll(keys);
+		this.localCache.evictAll(keys);
+		keys.forEach(this::publishInvalidation);
+	}
+
+	@Override
+	public boolean evictIfPresent(Object key) {
+		recordInvalidation(key);
+		boolean present = this.remoteCache.evictIfPresent(key);
+		present |= this.localCache.evictIfPresent(key);
+		publishInvalidation(key);
+		return present;
+	}
+
+	@Override
+	public void clear() {
+		recordInvalidation(null);
+		this.remoteCache.clear();
+		this.localCache.clear();
+		publishInvalidation(null);
+	}
+
+	@Override
+	public boolean invalidate() {
+		recordInvalidation(null);
+		boolean notEmpty = this.remoteCache.invalidate();
+		notEmpty |= this.localCache.invalidate();
+		publishInvalidation(null);
+		return notEmpty;
+	}
+
+	@Override
+	@Nullable
+	public Duration getTimeToLive(Object key) {
+		return this.remoteCache.getTimeToLive(key);
+	}
+
+	/**
+	 * Apply the given invalidation event, published by another instance, to the
+	 * local tier. Events published by this cache itself are ignored.
+	 * @param event the invalidation event to apply
+	 */
+	public void handleInvalidation(CacheInvalidationEvent event) {
+		if (this.origin.equals(event.getOrigin())) {
+			return;
+		}
+		Object key = event.getKey();
+		recordInvalidation(key);
+		if (key != null) {
+			this.localCache.evict(key);
+		}
+		else {
+			this.localCache.clear();
+		}
+	}
+
+	/**
+	 * Return the number of modifications and invalidations recorded so far
+	 * for the given key, shared with the keys of the same stripe.
+	 */
+	private long getInvalidations(Object key) {
+		return this.keyInvalidations.get(stripe(key)) + this.cacheInvalidations.get();
+	}
+
+	/**
+	 * Record a modification or invalidation of the given key, or of the entire
+	 * cache for a {@code null} key, before the tiers are updated.
+	 */
+	private void recordInvalidation(@Nullable Object key) {
+		if (key != null) {
+			this.keyInvalidations.incrementAndGet(stripe(key));
+		}
+		else {
+			this.cacheInvalidations.incrementAndGet();
+		}
+	}
+
+	private static int stripe(Object key) {
+		int hash = key.hashCode();
+		return ((hash ^ (hash >>> 16)) & (INVALIDATION_STRIPES - 1));
+	}
+
+	/**
+	 * Populate the local tier with a value read from the remote tier, unless the
+	 * key has been modified or invalidated since the given count was taken.
+	 * @param key the key of the entry
+	 * @param value the value read from the remote tier
+	 * @param invalidations the count of invalidations taken before the read
+	 */
+	private void putLocal(Object key, @Nullable Object value, long invalidations) {
+		if (getInvalidations(key) == invalidations) {
+			this.localCache.put(key, value);
+			// An invalidation recorded in the meantime may have preceded that put
+			if (getInvalidations(key) != invalidations) {
+				this.localCache.evict(key);
+			}
+		}
+	}
+
+	private void publishInvalidation(@Nullable Object key) {
+		if (this.invalidationPublisher != null) {
+			this.invalidationPublisher.publishInvalidation(
+					new CacheInvalidationEvent(this, this.origin, getName(), key));
+		}
+	}
+
+
+	/**
+	 * Records whether a value loader has been invoked by the remote tier,
+	 * in order to tell a remote hit from a miss.
+	 */
+	private class LoadTracker {
+
+		volatile boolean loaded;
+
+		void record() {
+			if (this.loaded) {
+				TieredCache.this.misses.increment();
+			}
+			else {
+				TieredCache.this.remoteHits.increment();
+			}
+		}
+	}
+
+}
@@ -0,0 +1,190 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.tiered;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.CaffeineSpec;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.context.ApplicationListener;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * {@link CacheManager} implementation that puts a bounded local
+ * {@link CaffeineCache} in front of each cache of a backing cache manager,
+ * e.g. a {@link org.springframework.cache.jcache.JCacheCacheManager} or a
+ * manager for a remote store, exposing them as {@link TieredCache TieredCaches}.
+ *
+ * <p>Modifications can be propagated to other instances through a
+ * {@link #setInvalidationPublisher CacheInvalidationPublisher}. As an
+ * {@link ApplicationListener}, this manager evicts the affected local entries
+ * for {@link CacheInvalidationEvent CacheInvalidationEvents} received as
+ * application events; custom transports may also pass received events to
+ * {@link #onApplicationEvent} directly.
+ *
+ * @since 5.2.1
+ * @see TieredCache
+ */
+public class TieredCacheManager implements CacheManager, ApplicationListener<CacheInvalidationEvent> {
+
+	/**
+	 * The default maximum number of entries held by each local cache.
+	 */
+	public static final long DEFAULT_LOCAL_MAXIMUM_SIZE = 10_000;
+
+	/**
+	 * The default time after which each local cache expires an entry once
+	 * it has been written, bounding the staleness of local entries for which
+	 * an invalidation has been missed.
+	 */
+	public static final Duration DEFAULT_LOCAL_EXPIRATION = Duration.ofMinutes(5);
+
+
+	private final CacheManager remoteCacheManager;
+
+	private final ConcurrentMap<String, TieredCache> cacheMap = new ConcurrentHashMap<>(16);
+
+	private Caffeine<Object, Object> cacheBuilder = Caffeine.newBuilder()
+			.maximumSize(DEFAULT_LOCAL_MAXIMUM_SIZE).expireAfterWrite(DEFAULT_LOCAL_EXPIRATION);
+
+	@Nullable
+	private CacheInvalidationPublisher invalidationPublisher;
+
+
+	/**
+	 * Create a new {@code TieredCacheManager} for the given backing cache manager.
+	 * @param remoteCacheManager the cache manager providing the remote tier
+	 */
+	public TieredCacheManager(CacheManager remoteCacheManager) {
+		Assert.notNull(remoteCacheManager, "Remote CacheManager must not be null");
+		this.remoteCacheManager = remoteCacheManager;
+	}
+
+
+	/**
+	 * Return the cache manager providing the remote tier.
+	 */
+	public CacheManager getRemoteCacheManager() {
+		return this.remoteCacheManager;
+	}
+
+	/**
+	 * Set the Caffeine to use for building each local cache.
+	 * <p>The default is bounded to {@link #DEFAULT_LOCAL_MAXIMUM_SIZE} entries,
+	 * each expiring {@link #DEFAULT_LOCAL_EXPIRATION} after it has been written.
+	 * @see com.github.benmanes.caffeine.cache.Caffeine#build()
+	 */
+	public void setCaffeine(Caffeine<Object, Object> caffeine) {
+		Assert.notNull(caffeine, "Caffeine must not be null");
+		this.cacheBuilder = caffeine;
+		refreshKnownCaches();
+	}
+
+	/**
+	 * Set the {@link CaffeineSpec} to use for building each local cache.
+	 * @see com.github.benmanes.caffeine.cache.Caffeine#from(CaffeineSpec)
+	 */
+	public void setCaffeineSpec(CaffeineSpec caffeineSpec) {
+		setCaffeine(Caffeine.from(caffeineSpec));
+	}
+
+	/**
+	 * Set the Caffeine cache specification to use for building each local cache.
+	 * @see com.github.benmanes.caffeine.cache.Caffeine#from(String)
+	 */
+	public void setCacheSpecification(String cacheSpecification) {
+		setCaffeine(Caffeine.from(cacheSpecification));
+	}
+
+	/**
+	 * Set the publisher to announce modifications to other instances with.
+	 * <p>By default, modifications are not propagated, leaving it to the local
+	 * expiration policy to bound the staleness of local entries.
+	 * @see CacheInvalidationPublisher
+	 */
+	public void setInvalidationPublisher(@Nullable CacheInvalidationPublisher invalidationPublisher) {
+		this.invalidationPublisher = invalidationPublisher;
+		refreshKnownCaches();
+	}
+
+	/**
+	 * Return the lookup statistics of the caches created so far, by cache name.
+	 */
+	public Map<String, TieredCacheStatistics> getStatistics() {
+		Map<String, TieredCacheStatistics> statistics = new ConcurrentHashMap<>(this.cacheMap.size());
+		this.cacheMap.forEach((name, cache) -> statistics.put(name, cache.getStatistics()));
+		return statistics;
+	}
+
+
+	@Override
+	public Collection<String> getCacheNames() {
+		return this.remoteCacheManager.getCacheNames();
+	}
+
+	@Override
+	@Nullable
+	public Cache getCache(String name) {
+		TieredCache cache = this.cacheMap.get(name);
+		if (cache == null) {
+			Cache remoteCache = this.remoteCacheManager.getCache(name);
+			if (remoteCache == null) {
+				return null;
+			}
+			cache = this.cacheMap.computeIfAbsent(name, key -> createTieredCache(remoteCache));
+		}
+		return cache;
+	}
+
+	/**
+	 * Apply the given invalidation event to the local tier of the affected cache.
+	 * @see TieredCache#handleInvalidation
+	 */
+	@Override
+	public void onApplicationEvent(CacheInvalidationEvent event) {
+		TieredCache cache = this.cacheMap.get(event.getCacheName());
+		if (cache != null) {
+			cache.handleInvalidation(event);
+		}
+	}
+
+	/**
+	 * Build a {@link TieredCache} for the given remote cache.
+	 * @param remoteCache the backing cache
+	 * @return the tiered cache
+	 */
+	protected TieredCache createTieredCache(Cache remoteCache) {
+		CaffeineCache localCache = new CaffeineCache(remoteCache.getName(), this.cacheBuilder.build(), true);
+		return new TieredCache(localCache, remoteCache, this.invalidationPublisher);
+	}
+
+	private void refreshKnownCaches() {
+		for (Map.Entry<String, TieredCache> entry : this.cacheMap.entrySet()) {
+			entry.setValue(createTieredCache(entry.getValue().getRemoteCache()));
+		}
+	}
+
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.tiered;
+
+/**
+ * Snapshot of the lookup statistics of a {@link TieredCache}.
+ *
+ * @since 5.2.1
+ * @see TieredCache#getStatistics()
+ */
+public final class TieredCacheStatistics {
+
+	private final long localHitCount;
+
+	private final long remoteHitCount;
+
+	private final long missCount;
+
+
+	TieredCacheStatistics(long localHitCount, long remoteHitCount, long missCount) {
+		this.localHitCount = localHitCount;
+		this.remoteHitCount = remoteHitCount;
+		this.missCount = missCount;
+	}
+
+
+	/**
+	 * Return the number of lookups served by the local tier.
+	 */
+	public long getLocalHitCount() {
+		return this.localHitCount;
+	}
+
+	/**
+	 * Return the number of lookups served by the remote tier.
+	 */
+	public long getRemoteHitCount() {
+		return this.remoteHitCount;
+	}
+
+	/**
+	 * Return the number of lookups that neither tier could serve.
+	 */
+	public long getMissCount() {
+		return this.missCount;
+	}
+
+	/**
+	 * Return the total number of lookups.
+	 */
+	public long getRequestCount() {
+		return this.localHitCount + this.remoteHitCount + this.missCount;
+	}
+
+	/**
+	 * Return the ratio of lookups served by the local tier, or {@code 1.0}
+	 * if there were no lookups.
+	 */
+	public double getLocalHitRatio() {
+		return ratio(this.localHitCount, getRequestCount());
+	}
+
+	/**
+	 * Return the ratio of lookups reaching the remote tier that it served,
+	 * or {@code 1.0} if no lookup reached the remote tier.
+	 */
+	public double getRemoteHitRatio() {
+		return ratio(this.remoteHitCount, this.remoteHitCount + this.missCount);
+	}
+
+	/**
+	 * Return the ratio of lookups served by either tier, or {@code 1.0}
+	 * if there were no lookups.
+	 */
+	public double getHitRatio() {
+		return ratio(this.localHitCount + this.remoteHitCount, getRequestCount());
+	}
+
+	private static double ratio(long count, long total) {
+		return (total == 0 ? 1.0 : (double) count / total);
+	}
+
+	@Override
+	public String toString() {
+		return "TieredCacheStatistics: local hits=" + this.localHitCount + ", remote hits=" + this.remoteHitCount +
+				", misses=" + this.missCount;
+	}
+
+}
@@ -0,0 +1,11 @@
+/**
+ * Two-tier caching for the org.springframework.cache package.
+ * Provides a bounded local cache in front of a backing (typically remote)
+ * cache, with optional invalidation of local entries across instances.
+ */
+@NonNullApi
+@NonNullFields
+package org.springframework.cache.tiered;
+
+import org.springframework.lang.NonNullApi;
+import org.springframework.lang.NonNullFields;
@@ -16,7 +16,12 @@
 
 package org.springframework.cache.caffeine;
 
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -79,4 +84,63 @@ public class CaffeineCacheTests extends AbstractValueAdaptingCacheTests<Caffeine
 		assertThat(cache.get(key).get()).isEqualTo(value);
 	}
 
+	@Test
+	public void testGetTimeToLiveWithoutExpiration() {
+		CaffeineCache cache = getCache();
+		cache.put("key", "value");
+		assertThat(cache.getTimeToLive("key")).isNull();
+	}
+
+	@Test
+	public void testGetTimeToLiveAfterWrite() {
+		AtomicLong ticker = new AtomicLong();
+		CaffeineCache cache = new CaffeineCache(CACHE_NAME, Caffeine.newBuilder()
+				.expireAfterWrite(10, TimeUnit.SECONDS).ticker(ticker::get).build());
+
+		assertThat(cache.getTimeToLive("key")).isNull();
+		cache.put("key", "value");
+		ticker.addAndGet(TimeUnit.SECONDS.toNanos(4));
+		assertThat(cache.getTimeToLive("key")).isEqualTo(Duration.ofSeconds(6));
+	}
+
+	@Test
+	public void testGetTimeToLiveAfterWriteAndAccess() {
+		AtomicLong ticker = new AtomicLong();
+		CaffeineCache cache = new CaffeineCache(CACHE_NAME, Caffeine.newBuilder()
+				.expireAfterWrite(10, TimeUnit.SECONDS).expireAfterAccess(5, TimeUnit.SECONDS)
+				.ticker(ticker::get).build());
+
+		cache.put("key", "value");
+		ticker.addAndGet(TimeUnit.SECONDS.toNanos(1));
+		assertThat(cache.getTimeToLive("key")).isEqualTo(Duration.ofSeconds(4));
+		ticker.addAndGet(TimeUnit.SECONDS.toNanos(3));
+		cache.get("key");
+		ticker.addAndGet(TimeUnit.SECONDS.toNanos(4));
+		assertThat(cache.getTimeToLive("key")).isEqualTo(Duration.ofSeconds(1));
+	}
+
+	@Test
+	public void testGetTimeToLiveWithVariableExpiration() {
+		AtomicLong ticker = new AtomicLong();
+		CaffeineCache cache = new CaffeineCache(CACHE_NAME, Caffeine.newBuilder()
+				.expireAfter(new Expiry<Object, Object>() {
+					@Override
+					public long expireAfterCreate(Object key, Object value, long currentTime) {
+						return TimeUnit.SECONDS.toNanos(value.toString().length());
+					}
+					@Override
+					public long expireAfterUpdate(Object key, Object value, long currentTime, long currentDuration) {
+						return currentDuration;
+					}
+					@Override
+					public long expireAfterRead(Object key, Object value, long currentTime, long currentDuration) {
+						return currentDuration;
+					}
+				}).ticker(ticker::get).build());
+
+		cache.put("key", "value");
+		ticker.addAndGet(TimeUnit.SECONDS.toNanos(2));
+		assertThat(cache.getTimeToLive("key")).isEqualTo(Duration.ofSeconds(3));
+	}
+
 }
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.tiered;
+
+import java.util.concurrent.TimeUnit;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link TieredCacheManager}.
+ */
+public class TieredCacheManagerTests {
+
+	@Test
+	public void createTieredCaches() {
+		ConcurrentMapCacheManager remoteCacheManager = new ConcurrentMapCacheManager("c1");
+		TieredCacheManager cacheManager = new TieredCacheManager(remoteCacheManager);
+
+		Cache cache = cacheManager.getCache("c1");
+		assertThat(cache).isInstanceOf(TieredCache.class);
+		assertThat(cacheManager.getCache("c1")).isSameAs(cache);
+		assertThat(((TieredCache) cache).getLocalCache()).isInstanceOf(CaffeineCache.class);
+		assertThat(((TieredCache) cache).getRemoteCache()).isSameAs(remoteCacheManager.getCache("c1"));
+		assertThat(cacheManager.getCacheNames()).containsOnly("c1");
+
+		remoteCacheManager.setCacheNames(null);
+		assertThat(cacheManager.getCache("c2")).isInstanceOf(TieredCache.class);
+		assertThat(new TieredCacheManager(new ConcurrentMapCacheManager("c1")).getCache("c2")).isNull();
+	}
+
+	@Test
+	public void defaultLocalExpiration() {
+		TieredCacheManager cacheManager = new TieredCacheManager(new ConcurrentMapCacheManager("c1"));
+		CaffeineCache localCache = (CaffeineCache) ((TieredCache) cacheManager.getCache("c1")).getLocalCache();
+		assertThat(localCache.getNativeCache().policy().expireAfterWrite()).hasValueSatisfying(expiration ->
+				assertThat(expiration.getExpiresAfter(TimeUnit.MINUTES)).isEqualTo(5));
+	}
+
+	@Test
+	public void changeCaffeineRecreatesLocalTier() {
+		TieredCacheManager cacheManager = new TieredCacheManager(new ConcurrentMapCacheManager("c1"));
+		TieredCache cache = (TieredCache) cacheManager.getCache("c1");
+		cache.put("key", "value");
+
+		cacheManager.setCaffeine(Caffeine.newBuilder().expireAfterWrite(1, TimeUnit.MINUTES));
+		TieredCache newCache = (TieredCache) cacheManager.getCache("c1");
+		assertThat(newCache).isNotSameAs(cache);
+		assertThat(newCache.getRemoteCache()).isSameAs(cache.getRemoteCache());
+		assertThat(newCache.getLocalCache().get("key")).isNull();
+		assertThat(newCache.get("key").get()).isEqualTo("value");
+	}
+
+	@Test
+	public void statistics() {
+		TieredCacheManager cacheManager = new TieredCacheManager(new ConcurrentMapCacheManager("c1"));
+		Cache cache = cacheManager.getCache("c1");
+		cache.put("key", "value");
+		cache.get("key");
+		cache.get("other");
+
+		TieredCacheStatistics statistics = cacheManager.getStatistics().get("c1");
+		assertThat(statistics.getLocalHitCount()).isEqualTo(1);
+		assertThat(statistics.getMissCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void invalidationThroughApplicationEvents() {
+		AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(Config.class);
+		TieredCacheManager cacheManager = context.getBean("cacheManager", TieredCacheManager.class);
+		TieredCacheManager otherCacheManager = context.getBean("otherCacheManager", TieredCacheManager.class);
+
+		Cache cache = cacheManager.getCache("c1");
+		Cache otherCache = otherCacheManager.getCache("c1");
+		cache.put("key", "value");
+		assertThat(otherCache.get("key").get()).isEqualTo("value");
+
+		cache.put("key", "newValue");
+		assertThat(cache.get("key").get()).isEqualTo("newValue");
+		assertThat(otherCache.get("key").get()).isEqualTo("newValue");
+
+		cache.evict("key");
+		assertThat(otherCache.get("key")).isNull();
+		context.close();
+	}
+
+
+	@Configuration
+	static class Config {
+
+		private final CacheManager remoteCacheManager = new ConcurrentMapCacheManager("c1");
+
+		@Bean
+		public TieredCacheManager cacheManager(ApplicationEventPublisher eventPublisher) {
+			TieredCacheManager cacheManager = new TieredCacheManager(this.remoteCacheManager);
+			cacheManager.setInvalidationPublisher(eventPublisher::publishEvent);
+			return cacheManager;
+		}
+
+		@Bean
+		public TieredCacheManager otherCacheManager(ApplicationEventPublisher eventPublisher) {
+			TieredCacheManager cacheManager = new TieredCacheManager(this.remoteCacheManager);
+			cacheManager.setInvalidationPublisher(eventPublisher::publishEvent);
+			return cacheManager;
+		}
+	}
+
+}
@@ -0,0 +1,243 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.tiered;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.cache.AbstractCacheTests;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.lang.Nullable;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link TieredCache}.
+ */
+public class TieredCacheTests extends AbstractCacheTests<TieredCache> {
+
+	private ConcurrentMap<Object, Object> nativeCache;
+
+	private ConcurrentMapCache localCache;
+
+	private ConcurrentMapCache remoteCache;
+
+	private final List<CacheInvalidationEvent> events = new ArrayList<>();
+
+	private TieredCache cache;
+
+
+	@BeforeEach
+	public void setUp() {
+		this.nativeCache = new ConcurrentHashMap<>();
+		this.localCache = new ConcurrentMapCache(CACHE_NAME);
+		this.remoteCache = new ConcurrentMapCache(CACHE_NAME, this.nativeCache, true);
+		this.cache = new TieredCache(this.localCache, this.remoteCache, this.events::add);
+	}
+
+	@Override
+	protected TieredCache getCache() {
+		return this.cache;
+	}
+
+	@Override
+	protected Object getNativeCache() {
+		return this.nativeCache;
+	}
+
+
+	@Test
+	public void remoteHitPopulatesLocalTier() {
+		this.remoteCache.put("key", "value");
+
+		assertThat(this.cache.get("key").get()).isEqualTo("value");
+		assertThat(this.localCache.get("key").get()).isEqualTo("value");
+		assertThat(this.cache.get("key").get()).isEqualTo("value");
+		assertThat(this.cache.get("other")).isNull();
+
+		TieredCacheStatistics statistics = this.cache.getStatistics();
+		assertThat(statistics.getLocalHitCount()).isEqualTo(1);
+		assertThat(statistics.getRemoteHitCount()).isEqualTo(1);
+		assertThat(statistics.getMissCount()).isEqualTo(1);
+		assertThat(statistics.getRequestCount()).isEqualTo(3);
+		assertThat(statistics.getLocalHitRatio()).isEqualTo(1.0 / 3);
+		assertThat(statistics.getRemoteHitRatio()).isEqualTo(0.5);
+		assertThat(statistics.getHitRatio()).isEqualTo(2.0 / 3);
+	}
+
+	@Test
+	public void valueLoaderStatistics() {
+		assertThat(this.cache.get("key", () -> "loaded")).isEqualTo("loaded");
+		assertThat(this.remoteCache.get("key").get()).isEqualTo("loaded");
+		assertThat(this.cache.get("key", () -> "other")).isEqualTo("loaded");
+
+		this.localCache.clear();
+		assertThat(this.cache.get("key", () -> "other")).isEqualTo("loaded");
+
+		TieredCacheStatistics statistics = this.cache.getStatistics();
+		assertThat(statistics.getMissCount()).isEqualTo(1);
+		assertThat(statistics.getLocalHitCount()).isEqualTo(1);
+		assertThat(statistics.getRemoteHitCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void retrievePopulatesLocalTier() {
+		this.remoteCache.put("key", "value");
+
+		assertThat(this.cache.retrieve("key").join().get()).isEqualTo("value");
+		assertThat(this.localCache.get("key").get()).isEqualTo("value");
+		assertThat(this.cache.retrieve("other")).isNull();
+		assertThat(this.cache.getStatistics().getRemoteHitCount()).isEqualTo(1);
+		assertThat(this.cache.getStatistics().getMissCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void statisticsWithoutLookups() {
+		TieredCacheStatistics statistics = this.cache.getStatistics();
+		assertThat(statistics.getRequestCount()).isEqualTo(0);
+		assertThat(statistics.getHitRatio()).isEqualTo(1.0);
+	}
+
+	@Test
+	public void modificationsPublishInvalidation() {
+		this.cache.put("key", "value");
+		this.cache.evict("key");
+		this.cache.clear();
+
+		assertThat(this.events).hasSize(3);
+		assertThat(this.events.get(0).getKey()).isEqualTo("key");
+		assertThat(this.events.get(0).getCacheName()).isEqualTo(CACHE_NAME);
+		assertThat(this.events.get(0).getOrigin()).isEqualTo(this.cache.getOrigin());
+		assertThat(this.events.get(2).isCacheWide()).isTrue();
+	}
+
+	@Test
+	public void handleInvalidationEvictsLocalTierOnly() {
+		this.cache.put("key", "value");
+		this.cache.put("other", "value");
+
+		this.cache.handleInvalidation(new CacheInvalidationEvent(this, "remote", CACHE_NAME, "key"));
+		assertThat(this.localCache.get("key")).isNull();
+		assertThat(this.localCache.get("other")).isNotNull();
+		assertThat(this.remoteCache.get("key")).isNotNull();
+
+		this.cache.handleInvalidation(new CacheInvalidationEvent(this, "remote", CACHE_NAME, null));
+		assertThat(this.localCache.get("other")).isNull();
+		assertThat(this.remoteCache.get("other")).isNotNull();
+	}
+
+	@Test
+	public void handleOwnInvalidationIsIgnored() {
+		this.cache.put("key", "value");
+		this.cache.handleInvalidation(this.events.get(0));
+		assertThat(this.localCache.get("key")).isNotNull();
+	}
+
+	@Test
+	public void invalidationDuringRemoteReadSkipsLocalTier() {
+		InterleavingCache remoteCache = new InterleavingCache(CACHE_NAME);
+		TieredCache cache = new TieredCache(this.localCache, remoteCache);
+		remoteCache.put("key", "value");
+		CacheInvalidationEvent event = new CacheInvalidationEvent(this, "remote", CACHE_NAME, "key");
+
+		remoteCache.setOnRead(() -> cache.handleInvalidation(event));
+		assertThat(cache.get("key").get()).isEqualTo("value");
+		assertThat(this.localCache.get("key")).isNull();
+
+		remoteCache.setOnRead(() -> cache.handleInvalidation(event));
+		assertThat(cache.get("key", () -> "loaded")).isEqualTo("value");
+		assertThat(this.localCache.get("key")).isNull();
+
+		remoteCache.setOnRead(() -> cache.handleInvalidation(event));
+		assertThat(cache.retrieve("key").join().get()).isEqualTo("value");
+		assertThat(this.localCache.get("key")).isNull();
+
+		remoteCache.setOnRead(() -> cache.handleInvalidation(event));
+		assertThat(cache.getAll(Collections.singleton("key"))).containsOnlyKeys("key");
+		assertThat(this.localCache.get("key")).isNull();
+
+		remoteCache.setOnRead(() -> cache.handleInvalidation(new CacheInvalidationEvent(this, "remote", CACHE_NAME, null)));
+		assertThat(cache.get("key").get()).isEqualTo("value");
+		assertThat(this.localCache.get("key")).isNull();
+
+		assertThat(cache.get("key").get()).isEqualTo("value");
+		assertThat(this.localCache.get("key").get()).isEqualTo("value");
+	}
+
+	@Test
+	public void modificationDuringRemoteReadSkipsLocalTier() {
+		InterleavingCache remoteCache = new InterleavingCache(CACHE_NAME);
+		TieredCache cache = new TieredCache(this.localCache, remoteCache);
+		remoteCache.put("key", "value");
+
+		remoteCache.setOnRead(() -> cache.evict("key"));
+		assertThat(cache.get("key").get()).isEqualTo("value");
+		assertThat(this.localCache.get("key")).isNull();
+		assertThat(cache.get("key")).isNull();
+	}
+
+
+	/**
+	 * Remote cache that runs a callback once during its next read, after the
+	 * value has been looked up, simulating a concurrent modification.
+	 */
+	private static class InterleavingCache extends ConcurrentMapCache {
+
+		@Nullable
+		private Runnable onRead;
+
+		InterleavingCache(String name) {
+			super(name);
+		}
+
+		void setOnRead(Runnable onRead) {
+			this.onRead = onRead;
+		}
+
+		@Override
+		@Nullable
+		public ValueWrapper get(Object key) {
+			ValueWrapper valueWrapper = super.get(key);
+			runOnRead();
+			return valueWrapper;
+		}
+
+		@Override
+		@Nullable
+		public <T> T get(Object key, Callable<T> valueLoader) {
+			T value = super.get(key, valueLoader);
+			runOnRead();
+			return value;
+		}
+
+		private void runOnRead() {
+			Runnable onRead = this.onRead;
+			this.onRead = null;
+			if (onRead != null) {
+				onRead.run();
+			}
+		}
+	}
+
+}
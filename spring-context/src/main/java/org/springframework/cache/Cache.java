@@ -16,7 +16,13 @@
 
 package org.springframework.cache;
 
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 
 import org.springframework.lang.Nullable;
 
@@ -100,6 +106,82 @@ public interface Cache {
 	@Nullable
 	<T> T get(Object key, Callable<T> valueLoader);
 
+	/**
+	 * Return the value to which this cache maps the specified key, contained
+	 * within a {@link CompletableFuture}. This operation should not block,
+	 * returning a future that completes once the value is available instead.
+	 * <p>The default implementation delegates to {@link #get(Object)} and
+	 * returns an already completed future. Caches backed by a remote store
+	 * are encouraged to perform a non-blocking lookup instead.
+	 * @param key the key whose associated value is to be returned
+	 * @return a future for the value to which this cache maps the specified key,
+	 * contained within a {@link ValueWrapper} which may also hold a cached
+	 * {@code null} value. A straight {@code null} being returned, or the future
+	 * completing with {@code null}, means that the cache contains no mapping
+	 * for this key.
+	 * @since 5.2.1
+	 * @see #get(Object)
+	 * @see #retrieve(Object, Supplier)
+	 */
+	@Nullable
+	default CompletableFuture<ValueWrapper> retrieve(Object key) {
+		ValueWrapper valueWrapper = get(key);
+		return (valueWrapper != null ? CompletableFuture.completedFuture(valueWrapper) : null);
+	}
+
+	/**
+	 * Return the value to which this cache maps the specified key, obtaining
+	 * that value asynchronously from {@code valueLoader} if necessary. This is
+	 * the non-blocking counterpart of {@link #get(Object, Callable)}.
+	 * <p>If possible, implementations should ensure that concurrent calls for
+	 * the same key share a single in-flight {@code valueLoader} invocation,
+	 * storing its result once it completes.
+	 * <p>The default implementation delegates to {@link #get(Object)} and
+	 * {@link #put(Object, Object)}, without coalescing concurrent calls.
+	 * @param key the key whose associated value is to be returned
+	 * @param valueLoader the supplier of a future for the value to cache
+	 * if there is no mapping for the key yet
+	 * @return a future for the value to which this cache maps the specified key,
+	 * completing exceptionally if the future returned by {@code valueLoader} does
+	 * @since 5.2.1
+	 * @see #get(Object, Callable)
+	 */
+	@SuppressWarnings("unchecked")
+	default <T> CompletableFuture<T> retrieve(Object key, Supplier<CompletableFuture<T>> valueLoader) {
+		ValueWrapper valueWrapper = get(key);
+		if (valueWrapper != null) {
+			return CompletableFuture.completedFuture((T) valueWrapper.get());
+		}
+		return valueLoader.get().thenApply(value -> {
+			put(key, value);
+			return value;
+		});
+	}
+
+	/**
+	 * Return the values to which this cache maps the specified keys, retrieving
+	 * them in a single bulk operation if supported by the native cache.
+	 * <p>The default implementation delegates to {@link #get(Object)} for
+	 * each key in turn. Caches backed by a remote store are encouraged to
+	 * fetch all entries in a single round trip instead.
+	 * @param keys the keys whose associated values are to be returned
+	 * @return a map of the keys that this cache contains a mapping for to the
+	 * {@link ValueWrapper} holding their (possibly {@code null}) value; keys
+	 * without a mapping are not contained in the map
+	 * @since 5.2.1
+	 * @see #get(Object)
+	 */
+	default Map<Object, ValueWrapper> getAll(Collection<?> keys) {
+		Map<Object, ValueWrapper> result = new LinkedHashMap<>(keys.size());
+		for (Object key : keys) {
+			ValueWrapper valueWrapper = get(key);
+			if (valueWrapper != null) {
+				result.put(key, valueWrapper);
+			}
+		}
+		return result;
+	}
+
 	/**
 	 * Associate the specified value with the specified key in this cache.
 	 * <p>If the cache previously contained a mapping for this key, the old
@@ -114,6 +196,19 @@ public interface Cache {
 	 */
 	void put(Object key, @Nullable Object value);
 
+	/**
+	 * Associate each of the specified values with its key in this cache,
+	 * in a single bulk operation if supported by the native cache.
+	 * <p>The default implementation delegates to {@link #put(Object, Object)}
+	 * for each entry in turn.
+	 * @param entries the keys and (possibly {@code null}) values to store
+	 * @since 5.2.1
+	 * @see #put(Object, Object)
+	 */
+	default void putAll(Map<?, ?> entries) {
+		entries.forEach(this::put);
+	}
+
 	/**
 	 * Atomically associate the specified value with the specified key in this cache
 	 * if it is not set already.
@@ -150,6 +245,25 @@ public interface Cache {
 		return existingValue;
 	}
 
+	/**
+	 * Return the remaining time to live of the mapping for this key, that is,
+	 * the time until the entry expires according to the expiration policy of
+	 * the native cache.
+	 * <p>The default implementation returns {@code null}, indicating that the
+	 * remaining time to live cannot be determined. Caches with an expiration
+	 * policy are encouraged to expose it in order to support refresh-ahead.
+	 * @param key the key whose remaining time to live is to be returned
+	 * @return the remaining time to live, or {@code null} if the cache does
+	 * not contain a mapping for this key, its entries do not expire or the
+	 * time to live cannot be determined
+	 * @since 5.2.1
+	 * @see org.springframework.cache.annotation.Cacheable#refreshAhead()
+	 */
+	@Nullable
+	default Duration getTimeToLive(Object key) {
+		return null;
+	}
+
 	/**
 	 * Evict the mapping for this key from this cache if it is present.
 	 * <p>Actual eviction may be performed in an asynchronous or deferred
@@ -161,6 +275,19 @@ public interface Cache {
 	 */
 	void evict(Object key);
 
+	/**
+	 * Evict the mappings for these keys from this cache if they are present,
+	 * in a single bulk operation if supported by the native cache.
+	 * <p>The default implementation delegates to {@link #evict(Object)}
+	 * for each key in turn.
+	 * @param keys the keys whose mappings are to be removed from the cache
+	 * @since 5.2.1
+	 * @see #evict(Object)
+	 */
+	default void evictAll(Collection<?> keys) {
+		keys.forEach(this::evict);
+	}
+
 	/**
 	 * Evict the mapping for this key from this cache if it is present,
 	 * expecting the key to be immediately invisible for subsequent lookups.
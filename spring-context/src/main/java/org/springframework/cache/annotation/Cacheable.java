@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2016 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -179,4 +179,52 @@ public @interface Cacheable {
 	 */
 	boolean sync() default false;
 
+	/**
+	 * Coalesce concurrent invocations of the underlying method for the same key
+	 * on a cache miss: the first caller invokes the method while other callers
+	 * wait for its result instead of hitting the backend as well.
+	 * <p>As opposed to {@link #sync()}, this is handled by the caching
+	 * infrastructure rather than by the cache provider, so it can be combined
+	 * with {@link #unless()}, several caches and other cache operations.
+	 * The single-flight guarantee is local to the current application instance.
+	 * @since 5.2.1
+	 */
+	boolean coalesce() default false;
+
+	/**
+	 * Reload an entry in the background once a cache hit observes that its
+	 * remaining time to live is below the specified threshold, in milliseconds,
+	 * while the current value is still returned to the caller.
+	 * <p>The default of {@code -1} disables refresh-ahead. Only applies to caches
+	 * that expose the remaining time to live of their entries, see
+	 * {@link org.springframework.cache.Cache#getTimeToLive(Object)}.
+	 * <p>Note that the refresh invokes the method, along with any interceptors
+	 * that are applied after the caching interceptor, on a thread of the refresh
+	 * executor. The thread-bound state of the caller, such as the current
+	 * transaction, the security context or the invocation exposed by
+	 * {@code ExposeInvocationInterceptor}, is not available to the refresh.
+	 * @since 5.2.1
+	 * @see org.springframework.cache.interceptor.CacheAspectSupport#setRefreshExecutor
+	 */
+	long refreshAhead() default -1;
+
+	/**
+	 * Cache the entries of a bulk lookup individually: the {@link #key()} must
+	 * resolve to a {@link java.util.Collection} argument of the method, each
+	 * element of which is used as a cache key, and the method must return a
+	 * {@link java.util.Map} of those keys to their values.
+	 * <p>All keys are looked up at once through
+	 * {@link org.springframework.cache.Cache#getAll(java.util.Collection)}; the
+	 * method is then invoked for the missing keys only, with the collection
+	 * argument replaced accordingly, and its result is stored through
+	 * {@link org.springframework.cache.Cache#putAll(java.util.Map)} and merged
+	 * with the cached entries. {@link #unless()} is evaluated against each value.
+	 * <p>This mode cannot be combined with {@link #sync()} or with other cache
+	 * operations on the same method. Replacing the argument relies on the
+	 * invoker honoring changes to the argument array, as AOP Alliance
+	 * {@code MethodInvocations} do; otherwise the method sees all keys.
+	 * @since 5.2.1
+	 */
+	boolean batch() default false;
+
 }
@@ -18,18 +18,30 @@ package org.springframework.cache.interceptor;
 
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
 import java.util.function.Supplier;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 import org.springframework.aop.framework.AopProxyUtils;
 import org.springframework.aop.support.AopUtils;
@@ -44,6 +56,10 @@ import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
 import org.springframework.context.expression.AnnotatedElementKey;
 import org.springframework.core.BridgeMethodResolver;
+import org.springframework.core.ReactiveAdapter;
+import org.springframework.core.ReactiveAdapterRegistry;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
 import org.springframework.expression.EvaluationContext;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
@@ -69,6 +85,20 @@ import org.springframework.util.function.SupplierUtils;
  * used for determining caching operations, a {@link KeyGenerator} will build the
  * cache keys, and a {@link CacheResolver} will resolve the actual cache(s) to use.
  *
+ * <p>Methods returning a {@link CompletableFuture} or a reactive type such as a
+ * Reactor {@code Mono} or {@code Flux} get the resolved value cached (the emitted
+ * elements collected into a {@code List} for multi-value types), and a hit is
+ * returned as a future or publisher again. Cache lookups go through the
+ * non-blocking {@link Cache#retrieve(Object)} variant then, and a synchronized
+ * {@code @Cacheable} goes through {@link Cache#retrieve(Object, Supplier)}.
+ *
+ * <p>A {@code @Cacheable} operation may also request concurrent misses for the
+ * same key to be coalesced into a single invocation, as well as entries close
+ * to expiration to be refreshed ahead of time on the
+ * {@link #setRefreshExecutor refresh executor}, or the elements of a collection
+ * key to be looked up and cached individually through the bulk operations of
+ * {@link Cache}.
+ *
  * <p>Note: A cache aspect is serializable but does not perform any actual caching
  * after deserialization.
  *
@@ -83,12 +113,24 @@ import org.springframework.util.function.SupplierUtils;
 public abstract class CacheAspectSupport extends AbstractCacheInvoker
 		implements BeanFactoryAware, InitializingBean, SmartInitializingSingleton {
 
+	private static final boolean reactorPresent = ClassUtils.isPresent(
+			"reactor.core.publisher.Flux", CacheAspectSupport.class.getClassLoader());
+
+	private static final Object NO_KEY_ACCESSOR = new Object();
+
+	private static final Object NO_ASYNC_RETURN_VALUE_ADAPTER = new Object();
+
+
 	protected final Log logger = LogFactory.getLog(getClass());
 
 	private final Map<CacheOperationCacheKey, CacheOperationMetadata> metadataCache = new ConcurrentHashMap<>(1024);
 
 	private final CacheOperationExpressionEvaluator evaluator = new CacheOperationExpressionEvaluator();
 
+	private final Map<Object, InFlightInvocation> inFlightInvocations = new ConcurrentHashMap<>(64);
+
+	private final Set<Object> refreshesInProgress = ConcurrentHashMap.newKeySet();
+
 	@Nullable
 	private CacheOperationSource cacheOperationSource;
 
@@ -97,6 +139,8 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 	@Nullable
 	private SingletonSupplier<CacheResolver> cacheResolver;
 
+	private SingletonSupplier<Executor> refreshExecutor = SingletonSupplier.of(this::getDefaultRefreshExecutor);
+
 	@Nullable
 	private BeanFactory beanFactory;
 
@@ -194,6 +238,28 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 		this.cacheResolver = SingletonSupplier.of(new SimpleCacheResolver(cacheManager));
 	}
 
+	/**
+	 * Set the {@link Executor} to use to refresh cache entries ahead of their
+	 * expiration, as requested by {@link CacheableOperation#getRefreshAhead()}.
+	 * <p>The default is a unique {@link TaskExecutor} bean in the containing
+	 * {@link BeanFactory}, if any, or a {@link SimpleAsyncTaskExecutor} otherwise.
+	 * Note that the underlying method is invoked on a thread of that executor,
+	 * without any thread-bound state of the original caller.
+	 * @since 5.2.1
+	 */
+	public void setRefreshExecutor(Executor refreshExecutor) {
+		this.refreshExecutor = SingletonSupplier.of(refreshExecutor);
+	}
+
+	/**
+	 * Return the {@link Executor} that this cache aspect uses to refresh
+	 * cache entries ahead of their expiration.
+	 * @since 5.2.1
+	 */
+	public Executor getRefreshExecutor() {
+		return this.refreshExecutor.obtain();
+	}
+
 	/**
 	 * Set the containing {@link BeanFactory} for {@link CacheManager} and other
 	 * service lookups.
@@ -231,6 +297,18 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 		this.initialized = true;
 	}
 
+	private Executor getDefaultRefreshExecutor() {
+		if (this.beanFactory != null) {
+			try {
+				return this.beanFactory.getBean(TaskExecutor.class);
+			}
+			catch (NoSuchBeanDefinitionException ex) {
+				logger.debug("No unique TaskExecutor bean found for cache refresh-ahead: using SimpleAsyncTaskExecutor");
+			}
+		}
+		return new SimpleAsyncTaskExecutor("cache-refresh-");
+	}
+
 
 	/**
 	 * Convenience method to return a String representation of this Method
@@ -371,20 +449,53 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 
 	@Nullable
 	private Object execute(final CacheOperationInvoker invoker, Method method, CacheOperationContexts contexts) {
+		// Special handling of batch invocation
+		if (contexts.isBatch()) {
+			return executeBatch(invoker, method, contexts);
+		}
+
 		// Special handling of synchronized invocation
 		if (contexts.isSynchronized()) {
 			CacheOperationContext context = contexts.get(CacheableOperation.class).iterator().next();
 			if (isConditionPassing(context, CacheOperationExpressionEvaluator.NO_RESULT)) {
 				Object key = generateKey(context, CacheOperationExpressionEvaluator.NO_RESULT);
 				Cache cache = context.getCaches().iterator().next();
+				AsyncReturnValueAdapter asyncAdapter = contexts.getAsyncReturnValueAdapter();
+				// Only reload entries close to expiration if the loader did not invoke the
+				// method, since the invoker must not be used by two threads at a time
+				AtomicBoolean invoked = new AtomicBoolean();
+				if (asyncAdapter != null) {
+					return asyncAdapter.fromFuture(() -> {
+						CompletableFuture<Object> cacheValue = cache.retrieve(key, () -> {
+							invoked.set(true);
+							return invokeOperationAsync(invoker, asyncAdapter);
+						});
+						if (contexts.isRefreshAhead()) {
+							cacheValue = cacheValue.whenComplete((value, ex) -> {
+								if (ex == null && !invoked.get()) {
+									refreshAheadIfNecessary(invoker, contexts, asyncAdapter);
+								}
+							});
+						}
+						return cacheValue;
+					});
+				}
+				Object cacheValue;
 				try {
-					return wrapCacheValue(method, cache.get(key, () -> unwrapReturnValue(invokeOperation(invoker))));
+					cacheValue = cache.get(key, () -> {
+						invoked.set(true);
+						return unwrapReturnValue(invokeOperation(invoker));
+					});
 				}
 				catch (Cache.ValueRetrievalException ex) {
 					// The invoker wraps any Throwable in a ThrowableWrapper instance so we
 					// can just make sure that one bubbles up the stack.
 					throw (CacheOperationInvoker.ThrowableWrapper) ex.getCause();
 				}
+				if (contexts.isRefreshAhead() && !invoked.get()) {
+					refreshAheadIfNecessary(invoker, contexts, null);
+				}
+				return wrapCacheValue(method, cacheValue);
 			}
 			else {
 				// No caching required, only call the underlying method
@@ -392,6 +503,10 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 			}
 		}
 
+		AsyncReturnValueAdapter asyncAdapter = contexts.getAsyncReturnValueAdapter();
+		if (asyncAdapter != null) {
+			return asyncAdapter.fromFuture(() -> executeAsync(invoker, contexts, asyncAdapter));
+		}
 
 		// Process any early evictions
 		processCacheEvicts(contexts.get(CacheEvictOperation.class), true,
@@ -400,6 +515,25 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 		// Check if we have a cached item matching the conditions
 		Cache.ValueWrapper cacheHit = findCachedItem(contexts.get(CacheableOperation.class));
 
+		if (cacheHit == null && contexts.isCoalesced()) {
+			// Let concurrent misses for the same key share a single invocation
+			Object coalescingKey = getCoalescingKey(contexts.get(CacheableOperation.class));
+			if (coalescingKey != null) {
+				return executeCoalesced(invoker, method, contexts, coalescingKey);
+			}
+		}
+
+		return execute(invoker, method, contexts, cacheHit);
+	}
+
+	/**
+	 * Process the given cache hit or, in case of a miss, invoke the underlying
+	 * method, then apply any put requests and late evictions.
+	 */
+	@Nullable
+	private Object execute(CacheOperationInvoker invoker, Method method,
+			CacheOperationContexts contexts, @Nullable Cache.ValueWrapper cacheHit) {
+
 		// Collect puts from any @Cacheable miss, if no cached item is found
 		List<CachePutRequest> cachePutRequests = new LinkedList<>();
 		if (cacheHit == null) {
@@ -414,6 +548,11 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 			// If there are no put requests, just use the cache hit
 			cacheValue = cacheHit.get();
 			returnValue = wrapCacheValue(method, cacheValue);
+			// Reload entries close to expiration in the background, if requested,
+			// which is only safe as long as the current thread does not invoke the method
+			if (contexts.isRefreshAhead()) {
+				refreshAheadIfNecessary(invoker, contexts, null);
+			}
 		}
 		else {
 			// Invoke the method if we don't have a cache hit
@@ -435,6 +574,386 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 		return returnValue;
 	}
 
+	/**
+	 * Look up each element of the collection key at once, invoke the method for
+	 * the missing keys only and merge its result with the cached entries.
+	 */
+	@Nullable
+	private Object executeBatch(CacheOperationInvoker invoker, Method method, CacheOperationContexts contexts) {
+		CacheOperationContext context = contexts.get(CacheableOperation.class).iterator().next();
+		if (!isConditionPassing(context, CacheOperationExpressionEvaluator.NO_RESULT)) {
+			// No caching required, only call the underlying method
+			return invokeOperation(invoker);
+		}
+		Object[] args = contexts.getArgs();
+		Object key = generateKey(context, CacheOperationExpressionEvaluator.NO_RESULT);
+		int keysIndex = indexOfIdentical(args, key);
+		if (!(key instanceof Collection) || keysIndex == -1) {
+			throw new IllegalStateException("@Cacheable(batch=true) requires the key to resolve to " +
+					"a Collection argument of '" + method + "', but got: " + key);
+		}
+		Collection<?> keys = (Collection<?>) key;
+
+		Map<Object, Object> cachedValues = new LinkedHashMap<>(keys.size());
+		Set<Object> missingKeys = new LinkedHashSet<>(keys);
+		for (Cache cache : context.getCaches()) {
+			if (missingKeys.isEmpty()) {
+				break;
+			}
+			doGetAll(cache, missingKeys).forEach((cachedKey, valueWrapper) -> {
+				cachedValues.put(cachedKey, valueWrapper.get());
+				missingKeys.remove(cachedKey);
+			});
+		}
+		if (logger.isTraceEnabled()) {
+			logger.trace("Cache entries found for " + cachedValues.size() + " of " + keys.size() +
+					" keys in cache(s) " + context.getCacheNames());
+		}
+
+		Map<?, ?> loadedValues = Collections.emptyMap();
+		if (!missingKeys.isEmpty()) {
+			Object originalKeys = args[keysIndex];
+			args[keysIndex] = adaptKeys(missingKeys, method.getParameterTypes()[keysIndex], method);
+			Object returnValue;
+			try {
+				returnValue = invokeOperation(invoker);
+			}
+			finally {
+				args[keysIndex] = originalKeys;
+			}
+			if (returnValue != null) {
+				loadedValues = (Map<?, ?>) returnValue;
+				Map<Object, Object> cacheableValues = new LinkedHashMap<>(loadedValues.size());
+				loadedValues.forEach((loadedKey, value) -> {
+					if (context.canPutToCache(value)) {
+						cacheableValues.put(loadedKey, value);
+					}
+				});
+				if (!cacheableValues.isEmpty()) {
+					for (Cache cache : context.getCaches()) {
+						doPutAll(cache, cacheableValues);
+					}
+				}
+			}
+		}
+
+		Map<Object, Object> result = new LinkedHashMap<>(keys.size());
+		for (Object element : keys) {
+			if (cachedValues.containsKey(element)) {
+				result.put(element, cachedValues.get(element));
+			}
+			else if (loadedValues.containsKey(element)) {
+				result.put(element, loadedValues.get(element));
+			}
+		}
+		return result;
+	}
+
+	private static int indexOfIdentical(Object[] args, Object key) {
+		for (int i = 0; i < args.length; i++) {
+			if (args[i] == key) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private static Collection<Object> adaptKeys(Set<Object> keys, Class<?> parameterType, Method method) {
+		if (parameterType.isAssignableFrom(ArrayList.class)) {
+			return new ArrayList<>(keys);
+		}
+		if (parameterType.isInstance(keys)) {
+			return keys;
+		}
+		throw new IllegalStateException("@Cacheable(batch=true) cannot pass the missing keys as " +
+				parameterType.getName() + " to '" + method + "': declare a List, Set or Collection parameter");
+	}
+
+	/**
+	 * Execute the cache miss flow for the given coalescing key unless an invocation
+	 * for the same key is in flight already, in which case its outcome is shared.
+	 * A nested invocation for the same key on the thread that runs the in-flight
+	 * invocation would wait for itself, so it executes the cache miss flow directly.
+	 */
+	@Nullable
+	private Object executeCoalesced(CacheOperationInvoker invoker, Method method,
+			CacheOperationContexts contexts, Object coalescingKey) {
+
+		InFlightInvocation invocation = new InFlightInvocation();
+		InFlightInvocation inFlight = this.inFlightInvocations.putIfAbsent(coalescingKey, invocation);
+		if (inFlight != null) {
+			if (inFlight.isOwnedByCurrentThread()) {
+				if (logger.isTraceEnabled()) {
+					logger.trace("Nested invocation for " + coalescingKey + " is executed directly");
+				}
+				return execute(invoker, method, contexts, null);
+			}
+			if (logger.isTraceEnabled()) {
+				logger.trace("Joining in-flight invocation for " + coalescingKey);
+			}
+			try {
+				return inFlight.join();
+			}
+			catch (CompletionException ex) {
+				Throwable cause = ex.getCause();
+				if (cause instanceof RuntimeException) {
+					throw (RuntimeException) cause;
+				}
+				if (cause instanceof Error) {
+					throw (Error) cause;
+				}
+				throw ex;
+			}
+		}
+		try {
+			Object returnValue = execute(invoker, method, contexts, null);
+			invocation.complete(returnValue);
+			return returnValue;
+		}
+		catch (Throwable ex) {
+			invocation.completeExceptionally(ex);
+			throw ex;
+		}
+		finally {
+			this.inFlightInvocations.remove(coalescingKey, invocation);
+		}
+	}
+
+	/**
+	 * Asynchronous counterpart of {@link #executeCoalesced}, sharing the future
+	 * of an invocation for the same key that is in flight already.
+	 */
+	private CompletableFuture<Object> invokeCoalescedAsync(
+			Object coalescingKey, Supplier<CompletableFuture<Object>> invocationSupplier) {
+
+		InFlightInvocation invocation = new InFlightInvocation();
+		InFlightInvocation inFlight = this.inFlightInvocations.putIfAbsent(coalescingKey, invocation);
+		if (inFlight != null) {
+			if (logger.isTraceEnabled()) {
+				logger.trace("Joining in-flight invocation for " + coalescingKey);
+			}
+			return inFlight.thenApply(Function.identity());
+		}
+		invocationSupplier.get().whenComplete((value, ex) -> {
+			this.inFlightInvocations.remove(coalescingKey, invocation);
+			if (ex != null) {
+				invocation.completeExceptionally(ex);
+			}
+			else {
+				invocation.complete(value);
+			}
+		});
+		return invocation.thenApply(Function.identity());
+	}
+
+	/**
+	 * Build a key identifying the invocation of the method for the keys of
+	 * the given cacheable operations, or {@code null} if none applies.
+	 */
+	@Nullable
+	private Object getCoalescingKey(Collection<CacheOperationContext> contexts) {
+		Object result = CacheOperationExpressionEvaluator.NO_RESULT;
+		List<Object> coalescingKey = null;
+		for (CacheOperationContext context : contexts) {
+			if (isConditionPassing(context, result)) {
+				if (coalescingKey == null) {
+					coalescingKey = new ArrayList<>();
+					coalescingKey.add(context.metadata.methodKey);
+				}
+				coalescingKey.add(context.getCacheNames());
+				coalescingKey.add(generateKey(context, result));
+			}
+		}
+		return coalescingKey;
+	}
+
+	/**
+	 * Submit a refresh of the cached entries to the refresh executor if the
+	 * remaining time to live of any of them is below the configured threshold.
+	 * @param asyncAdapter the adapter for an asynchronous return value,
+	 * or {@code null} for a regular method
+	 */
+	private void refreshAheadIfNecessary(CacheOperationInvoker invoker,
+			CacheOperationContexts contexts, @Nullable AsyncReturnValueAdapter asyncAdapter) {
+
+		Collection<CacheOperationContext> cacheableContexts = contexts.get(CacheableOperation.class);
+		if (!isRefreshDue(cacheableContexts)) {
+			return;
+		}
+		Object refreshKey = getCoalescingKey(cacheableContexts);
+		if (refreshKey == null || !this.refreshesInProgress.add(refreshKey)) {
+			return;
+		}
+		List<CachePutRequest> cachePutRequests = new LinkedList<>();
+		collectPutRequests(cacheableContexts, CacheOperationExpressionEvaluator.NO_RESULT, cachePutRequests);
+		try {
+			getRefreshExecutor().execute(() -> {
+				CompletableFuture<Object> cacheValue;
+				if (asyncAdapter != null) {
+					cacheValue = invokeOperationAsync(invoker, asyncAdapter);
+				}
+				else {
+					cacheValue = new CompletableFuture<>();
+					try {
+						cacheValue.complete(unwrapReturnValue(invokeOperation(invoker)));
+					}
+					catch (CacheOperationInvoker.ThrowableWrapper ex) {
+						cacheValue.completeExceptionally(ex.getOriginal());
+					}
+				}
+				cacheValue.whenComplete((value, ex) -> {
+					try {
+						if (ex != null) {
+							if (logger.isDebugEnabled()) {
+								logger.debug("Failed to refresh cache entries for " + refreshKey, ex);
+							}
+						}
+						else {
+							for (CachePutRequest cachePutRequest : cachePutRequests) {
+								cachePutRequest.apply(value);
+							}
+						}
+					}
+					finally {
+						this.refreshesInProgress.remove(refreshKey);
+					}
+				});
+			});
+		}
+		catch (RuntimeException ex) {
+			this.refreshesInProgress.remove(refreshKey);
+			if (logger.isDebugEnabled()) {
+				logger.debug("Failed to submit refresh of cache entries for " + refreshKey, ex);
+			}
+		}
+	}
+
+	private boolean isRefreshDue(Collection<CacheOperationContext> contexts) {
+		Object result = CacheOperationExpressionEvaluator.NO_RESULT;
+		for (CacheOperationContext context : contexts) {
+			long refreshAhead = ((CacheableOperation) context.metadata.operation).getRefreshAhead();
+			if (refreshAhead >= 0 && isConditionPassing(context, result)) {
+				Object key = generateKey(context, result);
+				for (Cache cache : context.getCaches()) {
+					Duration timeToLive = cache.getTimeToLive(key);
+					if (timeToLive != null && timeToLive.toMillis() <= refreshAhead) {
+						if (logger.isTraceEnabled()) {
+							logger.trace("Refreshing cache entry for key '" + key + "' in cache '" +
+									cache.getName() + "' expiring in " + timeToLive);
+						}
+						return true;
+					}
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Counterpart of the regular execution flow above for methods returning
+	 * an asynchronous result, resolving to the value that gets cached.
+	 */
+	private CompletableFuture<Object> executeAsync(CacheOperationInvoker invoker,
+			CacheOperationContexts contexts, AsyncReturnValueAdapter asyncAdapter) {
+
+		// Process any early evictions
+		processCacheEvicts(contexts.get(CacheEvictOperation.class), true,
+				CacheOperationExpressionEvaluator.NO_RESULT);
+
+		return findCachedItemAsync(contexts.get(CacheableOperation.class)).thenCompose(cacheHit -> {
+			// Collect puts from any @Cacheable miss, if no cached item is found
+			List<CachePutRequest> cachePutRequests = new LinkedList<>();
+			if (cacheHit == null) {
+				collectPutRequests(contexts.get(CacheableOperation.class),
+						CacheOperationExpressionEvaluator.NO_RESULT, cachePutRequests);
+			}
+
+			CompletableFuture<Object> cacheValue;
+			Object coalescingKey;
+			if (cacheHit != null && !hasCachePut(contexts)) {
+				// If there are no put requests, just use the cache hit
+				cacheValue = CompletableFuture.completedFuture(cacheHit.get());
+				// Reload entries close to expiration in the background, if requested
+				if (contexts.isRefreshAhead()) {
+					refreshAheadIfNecessary(invoker, contexts, asyncAdapter);
+				}
+			}
+			else if (cacheHit == null && contexts.isCoalesced() &&
+					(coalescingKey = getCoalescingKey(contexts.get(CacheableOperation.class))) != null) {
+				// Let concurrent misses for the same key share a single invocation
+				cacheValue = invokeCoalescedAsync(coalescingKey, () -> invokeOperationAsync(invoker, asyncAdapter));
+			}
+			else {
+				// Invoke the method if we don't have a cache hit
+				cacheValue = invokeOperationAsync(invoker, asyncAdapter);
+			}
+
+			return cacheValue.thenApply(value -> {
+				// Collect any explicit @CachePuts
+				collectPutRequests(contexts.get(CachePutOperation.class), value, cachePutRequests);
+
+				// Process any collected put requests, either from @CachePut or a @Cacheable miss
+				for (CachePutRequest cachePutRequest : cachePutRequests) {
+					cachePutRequest.apply(value);
+				}
+
+				// Process any late evictions
+				processCacheEvicts(contexts.get(CacheEvictOperation.class), false, value);
+				return value;
+			});
+		});
+	}
+
+	/**
+	 * Invoke the underlying operation, adapting its asynchronous result to a
+	 * future for the value to cache. An exception thrown by the invocation
+	 * itself completes the future exceptionally.
+	 */
+	private <T> CompletableFuture<T> invokeOperationAsync(
+			CacheOperationInvoker invoker, AsyncReturnValueAdapter asyncAdapter) {
+
+		try {
+			return asyncAdapter.toFuture(invokeOperation(invoker));
+		}
+		catch (CacheOperationInvoker.ThrowableWrapper ex) {
+			CompletableFuture<T> future = new CompletableFuture<>();
+			future.completeExceptionally(ex.getOriginal());
+			return future;
+		}
+	}
+
+	/**
+	 * Return the adapter for the asynchronous return type of the method of the
+	 * given operation metadata, resolved once per operation metadata, if any.
+	 */
+	@Nullable
+	private AsyncReturnValueAdapter getAsyncReturnValueAdapter(CacheOperationMetadata metadata) {
+		Object asyncAdapter = metadata.asyncReturnValueAdapter;
+		if (asyncAdapter == null) {
+			asyncAdapter = resolveAsyncReturnValueAdapter(metadata.method);
+			if (asyncAdapter == null) {
+				asyncAdapter = NO_ASYNC_RETURN_VALUE_ADAPTER;
+			}
+			metadata.asyncReturnValueAdapter = asyncAdapter;
+		}
+		return (asyncAdapter != NO_ASYNC_RETURN_VALUE_ADAPTER ? (AsyncReturnValueAdapter) asyncAdapter : null);
+	}
+
+	@Nullable
+	private AsyncReturnValueAdapter resolveAsyncReturnValueAdapter(Method method) {
+		Class<?> returnType = method.getReturnType();
+		if (returnType == CompletableFuture.class || returnType == CompletionStage.class) {
+			return CompletableFutureReturnValueAdapter.INSTANCE;
+		}
+		if (reactorPresent) {
+			ReactiveAdapter adapter = ReactiveAdapterRegistry.getSharedInstance().getAdapter(returnType);
+			if (adapter != null && !adapter.isNoValue()) {
+				return new ReactiveReturnValueAdapter(adapter);
+			}
+		}
+		return null;
+	}
+
 	@Nullable
 	private Object wrapCacheValue(Method method, @Nullable Object cacheValue) {
 		if (method.getReturnType() == Optional.class &&
@@ -530,6 +1049,28 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 		return null;
 	}
 
+	/**
+	 * Find a cached item only for {@link CacheableOperation} that passes the condition,
+	 * using {@link Cache#retrieve(Object)} for each cache in turn until a hit is found.
+	 * @param contexts the cacheable operations
+	 * @return a future for the {@link Cache.ValueWrapper} holding the cached item,
+	 * completing with {@code null} if none is found
+	 */
+	private CompletableFuture<Cache.ValueWrapper> findCachedItemAsync(Collection<CacheOperationContext> contexts) {
+		Object result = CacheOperationExpressionEvaluator.NO_RESULT;
+		CompletableFuture<Cache.ValueWrapper> cached = CompletableFuture.completedFuture(null);
+		for (CacheOperationContext context : contexts) {
+			if (isConditionPassing(context, result)) {
+				Object key = generateKey(context, result);
+				for (Cache cache : context.getCaches()) {
+					cached = cached.thenCompose(wrapper ->
+							(wrapper != null ? CompletableFuture.completedFuture(wrapper) : doRetrieve(cache, key)));
+				}
+			}
+		}
+		return cached;
+	}
+
 	/**
 	 * Collect the {@link CachePutRequest} for all {@link CacheOperation} using
 	 * the specified result item.
@@ -590,14 +1131,40 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 
 		private final boolean sync;
 
+		private final boolean coalesce;
+
+		private final boolean refreshAhead;
+
+		private final boolean batch;
+
+		@Nullable
+		private final AsyncReturnValueAdapter asyncReturnValueAdapter;
+
+		private final Object[] args;
+
 		public CacheOperationContexts(Collection<? extends CacheOperation> operations, Method method,
 				Object[] args, Object target, Class<?> targetClass) {
 
 			this.contexts = new LinkedMultiValueMap<>(operations.size());
+			CacheOperationMetadata metadata = null;
 			for (CacheOperation op : operations) {
-				this.contexts.add(op.getClass(), getOperationContext(op, method, args, target, targetClass));
+				CacheOperationContext context = getOperationContext(op, method, args, target, targetClass);
+				this.contexts.add(op.getClass(), context);
+				metadata = context.metadata;
 			}
 			this.sync = determineSyncFlag(method);
+			boolean coalesce = false;
+			boolean refreshAhead = false;
+			for (CacheOperationContext context : get(CacheableOperation.class)) {
+				CacheableOperation operation = (CacheableOperation) context.getOperation();
+				coalesce |= operation.isCoalesce();
+				refreshAhead |= (operation.getRefreshAhead() >= 0);
+			}
+			this.coalesce = coalesce;
+			this.refreshAhead = refreshAhead;
+			this.batch = determineBatchFlag(method);
+			this.asyncReturnValueAdapter = (metadata != null ? CacheAspectSupport.this.getAsyncReturnValueAdapter(metadata) : null);
+			this.args = args;
 		}
 
 		public Collection<CacheOperationContext> get(Class<? extends CacheOperation> operationClass) {
@@ -609,6 +1176,27 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 			return this.sync;
 		}
 
+		public boolean isCoalesced() {
+			return this.coalesce;
+		}
+
+		public boolean isRefreshAhead() {
+			return this.refreshAhead;
+		}
+
+		public boolean isBatch() {
+			return this.batch;
+		}
+
+		@Nullable
+		public AsyncReturnValueAdapter getAsyncReturnValueAdapter() {
+			return this.asyncReturnValueAdapter;
+		}
+
+		public Object[] getArgs() {
+			return this.args;
+		}
+
 		private boolean determineSyncFlag(Method method) {
 			List<CacheOperationContext> cacheOperationContexts = this.contexts.get(CacheableOperation.class);
 			if (cacheOperationContexts == null) {  // no @Cacheable operation at all
@@ -644,6 +1232,41 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 			}
 			return false;
 		}
+
+		private boolean determineBatchFlag(Method method) {
+			List<CacheOperationContext> cacheOperationContexts = this.contexts.get(CacheableOperation.class);
+			if (cacheOperationContexts == null) {  // no @Cacheable operation at all
+				return false;
+			}
+			boolean batchEnabled = false;
+			for (CacheOperationContext cacheOperationContext : cacheOperationContexts) {
+				if (((CacheableOperation) cacheOperationContext.getOperation()).isBatch()) {
+					batchEnabled = true;
+					break;
+				}
+			}
+			if (batchEnabled) {
+				if (this.contexts.size() > 1) {
+					throw new IllegalStateException(
+							"@Cacheable(batch=true) cannot be combined with other cache operations on '" + method + "'");
+				}
+				if (cacheOperationContexts.size() > 1) {
+					throw new IllegalStateException(
+							"Only one @Cacheable(batch=true) entry is allowed on '" + method + "'");
+				}
+				CacheableOperation operation = (CacheableOperation) cacheOperationContexts.get(0).getOperation();
+				if (operation.isSync()) {
+					throw new IllegalStateException(
+							"@Cacheable(batch=true) cannot be combined with sync on '" + operation + "'");
+				}
+				if (!method.getReturnType().isAssignableFrom(LinkedHashMap.class)) {
+					throw new IllegalStateException(
+							"@Cacheable(batch=true) requires a Map return type on '" + method + "'");
+				}
+				return true;
+			}
+			return false;
+		}
 	}
 
 
@@ -667,6 +1290,12 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 
 		private final CacheResolver cacheResolver;
 
+		@Nullable
+		private volatile Object keyAccessor;
+
+		@Nullable
+		private volatile Object asyncReturnValueAdapter;
+
 		public CacheOperationMetadata(CacheOperation operation, Method method, Class<?> targetClass,
 				KeyGenerator keyGenerator, CacheResolver cacheResolver) {
 
@@ -774,12 +1403,33 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 		@Nullable
 		protected Object generateKey(@Nullable Object result) {
 			if (StringUtils.hasText(this.metadata.operation.getKey())) {
+				CacheKeyAccessor keyAccessor = getKeyAccessor();
+				if (keyAccessor != null) {
+					return keyAccessor.getKey(this.args);
+				}
 				EvaluationContext evaluationContext = createEvaluationContext(result);
 				return evaluator.key(this.metadata.operation.getKey(), this.metadata.methodKey, evaluationContext);
 			}
 			return this.metadata.keyGenerator.generate(this.target, this.metadata.method, this.args);
 		}
 
+		/**
+		 * Return the direct accessor for the key expression of the operation,
+		 * resolved once per operation metadata, if any.
+		 */
+		@Nullable
+		private CacheKeyAccessor getKeyAccessor() {
+			Object keyAccessor = this.metadata.keyAccessor;
+			if (keyAccessor == null) {
+				keyAccessor = evaluator.keyAccessor(this.metadata.operation.getKey(), this.metadata.targetMethod);
+				if (keyAccessor == null) {
+					keyAccessor = NO_KEY_ACCESSOR;
+				}
+				this.metadata.keyAccessor = keyAccessor;
+			}
+			return (keyAccessor != NO_KEY_ACCESSOR ? (CacheKeyAccessor) keyAccessor : null);
+		}
+
 		private EvaluationContext createEvaluationContext(@Nullable Object result) {
 			return evaluator.createEvaluationContext(this.caches, this.metadata.method, this.args,
 					this.target, this.metadata.targetClass, this.metadata.targetMethod, result, beanFactory);
@@ -824,6 +1474,89 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 	}
 
 
+	/**
+	 * Outcome of a coalesced invocation, along with the thread that runs it.
+	 */
+	private static final class InFlightInvocation extends CompletableFuture<Object> {
+
+		private final Thread owner = Thread.currentThread();
+
+		boolean isOwnedByCurrentThread() {
+			return (this.owner == Thread.currentThread());
+		}
+	}
+
+
+	/**
+	 * Adapts an asynchronous return value to a {@link CompletableFuture} for the
+	 * value to cache, and a (cached) value back to the method's return type.
+	 */
+	private interface AsyncReturnValueAdapter {
+
+		<T> CompletableFuture<T> toFuture(@Nullable Object returnValue);
+
+		Object fromFuture(Supplier<CompletableFuture<?>> futureSupplier);
+	}
+
+
+	/**
+	 * {@link AsyncReturnValueAdapter} for {@link CompletableFuture} and
+	 * {@link CompletionStage} return values.
+	 */
+	private static class CompletableFutureReturnValueAdapter implements AsyncReturnValueAdapter {
+
+		static final CompletableFutureReturnValueAdapter INSTANCE = new CompletableFutureReturnValueAdapter();
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public <T> CompletableFuture<T> toFuture(@Nullable Object returnValue) {
+			return (returnValue != null ? ((CompletionStage<T>) returnValue).toCompletableFuture() :
+					CompletableFuture.completedFuture(null));
+		}
+
+		@Override
+		public Object fromFuture(Supplier<CompletableFuture<?>> futureSupplier) {
+			return futureSupplier.get();
+		}
+	}
+
+
+	/**
+	 * {@link AsyncReturnValueAdapter} for reactive types, deferring all cache
+	 * interaction until subscription. Multi-value types are cached as a
+	 * {@code List} of their elements.
+	 */
+	private static class ReactiveReturnValueAdapter implements AsyncReturnValueAdapter {
+
+		private final ReactiveAdapter adapter;
+
+		ReactiveReturnValueAdapter(ReactiveAdapter adapter) {
+			this.adapter = adapter;
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public <T> CompletableFuture<T> toFuture(@Nullable Object returnValue) {
+			if (returnValue == null) {
+				return CompletableFuture.completedFuture(null);
+			}
+			if (this.adapter.isMultiValue()) {
+				return (CompletableFuture<T>) Flux.from(this.adapter.toPublisher(returnValue)).collectList().toFuture();
+			}
+			return Mono.from(this.adapter.<T>toPublisher(returnValue)).toFuture();
+		}
+
+		@Override
+		public Object fromFuture(Supplier<CompletableFuture<?>> futureSupplier) {
+			Mono<?> value = Mono.defer(() -> Mono.fromFuture(futureSupplier.get()));
+			if (this.adapter.isMultiValue()) {
+				return this.adapter.fromPublisher(value.flatMapIterable(list -> (Iterable<?>) list));
+			}
+			return this.adapter.fromPublisher(value);
+		}
+	}
+
+
 	private static final class CacheOperationCacheKey implements Comparable<CacheOperationCacheKey> {
 
 		private final CacheOperation cacheOperation;
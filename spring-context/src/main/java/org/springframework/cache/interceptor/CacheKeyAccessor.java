@@ -0,0 +1,141 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.interceptor;
+
+import java.lang.reflect.Method;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.expression.Expression;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelParserConfiguration;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.lang.Nullable;
+
+/**
+ * Direct accessor for a key expression that merely refers to a method argument,
+ * optionally followed by a property path, such as {@code #id}, {@code #p0} or
+ * {@code #book.isbn}. Resolved once per method, it retrieves the key from the
+ * arguments without creating an evaluation context for each invocation.
+ *
+ * <p>A property path is evaluated against the argument as {@code #root} object,
+ * with the SpEL compiler enabled in {@link SpelCompilerMode#MIXED mixed mode}.
+ *
+ * @since 5.2.1
+ * @see CacheOperationExpressionEvaluator#keyAccessor
+ */
+final class CacheKeyAccessor {
+
+	private static final Pattern ARGUMENT_REFERENCE =
+			Pattern.compile("#([A-Za-z_$][\\w$]*)((?:\\??\\.[A-Za-z_$][\\w$]*)*)");
+
+	private static final Pattern INDEXED_ARGUMENT = Pattern.compile("[ap](\\d{1,9})");
+
+
+	private final int argumentIndex;
+
+	@Nullable
+	private final Expression propertyPath;
+
+
+	private CacheKeyAccessor(int argumentIndex, @Nullable Expression propertyPath) {
+		this.argumentIndex = argumentIndex;
+		this.propertyPath = propertyPath;
+	}
+
+
+	/**
+	 * Return the key for the given method arguments.
+	 * @param args the method arguments
+	 */
+	@Nullable
+	public Object getKey(Object[] args) {
+		Object argument = (this.argumentIndex < args.length ? args[this.argumentIndex] : null);
+		return (this.propertyPath != null ? this.propertyPath.getValue(argument) : argument);
+	}
+
+
+	/**
+	 * Resolve an accessor for the given key expression, if it is a plain
+	 * reference to an argument of the given method.
+	 * @param keyExpression the key expression
+	 * @param method the method whose parameter names the expression refers to
+	 * @param parameterNameDiscoverer the discoverer for the parameter names
+	 * @return the accessor, or {@code null} if the expression needs to be
+	 * evaluated against a full evaluation context
+	 */
+	@Nullable
+	static CacheKeyAccessor resolve(String keyExpression, Method method,
+			ParameterNameDiscoverer parameterNameDiscoverer) {
+
+		Matcher matcher = ARGUMENT_REFERENCE.matcher(keyExpression.trim());
+		if (!matcher.matches()) {
+			return null;
+		}
+		int argumentIndex = findArgumentIndex(matcher.group(1), method, parameterNameDiscoverer);
+		if (argumentIndex == -1 ||
+				(method.isVarArgs() && argumentIndex == method.getParameterCount() - 1)) {
+			return null;
+		}
+
+		String path = matcher.group(2);
+		if (path.isEmpty()) {
+			return new CacheKeyAccessor(argumentIndex, null);
+		}
+		SpelExpressionParser parser = new SpelExpressionParser(
+				new SpelParserConfiguration(SpelCompilerMode.MIXED, method.getDeclaringClass().getClassLoader()));
+		return new CacheKeyAccessor(argumentIndex, parser.parseExpression("#root" + path));
+	}
+
+	/**
+	 * Determine the index of the argument that the given variable refers to,
+	 * following the variable registration order of
+	 * {@link org.springframework.context.expression.MethodBasedEvaluationContext}.
+	 */
+	private static int findArgumentIndex(String variableName, Method method,
+			ParameterNameDiscoverer parameterNameDiscoverer) {
+
+		if (CacheOperationExpressionEvaluator.RESULT_VARIABLE.equals(variableName) ||
+				"root".equals(variableName) || "this".equals(variableName)) {
+			return -1;
+		}
+		String[] parameterNames = parameterNameDiscoverer.getParameterNames(method);
+		if (parameterNames != null) {
+			for (String parameterName : parameterNames) {
+				if (parameterName == null || INDEXED_ARGUMENT.matcher(parameterName).matches()) {
+					// Might shadow or be shadowed by an indexed variable: use a full evaluation context
+					return -1;
+				}
+			}
+		}
+		Matcher indexed = INDEXED_ARGUMENT.matcher(variableName);
+		if (indexed.matches()) {
+			int index = Integer.parseInt(indexed.group(1));
+			return (index < method.getParameterCount() ? index : -1);
+		}
+		if (parameterNames != null) {
+			for (int i = 0; i < parameterNames.length; i++) {
+				if (variableName.equals(parameterNames[i])) {
+					return i;
+				}
+			}
+		}
+		return -1;
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -99,6 +99,19 @@ class CacheOperationExpressionEvaluator extends CachedExpressionEvaluator {
 		return evaluationContext;
 	}
 
+	/**
+	 * Resolve a direct accessor for the given key expression, if it merely refers
+	 * to an argument of the given method and does not need an evaluation context.
+	 * @param keyExpression the key expression
+	 * @param targetMethod the target method
+	 * @return the accessor, or {@code null} if not applicable
+	 * @since 5.2.1
+	 */
+	@Nullable
+	public CacheKeyAccessor keyAccessor(String keyExpression, Method targetMethod) {
+		return CacheKeyAccessor.resolve(keyExpression, targetMethod, getParameterNameDiscoverer());
+	}
+
 	@Nullable
 	public Object key(String keyExpression, AnnotatedElementKey methodKey, EvaluationContext evalContext) {
 		return getExpression(this.keyCache, methodKey, keyExpression).getValue(evalContext);
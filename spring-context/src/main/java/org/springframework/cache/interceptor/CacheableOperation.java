@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -33,6 +33,12 @@ public class CacheableOperation extends CacheOperation {
 
 	private final boolean sync;
 
+	private final boolean coalesce;
+
+	private final long refreshAhead;
+
+	private final boolean batch;
+
 
 	/**
 	 * Create a new {@link CacheableOperation} instance from the given builder.
@@ -42,6 +48,9 @@ public class CacheableOperation extends CacheOperation {
 		super(b);
 		this.unless = b.unless;
 		this.sync = b.sync;
+		this.coalesce = b.coalesce;
+		this.refreshAhead = b.refreshAhead;
+		this.batch = b.batch;
 	}
 
 
@@ -54,6 +63,31 @@ public class CacheableOperation extends CacheOperation {
 		return this.sync;
 	}
 
+	/**
+	 * Return whether concurrent invocations for the same key should be coalesced.
+	 * @since 5.2.1
+	 */
+	public boolean isCoalesce() {
+		return this.coalesce;
+	}
+
+	/**
+	 * Return the remaining time to live, in milliseconds, below which a cached
+	 * entry is refreshed in the background, or {@code -1} if disabled.
+	 * @since 5.2.1
+	 */
+	public long getRefreshAhead() {
+		return this.refreshAhead;
+	}
+
+	/**
+	 * Return whether the elements of a collection key are cached individually.
+	 * @since 5.2.1
+	 */
+	public boolean isBatch() {
+		return this.batch;
+	}
+
 
 	/**
 	 * A builder that can be used to create a {@link CacheableOperation}.
@@ -66,6 +100,12 @@ public class CacheableOperation extends CacheOperation {
 
 		private boolean sync;
 
+		private boolean coalesce;
+
+		private long refreshAhead = -1;
+
+		private boolean batch;
+
 		public void setUnless(String unless) {
 			this.unless = unless;
 		}
@@ -74,6 +114,18 @@ public class CacheableOperation extends CacheOperation {
 			this.sync = sync;
 		}
 
+		public void setCoalesce(boolean coalesce) {
+			this.coalesce = coalesce;
+		}
+
+		public void setRefreshAhead(long refreshAhead) {
+			this.refreshAhead = refreshAhead;
+		}
+
+		public void setBatch(boolean batch) {
+			this.batch = batch;
+		}
+
 		@Override
 		protected StringBuilder getOperationDescription() {
 			StringBuilder sb = super.getOperationDescription();
@@ -83,6 +135,15 @@ public class CacheableOperation extends CacheOperation {
 			sb.append(" | sync='");
 			sb.append(this.sync);
 			sb.append("'");
+			sb.append(" | coalesce='");
+			sb.append(this.coalesce);
+			sb.append("'");
+			sb.append(" | refreshAhead='");
+			sb.append(this.refreshAhead);
+			sb.append("'");
+			sb.append(" | batch='");
+			sb.append(this.batch);
+			sb.append("'");
 			return sb;
 		}
 
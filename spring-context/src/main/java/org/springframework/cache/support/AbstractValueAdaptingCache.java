@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,6 +16,13 @@
 
 package org.springframework.cache.support;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
 import org.springframework.cache.Cache;
 import org.springframework.lang.Nullable;
 
@@ -28,6 +35,9 @@ import org.springframework.lang.Nullable;
  * {@link NullValue#INSTANCE}, if configured to support {@code null} values
  * (as indicated by {@link #isAllowNullValues()}.
  *
+ * <p>Also coalesces concurrent {@link #retrieve(Object, Supplier)} calls for the
+ * same key into a single in-flight value loader invocation.
+ *
  * @author Juergen Hoeller
  * @since 4.2.2
  */
@@ -35,6 +45,8 @@ public abstract class AbstractValueAdaptingCache implements Cache {
 
 	private final boolean allowNullValues;
 
+	private final ConcurrentMap<Object, CompletableFuture<Object>> inFlightRetrievals = new ConcurrentHashMap<>(16);
+
 
 	/**
 	 * Create an {@code AbstractValueAdaptingCache} with the given setting.
@@ -71,6 +83,48 @@ public abstract class AbstractValueAdaptingCache implements Cache {
 		return (T) value;
 	}
 
+	@Override
+	@SuppressWarnings("unchecked")
+	public <T> CompletableFuture<T> retrieve(Object key, Supplier<CompletableFuture<T>> valueLoader) {
+		Object storeValue = lookup(key);
+		if (storeValue != null) {
+			return CompletableFuture.completedFuture((T) fromStoreValue(storeValue));
+		}
+		CompletableFuture<Object> retrieval = new CompletableFuture<>();
+		CompletableFuture<Object> inFlight = this.inFlightRetrievals.putIfAbsent(key, retrieval);
+		if (inFlight != null) {
+			// Dependent future, so that callers cannot complete the shared one
+			return inFlight.thenApply(value -> (T) value);
+		}
+		try {
+			// The previous in-flight retrieval for the key may have completed in the meantime
+			storeValue = lookup(key);
+			if (storeValue != null) {
+				retrieval.complete(fromStoreValue(storeValue));
+			}
+			else {
+				valueLoader.get().whenComplete((value, ex) -> {
+					if (ex != null) {
+						retrieval.completeExceptionally(ex);
+						return;
+					}
+					try {
+						put(key, value);
+						retrieval.complete(value);
+					}
+					catch (Throwable putEx) {
+						retrieval.completeExceptionally(putEx);
+					}
+				});
+			}
+		}
+		catch (Throwable ex) {
+			retrieval.completeExceptionally(ex);
+		}
+		return (CompletableFuture<T>) retrieval.whenComplete((value, ex) ->
+				this.inFlightRetrievals.remove(key, retrieval));
+	}
+
 	/**
 	 * Perform an actual lookup in the underlying store.
 	 * @param key the key whose associated value is to be returned
@@ -123,5 +177,36 @@ public abstract class AbstractValueAdaptingCache implements Cache {
 		return (storeValue != null ? new SimpleValueWrapper(fromStoreValue(storeValue)) : null);
 	}
 
+	/**
+	 * Wrap each of the given store values through {@link #toValueWrapper}.
+	 * Useful for {@link #getAll} implementations on top of a bulk lookup.
+	 * @param storeValues the original values, by key
+	 * @return the wrapped values, by key
+	 * @since 5.2.1
+	 */
+	protected Map<Object, Cache.ValueWrapper> toValueWrappers(Map<?, ?> storeValues) {
+		Map<Object, Cache.ValueWrapper> result = new LinkedHashMap<>(storeValues.size());
+		storeValues.forEach((key, storeValue) -> {
+			Cache.ValueWrapper valueWrapper = toValueWrapper(storeValue);
+			if (valueWrapper != null) {
+				result.put(key, valueWrapper);
+			}
+		});
+		return result;
+	}
+
+	/**
+	 * Convert each of the given user values through {@link #toStoreValue}.
+	 * Useful for {@link #putAll} implementations on top of a bulk store.
+	 * @param userValues the given user values, by key
+	 * @return the values to store, by key
+	 * @since 5.2.1
+	 */
+	protected Map<Object, Object> toStoreValues(Map<?, ?> userValues) {
+		Map<Object, Object> result = new LinkedHashMap<>(userValues.size());
+		userValues.forEach((key, userValue) -> result.put(key, toStoreValue(userValue)));
+		return result;
+	}
+
 
 }
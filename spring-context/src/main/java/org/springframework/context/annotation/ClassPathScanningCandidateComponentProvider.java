@@ -18,11 +18,13 @@ package org.springframework.context.annotation;
 
 import java.io.IOException;
 import java.lang.annotation.Annotation;
+import java.nio.file.Paths;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -36,6 +38,7 @@ import org.springframework.beans.factory.support.BeanDefinitionRegistry;
 import org.springframework.context.ResourceLoaderAware;
 import org.springframework.context.index.CandidateComponentsIndex;
 import org.springframework.context.index.CandidateComponentsIndexLoader;
+import org.springframework.core.SpringProperties;
 import org.springframework.core.annotation.AnnotationUtils;
 import org.springframework.core.env.Environment;
 import org.springframework.core.env.EnvironmentCapable;
@@ -49,6 +52,7 @@ import org.springframework.core.type.AnnotationMetadata;
 import org.springframework.core.type.classreading.CachingMetadataReaderFactory;
 import org.springframework.core.type.classreading.MetadataReader;
 import org.springframework.core.type.classreading.MetadataReaderFactory;
+import org.springframework.core.type.classreading.PersistentMetadataCache;
 import org.springframework.core.type.filter.AnnotationTypeFilter;
 import org.springframework.core.type.filter.AssignableTypeFilter;
 import org.springframework.core.type.filter.TypeFilter;
@@ -60,6 +64,7 @@ import org.springframework.stereotype.Repository;
 import org.springframework.stereotype.Service;
 import org.springframework.util.Assert;
 import org.springframework.util.ClassUtils;
+import org.springframework.util.StringUtils;
 
 /**
  * A component provider that provides candidate components from a base package. Can
@@ -73,6 +78,8 @@ import org.springframework.util.ClassUtils;
  * <p>This implementation is based on Spring's
  * {@link org.springframework.core.type.classreading.MetadataReader MetadataReader}
  * facility, backed by an ASM {@link org.springframework.asm.ClassReader ClassReader}.
+ * A {@link PersistentMetadataCache} may be configured in order to skip reading
+ * class files that have been found not to match the filters on a previous run.
  *
  * @author Mark Fisher
  * @author Juergen Hoeller
@@ -89,6 +96,20 @@ public class ClassPathScanningCandidateComponentProvider implements EnvironmentC
 
 	static final String DEFAULT_RESOURCE_PATTERN = "**/*.class";
 
+	/**
+	 * System property that specifies the location of a file-based class
+	 * metadata cache to use for classpath scanning by default: e.g.
+	 * "-Dspring.scan.metadata-cache=/var/cache/myapp/scan-metadata".
+	 * <p>The property may also be set in a "spring.properties" file in the
+	 * root of the classpath. No metadata cache is used if it is not set.
+	 * @since 5.2.1
+	 * @see #setMetadataCache
+	 */
+	public static final String METADATA_CACHE_PROPERTY_NAME = "spring.scan.metadata-cache";
+
+	@Nullable
+	private static final PersistentMetadataCache sharedMetadataCache = loadSharedMetadataCache();
+
 
 	protected final Log logger = LogFactory.getLog(getClass());
 
@@ -113,6 +134,11 @@ public class ClassPathScanningCandidateComponentProvider implements EnvironmentC
 	@Nullable
 	private CandidateComponentsIndex componentsIndex;
 
+	@Nullable
+	private PersistentMetadataCache metadataCache = sharedMetadataCache;
+
+	private final AtomicInteger deferredMetadataCacheSaves = new AtomicInteger();
+
 
 	/**
 	 * Protected constructor for flexible subclass initialization.
@@ -302,6 +328,29 @@ public class ClassPathScanningCandidateComponentProvider implements EnvironmentC
 		return this.metadataReaderFactory;
 	}
 
+	/**
+	 * Set the {@link PersistentMetadataCache} to consult before reading class
+	 * files with the {@link #getMetadataReaderFactory() MetadataReaderFactory}.
+	 * <p>Classes that have not changed since they were found not to match the
+	 * filters of this provider are skipped without being read. The cache is
+	 * updated and saved after each scan.
+	 * <p>Default is the cache specified by the {@link #METADATA_CACHE_PROPERTY_NAME}
+	 * property, if any.
+	 * @since 5.2.1
+	 */
+	public void setMetadataCache(@Nullable PersistentMetadataCache metadataCache) {
+		this.metadataCache = metadataCache;
+	}
+
+	/**
+	 * Return the PersistentMetadataCache used by this component provider, if any.
+	 * @since 5.2.1
+	 */
+	@Nullable
+	public final PersistentMetadataCache getMetadataCache() {
+		return this.metadataCache;
+	}
+
 
 	/**
 	 * Scan the class path for candidate components.
@@ -313,7 +362,11 @@ public class ClassPathScanningCandidateComponentProvider implements EnvironmentC
 			return addCandidateComponentsFromIndex(this.componentsIndex, basePackage);
 		}
 		else {
-			return scanCandidateComponents(basePackage);
+			Set<BeanDefinition> candidates = scanCandidateComponents(basePackage);
+			if (this.deferredMetadataCacheSaves.get() == 0) {
+				saveMetadataCache();
+			}
+			return candidates;
 		}
 	}
 
@@ -419,6 +472,7 @@ public class ClassPathScanningCandidateComponentProvider implements EnvironmentC
 			String packageSearchPath = ResourcePatternResolver.CLASSPATH_ALL_URL_PREFIX +
 					resolveBasePackage(basePackage) + '/' + this.resourcePattern;
 			Resource[] resources = getResourcePatternResolver().getResources(packageSearchPath);
+			PersistentMetadataCache metadataCache = this.metadataCache;
 			boolean traceEnabled = logger.isTraceEnabled();
 			boolean debugEnabled = logger.isDebugEnabled();
 			for (Resource resource : resources) {
@@ -427,7 +481,16 @@ public class ClassPathScanningCandidateComponentProvider implements EnvironmentC
 				}
 				if (resource.isReadable()) {
 					try {
+						if (metadataCache != null && !isCandidateComponent(metadataCache, resource)) {
+							if (traceEnabled) {
+								logger.trace("Ignored because not matching any filter according to cache: " + resource);
+							}
+							continue;
+						}
 						MetadataReader metadataReader = getMetadataReaderFactory().getMetadataReader(resource);
+						if (metadataCache != null) {
+							metadataCache.put(metadataReader);
+						}
 						if (isCandidateComponent(metadataReader)) {
 							ScannedGenericBeanDefinition sbd = new ScannedGenericBeanDefinition(metadataReader);
 							sbd.setResource(resource);
@@ -468,6 +531,67 @@ public class ClassPathScanningCandidateComponentProvider implements EnvironmentC
 		return candidates;
 	}
 
+	/**
+	 * Determine whether the given class may be a candidate component, based on
+	 * its cached metadata: returns {@code false} only if the class is known not
+	 * to match the type filters, and {@code true} if it needs to be read.
+	 * <p>Conditions are not evaluated here, since a class that matches an
+	 * include filter is read in full anyway in order to build its bean definition.
+	 */
+	private boolean isCandidateComponent(PersistentMetadataCache metadataCache, Resource resource) throws IOException {
+		MetadataReaderFactory metadataReaderFactory = getMetadataReaderFactory();
+		MetadataReader cachedReader = metadataCache.getMetadataReader(resource, metadataReaderFactory);
+		if (cachedReader == null) {
+			return true;
+		}
+		for (TypeFilter tf : this.excludeFilters) {
+			if (tf.match(cachedReader, metadataReaderFactory)) {
+				return false;
+			}
+		}
+		for (TypeFilter tf : this.includeFilters) {
+			if (tf.match(cachedReader, metadataReaderFactory)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Defer saving the metadata cache after each call to
+	 * {@link #findCandidateComponents} until the matching call to
+	 * {@link #saveDeferredMetadataCache()}, in order to save it once for
+	 * a scan of several base packages.
+	 */
+	void deferMetadataCacheSave() {
+		this.deferredMetadataCacheSaves.incrementAndGet();
+	}
+
+	/**
+	 * Save the metadata cache once all scans started with
+	 * {@link #deferMetadataCacheSave()} have completed.
+	 */
+	void saveDeferredMetadataCache() {
+		if (this.deferredMetadataCacheSaves.decrementAndGet() == 0) {
+			saveMetadataCache();
+		}
+	}
+
+	private void saveMetadataCache() {
+		PersistentMetadataCache metadataCache = this.metadataCache;
+		if (metadataCache == null) {
+			return;
+		}
+		try {
+			metadataCache.save();
+		}
+		catch (IOException ex) {
+			if (logger.isInfoEnabled()) {
+				logger.info("Failed to save class metadata cache to " + metadataCache.getFile(), ex);
+			}
+		}
+	}
+
 
 	/**
 	 * Resolve the specified base package into a pattern specification for
@@ -541,4 +665,11 @@ public class ClassPathScanningCandidateComponentProvider implements EnvironmentC
 		}
 	}
 
+
+	@Nullable
+	private static PersistentMetadataCache loadSharedMetadataCache() {
+		String location = SpringProperties.getProperty(METADATA_CACHE_PROPERTY_NAME);
+		return (StringUtils.hasText(location) ? PersistentMetadataCache.load(Paths.get(location.trim())) : null);
+	}
+
 }
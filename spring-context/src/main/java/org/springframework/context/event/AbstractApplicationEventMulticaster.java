@@ -16,6 +16,7 @@
 
 package org.springframework.context.event;
 
+import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.LinkedHashSet;
@@ -25,6 +26,7 @@ import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.aop.support.AopUtils;
 import org.springframework.beans.factory.BeanClassLoaderAware;
 import org.springframework.beans.factory.BeanFactory;
 import org.springframework.beans.factory.BeanFactoryAware;
@@ -33,6 +35,7 @@ import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.beans.factory.config.ConfigurableBeanFactory;
 import org.springframework.context.ApplicationEvent;
 import org.springframework.context.ApplicationListener;
+import org.springframework.context.PayloadApplicationEvent;
 import org.springframework.core.ResolvableType;
 import org.springframework.core.annotation.AnnotationAwareOrderComparator;
 import org.springframework.lang.Nullable;
@@ -54,6 +57,12 @@ import org.springframework.util.ObjectUtils;
  * all events to all registered listeners, invoking them in the calling thread.
  * Alternative implementations could be more sophisticated in those respects.
  *
+ * <p>As of 5.2.1, listener retrieval does not lock: registered listeners are
+ * kept as copy-on-write snapshots, and the listeners for a given event type and
+ * source type are cached without blocking concurrent publishers. The cache can
+ * optionally be {@linkplain #setPrecomputeListenerIndex precomputed} for the
+ * event types declared by the registered listeners.
+ *
  * @author Juergen Hoeller
  * @author Stephane Nicoll
  * @since 1.2.3
@@ -63,9 +72,9 @@ import org.springframework.util.ObjectUtils;
 public abstract class AbstractApplicationEventMulticaster
 		implements ApplicationEventMulticaster, BeanClassLoaderAware, BeanFactoryAware {
 
-	private final ListenerRetriever defaultRetriever = new ListenerRetriever(false);
+	private final DefaultListenerRetriever defaultRetriever = new DefaultListenerRetriever();
 
-	final Map<ListenerCacheKey, ListenerRetriever> retrieverCache = new ConcurrentHashMap<>(64);
+	final Map<ListenerCacheKey, CachedListenerRetriever> retrieverCache = new ConcurrentHashMap<>(64);
 
 	@Nullable
 	private ClassLoader beanClassLoader;
@@ -75,6 +84,8 @@ public abstract class AbstractApplicationEventMulticaster
 
 	private Object retrievalMutex = this.defaultRetriever;
 
+	private boolean precomputeListenerIndex = false;
+
 
 	@Override
 	public void setBeanClassLoader(ClassLoader classLoader) {
@@ -93,6 +104,29 @@ public abstract class AbstractApplicationEventMulticaster
 		this.retrievalMutex = this.beanFactory.getSingletonMutex();
 	}
 
+	/**
+	 * Set whether to precompute the listeners for the event types declared by
+	 * the registered listeners through {@link #precomputeListenerIndex(Class)},
+	 * so that publishing those events right away finds its listeners cached
+	 * rather than matching every listener against the event type.
+	 * <p>Default is "false". Note that the precomputed listeners are discarded
+	 * whenever listeners get added or removed, like any other cached listeners.
+	 * @since 5.2.1
+	 * @see org.springframework.context.support.AbstractApplicationContext#finishRefresh()
+	 */
+	public void setPrecomputeListenerIndex(boolean precomputeListenerIndex) {
+		this.precomputeListenerIndex = precomputeListenerIndex;
+	}
+
+	/**
+	 * Return whether to precompute the listeners for the event types declared
+	 * by the registered listeners.
+	 * @since 5.2.1
+	 */
+	public boolean isPrecomputeListenerIndex() {
+		return this.precomputeListenerIndex;
+	}
+
 	private ConfigurableBeanFactory getBeanFactory() {
 		if (this.beanFactory == null) {
 			throw new IllegalStateException("ApplicationEventMulticaster cannot retrieve listener beans " +
@@ -108,10 +142,12 @@ public abstract class AbstractApplicationEventMulticaster
 			// Explicitly remove target for a proxy, if registered already,
 			// in order to avoid double invocations of the same listener.
 			Object singletonTarget = AopProxyUtils.getSingletonTarget(listener);
+			Set<ApplicationListener<?>> listeners = new LinkedHashSet<>(this.defaultRetriever.applicationListeners);
 			if (singletonTarget instanceof ApplicationListener) {
-				this.defaultRetriever.applicationListeners.remove(singletonTarget);
+				listeners.remove(singletonTarget);
 			}
-			this.defaultRetriever.applicationListeners.add(listener);
+			listeners.add(listener);
+			this.defaultRetriever.applicationListeners = listeners;
 			this.retrieverCache.clear();
 		}
 	}
@@ -119,7 +155,9 @@ public abstract class AbstractApplicationEventMulticaster
 	@Override
 	public void addApplicationListenerBean(String listenerBeanName) {
 		synchronized (this.retrievalMutex) {
-			this.defaultRetriever.applicationListenerBeans.add(listenerBeanName);
+			Set<String> listenerBeans = new LinkedHashSet<>(this.defaultRetriever.applicationListenerBeans);
+			listenerBeans.add(listenerBeanName);
+			this.defaultRetriever.applicationListenerBeans = listenerBeans;
 			this.retrieverCache.clear();
 		}
 	}
@@ -127,7 +165,9 @@ public abstract class AbstractApplicationEventMulticaster
 	@Override
 	public void removeApplicationListener(ApplicationListener<?> listener) {
 		synchronized (this.retrievalMutex) {
-			this.defaultRetriever.applicationListeners.remove(listener);
+			Set<ApplicationListener<?>> listeners = new LinkedHashSet<>(this.defaultRetriever.applicationListeners);
+			listeners.remove(listener);
+			this.defaultRetriever.applicationListeners = listeners;
 			this.retrieverCache.clear();
 		}
 	}
@@ -135,7 +175,9 @@ public abstract class AbstractApplicationEventMulticaster
 	@Override
 	public void removeApplicationListenerBean(String listenerBeanName) {
 		synchronized (this.retrievalMutex) {
-			this.defaultRetriever.applicationListenerBeans.remove(listenerBeanName);
+			Set<String> listenerBeans = new LinkedHashSet<>(this.defaultRetriever.applicationListenerBeans);
+			listenerBeans.remove(listenerBeanName);
+			this.defaultRetriever.applicationListenerBeans = listenerBeans;
 			this.retrieverCache.clear();
 		}
 	}
@@ -143,8 +185,8 @@ public abstract class AbstractApplicationEventMulticaster
 	@Override
 	public void removeAllListeners() {
 		synchronized (this.retrievalMutex) {
-			this.defaultRetriever.applicationListeners.clear();
-			this.defaultRetriever.applicationListenerBeans.clear();
+			this.defaultRetriever.applicationListeners = new LinkedHashSet<>();
+			this.defaultRetriever.applicationListenerBeans = new LinkedHashSet<>();
 			this.retrieverCache.clear();
 		}
 	}
@@ -156,9 +198,7 @@ public abstract class AbstractApplicationEventMulticaster
 	 * @see org.springframework.context.ApplicationListener
 	 */
 	protected Collection<ApplicationListener<?>> getApplicationListeners() {
-		synchronized (this.retrievalMutex) {
-			return this.defaultRetriever.getApplicationListeners();
-		}
+		return this.defaultRetriever.getApplicationListeners();
 	}
 
 	/**
@@ -175,33 +215,106 @@ public abstract class AbstractApplicationEventMulticaster
 
 		Object source = event.getSource();
 		Class<?> sourceType = (source != null ? source.getClass() : null);
+		return getApplicationListeners(eventType, event.getClass(), sourceType);
+	}
+
+	private Collection<ApplicationListener<?>> getApplicationListeners(
+			ResolvableType eventType, Class<?> eventClass, @Nullable Class<?> sourceType) {
+
 		ListenerCacheKey cacheKey = new ListenerCacheKey(eventType, sourceType);
 
-		// Quick check for existing entry on ConcurrentHashMap...
-		ListenerRetriever retriever = this.retrieverCache.get(cacheKey);
-		if (retriever != null) {
-			return retriever.getApplicationListeners();
+		// Potential new retriever to populate
+		CachedListenerRetriever newRetriever = null;
+
+		// Quick check for existing entry on ConcurrentHashMap
+		CachedListenerRetriever existingRetriever = this.retrieverCache.get(cacheKey);
+		if (existingRetriever == null) {
+			// Caching a new ListenerRetriever if possible
+			if (this.beanClassLoader == null ||
+					(ClassUtils.isCacheSafe(eventClass, this.beanClassLoader) &&
+							(sourceType == null || ClassUtils.isCacheSafe(sourceType, this.beanClassLoader)))) {
+				newRetriever = new CachedListenerRetriever();
+				existingRetriever = this.retrieverCache.putIfAbsent(cacheKey, newRetriever);
+				if (existingRetriever != null) {
+					newRetriever = null;  // no need to populate it in retrieveApplicationListeners
+				}
+			}
 		}
 
-		if (this.beanClassLoader == null ||
-				(ClassUtils.isCacheSafe(event.getClass(), this.beanClassLoader) &&
-						(sourceType == null || ClassUtils.isCacheSafe(sourceType, this.beanClassLoader)))) {
-			// Fully synchronized building and caching of a ListenerRetriever
-			synchronized (this.retrievalMutex) {
-				retriever = this.retrieverCache.get(cacheKey);
-				if (retriever != null) {
-					return retriever.getApplicationListeners();
+		if (existingRetriever != null) {
+			Collection<ApplicationListener<?>> result = existingRetriever.getApplicationListeners();
+			if (result != null) {
+				return result;
+			}
+			// If result is null, the existing retriever is not fully populated yet by another thread.
+			// Proceed like caching wasn't possible for this current local attempt.
+		}
+
+		return retrieveApplicationListeners(eventType, sourceType, newRetriever);
+	}
+
+	/**
+	 * Precompute the listeners for the event types declared by the registered
+	 * listeners, as published with the given source type, if the
+	 * {@linkplain #setPrecomputeListenerIndex listener index} is enabled.
+	 * <p>Event types with unresolvable generics and non-concrete event types are
+	 * skipped, and so are listeners that do not declare their event types, such as
+	 * {@link GenericApplicationListener} and {@link SmartApplicationListener}
+	 * implementations. Payload types are indexed
+	 * as {@link PayloadApplicationEvent} of the payload type.
+	 * @param sourceType the type of the event source, typically the application
+	 * context that publishes the events
+	 * @since 5.2.1
+	 */
+	public void precomputeListenerIndex(@Nullable Class<?> sourceType) {
+		if (!this.precomputeListenerIndex) {
+			return;
+		}
+		Set<ResolvableType> eventTypes = new LinkedHashSet<>();
+		for (ApplicationListener<?> listener : this.defaultRetriever.applicationListeners) {
+			addDeclaredEventTypes(listener, eventTypes);
+		}
+		Set<String> listenerBeans = this.defaultRetriever.applicationListenerBeans;
+		if (!listenerBeans.isEmpty()) {
+			ConfigurableBeanFactory beanFactory = getBeanFactory();
+			for (String listenerBeanName : listenerBeans) {
+				Class<?> listenerType = beanFactory.getType(listenerBeanName);
+				if (listenerType != null && !GenericApplicationListener.class.isAssignableFrom(listenerType) &&
+						!SmartApplicationListener.class.isAssignableFrom(listenerType)) {
+					addEventType(GenericApplicationListenerAdapter.resolveDeclaredEventType(listenerType), eventTypes);
 				}
-				retriever = new ListenerRetriever(true);
-				Collection<ApplicationListener<?>> listeners =
-						retrieveApplicationListeners(eventType, sourceType, retriever);
-				this.retrieverCache.put(cacheKey, retriever);
-				return listeners;
 			}
 		}
-		else {
-			// No ListenerRetriever caching -> no synchronization necessary
-			return retrieveApplicationListeners(eventType, sourceType, null);
+		for (ResolvableType eventType : eventTypes) {
+			getApplicationListeners(eventType, eventType.toClass(), sourceType);
+		}
+	}
+
+	private void addDeclaredEventTypes(ApplicationListener<?> listener, Set<ResolvableType> eventTypes) {
+		if (listener instanceof ApplicationListenerMethodAdapter) {
+			for (ResolvableType declaredEventType : ((ApplicationListenerMethodAdapter) listener).getDeclaredEventTypes()) {
+				addEventType(declaredEventType, eventTypes);
+			}
+		}
+		else if (!(listener instanceof GenericApplicationListener || listener instanceof SmartApplicationListener)) {
+			Class<?> targetClass = AopUtils.getTargetClass(listener);
+			addEventType(GenericApplicationListenerAdapter.resolveDeclaredEventType(targetClass), eventTypes);
+		}
+	}
+
+	private void addEventType(@Nullable ResolvableType declaredEventType, Set<ResolvableType> eventTypes) {
+		if (declaredEventType == null || declaredEventType.hasUnresolvableGenerics()) {
+			return;
+		}
+		Class<?> eventClass = declaredEventType.toClass();
+		if (eventClass.isInterface() || Modifier.isAbstract(eventClass.getModifiers())) {
+			return;
+		}
+		if (ApplicationEvent.class.isAssignableFrom(eventClass)) {
+			eventTypes.add(declaredEventType);
+		}
+		else if (!eventClass.isPrimitive()) {
+			eventTypes.add(ResolvableType.forClassWithGenerics(PayloadApplicationEvent.class, declaredEventType));
 		}
 	}
 
@@ -213,22 +326,22 @@ public abstract class AbstractApplicationEventMulticaster
 	 * @return the pre-filtered list of application listeners for the given event and source type
 	 */
 	private Collection<ApplicationListener<?>> retrieveApplicationListeners(
-			ResolvableType eventType, @Nullable Class<?> sourceType, @Nullable ListenerRetriever retriever) {
+			ResolvableType eventType, @Nullable Class<?> sourceType, @Nullable CachedListenerRetriever retriever) {
 
 		List<ApplicationListener<?>> allListeners = new ArrayList<>();
-		Set<ApplicationListener<?>> listeners;
-		Set<String> listenerBeans;
-		synchronized (this.retrievalMutex) {
-			listeners = new LinkedHashSet<>(this.defaultRetriever.applicationListeners);
-			listenerBeans = new LinkedHashSet<>(this.defaultRetriever.applicationListenerBeans);
-		}
+		Set<ApplicationListener<?>> filteredListeners = (retriever != null ? new LinkedHashSet<>() : null);
+		Set<String> filteredListenerBeans = (retriever != null ? new LinkedHashSet<>() : null);
+
+		// Copy-on-write snapshots: safe to iterate without synchronization
+		Set<ApplicationListener<?>> listeners = this.defaultRetriever.applicationListeners;
+		Set<String> listenerBeans = this.defaultRetriever.applicationListenerBeans;
 
 		// Add programmatically registered listeners, including ones coming
 		// from ApplicationListenerDetector (singleton beans and inner beans).
 		for (ApplicationListener<?> listener : listeners) {
 			if (supportsEvent(listener, eventType, sourceType)) {
 				if (retriever != null) {
-					retriever.applicationListeners.add(listener);
+					filteredListeners.add(listener);
 				}
 				allListeners.add(listener);
 			}
@@ -246,10 +359,10 @@ public abstract class AbstractApplicationEventMulticaster
 						if (!allListeners.contains(listener) && supportsEvent(listener, eventType, sourceType)) {
 							if (retriever != null) {
 								if (beanFactory.isSingleton(listenerBeanName)) {
-									retriever.applicationListeners.add(listener);
+									filteredListeners.add(listener);
 								}
 								else {
-									retriever.applicationListenerBeans.add(listenerBeanName);
+									filteredListenerBeans.add(listenerBeanName);
 								}
 							}
 							allListeners.add(listener);
@@ -261,7 +374,7 @@ public abstract class AbstractApplicationEventMulticaster
 						// BeanDefinition metadata (e.g. factory method generics) above.
 						Object listener = beanFactory.getSingleton(listenerBeanName);
 						if (retriever != null) {
-							retriever.applicationListeners.remove(listener);
+							filteredListeners.remove(listener);
 						}
 						allListeners.remove(listener);
 					}
@@ -274,9 +387,15 @@ public abstract class AbstractApplicationEventMulticaster
 		}
 
 		AnnotationAwareOrderComparator.sort(allListeners);
-		if (retriever != null && retriever.applicationListenerBeans.isEmpty()) {
-			retriever.applicationListeners.clear();
-			retriever.applicationListeners.addAll(allListeners);
+		if (retriever != null) {
+			if (filteredListenerBeans.isEmpty()) {
+				retriever.applicationListeners = new LinkedHashSet<>(allListeners);
+				retriever.applicationListenerBeans = filteredListenerBeans;
+			}
+			else {
+				retriever.applicationListeners = filteredListeners;
+				retriever.applicationListenerBeans = filteredListenerBeans;
+			}
 		}
 		return allListeners;
 	}
@@ -414,29 +533,70 @@ public abstract class AbstractApplicationEventMulticaster
 	 * Helper class that encapsulates a specific set of target listeners,
 	 * allowing for efficient retrieval of pre-filtered listeners.
 	 * <p>An instance of this helper gets cached per event type and source type.
+	 * It is populated once by the first thread that retrieves its listeners,
+	 * with concurrent retrievals falling back to matching all listeners until then.
 	 */
-	private class ListenerRetriever {
+	private class CachedListenerRetriever {
 
-		public final Set<ApplicationListener<?>> applicationListeners = new LinkedHashSet<>();
+		@Nullable
+		public volatile Set<ApplicationListener<?>> applicationListeners;
 
-		public final Set<String> applicationListenerBeans = new LinkedHashSet<>();
+		@Nullable
+		public volatile Set<String> applicationListenerBeans;
 
-		private final boolean preFiltered;
+		@Nullable
+		public Collection<ApplicationListener<?>> getApplicationListeners() {
+			Set<ApplicationListener<?>> applicationListeners = this.applicationListeners;
+			Set<String> applicationListenerBeans = this.applicationListenerBeans;
+			if (applicationListeners == null || applicationListenerBeans == null) {
+				// Not fully populated yet
+				return null;
+			}
 
-		public ListenerRetriever(boolean preFiltered) {
-			this.preFiltered = preFiltered;
+			List<ApplicationListener<?>> allListeners = new ArrayList<>(
+					applicationListeners.size() + applicationListenerBeans.size());
+			allListeners.addAll(applicationListeners);
+			if (!applicationListenerBeans.isEmpty()) {
+				BeanFactory beanFactory = getBeanFactory();
+				for (String listenerBeanName : applicationListenerBeans) {
+					try {
+						allListeners.add(beanFactory.getBean(listenerBeanName, ApplicationListener.class));
+					}
+					catch (NoSuchBeanDefinitionException ex) {
+						// Singleton listener instance (without backing bean definition) disappeared -
+						// probably in the middle of the destruction phase
+					}
+				}
+				AnnotationAwareOrderComparator.sort(allListeners);
+			}
+			return allListeners;
 		}
+	}
+
+
+	/**
+	 * Helper class that encapsulates a general set of target listeners.
+	 * <p>Both sets are replaced as a whole on modification (copy-on-write),
+	 * so that they can be iterated without synchronization.
+	 */
+	private class DefaultListenerRetriever {
+
+		public volatile Set<ApplicationListener<?>> applicationListeners = new LinkedHashSet<>();
+
+		public volatile Set<String> applicationListenerBeans = new LinkedHashSet<>();
 
 		public Collection<ApplicationListener<?>> getApplicationListeners() {
+			Set<ApplicationListener<?>> applicationListeners = this.applicationListeners;
+			Set<String> applicationListenerBeans = this.applicationListenerBeans;
 			List<ApplicationListener<?>> allListeners = new ArrayList<>(
-					this.applicationListeners.size() + this.applicationListenerBeans.size());
-			allListeners.addAll(this.applicationListeners);
-			if (!this.applicationListenerBeans.isEmpty()) {
+					applicationListeners.size() + applicationListenerBeans.size());
+			allListeners.addAll(applicationListeners);
+			if (!applicationListenerBeans.isEmpty()) {
 				BeanFactory beanFactory = getBeanFactory();
-				for (String listenerBeanName : this.applicationListenerBeans) {
+				for (String listenerBeanName : applicationListenerBeans) {
 					try {
 						ApplicationListener<?> listener = beanFactory.getBean(listenerBeanName, ApplicationListener.class);
-						if (this.preFiltered || !allListeners.contains(listener)) {
+						if (!allListeners.contains(listener)) {
 							allListeners.add(listener);
 						}
 					}
@@ -446,9 +606,7 @@ public abstract class AbstractApplicationEventMulticaster
 					}
 				}
 			}
-			if (!this.preFiltered || !this.applicationListenerBeans.isEmpty()) {
-				AnnotationAwareOrderComparator.sort(allListeners);
-			}
+			AnnotationAwareOrderComparator.sort(allListeners);
 			return allListeners;
 		}
 	}
@@ -139,6 +139,14 @@ public class ApplicationListenerMethodAdapter implements GenericApplicationListe
 	}
 
 
+	/**
+	 * Return the event types declared by the listener method.
+	 * @since 5.2.1
+	 */
+	List<ResolvableType> getDeclaredEventTypes() {
+		return this.declaredEventTypes;
+	}
+
 	/**
 	 * Initialize this instance.
 	 */
@@ -57,6 +57,7 @@ import org.springframework.context.MessageSourceResolvable;
 import org.springframework.context.NoSuchMessageException;
 import org.springframework.context.PayloadApplicationEvent;
 import org.springframework.context.ResourceLoaderAware;
+import org.springframework.context.event.AbstractApplicationEventMulticaster;
 import org.springframework.context.event.ApplicationEventMulticaster;
 import org.springframework.context.event.ContextClosedEvent;
 import org.springframework.context.event.ContextRefreshedEvent;
@@ -897,6 +898,11 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader
 		// Propagate refresh to lifecycle processor first.
 		getLifecycleProcessor().onRefresh();
 
+		// Precompute event listeners per declared event type, if enabled.
+		if (this.applicationEventMulticaster instanceof AbstractApplicationEventMulticaster) {
+			((AbstractApplicationEventMulticaster) this.applicationEventMulticaster).precomputeListenerIndex(getClass());
+		}
+
 		// Publish the final event.
 		publishEvent(new ContextRefreshedEvent(this));
 
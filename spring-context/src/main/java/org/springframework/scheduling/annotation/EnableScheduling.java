@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -101,6 +101,10 @@ import org.springframework.scheduling.config.ScheduledTaskRegistrar;
  * bean. If neither of the two is resolvable, a local single-threaded default
  * scheduler will be created and used within the registrar.
  *
+ * <p>On JDK 21+, scheduled tasks can be run on virtual threads by declaring a
+ * {@link org.springframework.scheduling.concurrent.SimpleAsyncTaskScheduler} with
+ * {@code virtualThreads} enabled as the {@code TaskScheduler} bean.
+ *
  * <p>When more control is desired, a {@code @Configuration} class may implement
  * {@link SchedulingConfigurer}. This allows access to the underlying
  * {@link ScheduledTaskRegistrar} instance. For example, the following example
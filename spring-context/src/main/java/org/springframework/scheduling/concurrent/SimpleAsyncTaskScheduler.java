@@ -0,0 +1,273 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.scheduling.concurrent;
+
+import java.util.Date;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.lang.Nullable;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.Trigger;
+import org.springframework.scheduling.support.PeriodicTrigger;
+import org.springframework.scheduling.support.TaskUtils;
+import org.springframework.util.ErrorHandler;
+
+/**
+ * A simple implementation of Spring's {@link TaskScheduler} interface, using
+ * a single scheduler thread and executing every scheduled task execution in
+ * a new thread, as created by the {@link SimpleAsyncTaskExecutor} base class.
+ *
+ * <p>This is primarily meant for use with {@linkplain #setVirtualThreads
+ * virtual threads} on JDK 21+, where scheduled tasks that block (e.g. on JDBC
+ * calls) do not hold up other scheduled tasks, without having to size a
+ * scheduler pool for them. It may be declared as the {@link TaskScheduler}
+ * bean for {@code @Scheduled} methods.
+ *
+ * <p>The scheduler thread only hands off each execution to a new thread.
+ * As a consequence, fixed-rate executions of a long-running task may overlap.
+ * Fixed-delay tasks and trigger-based tasks are rescheduled after completion
+ * of each execution, so their executions never overlap.
+ *
+ * @since 5.2.1
+ * @see #setVirtualThreads
+ * @see #setErrorHandler
+ * @see ThreadPoolTaskScheduler
+ */
+@SuppressWarnings("serial")
+public class SimpleAsyncTaskScheduler extends SimpleAsyncTaskExecutor implements TaskScheduler, DisposableBean {
+
+	private final ScheduledExecutorService scheduledExecutor = createScheduledExecutor();
+
+	@Nullable
+	private ErrorHandler errorHandler;
+
+
+	/**
+	 * Create a new SimpleAsyncTaskScheduler with default thread name prefix.
+	 */
+	public SimpleAsyncTaskScheduler() {
+		super();
+	}
+
+	/**
+	 * Create a new SimpleAsyncTaskScheduler with the given thread name prefix.
+	 * @param threadNamePrefix the prefix to apply to the names of new threads
+	 */
+	public SimpleAsyncTaskScheduler(String threadNamePrefix) {
+		super(threadNamePrefix);
+	}
+
+
+	/**
+	 * Provide an {@link ErrorHandler} strategy.
+	 * <p>By default, errors are logged and suppressed for repeating tasks,
+	 * and propagated to the executing thread for one-time tasks.
+	 */
+	public void setErrorHandler(ErrorHandler errorHandler) {
+		this.errorHandler = errorHandler;
+	}
+
+	private ScheduledExecutorService createScheduledExecutor() {
+		ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, task -> {
+			// The scheduler thread only hands off executions: always a platform daemon thread,
+			// named at the time of the first scheduled task
+			Thread thread = new Thread(task, getThreadNamePrefix() + "scheduler");
+			thread.setDaemon(true);
+			return thread;
+		}) {
+			@Override
+			public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+				FutureTask<Object> task = new FutureTask<>(command, null);
+				return new HandOffScheduledFuture(super.schedule(handOff(task), delay, unit), task);
+			}
+			@Override
+			public ScheduledFuture<?> scheduleAtFixedRate(Runnable command, long initialDelay, long period, TimeUnit unit) {
+				return super.scheduleAtFixedRate(handOff(command), initialDelay, period, unit);
+			}
+		};
+		executor.setRemoveOnCancelPolicy(true);
+		return executor;
+	}
+
+	private Runnable handOff(Runnable task) {
+		return () -> {
+			try {
+				execute(task);
+			}
+			catch (RuntimeException ex) {
+				// Rejected by the concurrency limit: do not leave a one-time task pending forever
+				if (task instanceof Future) {
+					((Future<?>) task).cancel(false);
+				}
+				throw ex;
+			}
+		};
+	}
+
+
+	@Override
+	@Nullable
+	public ScheduledFuture<?> schedule(Runnable task, Trigger trigger) {
+		ErrorHandler errorHandler = (this.errorHandler != null ?
+				this.errorHandler : TaskUtils.getDefaultErrorHandler(true));
+		try {
+			return new ReschedulingRunnable(task, trigger, this.scheduledExecutor, errorHandler).schedule();
+		}
+		catch (RejectedExecutionException ex) {
+			throw new TaskRejectedException("Scheduler [" + this + "] did not accept task: " + task, ex);
+		}
+	}
+
+	@Override
+	public ScheduledFuture<?> schedule(Runnable task, Date startTime) {
+		long initialDelay = startTime.getTime() - System.currentTimeMillis();
+		try {
+			return this.scheduledExecutor.schedule(
+					errorHandlingTask(task, false), initialDelay, TimeUnit.MILLISECONDS);
+		}
+		catch (RejectedExecutionException ex) {
+			throw new TaskRejectedException("Scheduler [" + this + "] did not accept task: " + task, ex);
+		}
+	}
+
+	@Override
+	public ScheduledFuture<?> scheduleAtFixedRate(Runnable task, Date startTime, long period) {
+		long initialDelay = startTime.getTime() - System.currentTimeMillis();
+		try {
+			return this.scheduledExecutor.scheduleAtFixedRate(
+					errorHandlingTask(task, true), initialDelay, period, TimeUnit.MILLISECONDS);
+		}
+		catch (RejectedExecutionException ex) {
+			throw new TaskRejectedException("Scheduler [" + this + "] did not accept task: " + task, ex);
+		}
+	}
+
+	@Override
+	public ScheduledFuture<?> scheduleAtFixedRate(Runnable task, long period) {
+		try {
+			return this.scheduledExecutor.scheduleAtFixedRate(
+					errorHandlingTask(task, true), 0, period, TimeUnit.MILLISECONDS);
+		}
+		catch (RejectedExecutionException ex) {
+			throw new TaskRejectedException("Scheduler [" + this + "] did not accept task: " + task, ex);
+		}
+	}
+
+	@Override
+	public ScheduledFuture<?> scheduleWithFixedDelay(Runnable task, Date startTime, long delay) {
+		long initialDelay = startTime.getTime() - System.currentTimeMillis();
+		return scheduleWithFixedDelay(task, Math.max(initialDelay, 0), delay);
+	}
+
+	@Override
+	public ScheduledFuture<?> scheduleWithFixedDelay(Runnable task, long delay) {
+		return scheduleWithFixedDelay(task, 0, delay);
+	}
+
+	private ScheduledFuture<?> scheduleWithFixedDelay(Runnable task, long initialDelay, long delay) {
+		// Rescheduled after completion on the executing thread, rather than blocking the scheduler thread
+		PeriodicTrigger trigger = new PeriodicTrigger(delay, TimeUnit.MILLISECONDS);
+		trigger.setInitialDelay(initialDelay);
+		ScheduledFuture<?> future = schedule(task, trigger);
+		if (future == null) {
+			throw new IllegalStateException("No initial execution time for fixed-delay task: " + task);
+		}
+		return future;
+	}
+
+	private Runnable errorHandlingTask(Runnable task, boolean isRepeatingTask) {
+		return TaskUtils.decorateTaskWithErrorHandler(task, this.errorHandler, isRepeatingTask);
+	}
+
+
+	/**
+	 * Shut down the scheduler thread, cancelling all scheduled tasks.
+	 * Executions that have already been handed off are not interrupted.
+	 */
+	@Override
+	public void destroy() {
+		this.scheduledExecutor.shutdownNow();
+	}
+
+
+	/**
+	 * {@link ScheduledFuture} for a task that is handed off to a new thread
+	 * once due, representing the completion of the task on that thread.
+	 */
+	private static class HandOffScheduledFuture implements ScheduledFuture<Object> {
+
+		private final ScheduledFuture<?> handOffFuture;
+
+		private final FutureTask<Object> task;
+
+		HandOffScheduledFuture(ScheduledFuture<?> handOffFuture, FutureTask<Object> task) {
+			this.handOffFuture = handOffFuture;
+			this.task = task;
+		}
+
+		@Override
+		public boolean cancel(boolean mayInterruptIfRunning) {
+			boolean handOffCancelled = this.handOffFuture.cancel(false);
+			return (this.task.cancel(mayInterruptIfRunning) || handOffCancelled);
+		}
+
+		@Override
+		public boolean isCancelled() {
+			return this.task.isCancelled();
+		}
+
+		@Override
+		public boolean isDone() {
+			return this.task.isDone();
+		}
+
+		@Override
+		public Object get() throws InterruptedException, ExecutionException {
+			return this.task.get();
+		}
+
+		@Override
+		public Object get(long timeout, TimeUnit unit)
+				throws InterruptedException, ExecutionException, TimeoutException {
+
+			return this.task.get(timeout, unit);
+		}
+
+		@Override
+		public long getDelay(TimeUnit unit) {
+			return this.handOffFuture.getDelay(unit);
+		}
+
+		@Override
+		public int compareTo(Delayed other) {
+			return this.handOffFuture.compareTo(other);
+		}
+	}
+
+}
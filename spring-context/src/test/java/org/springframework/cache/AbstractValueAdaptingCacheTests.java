@@ -16,10 +16,14 @@
 
 package org.springframework.cache;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.junit.jupiter.api.Test;
 
 import org.springframework.cache.support.AbstractValueAdaptingCache;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
 
 /**
@@ -42,4 +46,43 @@ public abstract class AbstractValueAdaptingCacheTests<T extends AbstractValueAda
 			.withMessageContaining("is configured to not allow null values but null was provided");
 	}
 
+	@Test
+	public void testCacheRetrieveCoalescesConcurrentLoads() {
+		T cache = getCache();
+		String key = createRandomKey();
+		AtomicInteger loads = new AtomicInteger();
+		CompletableFuture<Object> value = new CompletableFuture<>();
+
+		CompletableFuture<Object> first = cache.retrieve(key, () -> {
+			loads.incrementAndGet();
+			return value;
+		});
+		CompletableFuture<Object> second = cache.retrieve(key, () -> {
+			loads.incrementAndGet();
+			return CompletableFuture.completedFuture("other");
+		});
+		assertThat(first).isNotDone();
+		assertThat(second).isNotDone();
+
+		value.complete("value");
+		assertThat(first.join()).isEqualTo("value");
+		assertThat(second.join()).isEqualTo("value");
+		assertThat(loads.get()).isEqualTo(1);
+		assertThat(cache.get(key).get()).isEqualTo("value");
+		assertThat(cache.retrieve(key).join().get()).isEqualTo("value");
+		assertThat(cache.retrieve(key, () -> CompletableFuture.completedFuture("other")).join()).isEqualTo("value");
+	}
+
+	@Test
+	public void testCacheRetrieveFailedLoad() {
+		T cache = getCache();
+		String key = createRandomKey();
+		CompletableFuture<Object> failure = new CompletableFuture<>();
+		failure.completeExceptionally(new IllegalStateException("test"));
+
+		assertThat(cache.retrieve(key, () -> failure)).isCompletedExceptionally();
+		assertThat(cache.retrieve(key)).isNull();
+		assertThat(cache.retrieve(key, () -> CompletableFuture.completedFuture("value")).join()).isEqualTo("value");
+	}
+
 }
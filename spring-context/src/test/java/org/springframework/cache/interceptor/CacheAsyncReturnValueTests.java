@@ -0,0 +1,229 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.interceptor;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+/**
+ * Tests for caching methods that return a {@link CompletableFuture}
+ * or a reactive type.
+ */
+public class CacheAsyncReturnValueTests {
+
+	private ConfigurableApplicationContext context;
+
+	private AsyncService service;
+
+	private Cache cache;
+
+
+	@BeforeEach
+	public void setUp() {
+		this.context = new AnnotationConfigApplicationContext(Config.class);
+		this.service = this.context.getBean(AsyncService.class);
+		this.cache = this.context.getBean(CacheManager.class).getCache("testCache");
+	}
+
+	@AfterEach
+	public void closeContext() {
+		this.context.close();
+	}
+
+
+	@Test
+	public void cacheableCompletableFuture() {
+		CompletableFuture<Long> first = this.service.completableFuture("key");
+		assertThat(first.join()).isEqualTo(0L);
+		assertThat(this.cache.get("key").get()).isEqualTo(0L);
+		assertThat(this.service.completableFuture("key").join()).isEqualTo(0L);
+		assertThat(this.service.getInvocations()).isEqualTo(1);
+	}
+
+	@Test
+	public void cacheableMono() {
+		Mono<Long> mono = this.service.mono("key");
+		assertThat(this.service.getInvocations()).as("deferred until subscription").isEqualTo(0);
+		assertThat(this.cache.get("key")).isNull();
+
+		assertThat(mono.block()).isEqualTo(0L);
+		assertThat(this.cache.get("key").get()).isEqualTo(0L);
+		assertThat(mono.block()).isEqualTo(0L);
+		assertThat(this.service.mono("key").block()).isEqualTo(0L);
+		assertThat(this.service.getInvocations()).isEqualTo(1);
+	}
+
+	@Test
+	public void cacheableEmptyMono() {
+		assertThat(this.service.emptyMono("key").block()).isNull();
+		assertThat(this.cache.get("key").get()).isNull();
+		assertThat(this.service.emptyMono("key").block()).isNull();
+		assertThat(this.service.getInvocations()).isEqualTo(1);
+	}
+
+	@Test
+	public void cacheableFlux() {
+		assertThat(this.service.flux("key").collectList().block()).containsExactly(0L, 1L);
+		assertThat(this.cache.get("key").get()).isEqualTo(Arrays.asList(0L, 1L));
+		assertThat(this.service.flux("key").collectList().block()).containsExactly(0L, 1L);
+		assertThat(this.service.getInvocations()).isEqualTo(1);
+	}
+
+	@Test
+	public void cacheableMonoWithUnless() {
+		assertThat(this.service.monoUnless("key").block()).isEqualTo(0L);
+		assertThat(this.cache.get("key")).isNull();
+		assertThat(this.service.monoUnless("key").block()).isEqualTo(1L);
+		assertThat(this.cache.get("key").get()).isEqualTo(1L);
+	}
+
+	@Test
+	public void cacheableMonoError() {
+		assertThatIllegalStateException().isThrownBy(() -> this.service.monoError("key").block());
+		assertThat(this.cache.get("key")).isNull();
+	}
+
+	@Test
+	public void cachePutAndEvictMono() {
+		assertThat(this.service.monoPut("key").block()).isEqualTo(0L);
+		assertThat(this.cache.get("key").get()).isEqualTo(0L);
+		assertThat(this.service.monoEvict("key").block()).isEqualTo(1L);
+		assertThat(this.cache.get("key")).isNull();
+	}
+
+	@Test
+	public void cacheableSyncCoalescesConcurrentMisses() {
+		CompletableFuture<Long> value = new CompletableFuture<>();
+		this.service.setPendingValue(value);
+
+		CompletableFuture<Long> first = this.service.monoSync("key").toFuture();
+		CompletableFuture<Long> second = this.service.monoSync("key").toFuture();
+		assertThat(first).isNotDone();
+		assertThat(second).isNotDone();
+
+		value.complete(42L);
+		assertThat(first.join()).isEqualTo(42L);
+		assertThat(second.join()).isEqualTo(42L);
+		assertThat(this.service.getInvocations()).isEqualTo(1);
+		assertThat(this.cache.get("key").get()).isEqualTo(42L);
+	}
+
+
+	static class AsyncService {
+
+		private final AtomicInteger invocations = new AtomicInteger();
+
+		private CompletableFuture<Long> pendingValue;
+
+		public int getInvocations() {
+			return this.invocations.get();
+		}
+
+		public void setPendingValue(CompletableFuture<Long> pendingValue) {
+			this.pendingValue = pendingValue;
+		}
+
+		@Cacheable("testCache")
+		public CompletableFuture<Long> completableFuture(Object key) {
+			return CompletableFuture.supplyAsync(() -> (long) this.invocations.getAndIncrement());
+		}
+
+		@Cacheable("testCache")
+		public Mono<Long> mono(Object key) {
+			this.invocations.incrementAndGet();
+			return Mono.just(0L).delayElement(Duration.ofMillis(10));
+		}
+
+		@Cacheable("testCache")
+		public Mono<Long> emptyMono(Object key) {
+			this.invocations.incrementAndGet();
+			return Mono.empty();
+		}
+
+		@Cacheable("testCache")
+		public Flux<Long> flux(Object key) {
+			this.invocations.incrementAndGet();
+			return Flux.just(0L, 1L);
+		}
+
+		@Cacheable(cacheNames = "testCache", unless = "#result == 0")
+		public Mono<Long> monoUnless(Object key) {
+			return Mono.fromSupplier(() -> (long) this.invocations.getAndIncrement());
+		}
+
+		@Cacheable("testCache")
+		public Mono<Long> monoError(Object key) {
+			return Mono.error(new IllegalStateException("test"));
+		}
+
+		@CachePut("testCache")
+		public Mono<Long> monoPut(Object key) {
+			return Mono.fromSupplier(() -> (long) this.invocations.getAndIncrement());
+		}
+
+		@CacheEvict("testCache")
+		public Mono<Long> monoEvict(Object key) {
+			return Mono.fromSupplier(() -> (long) this.invocations.getAndIncrement());
+		}
+
+		@Cacheable(cacheNames = "testCache", sync = true)
+		public Mono<Long> monoSync(Object key) {
+			this.invocations.incrementAndGet();
+			return Mono.fromFuture(this.pendingValue);
+		}
+	}
+
+
+	@Configuration
+	@EnableCaching
+	static class Config {
+
+		@Bean
+		public CacheManager cacheManager() {
+			return new ConcurrentMapCacheManager("testCache");
+		}
+
+		@Bean
+		public AsyncService asyncService() {
+			return new AsyncService();
+		}
+	}
+
+}
@@ -0,0 +1,248 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.interceptor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.cache.support.SimpleCacheManager;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+/**
+ * Tests for {@code @Cacheable(batch=true)} operations.
+ */
+public class CacheBatchTests {
+
+	private ConfigurableApplicationContext context;
+
+	private BatchService service;
+
+	private BulkCountingCache cache;
+
+
+	@BeforeEach
+	public void setUp() {
+		this.context = new AnnotationConfigApplicationContext(Config.class);
+		this.service = this.context.getBean(BatchService.class);
+		this.cache = (BulkCountingCache) this.context.getBean(CacheManager.class).getCache("testCache");
+	}
+
+	@AfterEach
+	public void closeContext() {
+		this.context.close();
+	}
+
+
+	@Test
+	public void invokeForMissingKeysOnly() {
+		this.cache.put(2L, "cached-2");
+
+		Map<Long, String> result = this.service.find(Arrays.asList(1L, 2L, 3L));
+		assertThat(result).containsExactly(entry(1L, "book-1"), entry(2L, "cached-2"), entry(3L, "book-3"));
+		assertThat(this.service.getRequestedIds()).containsExactly(Arrays.asList(1L, 3L));
+		assertThat(this.cache.get(1L).get()).isEqualTo("book-1");
+		assertThat(this.cache.get(3L).get()).isEqualTo("book-3");
+		assertThat(this.cache.getBulkLookups()).isEqualTo(1);
+		assertThat(this.cache.getBulkPuts()).isEqualTo(1);
+	}
+
+	@Test
+	public void noInvocationWhenAllCached() {
+		this.service.find(Arrays.asList(1L, 2L));
+		Map<Long, String> result = this.service.find(Arrays.asList(2L, 1L));
+
+		assertThat(result).containsExactly(entry(2L, "book-2"), entry(1L, "book-1"));
+		assertThat(this.service.getRequestedIds()).hasSize(1);
+	}
+
+	@Test
+	public void unknownKeysAreOmitted() {
+		Map<Long, String> result = this.service.find(Arrays.asList(1L, -1L));
+
+		assertThat(result).containsOnlyKeys(1L);
+		assertThat(this.cache.get(-1L)).isNull();
+		this.service.find(Collections.singletonList(-1L));
+		assertThat(this.service.getRequestedIds()).hasSize(2);
+	}
+
+	@Test
+	public void unlessIsEvaluatedPerValue() {
+		this.service.findUnless(Arrays.asList(1L, 2L));
+
+		assertThat(this.cache.get(1L)).isNull();
+		assertThat(this.cache.get(2L).get()).isEqualTo("book-2");
+	}
+
+	@Test
+	public void explicitKeyWithSetParameter() {
+		this.cache.put(1L, "cached-1");
+
+		Map<Long, String> result = this.service.findWithOptions("x", new LinkedHashSet<>(Arrays.asList(1L, 2L)));
+		assertThat(result).containsExactly(entry(1L, "cached-1"), entry(2L, "x-2"));
+		assertThat(this.service.getRequestedIds()).containsExactly(Collections.singletonList(2L));
+	}
+
+	@Test
+	public void conditionNotPassing() {
+		this.cache.put(1L, "cached-1");
+
+		Map<Long, String> result = this.service.findConditional(Arrays.asList(1L, 2L), false);
+		assertThat(result).containsExactly(entry(1L, "book-1"), entry(2L, "book-2"));
+		assertThat(this.cache.get(2L)).isNull();
+	}
+
+	@Test
+	public void keyNotReferringToArgument() {
+		assertThatIllegalStateException().isThrownBy(() -> this.service.invalidKey(Arrays.asList(1L, 2L)));
+	}
+
+	@Test
+	public void combinedWithOtherOperation() {
+		assertThatIllegalStateException().isThrownBy(() -> this.service.invalidCombination(Arrays.asList(1L, 2L)));
+	}
+
+
+	private static Map.Entry<Long, String> entry(Long key, String value) {
+		return Collections.singletonMap(key, value).entrySet().iterator().next();
+	}
+
+
+	static class BatchService {
+
+		private final List<List<Long>> requestedIds = new ArrayList<>();
+
+		public List<List<Long>> getRequestedIds() {
+			return this.requestedIds;
+		}
+
+		@Cacheable(cacheNames = "testCache", batch = true)
+		public Map<Long, String> find(Collection<Long> ids) {
+			return load("book", ids);
+		}
+
+		@Cacheable(cacheNames = "testCache", batch = true, unless = "#result == 'book-1'")
+		public Map<Long, String> findUnless(List<Long> ids) {
+			return load("book", ids);
+		}
+
+		@Cacheable(cacheNames = "testCache", batch = true, key = "#ids")
+		public Map<Long, String> findWithOptions(String prefix, Set<Long> ids) {
+			return load(prefix, ids);
+		}
+
+		@Cacheable(cacheNames = "testCache", batch = true, key = "#ids", condition = "#cache")
+		public Map<Long, String> findConditional(List<Long> ids, boolean cache) {
+			return load("book", ids);
+		}
+
+		@Cacheable(cacheNames = "testCache", batch = true, key = "new java.util.ArrayList(#ids)")
+		public Map<Long, String> invalidKey(List<Long> ids) {
+			return load("book", ids);
+		}
+
+		@Cacheable(cacheNames = "testCache", batch = true)
+		@CacheEvict(cacheNames = "testCache", key = "'other'")
+		public Map<Long, String> invalidCombination(List<Long> ids) {
+			return load("book", ids);
+		}
+
+		private Map<Long, String> load(String prefix, Collection<Long> ids) {
+			this.requestedIds.add(new ArrayList<>(ids));
+			Map<Long, String> result = new LinkedHashMap<>();
+			for (Long id : ids) {
+				if (id > 0) {
+					result.put(id, prefix + "-" + id);
+				}
+			}
+			return result;
+		}
+	}
+
+
+	static class BulkCountingCache extends ConcurrentMapCache {
+
+		private int bulkLookups;
+
+		private int bulkPuts;
+
+		public BulkCountingCache(String name) {
+			super(name);
+		}
+
+		public int getBulkLookups() {
+			return this.bulkLookups;
+		}
+
+		public int getBulkPuts() {
+			return this.bulkPuts;
+		}
+
+		@Override
+		public Map<Object, Cache.ValueWrapper> getAll(Collection<?> keys) {
+			this.bulkLookups++;
+			return super.getAll(keys);
+		}
+
+		@Override
+		public void putAll(Map<?, ?> entries) {
+			this.bulkPuts++;
+			super.putAll(entries);
+		}
+	}
+
+
+	@Configuration
+	@EnableCaching
+	static class Config {
+
+		@Bean
+		public CacheManager cacheManager() {
+			SimpleCacheManager cacheManager = new SimpleCacheManager();
+			cacheManager.setCaches(Collections.singletonList(new BulkCountingCache("testCache")));
+			return cacheManager;
+		}
+
+		@Bean
+		public BatchService batchService() {
+			return new BatchService();
+		}
+	}
+
+}
@@ -0,0 +1,443 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.interceptor;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.aop.interceptor.ExposeInvocationInterceptor;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.AnnotationCacheOperationSource;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.cache.support.SimpleCacheManager;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.lang.Nullable;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+/**
+ * Tests for {@code @Cacheable} operations that coalesce concurrent misses
+ * or refresh entries ahead of their expiration.
+ */
+public class CacheCoalescingAndRefreshAheadTests {
+
+	private ConfigurableApplicationContext context;
+
+	private SampleService service;
+
+	private ExpiringCache primary;
+
+	private ExpiringCache secondary;
+
+
+	@BeforeEach
+	public void setUp() {
+		this.context = new AnnotationConfigApplicationContext(Config.class);
+		this.service = this.context.getBean(SampleService.class);
+		CacheManager cacheManager = this.context.getBean(CacheManager.class);
+		this.primary = (ExpiringCache) cacheManager.getCache("primary");
+		this.secondary = (ExpiringCache) cacheManager.getCache("secondary");
+	}
+
+	@AfterEach
+	public void closeContext() {
+		this.context.close();
+	}
+
+
+	@Test
+	public void coalesceConcurrentMisses() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		this.service.setLatch(release);
+
+		CompletableFuture<Long> leader = CompletableFuture.supplyAsync(() -> this.service.coalesced("key"));
+		awaitInvocations(1);
+		CompletableFuture<Long> follower = new CompletableFuture<>();
+		Thread thread = new Thread(() -> follower.complete(this.service.coalesced("key")));
+		thread.start();
+		awaitWaiting(thread);
+
+		release.countDown();
+		assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo(0L);
+		assertThat(follower.get(5, TimeUnit.SECONDS)).isEqualTo(0L);
+		assertThat(this.service.getInvocations()).isEqualTo(1);
+		assertThat(this.primary.get("key").get()).isEqualTo(0L);
+		assertThat(this.secondary.get("key").get()).isEqualTo(0L);
+	}
+
+	@Test
+	public void coalesceConcurrentMissesWithUnless() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		this.service.setLatch(release);
+
+		CompletableFuture<Long> leader = CompletableFuture.supplyAsync(() -> this.service.coalescedUnless("key"));
+		awaitInvocations(1);
+		CompletableFuture<Long> follower = new CompletableFuture<>();
+		Thread thread = new Thread(() -> follower.complete(this.service.coalescedUnless("key")));
+		thread.start();
+		awaitWaiting(thread);
+
+		release.countDown();
+		assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo(0L);
+		assertThat(follower.get(5, TimeUnit.SECONDS)).isEqualTo(0L);
+		assertThat(this.primary.get("key")).isNull();
+
+		assertThat(this.service.coalescedUnless("key")).isEqualTo(1L);
+		assertThat(this.service.getInvocations()).isEqualTo(2);
+	}
+
+	@Test
+	public void coalesceConcurrentMissesWithException() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		this.service.setLatch(release);
+
+		CompletableFuture<Long> leader = CompletableFuture.supplyAsync(() -> this.service.coalescedError("key"));
+		awaitInvocations(1);
+		AtomicInteger failures = new AtomicInteger();
+		Thread thread = new Thread(() -> {
+			try {
+				this.service.coalescedError("key");
+			}
+			catch (IllegalStateException ex) {
+				failures.incrementAndGet();
+			}
+		});
+		thread.start();
+		awaitWaiting(thread);
+
+		release.countDown();
+		thread.join(5000);
+		assertThat(failures.get()).isEqualTo(1);
+		assertThatExceptionOfType(ExecutionException.class).isThrownBy(() -> leader.get(5, TimeUnit.SECONDS))
+				.withCauseInstanceOf(IllegalStateException.class);
+		assertThat(this.service.getInvocations()).isEqualTo(1);
+		assertThatIllegalStateException().isThrownBy(() -> this.service.coalescedError("key"));
+		assertThat(this.service.getInvocations()).isEqualTo(2);
+	}
+
+	@Test
+	public void coalesceNestedMissOnSameThread() {
+		this.service.setSelf(this.service);
+		Long value = assertTimeoutPreemptively(Duration.ofSeconds(5), () -> this.service.coalescedNested("key", 1));
+		assertThat(value).isEqualTo(0L);
+		assertThat(this.service.getInvocations()).isEqualTo(2);
+		assertThat(this.primary.get("key").get()).isEqualTo(0L);
+	}
+
+	@Test
+	public void coalesceConcurrentMissesAsync() {
+		CompletableFuture<Long> value = new CompletableFuture<>();
+		this.service.setPendingValue(value);
+
+		CompletableFuture<Long> first = this.service.coalescedMono("key").toFuture();
+		CompletableFuture<Long> second = this.service.coalescedMono("key").toFuture();
+		assertThat(first).isNotDone();
+		assertThat(second).isNotDone();
+
+		value.complete(42L);
+		assertThat(first.join()).isEqualTo(42L);
+		assertThat(second.join()).isEqualTo(42L);
+		assertThat(this.service.getInvocations()).isEqualTo(1);
+		assertThat(this.primary.get("key").get()).isEqualTo(42L);
+	}
+
+	@Test
+	public void refreshAheadOfExpiration() {
+		this.primary.setTimeToLive(Duration.ofSeconds(10));
+		assertThat(this.service.refreshed("key")).isEqualTo(0L);
+		assertThat(this.service.refreshed("key")).isEqualTo(0L);
+		assertThat(this.service.getInvocations()).isEqualTo(1);
+
+		this.primary.setTimeToLive(Duration.ofMillis(500));
+		assertThat(this.service.refreshed("key")).as("stale value served").isEqualTo(0L);
+		assertThat(this.service.getInvocations()).isEqualTo(2);
+		assertThat(this.primary.get("key").get()).isEqualTo(1L);
+
+		this.primary.setTimeToLive(Duration.ofSeconds(10));
+		assertThat(this.service.refreshed("key")).isEqualTo(1L);
+		assertThat(this.service.getInvocations()).isEqualTo(2);
+	}
+
+	@Test
+	public void refreshAheadOfExpirationWithSync() {
+		this.primary.setTimeToLive(Duration.ofMillis(500));
+		assertThat(this.service.refreshedSync("key")).as("miss not refreshed").isEqualTo(0L);
+		assertThat(this.service.getInvocations()).isEqualTo(1);
+
+		assertThat(this.service.refreshedSync("key")).as("stale value served").isEqualTo(0L);
+		assertThat(this.service.getInvocations()).isEqualTo(2);
+		assertThat(this.primary.get("key").get()).isEqualTo(1L);
+	}
+
+	@Test
+	public void refreshAheadNotAppliedWhenMethodIsInvoked() {
+		this.primary.setTimeToLive(Duration.ofMillis(500));
+		assertThat(this.service.refreshedAndPut("key")).isEqualTo(0L);
+		assertThat(this.service.refreshedAndPut("key")).isEqualTo(1L);
+		assertThat(this.service.getInvocations()).isEqualTo(2);
+		assertThat(this.primary.get("key").get()).isEqualTo(1L);
+	}
+
+	@Test
+	public void refreshAheadWithoutTimeToLive() {
+		assertThat(this.service.refreshed("key")).isEqualTo(0L);
+		assertThat(this.service.refreshed("key")).isEqualTo(0L);
+		assertThat(this.service.getInvocations()).isEqualTo(1);
+	}
+
+	@Test
+	public void refreshAheadOfExpirationAsync() {
+		this.service.setPendingValue(CompletableFuture.completedFuture(42L));
+		assertThat(this.service.refreshedMono("key").block()).isEqualTo(42L);
+
+		this.primary.setTimeToLive(Duration.ofMillis(500));
+		this.service.setPendingValue(CompletableFuture.completedFuture(43L));
+		assertThat(this.service.refreshedMono("key").block()).isEqualTo(42L);
+		assertThat(this.primary.get("key").get()).isEqualTo(43L);
+		assertThat(this.service.getInvocations()).isEqualTo(2);
+	}
+
+
+	@Test
+	public void refreshAheadOnExecutorThreadWithDownstreamInterceptor() throws Exception {
+		ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+		executor.setThreadNamePrefix("refresh-");
+		executor.initialize();
+		try {
+			CacheInterceptor cacheInterceptor = new CacheInterceptor();
+			cacheInterceptor.setCacheOperationSource(new AnnotationCacheOperationSource());
+			cacheInterceptor.setCacheManager(this.context.getBean(CacheManager.class));
+			cacheInterceptor.setRefreshExecutor(executor);
+			cacheInterceptor.afterPropertiesSet();
+			cacheInterceptor.afterSingletonsInstantiated();
+
+			ThreadLocal<String> callerState = new ThreadLocal<>();
+			List<String> observed = new CopyOnWriteArrayList<>();
+			MethodInterceptor downstream = invocation -> {
+				boolean invocationExposed;
+				try {
+					ExposeInvocationInterceptor.currentInvocation();
+					invocationExposed = true;
+				}
+				catch (IllegalStateException ex) {
+					invocationExposed = false;
+				}
+				observed.add(Thread.currentThread().getName().startsWith("refresh-") + ":" +
+						callerState.get() + ":" + invocationExposed);
+				return invocation.proceed();
+			};
+			ProxyFactory proxyFactory = new ProxyFactory(new SampleService());
+			proxyFactory.addAdvice(ExposeInvocationInterceptor.INSTANCE);
+			proxyFactory.addAdvice(cacheInterceptor);
+			proxyFactory.addAdvice(downstream);
+			SampleService proxy = (SampleService) proxyFactory.getProxy();
+
+			callerState.set("caller");
+			this.primary.setTimeToLive(Duration.ofMillis(500));
+			assertThat(proxy.refreshed("key")).isEqualTo(0L);
+			assertThat(proxy.refreshed("key")).as("stale value served").isEqualTo(0L);
+			long deadline = System.currentTimeMillis() + 5000;
+			while (!Long.valueOf(1L).equals(this.primary.get("key").get()) && System.currentTimeMillis() < deadline) {
+				Thread.sleep(5);
+			}
+			assertThat(this.primary.get("key").get()).isEqualTo(1L);
+			// The refresh runs through the downstream interceptor on an executor thread,
+			// without the thread-bound state of the caller
+			assertThat(observed).containsExactly("false:caller:true", "true:null:false");
+		}
+		finally {
+			executor.shutdown();
+		}
+	}
+
+
+	private void awaitInvocations(int invocations) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 5000;
+		while (this.service.getInvocations() < invocations && System.currentTimeMillis() < deadline) {
+			Thread.sleep(5);
+		}
+		assertThat(this.service.getInvocations()).isEqualTo(invocations);
+	}
+
+	private static void awaitWaiting(Thread thread) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 5000;
+		while (thread.getState() != Thread.State.WAITING && System.currentTimeMillis() < deadline) {
+			Thread.sleep(5);
+		}
+		assertThat(thread.getState()).isEqualTo(Thread.State.WAITING);
+	}
+
+
+	static class SampleService {
+
+		private final AtomicInteger invocations = new AtomicInteger();
+
+		private CountDownLatch latch = new CountDownLatch(0);
+
+		private CompletableFuture<Long> pendingValue;
+
+		private SampleService self;
+
+		public int getInvocations() {
+			return this.invocations.get();
+		}
+
+		public void setLatch(CountDownLatch latch) {
+			this.latch = latch;
+		}
+
+		public void setPendingValue(CompletableFuture<Long> pendingValue) {
+			this.pendingValue = pendingValue;
+		}
+
+		public void setSelf(SampleService self) {
+			this.self = self;
+		}
+
+		@Cacheable(cacheNames = {"primary", "secondary"}, coalesce = true)
+		public Long coalesced(Object key) {
+			return awaitAndCount();
+		}
+
+		@Cacheable(cacheNames = "primary", unless = "#result == 0", coalesce = true)
+		public Long coalescedUnless(Object key) {
+			return awaitAndCount();
+		}
+
+		@Cacheable(cacheNames = "primary", coalesce = true)
+		public Long coalescedError(Object key) {
+			awaitAndCount();
+			throw new IllegalStateException("test");
+		}
+
+		@Cacheable(cacheNames = "primary", key = "#key", coalesce = true)
+		public Long coalescedNested(Object key, int depth) {
+			this.invocations.incrementAndGet();
+			return (depth > 0 ? this.self.coalescedNested(key, depth - 1) : 0L);
+		}
+
+		@Cacheable(cacheNames = "primary", coalesce = true)
+		public Mono<Long> coalescedMono(Object key) {
+			this.invocations.incrementAndGet();
+			return Mono.fromFuture(this.pendingValue);
+		}
+
+		@Cacheable(cacheNames = "primary", refreshAhead = 1000)
+		public Long refreshed(Object key) {
+			return (long) this.invocations.getAndIncrement();
+		}
+
+		@Cacheable(cacheNames = "primary", sync = true, refreshAhead = 1000)
+		public Long refreshedSync(Object key) {
+			return (long) this.invocations.getAndIncrement();
+		}
+
+		@Cacheable(cacheNames = "primary", refreshAhead = 1000)
+		@CachePut(cacheNames = "primary")
+		public Long refreshedAndPut(Object key) {
+			return (long) this.invocations.getAndIncrement();
+		}
+
+		@Cacheable(cacheNames = "primary", refreshAhead = 1000)
+		public Mono<Long> refreshedMono(Object key) {
+			this.invocations.incrementAndGet();
+			return Mono.fromFuture(this.pendingValue);
+		}
+
+		private long awaitAndCount() {
+			long invocation = this.invocations.getAndIncrement();
+			try {
+				this.latch.await(5, TimeUnit.SECONDS);
+			}
+			catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+			}
+			return invocation;
+		}
+	}
+
+
+	static class ExpiringCache extends ConcurrentMapCache {
+
+		@Nullable
+		private volatile Duration timeToLive;
+
+		public ExpiringCache(String name) {
+			super(name);
+		}
+
+		public void setTimeToLive(Duration timeToLive) {
+			this.timeToLive = timeToLive;
+		}
+
+		@Override
+		@Nullable
+		public Duration getTimeToLive(Object key) {
+			return (getNativeCache().containsKey(key) ? this.timeToLive : null);
+		}
+	}
+
+
+	@Configuration
+	@EnableCaching
+	static class Config {
+
+		@Bean
+		public CacheManager cacheManager() {
+			SimpleCacheManager cacheManager = new SimpleCacheManager();
+			cacheManager.setCaches(Arrays.asList(new ExpiringCache("primary"), new ExpiringCache("secondary")));
+			return cacheManager;
+		}
+
+		@Bean
+		public TaskExecutor taskExecutor() {
+			return new SyncTaskExecutor();
+		}
+
+		@Bean
+		public SampleService sampleService() {
+			return new SampleService();
+		}
+	}
+
+}
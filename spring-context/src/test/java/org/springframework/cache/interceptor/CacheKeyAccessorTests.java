@@ -0,0 +1,150 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.interceptor;
+
+import java.lang.reflect.Method;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.expression.spel.SpelEvaluationException;
+import org.springframework.util.ReflectionUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+/**
+ * Unit tests for {@link CacheKeyAccessor}.
+ */
+public class CacheKeyAccessorTests {
+
+	private final ParameterNameDiscoverer parameterNameDiscoverer = new DefaultParameterNameDiscoverer();
+
+	private final Method method = ReflectionUtils.findMethod(getClass(), "find", String.class, Book.class);
+
+
+	@Test
+	public void argumentReferences() {
+		Book book = new Book("isbn", null);
+		Object[] args = new Object[] {"id", book};
+
+		assertThat(resolve("#id").getKey(args)).isEqualTo("id");
+		assertThat(resolve(" #book ").getKey(args)).isSameAs(book);
+		assertThat(resolve("#p0").getKey(args)).isEqualTo("id");
+		assertThat(resolve("#a1").getKey(args)).isSameAs(book);
+	}
+
+	@Test
+	public void propertyPaths() {
+		Book book = new Book("isbn", new Book("other", null));
+		Object[] args = new Object[] {"id", book};
+
+		assertThat(resolve("#book.isbn").getKey(args)).isEqualTo("isbn");
+		assertThat(resolve("#p1.sequel.isbn").getKey(args)).isEqualTo("other");
+		assertThat(resolve("#book.sequel?.sequel?.isbn").getKey(args)).isNull();
+		assertThat(resolve("#id.empty").getKey(args)).isEqualTo(false);
+	}
+
+	@Test
+	public void propertyPathIsStableAcrossCompilation() {
+		CacheKeyAccessor accessor = resolve("#book.isbn");
+		for (int i = 0; i < 250; i++) {
+			assertThat(accessor.getKey(new Object[] {"id", new Book("isbn-" + i, null)})).isEqualTo("isbn-" + i);
+		}
+	}
+
+	@Test
+	public void propertyPathOnNullArgument() {
+		Object[] args = new Object[] {"id", null};
+
+		assertThat(resolve("#book?.isbn").getKey(args)).isNull();
+		assertThatExceptionOfType(SpelEvaluationException.class).isThrownBy(() ->
+				resolve("#book.isbn").getKey(args));
+	}
+
+	@Test
+	public void expressionsRequiringEvaluationContext() {
+		assertThat(resolve("#result")).isNull();
+		assertThat(resolve("#root.args[0]")).isNull();
+		assertThat(resolve("#this")).isNull();
+		assertThat(resolve("#unknown")).isNull();
+		assertThat(resolve("#p2")).isNull();
+		assertThat(resolve("#p99999999999")).isNull();
+		assertThat(resolve("#id + #book")).isNull();
+		assertThat(resolve("#book.sequel[0]")).isNull();
+		assertThat(resolve("id")).isNull();
+		assertThat(resolve("'id'")).isNull();
+	}
+
+	@Test
+	public void variableArguments() {
+		Method method = ReflectionUtils.findMethod(getClass(), "findAll", String.class, String[].class);
+		assertThat(CacheKeyAccessor.resolve("#prefix", method, this.parameterNameDiscoverer)).isNotNull();
+		assertThat(CacheKeyAccessor.resolve("#ids", method, this.parameterNameDiscoverer)).isNull();
+	}
+
+	@Test
+	public void indexedParameterNames() {
+		Method method = ReflectionUtils.findMethod(getClass(), "shadowed", String.class, String.class);
+		assertThat(CacheKeyAccessor.resolve("#p1", method, this.parameterNameDiscoverer)).isNull();
+		assertThat(CacheKeyAccessor.resolve("#name", method, this.parameterNameDiscoverer)).isNull();
+	}
+
+
+	private CacheKeyAccessor resolve(String keyExpression) {
+		return CacheKeyAccessor.resolve(keyExpression, this.method, this.parameterNameDiscoverer);
+	}
+
+
+	@SuppressWarnings("unused")
+	private Object find(String id, Book book) {
+		return null;
+	}
+
+	@SuppressWarnings("unused")
+	private Object findAll(String prefix, String... ids) {
+		return null;
+	}
+
+	@SuppressWarnings("unused")
+	private Object shadowed(String p1, String name) {
+		return null;
+	}
+
+
+	public static class Book {
+
+		private final String isbn;
+
+		private final Book sequel;
+
+		public Book(String isbn, Book sequel) {
+			this.isbn = isbn;
+			this.sequel = sequel;
+		}
+
+		public String getIsbn() {
+			return this.isbn;
+		}
+
+		public Book getSequel() {
+			return this.sequel;
+		}
+	}
+
+}
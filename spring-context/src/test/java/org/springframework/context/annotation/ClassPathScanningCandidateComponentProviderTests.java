@@ -16,9 +16,12 @@
 
 package org.springframework.context.annotation;
 
+import java.io.IOException;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
+import java.nio.file.Path;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Pattern;
 
 import example.profilescan.DevComponent;
@@ -39,17 +42,24 @@ import example.scannable.StubFooDao;
 import example.scannable.sub.BarComponent;
 import org.aspectj.lang.annotation.Aspect;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import org.springframework.beans.factory.annotation.AnnotatedGenericBeanDefinition;
 import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.context.index.CandidateComponentsTestClassLoader;
+import org.springframework.core.annotation.MergedAnnotation;
 import org.springframework.core.env.ConfigurableEnvironment;
 import org.springframework.core.env.StandardEnvironment;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.Resource;
+import org.springframework.core.type.classreading.CachingMetadataReaderFactory;
+import org.springframework.core.type.classreading.MetadataReader;
+import org.springframework.core.type.classreading.PersistentMetadataCache;
 import org.springframework.core.type.filter.AnnotationTypeFilter;
 import org.springframework.core.type.filter.AssignableTypeFilter;
 import org.springframework.core.type.filter.RegexPatternTypeFilter;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Component;
 import org.springframework.stereotype.Controller;
 import org.springframework.stereotype.Repository;
@@ -103,6 +113,73 @@ public class ClassPathScanningCandidateComponentProviderTests {
 		assertBeanDefinitionType(candidates, expectedBeanDefinitionType);
 	}
 
+	@Test
+	public void defaultsWithScanAndMetadataCache(@TempDir Path tempDir) {
+		Path cacheFile = tempDir.resolve("scan-metadata");
+		AtomicInteger initialReads = new AtomicInteger();
+		testDefault(createProviderWithMetadataCache(cacheFile, initialReads), ScannedGenericBeanDefinition.class);
+		assertThat(cacheFile).exists();
+
+		AtomicInteger cachedReads = new AtomicInteger();
+		testDefault(createProviderWithMetadataCache(cacheFile, cachedReads), ScannedGenericBeanDefinition.class);
+		assertThat(cachedReads.get()).isGreaterThanOrEqualTo(7).isLessThan(initialReads.get());
+	}
+
+	@Test
+	public void withActiveProfileAndMetadataCache(@TempDir Path tempDir) {
+		Path cacheFile = tempDir.resolve("scan-metadata");
+		ClassPathScanningCandidateComponentProvider provider = createProviderWithMetadataCache(cacheFile, null);
+		ConfigurableEnvironment env = new StandardEnvironment();
+		env.setActiveProfiles("other");
+		provider.setEnvironment(env);
+		Set<BeanDefinition> candidates = provider.findCandidateComponents(TEST_PROFILE_PACKAGE);
+		assertThat(containsBeanClass(candidates, ProfileAnnotatedComponent.class)).isFalse();
+
+		provider = createProviderWithMetadataCache(cacheFile, null);
+		env = new StandardEnvironment();
+		env.setActiveProfiles(ProfileAnnotatedComponent.PROFILE_NAME);
+		provider.setEnvironment(env);
+		candidates = provider.findCandidateComponents(TEST_PROFILE_PACKAGE);
+		assertThat(containsBeanClass(candidates, ProfileAnnotatedComponent.class)).isTrue();
+	}
+
+	@Test
+	public void customFilterWithAnnotationAttributesAndMetadataCache(@TempDir Path tempDir) {
+		Path cacheFile = tempDir.resolve("scan-metadata");
+		for (int i = 0; i < 2; i++) {
+			ClassPathScanningCandidateComponentProvider provider = createProviderWithMetadataCache(cacheFile, null);
+			provider.resetFilters(false);
+			provider.addIncludeFilter((metadataReader, metadataReaderFactory) -> {
+				MergedAnnotation<Component> component =
+						metadataReader.getAnnotationMetadata().getAnnotations().get(Component.class);
+				return (component.isPresent() && "myNamedComponent".equals(component.getString("value")));
+			});
+			Set<BeanDefinition> candidates = provider.findCandidateComponents(TEST_BASE_PACKAGE);
+			assertThat(containsBeanClass(candidates, NamedComponent.class)).isTrue();
+			assertThat(candidates.size()).isEqualTo(1);
+		}
+	}
+
+	private ClassPathScanningCandidateComponentProvider createProviderWithMetadataCache(
+			Path cacheFile, @Nullable AtomicInteger readCount) {
+
+		ClassPathScanningCandidateComponentProvider provider = new ClassPathScanningCandidateComponentProvider(true);
+		DefaultResourceLoader resourceLoader = new DefaultResourceLoader(
+				CandidateComponentsTestClassLoader.disableIndex(getClass().getClassLoader()));
+		provider.setResourceLoader(resourceLoader);
+		provider.setMetadataReaderFactory(new CachingMetadataReaderFactory(resourceLoader) {
+			@Override
+			public MetadataReader getMetadataReader(Resource resource) throws IOException {
+				if (readCount != null) {
+					readCount.incrementAndGet();
+				}
+				return super.getMetadataReader(resource);
+			}
+		});
+		provider.setMetadataCache(PersistentMetadataCache.load(cacheFile));
+		return provider;
+	}
+
 	@Test
 	public void antStylePackageWithScan() {
 		ClassPathScanningCandidateComponentProvider provider = new ClassPathScanningCandidateComponentProvider(true);
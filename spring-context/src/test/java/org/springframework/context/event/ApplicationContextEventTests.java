@@ -325,6 +325,47 @@ public class ApplicationContextEventTests extends AbstractApplicationEventListen
 		context.close();
 	}
 
+	@Test
+	public void listenersInApplicationContextWithPrecomputedListenerIndex() {
+		StaticApplicationContext context = new StaticApplicationContext();
+		RootBeanDefinition multicasterDef = new RootBeanDefinition(SimpleApplicationEventMulticaster.class);
+		multicasterDef.getPropertyValues().add("precomputeListenerIndex", true);
+		context.registerBeanDefinition(
+				AbstractApplicationContext.APPLICATION_EVENT_MULTICASTER_BEAN_NAME, multicasterDef);
+		context.registerBeanDefinition("listener3", new RootBeanDefinition(MyOrderedListener3.class));
+		RootBeanDefinition listener4Def = new RootBeanDefinition(MyOrderedListener4.class);
+		listener4Def.getConstructorArgumentValues().addGenericArgumentValue(new RuntimeBeanReference("listener3"));
+		context.registerBeanDefinition("listener4", listener4Def);
+		context.refresh();
+
+		// ContextRefreshedEvent plus precomputed MyEvent
+		AbstractApplicationEventMulticaster multicaster = context.getBean(AbstractApplicationEventMulticaster.class);
+		assertThat(multicaster.retrieverCache.size()).isEqualTo(2);
+
+		MyOrderedListener3 listener3 = context.getBean("listener3", MyOrderedListener3.class);
+		MyEvent event = new MyEvent(context);
+		context.publishEvent(event);
+		assertThat(listener3.seenEvents.contains(event)).isTrue();
+		assertThat(multicaster.retrieverCache.size()).isEqualTo(2);
+
+		context.close();
+	}
+
+	@Test
+	public void listenerIndexNotPrecomputedByDefault() {
+		StaticApplicationContext context = new StaticApplicationContext();
+		context.registerBeanDefinition("listener3", new RootBeanDefinition(MyOrderedListener3.class));
+		RootBeanDefinition listener4Def = new RootBeanDefinition(MyOrderedListener4.class);
+		listener4Def.getConstructorArgumentValues().addGenericArgumentValue(new RuntimeBeanReference("listener3"));
+		context.registerBeanDefinition("listener4", listener4Def);
+		context.refresh();
+
+		AbstractApplicationEventMulticaster multicaster = context.getBean(AbstractApplicationEventMulticaster.class);
+		assertThat(multicaster.retrieverCache.size()).isEqualTo(1);
+
+		context.close();
+	}
+
 	@Test
 	public void listenersInApplicationContextWithNestedChild() {
 		StaticApplicationContext context = new StaticApplicationContext();
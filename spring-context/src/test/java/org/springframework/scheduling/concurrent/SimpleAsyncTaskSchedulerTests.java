@@ -0,0 +1,152 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.scheduling.concurrent;
+
+import java.util.Date;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.scheduling.support.PeriodicTrigger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Unit tests for {@link SimpleAsyncTaskScheduler}.
+ */
+public class SimpleAsyncTaskSchedulerTests {
+
+	private static final String THREAD_NAME_PREFIX = "test-";
+
+	private final SimpleAsyncTaskScheduler scheduler = new SimpleAsyncTaskScheduler(THREAD_NAME_PREFIX);
+
+
+	@AfterEach
+	public void shutdown() {
+		this.scheduler.destroy();
+	}
+
+
+	@Test
+	public void scheduleOneTimeTask() throws Exception {
+		CountDownLatch latch = new CountDownLatch(1);
+		AtomicReference<Thread> threadRef = new AtomicReference<>();
+		this.scheduler.schedule(() -> {
+			threadRef.set(Thread.currentThread());
+			latch.countDown();
+		}, new Date(System.currentTimeMillis() + 10));
+		assertThat(latch.await(1, TimeUnit.SECONDS)).isTrue();
+		assertThat(threadRef.get().getName()).startsWith(THREAD_NAME_PREFIX).doesNotEndWith("scheduler");
+	}
+
+	@Test
+	public void scheduleOneTimeFailingTask() {
+		ScheduledFuture<?> future = this.scheduler.schedule(() -> {
+			throw new IllegalStateException("Expected");
+		}, new Date());
+		assertThatExceptionOfType(ExecutionException.class).isThrownBy(() ->
+				future.get(1, TimeUnit.SECONDS));
+		assertThat(future.isDone()).isTrue();
+	}
+
+	@Test
+	public void scheduleWithFixedDelayDoesNotOverlap() throws Exception {
+		CountDownLatch latch = new CountDownLatch(3);
+		AtomicInteger concurrent = new AtomicInteger();
+		AtomicInteger maxConcurrent = new AtomicInteger();
+		ScheduledFuture<?> future = this.scheduler.scheduleWithFixedDelay(() -> {
+			maxConcurrent.accumulateAndGet(concurrent.incrementAndGet(), Math::max);
+			sleep(20);
+			concurrent.decrementAndGet();
+			latch.countDown();
+		}, 1);
+		assertThat(latch.await(1, TimeUnit.SECONDS)).isTrue();
+		future.cancel(false);
+		assertThat(maxConcurrent.get()).isEqualTo(1);
+	}
+
+	@Test
+	public void scheduleAtFixedRate() throws Exception {
+		CountDownLatch latch = new CountDownLatch(3);
+		ScheduledFuture<?> future = this.scheduler.scheduleAtFixedRate(latch::countDown, 10);
+		assertThat(latch.await(1, TimeUnit.SECONDS)).isTrue();
+		future.cancel(false);
+		assertThat(future.isCancelled()).isTrue();
+	}
+
+	@Test
+	public void scheduleTriggerTask() throws Exception {
+		CountDownLatch latch = new CountDownLatch(3);
+		ScheduledFuture<?> future = this.scheduler.schedule(latch::countDown, new PeriodicTrigger(10));
+		assertThat(latch.await(1, TimeUnit.SECONDS)).isTrue();
+		assertThat(future.cancel(false)).isTrue();
+		assertThat(future.isCancelled()).isTrue();
+	}
+
+	@Test
+	public void scheduleRepeatingFailingTaskWithErrorHandler() throws Exception {
+		CountDownLatch latch = new CountDownLatch(2);
+		this.scheduler.setErrorHandler(ex -> latch.countDown());
+		this.scheduler.scheduleWithFixedDelay(() -> {
+			throw new IllegalStateException("Expected");
+		}, 1);
+		assertThat(latch.await(1, TimeUnit.SECONDS)).isTrue();
+	}
+
+	@Test
+	public void scheduleAfterDestroy() {
+		this.scheduler.destroy();
+		assertThatExceptionOfType(TaskRejectedException.class).isThrownBy(() ->
+				this.scheduler.schedule(() -> {}, new Date()));
+	}
+
+	@Test
+	public void scheduleOnVirtualThreads() throws Exception {
+		assumeTrue(VirtualThreadTaskExecutor.isSupported());
+		this.scheduler.setVirtualThreads(true);
+		CountDownLatch latch = new CountDownLatch(1);
+		AtomicReference<Thread> threadRef = new AtomicReference<>();
+		this.scheduler.scheduleWithFixedDelay(() -> {
+			threadRef.set(Thread.currentThread());
+			latch.countDown();
+		}, 10);
+		assertThat(latch.await(1, TimeUnit.SECONDS)).isTrue();
+		assertThat(threadRef.get().isDaemon()).isTrue();
+		assertThat(threadRef.get().getName()).startsWith(THREAD_NAME_PREFIX);
+	}
+
+
+	private static void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+}
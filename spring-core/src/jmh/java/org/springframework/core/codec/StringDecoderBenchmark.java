@@ -0,0 +1,118 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.codec;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import reactor.core.publisher.Flux;
+
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.util.MimeType;
+
+/**
+ * Benchmarks for {@link StringDecoder} and {@link DataBufferUtils#join}, decoding
+ * a chunked text stream into lines or into a single aggregated value.
+ */
+@BenchmarkMode(Mode.Throughput)
+public class StringDecoderBenchmark {
+
+	private static final ResolvableType ELEMENT_TYPE = ResolvableType.forClass(String.class);
+
+	@Benchmark
+	public void decodeLines(DecodeChunksData data, Blackhole blackhole) {
+		data.decoder.decode(data.chunks(), ELEMENT_TYPE, data.mimeType, Collections.emptyMap())
+				.doOnNext(blackhole::consume)
+				.then()
+				.block();
+	}
+
+	@Benchmark
+	public String decodeToMono(DecodeChunksData data) {
+		return data.decoder.decodeToMono(data.chunks(), ELEMENT_TYPE, data.mimeType, Collections.emptyMap())
+				.block();
+	}
+
+	@Benchmark
+	public int join(DecodeChunksData data) {
+		DataBuffer joined = DataBufferUtils.join(data.chunks()).block();
+		int count = joined.readableByteCount();
+		DataBufferUtils.release(joined);
+		return count;
+	}
+
+
+	@State(Scope.Benchmark)
+	public static class DecodeChunksData {
+
+		private static final Charset CHARSET = StandardCharsets.UTF_8;
+
+		@Param({"1024", "65536"})
+		public int totalSize;
+
+		@Param({"128", "8192"})
+		public int chunkSize;
+
+		public StringDecoder decoder;
+
+		public MimeType mimeType;
+
+		private final DataBufferFactory bufferFactory = new DefaultDataBufferFactory();
+
+		private List<byte[]> chunks;
+
+		@Setup(Level.Trial)
+		public void setup() {
+			this.decoder = StringDecoder.allMimeTypes();
+			this.mimeType = new MimeType("text", "plain", CHARSET);
+
+			StringBuilder text = new StringBuilder(this.totalSize);
+			int line = 0;
+			while (text.length() < this.totalSize) {
+				text.append("line ").append(line++).append(" of a text stream to decode\n");
+			}
+			byte[] bytes = text.toString().getBytes(CHARSET);
+			this.chunks = new ArrayList<>();
+			for (int offset = 0; offset < bytes.length; offset += this.chunkSize) {
+				byte[] chunk = new byte[Math.min(this.chunkSize, bytes.length - offset)];
+				System.arraycopy(bytes, offset, chunk, 0, chunk.length);
+				this.chunks.add(chunk);
+			}
+		}
+
+		public Flux<DataBuffer> chunks() {
+			return Flux.fromIterable(this.chunks).map(this.bufferFactory::wrap);
+		}
+	}
+
+}
@@ -0,0 +1,662 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.io.buffer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntPredicate;
+
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * {@link DataBuffer} that presents several buffers as one, without copying
+ * their content. Typically obtained from {@link DataBufferUtils#join(List)}.
+ *
+ * <p>The readable bytes of the given buffers become the content of the
+ * composite, and the given buffers are {@linkplain DataBufferUtils#release
+ * released} along with it. Content is exposed without copying through
+ * {@link #asByteBuffers()}, e.g. for gathering writes, and through
+ * {@link #asInputStream()}, e.g. for parsers. Methods that need a single,
+ * contiguous {@link ByteBuffer}, such as {@link #asByteBuffer()}, only share
+ * memory with this buffer if the requested range falls within a single
+ * component, and return a copy otherwise.
+ *
+ * <p>Writes beyond the capacity of the composite append a buffer allocated
+ * with the {@linkplain #factory() factory}.
+ *
+ * @since 5.2.1
+ */
+public class CompositeDataBuffer implements PooledDataBuffer {
+
+	private final DataBufferFactory dataBufferFactory;
+
+	private final List<DataBuffer> components;
+
+	/**
+	 * The buffer to release along with this one, in case of a retained slice.
+	 */
+	@Nullable
+	private final CompositeDataBuffer parent;
+
+	private ByteBuffer[] segments;
+
+	private int[] offsets;
+
+	private int segmentCount;
+
+	private int capacity;
+
+	private int readPosition;
+
+	private int writePosition;
+
+	private final AtomicInteger refCount = new AtomicInteger(1);
+
+
+	/**
+	 * Create a new {@code CompositeDataBuffer} over the readable bytes of the
+	 * given buffers, which are released when this buffer is released.
+	 * @param dataBufferFactory the factory to allocate additional buffers with
+	 * @param dataBuffers the buffers to compose
+	 */
+	public CompositeDataBuffer(DataBufferFactory dataBufferFactory, List<? extends DataBuffer> dataBuffers) {
+		Assert.notNull(dataBufferFactory, "DataBufferFactory must not be null");
+		Assert.notNull(dataBuffers, "DataBuffer List must not be null");
+		this.dataBufferFactory = dataBufferFactory;
+		this.components = new ArrayList<>(dataBuffers);
+		this.parent = null;
+		this.segments = new ByteBuffer[Math.max(dataBuffers.size(), 1)];
+		this.offsets = new int[this.segments.length];
+		for (DataBuffer dataBuffer : dataBuffers) {
+			Assert.notNull(dataBuffer, "DataBuffer must not be null");
+			if (dataBuffer instanceof CompositeDataBuffer) {
+				for (ByteBuffer segment : ((CompositeDataBuffer) dataBuffer).asByteBuffers()) {
+					addSegment(segment);
+				}
+			}
+			else {
+				addSegment(dataBuffer.asByteBuffer());
+			}
+		}
+		this.writePosition = this.capacity;
+	}
+
+	private CompositeDataBuffer(DataBufferFactory dataBufferFactory, ByteBuffer[] segments,
+			@Nullable CompositeDataBuffer parent) {
+
+		this.dataBufferFactory = dataBufferFactory;
+		this.components = new ArrayList<>();
+		this.parent = parent;
+		this.segments = new ByteBuffer[Math.max(segments.length, 1)];
+		this.offsets = new int[this.segments.length];
+		for (ByteBuffer segment : segments) {
+			addSegment(segment);
+		}
+		this.writePosition = this.capacity;
+	}
+
+
+	@Override
+	public DataBufferFactory factory() {
+		return this.dataBufferFactory;
+	}
+
+	/**
+	 * Return the number of {@code ByteBuffers} that make up this buffer.
+	 */
+	public int getComponentCount() {
+		return this.segmentCount;
+	}
+
+	@Override
+	public int indexOf(IntPredicate predicate, int fromIndex) {
+		Assert.notNull(predicate, "IntPredicate must not be null");
+		int index = Math.max(fromIndex, 0);
+		if (index >= this.writePosition) {
+			return -1;
+		}
+		for (int i = segmentIndex(index); i < this.segmentCount; i++) {
+			ByteBuffer segment = this.segments[i];
+			int offset = this.offsets[i];
+			int end = Math.min(segment.limit(), this.writePosition - offset);
+			for (int j = index - offset; j < end; j++) {
+				if (predicate.test(segment.get(j))) {
+					return offset + j;
+				}
+			}
+			index = offset + segment.limit();
+		}
+		return -1;
+	}
+
+	@Override
+	public int lastIndexOf(IntPredicate predicate, int fromIndex) {
+		Assert.notNull(predicate, "IntPredicate must not be null");
+		int index = Math.min(fromIndex, this.writePosition - 1);
+		if (index < 0) {
+			return -1;
+		}
+		for (int i = segmentIndex(index); i >= 0; i--) {
+			ByteBuffer segment = this.segments[i];
+			int offset = this.offsets[i];
+			for (int j = index - offset; j >= 0; j--) {
+				if (predicate.test(segment.get(j))) {
+					return offset + j;
+				}
+			}
+			index = offset - 1;
+		}
+		return -1;
+	}
+
+	@Override
+	public int readableByteCount() {
+		return this.writePosition - this.readPosition;
+	}
+
+	@Override
+	public int writableByteCount() {
+		return this.capacity - this.writePosition;
+	}
+
+	@Override
+	public int readPosition() {
+		return this.readPosition;
+	}
+
+	@Override
+	public CompositeDataBuffer readPosition(int readPosition) {
+		assertIndex(readPosition >= 0, "'readPosition' %d must be >= 0", readPosition);
+		assertIndex(readPosition <= this.writePosition, "'readPosition' %d must be <= %d",
+				readPosition, this.writePosition);
+		this.readPosition = readPosition;
+		return this;
+	}
+
+	@Override
+	public int writePosition() {
+		return this.writePosition;
+	}
+
+	@Override
+	public CompositeDataBuffer writePosition(int writePosition) {
+		assertIndex(writePosition >= this.readPosition, "'writePosition' %d must be >= %d",
+				writePosition, this.readPosition);
+		assertIndex(writePosition <= this.capacity, "'writePosition' %d must be <= %d",
+				writePosition, this.capacity);
+		this.writePosition = writePosition;
+		return this;
+	}
+
+	@Override
+	public int capacity() {
+		return this.capacity;
+	}
+
+	@Override
+	public CompositeDataBuffer capacity(int newCapacity) {
+		assertIndex(newCapacity >= 0, "'newCapacity' %d must be 0 or higher", newCapacity);
+		if (newCapacity > this.capacity) {
+			DataBuffer component = this.dataBufferFactory.allocateBuffer(newCapacity - this.capacity);
+			this.components.add(component);
+			addSegment(component.asByteBuffer(0, newCapacity - this.capacity));
+		}
+		else if (newCapacity < this.capacity) {
+			while (this.segmentCount > 0 && this.offsets[this.segmentCount - 1] >= newCapacity) {
+				this.segments[--this.segmentCount] = null;
+			}
+			if (this.segmentCount > 0) {
+				int last = this.segmentCount - 1;
+				ByteBuffer segment = this.segments[last].duplicate();
+				((Buffer) segment).limit(newCapacity - this.offsets[last]);
+				this.segments[last] = segment.slice();
+			}
+			this.capacity = newCapacity;
+			this.readPosition = Math.min(this.readPosition, newCapacity);
+			this.writePosition = Math.min(this.writePosition, newCapacity);
+		}
+		return this;
+	}
+
+	@Override
+	public CompositeDataBuffer ensureCapacity(int length) {
+		if (length > writableByteCount()) {
+			capacity(Math.max(this.writePosition + length, this.capacity + Math.min(this.capacity, 4096)));
+		}
+		return this;
+	}
+
+	@Override
+	public byte getByte(int index) {
+		assertIndex(index >= 0, "index %d must be >= 0", index);
+		assertIndex(index <= this.writePosition - 1, "index %d must be <= %d", index, this.writePosition - 1);
+		int i = segmentIndex(index);
+		return this.segments[i].get(index - this.offsets[i]);
+	}
+
+	@Override
+	public byte read() {
+		assertIndex(this.readPosition <= this.writePosition - 1, "readPosition %d must be <= %d",
+				this.readPosition, this.writePosition - 1);
+		byte b = getByte(this.readPosition);
+		this.readPosition++;
+		return b;
+	}
+
+	@Override
+	public CompositeDataBuffer read(byte[] destination) {
+		Assert.notNull(destination, "Byte array must not be null");
+		return read(destination, 0, destination.length);
+	}
+
+	@Override
+	public CompositeDataBuffer read(byte[] destination, int offset, int length) {
+		Assert.notNull(destination, "Byte array must not be null");
+		assertIndex(this.readPosition <= this.writePosition - length,
+				"readPosition %d and length %d should be smaller than writePosition %d",
+				this.readPosition, length, this.writePosition);
+		copy(this.readPosition, destination, offset, length);
+		this.readPosition += length;
+		return this;
+	}
+
+	@Override
+	public CompositeDataBuffer write(byte b) {
+		ensureCapacity(1);
+		int i = segmentIndex(this.writePosition);
+		this.segments[i].put(this.writePosition - this.offsets[i], b);
+		this.writePosition++;
+		return this;
+	}
+
+	@Override
+	public CompositeDataBuffer write(byte[] source) {
+		Assert.notNull(source, "Byte array must not be null");
+		return write(source, 0, source.length);
+	}
+
+	@Override
+	public CompositeDataBuffer write(byte[] source, int offset, int length) {
+		Assert.notNull(source, "Byte array must not be null");
+		return write(ByteBuffer.wrap(source, offset, length));
+	}
+
+	@Override
+	public CompositeDataBuffer write(DataBuffer... buffers) {
+		for (DataBuffer buffer : buffers) {
+			if (buffer instanceof CompositeDataBuffer) {
+				write(((CompositeDataBuffer) buffer).asByteBuffers());
+			}
+			else {
+				write(buffer.asByteBuffer());
+			}
+		}
+		return this;
+	}
+
+	@Override
+	public CompositeDataBuffer write(ByteBuffer... buffers) {
+		int length = 0;
+		for (ByteBuffer buffer : buffers) {
+			length += buffer.remaining();
+		}
+		ensureCapacity(length);
+		for (ByteBuffer buffer : buffers) {
+			ByteBuffer source = buffer.duplicate();
+			while (source.hasRemaining()) {
+				int i = segmentIndex(this.writePosition);
+				ByteBuffer target = this.segments[i].duplicate();
+				((Buffer) target).position(this.writePosition - this.offsets[i]);
+				int count = Math.min(source.remaining(), target.remaining());
+				ByteBuffer chunk = source.duplicate();
+				((Buffer) chunk).limit(source.position() + count);
+				target.put(chunk);
+				((Buffer) source).position(source.position() + count);
+				this.writePosition += count;
+			}
+		}
+		return this;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>The returned slice is a {@code CompositeDataBuffer} if the given
+	 * range spans several components.
+	 */
+	@Override
+	public DataBuffer slice(int index, int length) {
+		checkIndex(index, length);
+		int i = (length > 0 ? segmentIndex(index) : -1);
+		if (i >= 0 && index + length <= this.offsets[i] + this.segments[i].limit()) {
+			return this.dataBufferFactory.wrap(segmentSlice(i, index, length));
+		}
+		return new CompositeDataBuffer(this.dataBufferFactory, byteBuffers(index, length), null);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>The returned slice is a {@code CompositeDataBuffer} that releases
+	 * this buffer when it is released itself.
+	 */
+	@Override
+	public CompositeDataBuffer retainedSlice(int index, int length) {
+		checkIndex(index, length);
+		retain();
+		return new CompositeDataBuffer(this.dataBufferFactory, byteBuffers(index, length), this);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>Note that data is only shared between this buffer and the returned
+	 * {@code ByteBuffer} if the readable bytes fall within a single component;
+	 * otherwise they are copied. Use {@link #asByteBuffers()} to obtain the
+	 * readable bytes without copying.
+	 */
+	@Override
+	public ByteBuffer asByteBuffer() {
+		return asByteBuffer(this.readPosition, readableByteCount());
+	}
+
+	@Override
+	public ByteBuffer asByteBuffer(int index, int length) {
+		checkIndex(index, length);
+		if (length > 0) {
+			int i = segmentIndex(index);
+			if (index + length <= this.offsets[i] + this.segments[i].limit()) {
+				return segmentSlice(i, index, length);
+			}
+		}
+		ByteBuffer copy = ByteBuffer.allocate(length);
+		for (ByteBuffer byteBuffer : byteBuffers(index, length)) {
+			copy.put(byteBuffer);
+		}
+		((Buffer) copy).flip();
+		return copy;
+	}
+
+	/**
+	 * Expose the readable bytes of this buffer as {@code ByteBuffers}, one per
+	 * component, without copying them. Data between this {@code DataBuffer}
+	 * and the returned buffers is shared; though changes in the returned
+	 * buffers' {@linkplain ByteBuffer#position() positions} will not be
+	 * reflected in the reading nor writing position of this data buffer.
+	 * @return the readable bytes of this buffer, e.g. for a
+	 * {@link java.nio.channels.GatheringByteChannel#write(ByteBuffer[]) gathering write}
+	 */
+	public ByteBuffer[] asByteBuffers() {
+		return byteBuffers(this.readPosition, readableByteCount());
+	}
+
+	@Override
+	public InputStream asInputStream() {
+		return new CompositeDataBufferInputStream(false);
+	}
+
+	@Override
+	public InputStream asInputStream(boolean releaseOnClose) {
+		return new CompositeDataBufferInputStream(releaseOnClose);
+	}
+
+	@Override
+	public OutputStream asOutputStream() {
+		return new OutputStream() {
+			@Override
+			public void write(int b) {
+				CompositeDataBuffer.this.write((byte) b);
+			}
+			@Override
+			public void write(byte[] bytes, int off, int len) {
+				CompositeDataBuffer.this.write(bytes, off, len);
+			}
+		};
+	}
+
+	@Override
+	public String toString(int index, int length, Charset charset) {
+		checkIndex(index, length);
+		Assert.notNull(charset, "Charset must not be null");
+		ByteBuffer[] byteBuffers = byteBuffers(index, length);
+		if (byteBuffers.length <= 1) {
+			return (length > 0 ? charset.decode(byteBuffers[0]).toString() : "");
+		}
+		// Decode across component boundaries without joining the components
+		StringBuilder builder = new StringBuilder(length);
+		try (Reader reader = new InputStreamReader(new ByteBuffersInputStream(byteBuffers), charset)) {
+			char[] chars = new char[Math.min(length, 8192)];
+			int read;
+			while ((read = reader.read(chars)) != -1) {
+				builder.append(chars, 0, read);
+			}
+		}
+		catch (IOException ex) {
+			throw new IllegalStateException(ex);
+		}
+		return builder.toString();
+	}
+
+	@Override
+	public boolean isAllocated() {
+		return this.refCount.get() > 0;
+	}
+
+	@Override
+	public CompositeDataBuffer retain() {
+		int count;
+		do {
+			count = this.refCount.get();
+			Assert.state(count > 0, "DataBuffer has already been released");
+		}
+		while (!this.refCount.compareAndSet(count, count + 1));
+		return this;
+	}
+
+	@Override
+	public boolean release() {
+		int count;
+		do {
+			count = this.refCount.get();
+			Assert.state(count > 0, "DataBuffer has already been released");
+		}
+		while (!this.refCount.compareAndSet(count, count - 1));
+		if (count > 1) {
+			return false;
+		}
+		if (this.parent != null) {
+			this.parent.release();
+		}
+		else {
+			this.components.forEach(DataBufferUtils::release);
+		}
+		return true;
+	}
+
+
+	private void addSegment(ByteBuffer segment) {
+		if (!segment.hasRemaining()) {
+			return;
+		}
+		if (this.segmentCount == this.segments.length) {
+			int newLength = this.segments.length * 2;
+			this.segments = Arrays.copyOf(this.segments, newLength);
+			this.offsets = Arrays.copyOf(this.offsets, newLength);
+		}
+		this.segments[this.segmentCount] = segment.slice();
+		this.offsets[this.segmentCount] = this.capacity;
+		this.segmentCount++;
+		this.capacity += segment.remaining();
+	}
+
+	private int segmentIndex(int index) {
+		int i = Arrays.binarySearch(this.offsets, 0, this.segmentCount, index);
+		return (i >= 0 ? i : -i - 2);
+	}
+
+	private ByteBuffer segmentSlice(int segmentIndex, int index, int length) {
+		ByteBuffer duplicate = this.segments[segmentIndex].duplicate();
+		// Explicit access via Buffer base type for compatibility
+		// with covariant return type on JDK 9's ByteBuffer...
+		Buffer buffer = duplicate;
+		int position = index - this.offsets[segmentIndex];
+		buffer.position(position);
+		buffer.limit(position + length);
+		return duplicate.slice();
+	}
+
+	private ByteBuffer[] byteBuffers(int index, int length) {
+		if (length == 0) {
+			return new ByteBuffer[] {ByteBuffer.allocate(0)};
+		}
+		int first = segmentIndex(index);
+		int last = segmentIndex(index + length - 1);
+		ByteBuffer[] result = new ByteBuffer[last - first + 1];
+		for (int i = first; i <= last; i++) {
+			int start = Math.max(index, this.offsets[i]);
+			int end = Math.min(index + length, this.offsets[i] + this.segments[i].limit());
+			result[i - first] = segmentSlice(i, start, end - start);
+		}
+		return result;
+	}
+
+	private void copy(int index, byte[] destination, int offset, int length) {
+		for (ByteBuffer byteBuffer : byteBuffers(index, length)) {
+			int count = byteBuffer.remaining();
+			byteBuffer.get(destination, offset, count);
+			offset += count;
+		}
+	}
+
+	private void checkIndex(int index, int length) {
+		assertIndex(index >= 0, "index %d must be >= 0", index);
+		assertIndex(length >= 0, "length %d must be >= 0", length);
+		assertIndex(index <= this.capacity, "index %d must be <= %d", index, this.capacity);
+		assertIndex(length <= this.capacity - index, "length %d must be <= %d", length, this.capacity - index);
+	}
+
+	private void assertIndex(boolean expression, String format, Object... args) {
+		if (!expression) {
+			String message = String.format(format, args);
+			throw new IndexOutOfBoundsException(message);
+		}
+	}
+
+
+	@Override
+	public String toString() {
+		return String.format("CompositeDataBuffer (r: %d, w: %d, c: %d, components: %d)",
+				this.readPosition, this.writePosition, this.capacity, this.segmentCount);
+	}
+
+
+	private class CompositeDataBufferInputStream extends InputStream {
+
+		private final boolean releaseOnClose;
+
+		private boolean closed;
+
+		CompositeDataBufferInputStream(boolean releaseOnClose) {
+			this.releaseOnClose = releaseOnClose;
+		}
+
+		@Override
+		public int available() {
+			return readableByteCount();
+		}
+
+		@Override
+		public int read() {
+			return (available() > 0 ? CompositeDataBuffer.this.read() & 0xFF : -1);
+		}
+
+		@Override
+		public int read(byte[] bytes, int off, int len) {
+			int available = available();
+			if (len == 0) {
+				return 0;
+			}
+			if (available == 0) {
+				return -1;
+			}
+			len = Math.min(available, len);
+			CompositeDataBuffer.this.read(bytes, off, len);
+			return len;
+		}
+
+		@Override
+		public void close() {
+			if (this.releaseOnClose && !this.closed) {
+				this.closed = true;
+				release();
+			}
+		}
+	}
+
+
+	private static class ByteBuffersInputStream extends InputStream {
+
+		private final ByteBuffer[] byteBuffers;
+
+		private int index;
+
+		ByteBuffersInputStream(ByteBuffer[] byteBuffers) {
+			this.byteBuffers = byteBuffers;
+		}
+
+		@Override
+		public int read() {
+			ByteBuffer byteBuffer = current();
+			return (byteBuffer != null ? byteBuffer.get() & 0xFF : -1);
+		}
+
+		@Override
+		public int read(byte[] bytes, int off, int len) {
+			if (len == 0) {
+				return 0;
+			}
+			ByteBuffer byteBuffer = current();
+			if (byteBuffer == null) {
+				return -1;
+			}
+			len = Math.min(len, byteBuffer.remaining());
+			byteBuffer.get(bytes, off, len);
+			return len;
+		}
+
+		@Nullable
+		private ByteBuffer current() {
+			while (this.index < this.byteBuffers.length) {
+				ByteBuffer byteBuffer = this.byteBuffers[this.index];
+				if (byteBuffer.hasRemaining()) {
+					return byteBuffer;
+				}
+				this.index++;
+			}
+			return null;
+		}
+	}
+
+}
@@ -25,6 +25,7 @@ import java.nio.channels.AsynchronousFileChannel;
 import java.nio.channels.Channel;
 import java.nio.channels.Channels;
 import java.nio.channels.CompletionHandler;
+import java.nio.channels.GatheringByteChannel;
 import java.nio.channels.ReadableByteChannel;
 import java.nio.channels.WritableByteChannel;
 import java.nio.file.OpenOption;
@@ -32,6 +33,7 @@ import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -534,10 +536,34 @@ public abstract class DataBufferUtils {
 		return Flux.from(dataBuffers)
 				.collectList()
 				.filter(list -> !list.isEmpty())
-				.map(list -> list.get(0).factory().join(list))
+				.map(DataBufferUtils::join)
 				.doOnDiscard(PooledDataBuffer.class, DataBufferUtils::release);
 	}
 
+	/**
+	 * Return a {@code DataBuffer} composed of the given buffers, without
+	 * copying their content where possible: a single buffer is returned as
+	 * is, Netty buffers are joined into a composite {@code ByteBuf} through
+	 * the {@link NettyDataBufferFactory}, and other buffers are wrapped into
+	 * a {@link CompositeDataBuffer}.
+	 * <p>Note that the given data buffers do <strong>not</strong> have to be
+	 * released. They will be released as part of the returned buffer.
+	 * @param dataBuffers the data buffers that are to be composed
+	 * @return a buffer that is composed from the {@code dataBuffers} argument
+	 * @since 5.2.1
+	 */
+	public static DataBuffer join(List<? extends DataBuffer> dataBuffers) {
+		Assert.notEmpty(dataBuffers, "DataBuffer List must not be empty");
+		if (dataBuffers.size() == 1) {
+			return dataBuffers.get(0);
+		}
+		DataBufferFactory bufferFactory = dataBuffers.get(0).factory();
+		if (bufferFactory instanceof NettyDataBufferFactory) {
+			return bufferFactory.join(dataBuffers);
+		}
+		return new CompositeDataBuffer(bufferFactory, dataBuffers);
+	}
+
 	/**
 	 * Return a {@link Matcher} for the given delimiter.
 	 * The matcher can be used to find the delimiters in data buffers.
@@ -752,9 +778,18 @@ public abstract class DataBufferUtils {
 		@Override
 		protected void hookOnNext(DataBuffer dataBuffer) {
 			try {
-				ByteBuffer byteBuffer = dataBuffer.asByteBuffer();
-				while (byteBuffer.hasRemaining()) {
-					this.channel.write(byteBuffer);
+				if (dataBuffer instanceof CompositeDataBuffer && this.channel instanceof GatheringByteChannel) {
+					ByteBuffer[] byteBuffers = ((CompositeDataBuffer) dataBuffer).asByteBuffers();
+					long remaining = dataBuffer.readableByteCount();
+					while (remaining > 0) {
+						remaining -= ((GatheringByteChannel) this.channel).write(byteBuffers);
+					}
+				}
+				else {
+					ByteBuffer byteBuffer = dataBuffer.asByteBuffer();
+					while (byteBuffer.hasRemaining()) {
+						this.channel.write(byteBuffer);
+					}
 				}
 				this.sink.next(dataBuffer);
 				request(1);
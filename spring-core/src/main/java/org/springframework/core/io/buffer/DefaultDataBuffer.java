@@ -80,6 +80,20 @@ public class DefaultDataBuffer implements DataBuffer {
 		return new DefaultDataBuffer(dataBufferFactory, byteBuffer);
 	}
 
+	/**
+	 * Create an empty buffer with the given capacity, which may grow up to the
+	 * remaining bytes of the given {@code ByteBuffer} without being copied.
+	 * @since 5.2.1
+	 */
+	static DefaultDataBuffer fromEmptyByteBuffer(
+			DefaultDataBufferFactory dataBufferFactory, ByteBuffer byteBuffer, int capacity) {
+
+		DefaultDataBuffer dataBuffer = new DefaultDataBuffer(dataBufferFactory, byteBuffer);
+		Assert.isTrue(capacity <= dataBuffer.capacity, "'capacity' must not exceed the remaining bytes");
+		dataBuffer.capacity = capacity;
+		return dataBuffer;
+	}
+
 
 	/**
 	 * Directly exposes the native {@code ByteBuffer} that this buffer is based
@@ -188,7 +202,10 @@ public class DefaultDataBuffer implements DataBuffer {
 		int writePosition = writePosition();
 		int oldCapacity = capacity();
 
-		if (newCapacity > oldCapacity) {
+		if (newCapacity > oldCapacity && newCapacity <= this.byteBuffer.capacity()) {
+			this.capacity = newCapacity;
+		}
+		else if (newCapacity > oldCapacity) {
 			ByteBuffer oldBuffer = this.byteBuffer;
 			ByteBuffer newBuffer = allocate(newCapacity, oldBuffer.isDirect());
 			((Buffer) oldBuffer).position(0).limit(oldBuffer.capacity());
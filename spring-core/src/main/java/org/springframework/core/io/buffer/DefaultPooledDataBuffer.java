@@ -0,0 +1,346 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.io.buffer;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntPredicate;
+
+import org.springframework.lang.Nullable;
+
+/**
+ * Implementation of the {@link PooledDataBuffer} interface that is backed by
+ * a {@link ByteBuffer} borrowed from a {@link PooledDataBufferFactory}, and
+ * returns it to the pool once the reference count drops to zero.
+ * Typically constructed with {@link PooledDataBufferFactory#allocateBuffer()}.
+ *
+ * <p>Slices created via {@link #slice(int, int)} share the memory of this
+ * buffer but not its reference count, and must not be used once this buffer
+ * has been released; {@linkplain #retainedSlice(int, int) retained slices}
+ * do share the reference count. If the capacity of the buffer is increased
+ * beyond that of the pooled {@code ByteBuffer}, the content is moved to a
+ * new, unpooled {@code ByteBuffer}.
+ *
+ * @since 5.2.1
+ */
+public class DefaultPooledDataBuffer implements PooledDataBuffer {
+
+	private final PooledDataBufferFactory dataBufferFactory;
+
+	private final Allocation allocation;
+
+	private final DefaultDataBuffer delegate;
+
+
+	DefaultPooledDataBuffer(PooledDataBufferFactory dataBufferFactory, Allocation allocation,
+			DefaultDataBuffer delegate) {
+
+		this.dataBufferFactory = dataBufferFactory;
+		this.allocation = allocation;
+		this.delegate = delegate;
+	}
+
+
+	/**
+	 * Directly exposes the native {@code ByteBuffer} that this buffer is
+	 * currently based on.
+	 * @return the wrapped byte buffer
+	 */
+	public ByteBuffer getNativeBuffer() {
+		return delegate().getNativeBuffer();
+	}
+
+	@Override
+	public PooledDataBufferFactory factory() {
+		return this.dataBufferFactory;
+	}
+
+	@Override
+	public int indexOf(IntPredicate predicate, int fromIndex) {
+		return delegate().indexOf(predicate, fromIndex);
+	}
+
+	@Override
+	public int lastIndexOf(IntPredicate predicate, int fromIndex) {
+		return delegate().lastIndexOf(predicate, fromIndex);
+	}
+
+	@Override
+	public int readableByteCount() {
+		return delegate().readableByteCount();
+	}
+
+	@Override
+	public int writableByteCount() {
+		return delegate().writableByteCount();
+	}
+
+	@Override
+	public int capacity() {
+		return delegate().capacity();
+	}
+
+	@Override
+	public DefaultPooledDataBuffer capacity(int capacity) {
+		delegate().capacity(capacity);
+		return this;
+	}
+
+	@Override
+	public DefaultPooledDataBuffer ensureCapacity(int capacity) {
+		delegate().ensureCapacity(capacity);
+		return this;
+	}
+
+	@Override
+	public int readPosition() {
+		return delegate().readPosition();
+	}
+
+	@Override
+	public DefaultPooledDataBuffer readPosition(int readPosition) {
+		delegate().readPosition(readPosition);
+		return this;
+	}
+
+	@Override
+	public int writePosition() {
+		return delegate().writePosition();
+	}
+
+	@Override
+	public DefaultPooledDataBuffer writePosition(int writePosition) {
+		delegate().writePosition(writePosition);
+		return this;
+	}
+
+	@Override
+	public byte getByte(int index) {
+		return delegate().getByte(index);
+	}
+
+	@Override
+	public byte read() {
+		return delegate().read();
+	}
+
+	@Override
+	public DefaultPooledDataBuffer read(byte[] destination) {
+		delegate().read(destination);
+		return this;
+	}
+
+	@Override
+	public DefaultPooledDataBuffer read(byte[] destination, int offset, int length) {
+		delegate().read(destination, offset, length);
+		return this;
+	}
+
+	@Override
+	public DefaultPooledDataBuffer write(byte b) {
+		delegate().write(b);
+		return this;
+	}
+
+	@Override
+	public DefaultPooledDataBuffer write(byte[] source) {
+		delegate().write(source);
+		return this;
+	}
+
+	@Override
+	public DefaultPooledDataBuffer write(byte[] source, int offset, int length) {
+		delegate().write(source, offset, length);
+		return this;
+	}
+
+	@Override
+	public DefaultPooledDataBuffer write(DataBuffer... buffers) {
+		delegate().write(buffers);
+		return this;
+	}
+
+	@Override
+	public DefaultPooledDataBuffer write(ByteBuffer... buffers) {
+		delegate().write(buffers);
+		return this;
+	}
+
+	@Override
+	public DefaultPooledDataBuffer write(CharSequence charSequence, Charset charset) {
+		delegate().write(charSequence, charset);
+		return this;
+	}
+
+	@Override
+	public DataBuffer slice(int index, int length) {
+		return delegate().slice(index, length);
+	}
+
+	@Override
+	public DefaultPooledDataBuffer retainedSlice(int index, int length) {
+		DefaultDataBuffer slice = delegate().slice(index, length);
+		this.allocation.retain();
+		return new DefaultPooledDataBuffer(this.dataBufferFactory, this.allocation, slice);
+	}
+
+	@Override
+	public ByteBuffer asByteBuffer() {
+		return delegate().asByteBuffer();
+	}
+
+	@Override
+	public ByteBuffer asByteBuffer(int index, int length) {
+		return delegate().asByteBuffer(index, length);
+	}
+
+	@Override
+	public InputStream asInputStream() {
+		return delegate().asInputStream();
+	}
+
+	@Override
+	public InputStream asInputStream(boolean releaseOnClose) {
+		InputStream inputStream = delegate().asInputStream();
+		if (!releaseOnClose) {
+			return inputStream;
+		}
+		return new FilterInputStream(inputStream) {
+			private boolean closed;
+			@Override
+			public void close() throws IOException {
+				if (!this.closed) {
+					this.closed = true;
+					release();
+				}
+			}
+		};
+	}
+
+	@Override
+	public OutputStream asOutputStream() {
+		return delegate().asOutputStream();
+	}
+
+	@Override
+	public String toString(Charset charset) {
+		return delegate().toString(charset);
+	}
+
+	@Override
+	public String toString(int index, int length, Charset charset) {
+		return delegate().toString(index, length, charset);
+	}
+
+	@Override
+	public boolean isAllocated() {
+		return this.allocation.isAllocated();
+	}
+
+	@Override
+	public DefaultPooledDataBuffer retain() {
+		this.allocation.retain();
+		return this;
+	}
+
+	@Override
+	public boolean release() {
+		return this.allocation.release();
+	}
+
+	private DefaultDataBuffer delegate() {
+		if (!this.allocation.isAllocated()) {
+			throw new IllegalStateException("DataBuffer has already been released");
+		}
+		return this.delegate;
+	}
+
+
+	@Override
+	public boolean equals(@Nullable Object other) {
+		return (this == other || (other instanceof DefaultPooledDataBuffer &&
+				this.delegate.equals(((DefaultPooledDataBuffer) other).delegate)));
+	}
+
+	@Override
+	public int hashCode() {
+		return this.delegate.hashCode();
+	}
+
+	@Override
+	public String toString() {
+		return String.format("DefaultPooledDataBuffer (r: %d, w: %d, c: %d, refCnt: %d)",
+				this.delegate.readPosition(), this.delegate.writePosition(), this.delegate.capacity(),
+				this.allocation.refCount());
+	}
+
+
+	/**
+	 * The reference-counted {@code ByteBuffer} borrowed from the pool,
+	 * shared by a buffer and its retained slices.
+	 */
+	abstract static class Allocation {
+
+		private final AtomicInteger refCount = new AtomicInteger(1);
+
+		int refCount() {
+			return this.refCount.get();
+		}
+
+		boolean isAllocated() {
+			return this.refCount.get() > 0;
+		}
+
+		void retain() {
+			int count;
+			do {
+				count = this.refCount.get();
+				if (count <= 0) {
+					throw new IllegalStateException("DataBuffer has already been released");
+				}
+			}
+			while (!this.refCount.compareAndSet(count, count + 1));
+		}
+
+		boolean release() {
+			int count;
+			do {
+				count = this.refCount.get();
+				if (count <= 0) {
+					throw new IllegalStateException("DataBuffer has already been released");
+				}
+			}
+			while (!this.refCount.compareAndSet(count, count - 1));
+			if (count == 1) {
+				deallocate();
+				return true;
+			}
+			return false;
+		}
+
+		/**
+		 * Return the {@code ByteBuffer} to the pool.
+		 */
+		protected abstract void deallocate();
+	}
+
+}
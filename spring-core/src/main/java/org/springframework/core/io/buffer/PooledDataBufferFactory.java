@@ -0,0 +1,334 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.io.buffer;
+
+import java.lang.ref.PhantomReference;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * {@link DataBufferFactory} that recycles the {@code ByteBuffers} behind the
+ * {@link DefaultPooledDataBuffer DefaultPooledDataBuffers} it allocates,
+ * bringing pooling to servers other than Reactor Netty, which uses the
+ * {@link NettyDataBufferFactory}. Buffers are returned to the pool when
+ * {@linkplain DataBufferUtils#release(DataBuffer) released}.
+ *
+ * <p>Requested capacities are rounded up to the next power of two, starting
+ * at {@value #MIN_POOLED_CAPACITY} bytes. Each size class is pooled in a
+ * bounded cache shared across threads, so buffers may be released on a
+ * different thread than the one that allocated them. Requests above the
+ * {@linkplain #getMaxPooledCapacity() maximum pooled capacity} are served
+ * with unpooled buffers, as are {@linkplain #wrap(ByteBuffer) wrapped} buffers.
+ *
+ * <p>With {@linkplain #setLeakDetection(boolean) leak detection} enabled,
+ * buffers that are garbage collected without having been released are
+ * logged at warn level, along with the stack trace of their allocation.
+ *
+ * @since 5.2.1
+ */
+public class PooledDataBufferFactory implements DataBufferFactory {
+
+	/**
+	 * The capacity of the smallest size class.
+	 */
+	public static final int MIN_POOLED_CAPACITY = DefaultDataBufferFactory.DEFAULT_INITIAL_CAPACITY;
+
+	/**
+	 * The default maximum capacity of pooled buffers.
+	 */
+	public static final int DEFAULT_MAX_POOLED_CAPACITY = 64 * 1024;
+
+	private static final int MIN_POOLED_CAPACITY_SHIFT = Integer.numberOfTrailingZeros(MIN_POOLED_CAPACITY);
+
+	private static final Log logger = LogFactory.getLog(PooledDataBufferFactory.class);
+
+
+	private final DefaultDataBufferFactory delegate;
+
+	private final boolean preferDirect;
+
+	private final int maxPooledCapacity;
+
+	private int sharedCacheSize = 256;
+
+	private volatile boolean leakDetection;
+
+	private final Queue<ByteBuffer>[] sharedCaches;
+
+	private final AtomicIntegerArray sharedCacheCounts;
+
+	private final ReferenceQueue<Object> leakQueue = new ReferenceQueue<>();
+
+	private final Set<LeakTracker> leakTrackers = ConcurrentHashMap.newKeySet();
+
+	private final AtomicLong leakCount = new AtomicLong();
+
+
+	/**
+	 * Create a new {@code PooledDataBufferFactory} that pools heap buffers
+	 * with a maximum capacity of {@value #DEFAULT_MAX_POOLED_CAPACITY} bytes.
+	 */
+	public PooledDataBufferFactory() {
+		this(false);
+	}
+
+	/**
+	 * Create a new {@code PooledDataBufferFactory}, indicating whether direct
+	 * buffers should be pooled rather than heap buffers.
+	 * @param preferDirect {@code true} if direct buffers are to be preferred;
+	 * {@code false} otherwise
+	 */
+	public PooledDataBufferFactory(boolean preferDirect) {
+		this(preferDirect, DEFAULT_MAX_POOLED_CAPACITY);
+	}
+
+	/**
+	 * Create a new {@code PooledDataBufferFactory}, indicating whether direct
+	 * buffers should be pooled rather than heap buffers, and what the maximum
+	 * capacity of pooled buffers is.
+	 * @param preferDirect {@code true} if direct buffers are to be preferred;
+	 * {@code false} otherwise
+	 * @param maxPooledCapacity the maximum capacity of pooled buffers, which
+	 * is rounded up to the next power of two
+	 */
+	@SuppressWarnings("unchecked")
+	public PooledDataBufferFactory(boolean preferDirect, int maxPooledCapacity) {
+		Assert.isTrue(maxPooledCapacity >= MIN_POOLED_CAPACITY,
+				"'maxPooledCapacity' should be at least " + MIN_POOLED_CAPACITY);
+		Assert.isTrue(maxPooledCapacity <= (1 << 30), "'maxPooledCapacity' should be at most 2^30");
+		this.delegate = new DefaultDataBufferFactory(preferDirect);
+		this.preferDirect = preferDirect;
+		int sizeClassCount = sizeClass(maxPooledCapacity) + 1;
+		this.maxPooledCapacity = MIN_POOLED_CAPACITY << (sizeClassCount - 1);
+		this.sharedCaches = new Queue[sizeClassCount];
+		for (int i = 0; i < sizeClassCount; i++) {
+			this.sharedCaches[i] = new ConcurrentLinkedQueue<>();
+		}
+		this.sharedCacheCounts = new AtomicIntegerArray(sizeClassCount);
+	}
+
+
+	/**
+	 * Set the maximum number of buffers per size class to keep in the cache.
+	 * This bounds the memory retained by the pool.
+	 * <p>Default is 256.
+	 */
+	public void setSharedCacheSize(int sharedCacheSize) {
+		Assert.isTrue(sharedCacheSize >= 0, "'sharedCacheSize' must not be negative");
+		this.sharedCacheSize = sharedCacheSize;
+	}
+
+	/**
+	 * Set whether to report buffers that are garbage collected without having
+	 * been released. This records the stack trace of each allocation, so it
+	 * is intended for development and testing.
+	 * <p>Default is {@code false}.
+	 */
+	public void setLeakDetection(boolean leakDetection) {
+		this.leakDetection = leakDetection;
+	}
+
+	/**
+	 * Return the maximum capacity of pooled buffers.
+	 */
+	public int getMaxPooledCapacity() {
+		return this.maxPooledCapacity;
+	}
+
+	/**
+	 * Return the number of leaked buffers detected so far.
+	 * @see #setLeakDetection(boolean)
+	 */
+	public long getLeakCount() {
+		reportLeaks();
+		return this.leakCount.get();
+	}
+
+
+	@Override
+	public DefaultPooledDataBuffer allocateBuffer() {
+		return allocateBuffer(MIN_POOLED_CAPACITY);
+	}
+
+	@Override
+	public DefaultPooledDataBuffer allocateBuffer(int initialCapacity) {
+		Assert.isTrue(initialCapacity >= 0, "'initialCapacity' must not be negative");
+		if (initialCapacity > this.maxPooledCapacity) {
+			DefaultDataBuffer dataBuffer = this.delegate.allocateBuffer(initialCapacity);
+			return new DefaultPooledDataBuffer(this, new UnpooledAllocation(), dataBuffer);
+		}
+		int sizeClass = sizeClass(initialCapacity);
+		ByteBuffer byteBuffer = pollSharedCache(sizeClass);
+		if (byteBuffer == null) {
+			int capacity = MIN_POOLED_CAPACITY << sizeClass;
+			byteBuffer = (this.preferDirect ?
+					ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity));
+		}
+		// Explicit access via Buffer base type for compatibility
+		// with covariant return type on JDK 9's ByteBuffer...
+		Buffer buffer = byteBuffer;
+		buffer.clear();
+		PooledAllocation allocation = new PooledAllocation(sizeClass, byteBuffer);
+		if (this.leakDetection) {
+			reportLeaks();
+			allocation.leakTracker = new LeakTracker(allocation, this.leakQueue);
+			this.leakTrackers.add(allocation.leakTracker);
+		}
+		return new DefaultPooledDataBuffer(this, allocation,
+				DefaultDataBuffer.fromEmptyByteBuffer(this.delegate, byteBuffer.slice(), initialCapacity));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>This implementation returns an unpooled {@link DefaultDataBuffer},
+	 * since the given {@code ByteBuffer} is owned by the caller.
+	 */
+	@Override
+	public DefaultDataBuffer wrap(ByteBuffer byteBuffer) {
+		return this.delegate.wrap(byteBuffer);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>This implementation returns an unpooled {@link DefaultDataBuffer},
+	 * since the given byte array is owned by the caller.
+	 */
+	@Override
+	public DefaultDataBuffer wrap(byte[] bytes) {
+		return this.delegate.wrap(bytes);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>This implementation copies the data in {@code dataBuffers} into a
+	 * single pooled buffer, and releases the given buffers.
+	 */
+	@Override
+	public DefaultPooledDataBuffer join(List<? extends DataBuffer> dataBuffers) {
+		Assert.notEmpty(dataBuffers, "DataBuffer List must not be empty");
+		int capacity = dataBuffers.stream().mapToInt(DataBuffer::readableByteCount).sum();
+		DefaultPooledDataBuffer result = allocateBuffer(capacity);
+		dataBuffers.forEach(result::write);
+		dataBuffers.forEach(DataBufferUtils::release);
+		return result;
+	}
+
+
+	private static int sizeClass(int capacity) {
+		if (capacity <= MIN_POOLED_CAPACITY) {
+			return 0;
+		}
+		return (32 - Integer.numberOfLeadingZeros(capacity - 1)) - MIN_POOLED_CAPACITY_SHIFT;
+	}
+
+	@Nullable
+	private ByteBuffer pollSharedCache(int sizeClass) {
+		ByteBuffer byteBuffer = this.sharedCaches[sizeClass].poll();
+		if (byteBuffer != null) {
+			this.sharedCacheCounts.decrementAndGet(sizeClass);
+		}
+		return byteBuffer;
+	}
+
+	private void recycle(int sizeClass, ByteBuffer byteBuffer) {
+		if (this.sharedCacheCounts.incrementAndGet(sizeClass) <= this.sharedCacheSize) {
+			this.sharedCaches[sizeClass].offer(byteBuffer);
+		}
+		else {
+			this.sharedCacheCounts.decrementAndGet(sizeClass);
+		}
+	}
+
+	private void reportLeaks() {
+		Reference<?> reference;
+		while ((reference = this.leakQueue.poll()) != null) {
+			LeakTracker leakTracker = (LeakTracker) reference;
+			if (this.leakTrackers.remove(leakTracker)) {
+				this.leakCount.incrementAndGet();
+				logger.warn("DataBuffer was garbage collected without having been released, " +
+						"see DataBufferUtils.release(DataBuffer). Allocated at:", leakTracker.allocationSite);
+			}
+		}
+	}
+
+
+	@Override
+	public String toString() {
+		return "PooledDataBufferFactory (preferDirect=" + this.preferDirect +
+				", maxPooledCapacity=" + this.maxPooledCapacity + ")";
+	}
+
+
+	private final class PooledAllocation extends DefaultPooledDataBuffer.Allocation {
+
+		private final int sizeClass;
+
+		private final ByteBuffer byteBuffer;
+
+		@Nullable
+		private LeakTracker leakTracker;
+
+		PooledAllocation(int sizeClass, ByteBuffer byteBuffer) {
+			this.sizeClass = sizeClass;
+			this.byteBuffer = byteBuffer;
+		}
+
+		@Override
+		protected void deallocate() {
+			LeakTracker leakTracker = this.leakTracker;
+			if (leakTracker != null) {
+				leakTrackers.remove(leakTracker);
+				leakTracker.clear();
+			}
+			recycle(this.sizeClass, this.byteBuffer);
+		}
+	}
+
+
+	private static final class UnpooledAllocation extends DefaultPooledDataBuffer.Allocation {
+
+		@Override
+		protected void deallocate() {
+		}
+	}
+
+
+	private static final class LeakTracker extends PhantomReference<Object> {
+
+		private final Throwable allocationSite = new Throwable("DataBuffer allocation");
+
+		LeakTracker(Object referent, ReferenceQueue<Object> queue) {
+			super(referent, queue);
+		}
+	}
+
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.task;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ThreadFactory;
+
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * Internal delegate for virtual thread handling on JDK 21+, accessing the
+ * {@code Thread.Builder} API reflectively since this codebase is compiled
+ * against JDK 8.
+ *
+ * @since 5.2.1
+ * @see VirtualThreadTaskExecutor
+ * @see SimpleAsyncTaskExecutor#setVirtualThreads
+ */
+abstract class VirtualThreadDelegate {
+
+	@Nullable
+	private static final Method ofVirtualMethod;
+
+	@Nullable
+	private static final Method nameMethod;
+
+	@Nullable
+	private static final Method nameWithCounterMethod;
+
+	@Nullable
+	private static final Method factoryMethod;
+
+	@Nullable
+	private static final Method unstartedMethod;
+
+	static {
+		Method ofVirtual = ClassUtils.getMethodIfAvailable(Thread.class, "ofVirtual");
+		Class<?> builderClass = null;
+		try {
+			builderClass = ClassUtils.forName("java.lang.Thread$Builder", VirtualThreadDelegate.class.getClassLoader());
+		}
+		catch (ClassNotFoundException | LinkageError ex) {
+			// Running on JDK < 21
+		}
+		if (ofVirtual != null && builderClass != null) {
+			ofVirtualMethod = ofVirtual;
+			nameMethod = ClassUtils.getMethod(builderClass, "name", String.class);
+			nameWithCounterMethod = ClassUtils.getMethod(builderClass, "name", String.class, long.class);
+			factoryMethod = ClassUtils.getMethod(builderClass, "factory");
+			unstartedMethod = ClassUtils.getMethod(builderClass, "unstarted", Runnable.class);
+		}
+		else {
+			ofVirtualMethod = null;
+			nameMethod = null;
+			nameWithCounterMethod = null;
+			factoryMethod = null;
+			unstartedMethod = null;
+		}
+	}
+
+
+	/**
+	 * Return whether virtual threads are supported by the current JVM.
+	 */
+	public static boolean isSupported() {
+		return (ofVirtualMethod != null);
+	}
+
+	/**
+	 * Create a factory for unnamed virtual threads.
+	 * @throws UnsupportedOperationException if virtual threads are not supported
+	 */
+	public static ThreadFactory virtualThreadFactory() {
+		return (ThreadFactory) invoke(factoryMethod, newBuilder());
+	}
+
+	/**
+	 * Create a factory for virtual threads named with the given prefix
+	 * followed by a counter.
+	 * @param threadNamePrefix the prefix for the names of the created threads
+	 * @throws UnsupportedOperationException if virtual threads are not supported
+	 */
+	public static ThreadFactory virtualThreadFactory(String threadNamePrefix) {
+		Object builder = invoke(nameWithCounterMethod, newBuilder(), threadNamePrefix, 0L);
+		return (ThreadFactory) invoke(factoryMethod, builder);
+	}
+
+	/**
+	 * Create a virtual thread with the given name, not started yet.
+	 * @param name the name of the thread
+	 * @param task the task to run on the thread
+	 * @throws UnsupportedOperationException if virtual threads are not supported
+	 */
+	public static Thread newVirtualThread(String name, Runnable task) {
+		// A new builder per thread: Thread.Builder instances are not thread-safe
+		Object builder = invoke(nameMethod, newBuilder(), name);
+		return (Thread) invoke(unstartedMethod, builder, task);
+	}
+
+	private static Object newBuilder() {
+		if (ofVirtualMethod == null) {
+			throw new UnsupportedOperationException("Virtual threads not supported on JDK < 21");
+		}
+		return invoke(ofVirtualMethod, null);
+	}
+
+	private static Object invoke(@Nullable Method method, @Nullable Object target, Object... args) {
+		Assert.state(method != null, "Virtual thread API not available");
+		Object result = ReflectionUtils.invokeMethod(method, target, args);
+		if (result == null) {
+			throw new IllegalStateException("Unexpected null result from " + method);
+		}
+		return result;
+	}
+
+}
@@ -0,0 +1,669 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.type.classreading;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.core.annotation.MergedAnnotations;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.UrlResource;
+import org.springframework.core.type.AnnotationMetadata;
+import org.springframework.core.type.ClassMetadata;
+import org.springframework.core.type.MethodMetadata;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.ResourceUtils;
+import org.springframework.util.StringUtils;
+
+/**
+ * File-based cache of class-level metadata, allowing classpath scanning to skip
+ * reading unchanged ".class" files with ASM on subsequent startups.
+ *
+ * <p>Each entry holds the {@link ClassMetadata} of a class file along with the
+ * names of its annotation types and their meta-annotation types. Entries are
+ * validated against the length and last-modified timestamp of the containing
+ * archive for jar entries, or of the class file itself otherwise; changing a
+ * jar therefore invalidates all of its entries at once, without the need to
+ * open the archive. Since the cached meta-annotation types depend on other
+ * classes, the locations that define the annotation types and direct supertypes
+ * of a class, as found through the {@code ClassLoader}, are validated as well.
+ *
+ * <p>The {@link MetadataReader} instances returned by {@link #getMetadataReader}
+ * are <em>summaries</em>: class names, type hierarchies and annotation types are
+ * answered from the cache, which is sufficient for the common type filters.
+ * Annotation attributes and annotated methods are not cached; requesting them
+ * reads the class file through the given {@link MetadataReaderFactory}.
+ *
+ * <p>A cache file may be created ahead of time, e.g. while building a container
+ * image, and is only rewritten by {@link #save()} if entries have changed.
+ * Entries that have not been accessed since the cache was loaded are dropped
+ * on save, so that classes which are no longer scanned do not accumulate.
+ * Since entries are keyed by resource URL, the cache is only effective with
+ * the same classpath layout that it was created with.
+ *
+ * @since 5.2.1
+ * @see #load(Path, ClassLoader)
+ */
+public final class PersistentMetadataCache {
+
+	private static final String HEADER = "# Spring class metadata cache v1";
+
+	private static final char FIELD_SEPARATOR = '\t';
+
+	private static final int INTERFACE = 1;
+
+	private static final int ANNOTATION = 2;
+
+	private static final int ABSTRACT = 4;
+
+	private static final int FINAL = 8;
+
+	private static final int INDEPENDENT = 16;
+
+	private static final Log logger = LogFactory.getLog(PersistentMetadataCache.class);
+
+
+	private final Path file;
+
+	@Nullable
+	private final ClassLoader classLoader;
+
+	private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>(256);
+
+	private final Set<String> accessedKeys = ConcurrentHashMap.newKeySet(256);
+
+	private final ConcurrentMap<String, String> archiveStamps = new ConcurrentHashMap<>();
+
+	private final ConcurrentMap<String, String> typeStamps = new ConcurrentHashMap<>();
+
+	private volatile boolean modified;
+
+
+	private PersistentMetadataCache(Path file, @Nullable ClassLoader classLoader) {
+		this.file = file;
+		this.classLoader = classLoader;
+	}
+
+
+	/**
+	 * Load the cache stored in the given file, if any, validating referenced
+	 * types against the default {@code ClassLoader}.
+	 * @param file the location of the cache file
+	 * @return the cache instance
+	 * @see #load(Path, ClassLoader)
+	 */
+	public static PersistentMetadataCache load(Path file) {
+		return load(file, ClassUtils.getDefaultClassLoader());
+	}
+
+	/**
+	 * Load the cache stored in the given file, if any.
+	 * <p>A missing or unreadable file results in an empty cache which will be
+	 * written to the given location on {@link #save()}.
+	 * @param file the location of the cache file
+	 * @param classLoader the ClassLoader to find the annotation types and
+	 * supertypes referenced by cached classes with
+	 * @return the cache instance
+	 */
+	public static PersistentMetadataCache load(Path file, @Nullable ClassLoader classLoader) {
+		Assert.notNull(file, "File must not be null");
+		PersistentMetadataCache cache = new PersistentMetadataCache(file, classLoader);
+		if (Files.isReadable(file)) {
+			try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+				if (HEADER.equals(reader.readLine())) {
+					String line;
+					while ((line = reader.readLine()) != null) {
+						cache.readEntry(line);
+					}
+				}
+			}
+			catch (IOException | RuntimeException ex) {
+				if (logger.isDebugEnabled()) {
+					logger.debug("Ignoring unreadable class metadata cache " + file, ex);
+				}
+				cache.entries.clear();
+			}
+		}
+		return cache;
+	}
+
+
+	/**
+	 * Return the location of the cache file.
+	 */
+	public Path getFile() {
+		return this.file;
+	}
+
+	/**
+	 * Return the number of cached class entries.
+	 */
+	public int size() {
+		return this.entries.size();
+	}
+
+	/**
+	 * Obtain a summary {@link MetadataReader} for the given class file resource,
+	 * provided that the cache holds an up-to-date entry for it.
+	 * @param resource the resource (pointing to a ".class" file)
+	 * @param metadataReaderFactory the factory to read the class file with if
+	 * annotation attributes or annotated methods are requested
+	 * @return the summary reader, or {@code null} if the resource has no cache
+	 * entry or has been modified since the entry was created
+	 */
+	@Nullable
+	public MetadataReader getMetadataReader(Resource resource, MetadataReaderFactory metadataReaderFactory) {
+		String key = getKey(resource);
+		if (key == null) {
+			return null;
+		}
+		Entry entry = this.entries.get(key);
+		if (entry == null || !entry.stamp.equals(getStamp(resource, entry.metadata))) {
+			return null;
+		}
+		this.accessedKeys.add(key);
+		return new SummaryMetadataReader(resource,
+				new SummaryAnnotationMetadata(entry.metadata, resource, metadataReaderFactory));
+	}
+
+	/**
+	 * Store a cache entry for the class read by the given {@link MetadataReader}.
+	 * <p>Resources for which no validation stamp can be determined are ignored.
+	 * @param metadataReader a fully capable reader, as obtained from
+	 * a {@link MetadataReaderFactory}
+	 */
+	public void put(MetadataReader metadataReader) {
+		if (metadataReader instanceof SummaryMetadataReader) {
+			return;
+		}
+		Resource resource = metadataReader.getResource();
+		String key = getKey(resource);
+		if (key == null) {
+			return;
+		}
+		SummaryAnnotationMetadata metadata = new SummaryAnnotationMetadata(metadataReader.getAnnotationMetadata());
+		String stamp = getStamp(resource, metadata);
+		if (stamp == null) {
+			return;
+		}
+		this.accessedKeys.add(key);
+		Entry existing = this.entries.get(key);
+		if (existing == null || !existing.stamp.equals(stamp)) {
+			this.entries.put(key, new Entry(stamp, metadata));
+			this.modified = true;
+		}
+	}
+
+	/**
+	 * Remove all entries from this cache.
+	 */
+	public void clear() {
+		this.entries.clear();
+		this.accessedKeys.clear();
+		this.archiveStamps.clear();
+		this.typeStamps.clear();
+		this.modified = true;
+	}
+
+	/**
+	 * Write the cache to its file if it has been modified since it was loaded
+	 * or last saved, leaving out entries that have not been accessed through
+	 * {@link #getMetadataReader} or {@link #put} since the cache was loaded.
+	 * <p>The file is replaced atomically where supported by the file system,
+	 * so that concurrently starting processes never see a partial cache.
+	 * @throws IOException in case of I/O errors
+	 */
+	public synchronized void save() throws IOException {
+		if (this.entries.keySet().retainAll(this.accessedKeys)) {
+			this.modified = true;
+		}
+		if (!this.modified) {
+			return;
+		}
+		this.modified = false;
+		Path parent = this.file.toAbsolutePath().getParent();
+		if (parent != null) {
+			Files.createDirectories(parent);
+		}
+		Path tempFile = Files.createTempFile(parent, this.file.getFileName().toString(), ".tmp");
+		try {
+			try (BufferedWriter writer = Files.newBufferedWriter(tempFile, StandardCharsets.UTF_8)) {
+				writer.write(HEADER);
+				writer.newLine();
+				for (Map.Entry<String, Entry> entry : this.entries.entrySet()) {
+					writeEntry(writer, entry.getKey(), entry.getValue());
+				}
+			}
+			try {
+				Files.move(tempFile, this.file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			}
+			catch (IOException ex) {
+				Files.move(tempFile, this.file, StandardCopyOption.REPLACE_EXISTING);
+			}
+		}
+		catch (IOException ex) {
+			this.modified = true;
+			Files.deleteIfExists(tempFile);
+			throw ex;
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "PersistentMetadataCache [" + this.file + "]: " + size() + " entries";
+	}
+
+
+	@Nullable
+	private static String getKey(Resource resource) {
+		try {
+			return resource.getURL().toExternalForm();
+		}
+		catch (IOException ex) {
+			return null;
+		}
+	}
+
+	/**
+	 * Determine the stamp of the given class file resource, combined with the
+	 * stamps of the annotation types and direct supertypes it references.
+	 */
+	@Nullable
+	private String getStamp(Resource resource, SummaryAnnotationMetadata metadata) {
+		String stamp = getStamp(resource);
+		if (stamp == null) {
+			return null;
+		}
+		Set<String> referencedTypes = new TreeSet<>(metadata.annotationTypes.keySet());
+		referencedTypes.addAll(metadata.metaAnnotationTypes);
+		if (metadata.superClassName != null) {
+			referencedTypes.add(metadata.superClassName);
+		}
+		Collections.addAll(referencedTypes, metadata.interfaceNames);
+		StringBuilder typeStamps = new StringBuilder();
+		for (String typeName : referencedTypes) {
+			if (!typeName.startsWith("java.")) {
+				typeStamps.append(typeName).append('=').append(getTypeStamp(typeName)).append(';');
+			}
+		}
+		return (typeStamps.length() > 0 ?
+				stamp + "/" + DigestUtils.md5DigestAsHex(typeStamps.toString().getBytes(StandardCharsets.UTF_8)) :
+				stamp);
+	}
+
+	private String getTypeStamp(String typeName) {
+		// A type is assumed to remain in the same location while the application is running
+		return this.typeStamps.computeIfAbsent(typeName, key -> {
+			String resourcePath = ClassUtils.convertClassNameToResourcePath(key) + ClassUtils.CLASS_FILE_SUFFIX;
+			URL url = (this.classLoader != null ? this.classLoader.getResource(resourcePath) :
+					ClassLoader.getSystemResource(resourcePath));
+			String stamp = (url != null ? getStamp(new UrlResource(url)) : null);
+			return (stamp != null ? stamp : "-");
+		});
+	}
+
+	@Nullable
+	private String getStamp(Resource resource) {
+		try {
+			URL url = resource.getURL();
+			if (ResourceUtils.isJarURL(url)) {
+				URL archiveUrl = ResourceUtils.extractArchiveURL(url);
+				if (ResourceUtils.isFileURL(archiveUrl)) {
+					// An archive is assumed to remain unchanged while the application is running
+					return this.archiveStamps.computeIfAbsent(archiveUrl.toExternalForm(), key -> {
+						try {
+							return getStamp(ResourceUtils.getFile(archiveUrl));
+						}
+						catch (IOException ex) {
+							return null;
+						}
+					});
+				}
+			}
+			else if (resource.isFile()) {
+				return getStamp(resource.getFile());
+			}
+			return resource.contentLength() + ":" + resource.lastModified();
+		}
+		catch (IOException ex) {
+			return null;
+		}
+	}
+
+	private static String getStamp(File file) {
+		return file.length() + ":" + file.lastModified();
+	}
+
+	private void readEntry(String line) {
+		String[] fields = StringUtils.delimitedListToStringArray(line, String.valueOf(FIELD_SEPARATOR));
+		if (fields.length != 9) {
+			throw new IllegalStateException("Invalid cache entry: " + line);
+		}
+		Map<String, Set<String>> annotationTypes = new LinkedHashMap<>();
+		for (String annotation : StringUtils.delimitedListToStringArray(fields[8], ";")) {
+			if (!annotation.isEmpty()) {
+				int index = annotation.indexOf('=');
+				annotationTypes.put(annotation.substring(0, index),
+						StringUtils.commaDelimitedListToSet(annotation.substring(index + 1)));
+			}
+		}
+		SummaryAnnotationMetadata metadata = new SummaryAnnotationMetadata(Integer.parseInt(fields[2]),
+				fields[3], nullIfEmpty(fields[4]), nullIfEmpty(fields[5]),
+				StringUtils.commaDelimitedListToStringArray(fields[6]),
+				StringUtils.commaDelimitedListToStringArray(fields[7]), annotationTypes);
+		this.entries.put(fields[0], new Entry(fields[1], metadata));
+	}
+
+	private static void writeEntry(BufferedWriter writer, String key, Entry entry) throws IOException {
+		SummaryAnnotationMetadata metadata = entry.metadata;
+		StringBuilder annotations = new StringBuilder();
+		metadata.annotationTypes.forEach((type, metaTypes) -> {
+			if (annotations.length() > 0) {
+				annotations.append(';');
+			}
+			annotations.append(type).append('=').append(StringUtils.collectionToCommaDelimitedString(metaTypes));
+		});
+		writer.append(key).append(FIELD_SEPARATOR)
+				.append(entry.stamp).append(FIELD_SEPARATOR)
+				.append(String.valueOf(metadata.flags)).append(FIELD_SEPARATOR)
+				.append(metadata.className).append(FIELD_SEPARATOR)
+				.append(emptyIfNull(metadata.enclosingClassName)).append(FIELD_SEPARATOR)
+				.append(emptyIfNull(metadata.superClassName)).append(FIELD_SEPARATOR)
+				.append(StringUtils.arrayToCommaDelimitedString(metadata.interfaceNames)).append(FIELD_SEPARATOR)
+				.append(StringUtils.arrayToCommaDelimitedString(metadata.memberClassNames)).append(FIELD_SEPARATOR)
+				.append(annotations);
+		writer.newLine();
+	}
+
+	@Nullable
+	private static String nullIfEmpty(String value) {
+		return (value.isEmpty() ? null : value);
+	}
+
+	private static String emptyIfNull(@Nullable String value) {
+		return (value != null ? value : "");
+	}
+
+
+	private static final class Entry {
+
+		final String stamp;
+
+		final SummaryAnnotationMetadata metadata;
+
+		Entry(String stamp, SummaryAnnotationMetadata metadata) {
+			this.stamp = stamp;
+			this.metadata = metadata;
+		}
+	}
+
+
+	/**
+	 * {@link MetadataReader} exposing a {@link SummaryAnnotationMetadata}.
+	 */
+	private static final class SummaryMetadataReader implements MetadataReader {
+
+		private final Resource resource;
+
+		private final AnnotationMetadata metadata;
+
+		SummaryMetadataReader(Resource resource, AnnotationMetadata metadata) {
+			this.resource = resource;
+			this.metadata = metadata;
+		}
+
+		@Override
+		public Resource getResource() {
+			return this.resource;
+		}
+
+		@Override
+		public ClassMetadata getClassMetadata() {
+			return this.metadata;
+		}
+
+		@Override
+		public AnnotationMetadata getAnnotationMetadata() {
+			return this.metadata;
+		}
+	}
+
+
+	/**
+	 * {@link AnnotationMetadata} holding class metadata and annotation type names
+	 * only, as restored from a cache entry. Anything else is obtained from a full
+	 * read of the class file, for instances created with a MetadataReaderFactory.
+	 */
+	private static final class SummaryAnnotationMetadata implements AnnotationMetadata {
+
+		final int flags;
+
+		final String className;
+
+		@Nullable
+		final String enclosingClassName;
+
+		@Nullable
+		final String superClassName;
+
+		final String[] interfaceNames;
+
+		final String[] memberClassNames;
+
+		/** Directly present annotation types, mapped to their meta-annotation types. */
+		final Map<String, Set<String>> annotationTypes;
+
+		final Set<String> metaAnnotationTypes;
+
+		@Nullable
+		private final Resource resource;
+
+		@Nullable
+		private final MetadataReaderFactory metadataReaderFactory;
+
+		@Nullable
+		private volatile AnnotationMetadata fullMetadata;
+
+		SummaryAnnotationMetadata(AnnotationMetadata metadata) {
+			this(flags(metadata), metadata.getClassName(), metadata.getEnclosingClassName(),
+					metadata.getSuperClassName(), metadata.getInterfaceNames(), metadata.getMemberClassNames(),
+					annotationTypes(metadata.getAnnotations()));
+		}
+
+		SummaryAnnotationMetadata(int flags, String className, @Nullable String enclosingClassName,
+				@Nullable String superClassName, String[] interfaceNames, String[] memberClassNames,
+				Map<String, Set<String>> annotationTypes) {
+
+			this.flags = flags;
+			this.className = className;
+			this.enclosingClassName = enclosingClassName;
+			this.superClassName = superClassName;
+			this.interfaceNames = interfaceNames;
+			this.memberClassNames = memberClassNames;
+			this.annotationTypes = annotationTypes;
+			Set<String> metaAnnotationTypes = new LinkedHashSet<>();
+			annotationTypes.values().forEach(metaAnnotationTypes::addAll);
+			this.metaAnnotationTypes = metaAnnotationTypes;
+			this.resource = null;
+			this.metadataReaderFactory = null;
+		}
+
+		SummaryAnnotationMetadata(SummaryAnnotationMetadata summary, Resource resource,
+				MetadataReaderFactory metadataReaderFactory) {
+
+			this.flags = summary.flags;
+			this.className = summary.className;
+			this.enclosingClassName = summary.enclosingClassName;
+			this.superClassName = summary.superClassName;
+			this.interfaceNames = summary.interfaceNames;
+			this.memberClassNames = summary.memberClassNames;
+			this.annotationTypes = summary.annotationTypes;
+			this.metaAnnotationTypes = summary.metaAnnotationTypes;
+			this.resource = resource;
+			this.metadataReaderFactory = metadataReaderFactory;
+		}
+
+		private static int flags(ClassMetadata metadata) {
+			return (metadata.isInterface() ? INTERFACE : 0) | (metadata.isAnnotation() ? ANNOTATION : 0) |
+					(metadata.isAbstract() ? ABSTRACT : 0) | (metadata.isFinal() ? FINAL : 0) |
+					(metadata.isIndependent() ? INDEPENDENT : 0);
+		}
+
+		private static Map<String, Set<String>> annotationTypes(MergedAnnotations annotations) {
+			Map<String, Set<String>> annotationTypes = new LinkedHashMap<>();
+			annotations.stream().forEach(annotation -> {
+				String rootType = annotation.getRoot().getType().getName();
+				Set<String> metaTypes = annotationTypes.computeIfAbsent(rootType, key -> new LinkedHashSet<>());
+				if (!annotation.isDirectlyPresent()) {
+					metaTypes.add(annotation.getType().getName());
+				}
+			});
+			return annotationTypes;
+		}
+
+		@Override
+		public String getClassName() {
+			return this.className;
+		}
+
+		@Override
+		public boolean isInterface() {
+			return (this.flags & INTERFACE) != 0;
+		}
+
+		@Override
+		public boolean isAnnotation() {
+			return (this.flags & ANNOTATION) != 0;
+		}
+
+		@Override
+		public boolean isAbstract() {
+			return (this.flags & ABSTRACT) != 0;
+		}
+
+		@Override
+		public boolean isFinal() {
+			return (this.flags & FINAL) != 0;
+		}
+
+		@Override
+		public boolean isIndependent() {
+			return (this.flags & INDEPENDENT) != 0;
+		}
+
+		@Override
+		@Nullable
+		public String getEnclosingClassName() {
+			return this.enclosingClassName;
+		}
+
+		@Override
+		@Nullable
+		public String getSuperClassName() {
+			return this.superClassName;
+		}
+
+		@Override
+		public String[] getInterfaceNames() {
+			return this.interfaceNames.clone();
+		}
+
+		@Override
+		public String[] getMemberClassNames() {
+			return this.memberClassNames.clone();
+		}
+
+		@Override
+		public Set<String> getAnnotationTypes() {
+			return Collections.unmodifiableSet(this.annotationTypes.keySet());
+		}
+
+		@Override
+		public Set<String> getMetaAnnotationTypes(String annotationName) {
+			Set<String> metaTypes = this.annotationTypes.get(annotationName);
+			return (metaTypes != null ? Collections.unmodifiableSet(metaTypes) : Collections.emptySet());
+		}
+
+		@Override
+		public boolean hasAnnotation(String annotationName) {
+			return this.annotationTypes.containsKey(annotationName);
+		}
+
+		@Override
+		public boolean hasMetaAnnotation(String metaAnnotationName) {
+			return this.metaAnnotationTypes.contains(metaAnnotationName);
+		}
+
+		@Override
+		public boolean isAnnotated(String annotationName) {
+			return (hasAnnotation(annotationName) || hasMetaAnnotation(annotationName));
+		}
+
+		@Override
+		public MergedAnnotations getAnnotations() {
+			return getFullMetadata().getAnnotations();
+		}
+
+		@Override
+		public Set<MethodMetadata> getAnnotatedMethods(String annotationName) {
+			return getFullMetadata().getAnnotatedMethods(annotationName);
+		}
+
+		private AnnotationMetadata getFullMetadata() {
+			AnnotationMetadata fullMetadata = this.fullMetadata;
+			if (fullMetadata == null) {
+				Assert.state(this.resource != null && this.metadataReaderFactory != null,
+						"No MetadataReaderFactory to read class file with");
+				try {
+					fullMetadata = this.metadataReaderFactory.getMetadataReader(this.resource).getAnnotationMetadata();
+				}
+				catch (IOException ex) {
+					throw new IllegalStateException("Failed to read class file for " + this.className, ex);
+				}
+				this.fullMetadata = fullMetadata;
+			}
+			return fullMetadata;
+		}
+
+		@Override
+		public String toString() {
+			return this.className;
+		}
+	}
+
+}
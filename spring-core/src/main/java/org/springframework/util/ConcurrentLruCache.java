@@ -0,0 +1,414 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.util;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+import org.springframework.lang.Nullable;
+
+/**
+ * Simple LRU (Least Recently Used) cache, bounded by a specified cache limit.
+ *
+ * <p>This implementation is backed by a {@code ConcurrentHashMap} for storing
+ * the cached values. Reads do not block: accesses are recorded in striped
+ * buffers and applied to the LRU order in batches, under a lock that is only
+ * ever tried by readers. As a consequence, the eviction order is an
+ * approximation of the access order when accesses race with each other,
+ * which is perfectly sufficient for parsing and metadata caches.
+ *
+ * <p>Values are created through the generator function given at construction
+ * time. The generator may be called concurrently for the same key, in which
+ * case the first value stored wins.
+ *
+ * <p>Hit, miss and eviction counts are maintained for monitoring purposes.
+ *
+ * @since 5.2.1
+ * @param <K> the type of the key used for cache retrieval
+ * @param <V> the type of the cached values
+ * @see #get
+ */
+public final class ConcurrentLruCache<K, V> {
+
+	private static final int BUFFER_SIZE = 64;
+
+	private static final int MAX_BUFFER_COUNT = 16;
+
+
+	private final int sizeLimit;
+
+	private final Function<K, V> generator;
+
+	private final ConcurrentHashMap<K, Node<K, V>> cache;
+
+	private final AtomicReferenceArray<ReadBuffer<K, V>> readBuffers;
+
+	private final ReentrantLock evictionLock = new ReentrantLock();
+
+	private final EvictionQueue<K, V> evictionQueue = new EvictionQueue<>();
+
+	private final LongAdder hitCount = new LongAdder();
+
+	private final LongAdder missCount = new LongAdder();
+
+	private final LongAdder evictionCount = new LongAdder();
+
+
+	/**
+	 * Create a new cache instance with the given limit and generator function.
+	 * @param sizeLimit the maximum number of entries in the cache
+	 * (0 indicates no caching, always generating a new value)
+	 * @param generator a function to generate a new value for a given key
+	 */
+	public ConcurrentLruCache(int sizeLimit, Function<K, V> generator) {
+		Assert.isTrue(sizeLimit >= 0, "Cache size limit must not be negative");
+		Assert.notNull(generator, "Generator function must not be null");
+		this.sizeLimit = sizeLimit;
+		this.generator = generator;
+		this.cache = new ConcurrentHashMap<>(Math.min(sizeLimit, 256), 0.75f);
+		int bufferCount = Math.min(MAX_BUFFER_COUNT, ceilingPowerOfTwo(Runtime.getRuntime().availableProcessors()));
+		this.readBuffers = new AtomicReferenceArray<>(bufferCount);
+	}
+
+
+	/**
+	 * Retrieve an entry from the cache, potentially triggering generation
+	 * of the value.
+	 * @param key the key to retrieve the entry for
+	 * @return the cached or newly generated value
+	 */
+	public V get(K key) {
+		if (this.sizeLimit == 0) {
+			this.missCount.increment();
+			return this.generator.apply(key);
+		}
+		Node<K, V> node = this.cache.get(key);
+		if (node != null) {
+			this.hitCount.increment();
+			recordRead(node);
+			return node.value;
+		}
+		this.missCount.increment();
+		V value = this.generator.apply(key);
+		return put(key, value);
+	}
+
+	/**
+	 * Determine whether the given key is present in this cache.
+	 * <p>Does not count as an access for LRU ordering or statistics.
+	 * @param key the key to check for
+	 * @return {@code true} if the key is present, {@code false} if there was no matching key
+	 */
+	public boolean contains(K key) {
+		return this.cache.containsKey(key);
+	}
+
+	/**
+	 * Immediately remove the given key and any associated value.
+	 * @param key the key to evict the entry for
+	 * @return {@code true} if the key was present before,
+	 * {@code false} if there was no matching key
+	 */
+	public boolean remove(K key) {
+		Node<K, V> node = this.cache.remove(key);
+		if (node == null) {
+			return false;
+		}
+		this.evictionLock.lock();
+		try {
+			this.evictionQueue.remove(node);
+		}
+		finally {
+			this.evictionLock.unlock();
+		}
+		return true;
+	}
+
+	/**
+	 * Immediately remove all entries from this cache.
+	 */
+	public void clear() {
+		this.evictionLock.lock();
+		try {
+			for (int i = 0; i < this.readBuffers.length(); i++) {
+				ReadBuffer<K, V> buffer = this.readBuffers.get(i);
+				if (buffer != null) {
+					buffer.clear();
+				}
+			}
+			while (this.evictionQueue.poll() != null) {
+				// unlink all nodes
+			}
+			this.cache.clear();
+		}
+		finally {
+			this.evictionLock.unlock();
+		}
+	}
+
+	/**
+	 * Return the current size of the cache.
+	 * @see #sizeLimit()
+	 */
+	public int size() {
+		return this.cache.size();
+	}
+
+	/**
+	 * Return the maximum number of entries in the cache
+	 * (0 indicates no caching, always generating a new value).
+	 * @see #size()
+	 */
+	public int sizeLimit() {
+		return this.sizeLimit;
+	}
+
+	/**
+	 * Return the number of times {@link #get} found a cached value.
+	 */
+	public long hitCount() {
+		return this.hitCount.sum();
+	}
+
+	/**
+	 * Return the number of times {@link #get} had to generate a value.
+	 */
+	public long missCount() {
+		return this.missCount.sum();
+	}
+
+	/**
+	 * Return the number of entries evicted because the size limit was reached.
+	 */
+	public long evictionCount() {
+		return this.evictionCount.sum();
+	}
+
+	@Override
+	public String toString() {
+		return "ConcurrentLruCache[size=" + size() + ", sizeLimit=" + this.sizeLimit +
+				", hits=" + hitCount() + ", misses=" + missCount() + ", evictions=" + evictionCount() + "]";
+	}
+
+
+	private V put(K key, V value) {
+		Node<K, V> node = new Node<>(key, value);
+		Node<K, V> existing = this.cache.putIfAbsent(key, node);
+		if (existing != null) {
+			recordRead(existing);
+			return existing.value;
+		}
+		this.evictionLock.lock();
+		try {
+			drainReadBuffers();
+			// A concurrent remove may have happened before we got the lock
+			if (this.cache.get(key) == node) {
+				this.evictionQueue.add(node);
+			}
+			while (this.cache.size() > this.sizeLimit) {
+				Node<K, V> eldest = this.evictionQueue.poll();
+				if (eldest == null) {
+					break;
+				}
+				if (this.cache.remove(eldest.key, eldest)) {
+					this.evictionCount.increment();
+				}
+			}
+		}
+		finally {
+			this.evictionLock.unlock();
+		}
+		return value;
+	}
+
+	private void recordRead(Node<K, V> node) {
+		ReadBuffer<K, V> buffer = getReadBuffer();
+		if (!buffer.add(node) && this.evictionLock.tryLock()) {
+			try {
+				drainReadBuffers();
+			}
+			finally {
+				this.evictionLock.unlock();
+			}
+		}
+	}
+
+	private ReadBuffer<K, V> getReadBuffer() {
+		// Buffers are created on demand, keeping the footprint of rarely read caches small
+		int index = (int) Thread.currentThread().getId() & (this.readBuffers.length() - 1);
+		ReadBuffer<K, V> buffer = this.readBuffers.get(index);
+		if (buffer == null) {
+			buffer = new ReadBuffer<>();
+			if (!this.readBuffers.compareAndSet(index, null, buffer)) {
+				buffer = this.readBuffers.get(index);
+			}
+		}
+		return buffer;
+	}
+
+	private void drainReadBuffers() {
+		for (int i = 0; i < this.readBuffers.length(); i++) {
+			ReadBuffer<K, V> buffer = this.readBuffers.get(i);
+			if (buffer != null) {
+				buffer.drainTo(this.evictionQueue);
+			}
+		}
+	}
+
+	private static int ceilingPowerOfTwo(int value) {
+		return (value <= 1 ? 1 : Integer.highestOneBit(value - 1) << 1);
+	}
+
+
+	/**
+	 * A cache entry, linked into the {@link EvictionQueue} while cached.
+	 */
+	private static final class Node<K, V> {
+
+		final K key;
+
+		final V value;
+
+		@Nullable
+		Node<K, V> prev;
+
+		@Nullable
+		Node<K, V> next;
+
+		boolean linked;
+
+		Node(K key, V value) {
+			this.key = key;
+			this.value = value;
+		}
+	}
+
+
+	/**
+	 * Doubly-linked list of nodes in access order, eldest first.
+	 * Only accessed while holding the eviction lock.
+	 */
+	private static final class EvictionQueue<K, V> {
+
+		@Nullable
+		private Node<K, V> first;
+
+		@Nullable
+		private Node<K, V> last;
+
+		void add(Node<K, V> node) {
+			node.prev = this.last;
+			node.next = null;
+			if (this.last != null) {
+				this.last.next = node;
+			}
+			else {
+				this.first = node;
+			}
+			this.last = node;
+			node.linked = true;
+		}
+
+		void moveToBack(Node<K, V> node) {
+			if (node.linked && node != this.last) {
+				remove(node);
+				add(node);
+			}
+		}
+
+		void remove(Node<K, V> node) {
+			if (!node.linked) {
+				return;
+			}
+			if (node.prev != null) {
+				node.prev.next = node.next;
+			}
+			else {
+				this.first = node.next;
+			}
+			if (node.next != null) {
+				node.next.prev = node.prev;
+			}
+			else {
+				this.last = node.prev;
+			}
+			node.prev = null;
+			node.next = null;
+			node.linked = false;
+		}
+
+		@Nullable
+		Node<K, V> poll() {
+			Node<K, V> node = this.first;
+			if (node != null) {
+				remove(node);
+			}
+			return node;
+		}
+	}
+
+
+	/**
+	 * Bounded buffer of recent reads, filled without locking and drained
+	 * into the {@link EvictionQueue} under the eviction lock. Reads recorded
+	 * while a buffer is full are dropped.
+	 */
+	private static final class ReadBuffer<K, V> {
+
+		private final AtomicReferenceArray<Node<K, V>> nodes = new AtomicReferenceArray<>(BUFFER_SIZE);
+
+		private final AtomicInteger count = new AtomicInteger();
+
+		/**
+		 * Record a read of the given node.
+		 * @return {@code false} if the buffer is full and should be drained
+		 */
+		boolean add(Node<K, V> node) {
+			int index = this.count.get();
+			if (index >= BUFFER_SIZE) {
+				return false;
+			}
+			if (this.count.compareAndSet(index, index + 1)) {
+				this.nodes.lazySet(index, node);
+			}
+			return true;
+		}
+
+		void drainTo(EvictionQueue<K, V> queue) {
+			int count = Math.min(this.count.get(), BUFFER_SIZE);
+			for (int i = 0; i < count; i++) {
+				Node<K, V> node = this.nodes.getAndSet(i, null);
+				if (node != null) {
+					queue.moveToBack(node);
+				}
+			}
+			this.count.set(0);
+		}
+
+		void clear() {
+			for (int i = 0; i < BUFFER_SIZE; i++) {
+				this.nodes.lazySet(i, null);
+			}
+			this.count.set(0);
+		}
+	}
+
+}
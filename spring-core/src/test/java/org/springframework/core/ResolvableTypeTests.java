@@ -21,6 +21,7 @@ import java.io.ByteArrayOutputStream;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.Serializable;
+import java.lang.ref.WeakReference;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.GenericArrayType;
@@ -50,6 +51,7 @@ import org.mockito.Captor;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import org.springframework.core.ResolvableType.VariableResolver;
+import org.springframework.tests.EnabledForTestGroups;
 import org.springframework.util.MultiValueMap;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -59,6 +61,7 @@ import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
+import static org.springframework.tests.TestGroup.LONG_RUNNING;
 
 /**
  * Tests for {@link ResolvableType}.
@@ -1318,6 +1321,40 @@ class ResolvableTypeTests {
 		assertThat(type.resolveGeneric()).isEqualTo(Integer.class);
 	}
 
+	@Test
+	@EnabledForTestGroups(LONG_RUNNING)
+	void cacheDoesNotPreventClassLoaderCollection() throws Exception {
+		WeakReference<ClassLoader> classLoaderRef = resolveFieldTypeInThrowawayClassLoader();
+		forceSoftReferenceClearing();
+		for (int i = 0; i < 10 && classLoaderRef.get() != null; i++) {
+			System.gc();
+			Thread.sleep(50);
+		}
+		assertThat(classLoaderRef.get()).isNull();
+	}
+
+
+	private WeakReference<ClassLoader> resolveFieldTypeInThrowawayClassLoader() throws Exception {
+		ClassLoader classLoader = new OverridingClassLoader(getClass().getClassLoader());
+		Class<?> fieldsClass = classLoader.loadClass(Fields.class.getName());
+		assertThat(fieldsClass).isNotSameAs(Fields.class);
+		ResolvableType type = ResolvableType.forField(fieldsClass.getField("parameterizedType"));
+		assertThat(type.resolve()).isEqualTo(List.class);
+		return new WeakReference<>(classLoader);
+	}
+
+	private static void forceSoftReferenceClearing() {
+		// All soft references are cleared before an OutOfMemoryError is thrown
+		List<byte[]> memory = new ArrayList<>();
+		try {
+			while (true) {
+				memory.add(new byte[8 * 1024 * 1024]);
+			}
+		}
+		catch (OutOfMemoryError ex) {
+			memory.clear();
+		}
+	}
 
 	private ResolvableType testSerialization(ResolvableType type) throws Exception {
 		ByteArrayOutputStream bos = new ByteArrayOutputStream();
@@ -0,0 +1,205 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.io.buffer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.Pipe;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import org.springframework.util.StreamUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+/**
+ * Unit tests for {@link CompositeDataBuffer}.
+ */
+class CompositeDataBufferTests {
+
+	private final PooledDataBufferFactory bufferFactory = new PooledDataBufferFactory();
+
+
+	@Test
+	void readWithoutCopying() {
+		DataBuffer foo = buffer("foo");
+		DataBuffer bar = buffer("bar");
+		CompositeDataBuffer composite = new CompositeDataBuffer(this.bufferFactory, Arrays.asList(foo, bar, buffer("")));
+
+		assertThat(composite.getComponentCount()).isEqualTo(2);
+		assertThat(composite.capacity()).isEqualTo(6);
+		assertThat(composite.readableByteCount()).isEqualTo(6);
+		assertThat(composite.writableByteCount()).isEqualTo(0);
+		assertThat(composite.getByte(3)).isEqualTo((byte) 'b');
+
+		ByteBuffer[] byteBuffers = composite.asByteBuffers();
+		assertThat(byteBuffers).hasSize(2);
+		foo.asByteBuffer(0, 1).put(0, (byte) 'g');
+		assertThat(byteBuffers[0].get(0)).isEqualTo((byte) 'g');
+		assertThat(composite.toString(StandardCharsets.UTF_8)).isEqualTo("goobar");
+
+		byte[] bytes = new byte[4];
+		composite.read();
+		composite.read(bytes);
+		assertThat(new String(bytes, StandardCharsets.UTF_8)).isEqualTo("ooba");
+		assertThat(composite.readableByteCount()).isEqualTo(1);
+		release(composite);
+	}
+
+	@Test
+	void asByteBuffer() {
+		CompositeDataBuffer composite = composite("foo", "bar");
+
+		ByteBuffer shared = composite.asByteBuffer(3, 3);
+		assertThat(StandardCharsets.UTF_8.decode(shared).toString()).isEqualTo("bar");
+
+		ByteBuffer copy = composite.asByteBuffer();
+		assertThat(StandardCharsets.UTF_8.decode(copy).toString()).isEqualTo("foobar");
+		release(composite);
+	}
+
+	@Test
+	void asInputStream() throws Exception {
+		CompositeDataBuffer composite = composite("foo", "bar", "baz");
+		InputStream inputStream = composite.asInputStream(true);
+		assertThat(StreamUtils.copyToString(inputStream, StandardCharsets.UTF_8)).isEqualTo("foobarbaz");
+		assertThat(composite.readableByteCount()).isEqualTo(0);
+
+		inputStream.close();
+		assertThat(composite.isAllocated()).isFalse();
+	}
+
+	@Test
+	void toStringAcrossComponentBoundary() {
+		byte[] bytes = "été".getBytes(StandardCharsets.UTF_8);
+		DataBuffer first = this.bufferFactory.allocateBuffer().write(bytes, 0, 1);
+		DataBuffer second = this.bufferFactory.allocateBuffer().write(bytes, 1, bytes.length - 1);
+		CompositeDataBuffer composite = new CompositeDataBuffer(this.bufferFactory, Arrays.asList(first, second));
+
+		assertThat(composite.toString(StandardCharsets.UTF_8)).isEqualTo("été");
+		release(composite);
+	}
+
+	@Test
+	void writeAppendsComponent() {
+		CompositeDataBuffer composite = composite("foo", "bar");
+		composite.write("baz", StandardCharsets.UTF_8).write((byte) '!');
+
+		assertThat(composite.getComponentCount()).isEqualTo(3);
+		assertThat(composite.readableByteCount()).isEqualTo(10);
+		assertThat(composite.toString(StandardCharsets.UTF_8)).isEqualTo("foobarbaz!");
+
+		composite.writePosition(6);
+		composite.capacity(6);
+		assertThat(composite.getComponentCount()).isEqualTo(2);
+		assertThat(composite.toString(StandardCharsets.UTF_8)).isEqualTo("foobar");
+		release(composite);
+	}
+
+	@Test
+	void indexOf() {
+		CompositeDataBuffer composite = composite("foo", "bar", "baz");
+		assertThat(composite.indexOf(b -> b == 'b', 0)).isEqualTo(3);
+		assertThat(composite.indexOf(b -> b == 'b', 4)).isEqualTo(6);
+		assertThat(composite.indexOf(b -> b == 'x', 0)).isEqualTo(-1);
+		assertThat(composite.lastIndexOf(b -> b == 'a', 8)).isEqualTo(7);
+		assertThat(composite.lastIndexOf(b -> b == 'o', 5)).isEqualTo(2);
+		assertThat(composite.lastIndexOf(b -> b == 'x', 8)).isEqualTo(-1);
+		release(composite);
+	}
+
+	@Test
+	void slice() {
+		CompositeDataBuffer composite = composite("foo", "bar", "baz");
+
+		DataBuffer single = composite.slice(3, 2);
+		assertThat(single).isNotInstanceOf(CompositeDataBuffer.class);
+		assertThat(single.toString(StandardCharsets.UTF_8)).isEqualTo("ba");
+
+		DataBuffer spanning = composite.slice(2, 5);
+		assertThat(spanning).isInstanceOf(CompositeDataBuffer.class);
+		assertThat(spanning.toString(StandardCharsets.UTF_8)).isEqualTo("obarb");
+
+		CompositeDataBuffer retained = composite.retainedSlice(1, 7);
+		assertThat(composite.release()).isFalse();
+		assertThat(retained.toString(StandardCharsets.UTF_8)).isEqualTo("oobarba");
+		assertThat(retained.release()).isTrue();
+		assertThat(composite.isAllocated()).isFalse();
+	}
+
+	@Test
+	void releaseComponents() {
+		DataBuffer foo = buffer("foo");
+		DataBuffer bar = buffer("bar");
+		CompositeDataBuffer composite = new CompositeDataBuffer(this.bufferFactory, Arrays.asList(foo, bar));
+		composite.write((byte) '!');
+
+		release(composite);
+		assertThat(((PooledDataBuffer) foo).isAllocated()).isFalse();
+		assertThat(((PooledDataBuffer) bar).isAllocated()).isFalse();
+		assertThatExceptionOfType(IllegalStateException.class).isThrownBy(composite::release);
+	}
+
+	@Test
+	void joinCreatesComposite() {
+		DataBuffer joined = DataBufferUtils.join(Flux.just(buffer("foo"), buffer("bar"))).block();
+		assertThat(joined).isInstanceOf(CompositeDataBuffer.class);
+		assertThat(joined.toString(StandardCharsets.UTF_8)).isEqualTo("foobar");
+		release(joined);
+
+		DataBuffer single = buffer("foo");
+		assertThat(DataBufferUtils.join(Arrays.asList(single))).isSameAs(single);
+		release(single);
+	}
+
+	@Test
+	void gatheringWrite() throws Exception {
+		Pipe pipe = Pipe.open();
+		CompositeDataBuffer composite = composite("foo", "bar");
+		ByteArrayOutputStream result = new ByteArrayOutputStream();
+
+		StepVerifier.create(DataBufferUtils.write(Flux.just(composite), pipe.sink()))
+				.consumeNextWith(DataBufferUtils::release)
+				.verifyComplete();
+		pipe.sink().close();
+		StreamUtils.copy(Channels.newInputStream(pipe.source()), result);
+		assertThat(result.toString("UTF-8")).isEqualTo("foobar");
+	}
+
+
+	private DataBuffer buffer(String value) {
+		return this.bufferFactory.allocateBuffer().write(value, StandardCharsets.UTF_8);
+	}
+
+	private CompositeDataBuffer composite(String... values) {
+		return new CompositeDataBuffer(this.bufferFactory,
+				Arrays.stream(values).map(this::buffer).collect(Collectors.toList()));
+	}
+
+	private static void release(DataBuffer buffer) {
+		assertThat(DataBufferUtils.release(buffer)).isTrue();
+	}
+
+}
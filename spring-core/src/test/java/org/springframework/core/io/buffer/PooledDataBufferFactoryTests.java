@@ -0,0 +1,179 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.io.buffer;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+/**
+ * Unit tests for {@link PooledDataBufferFactory}.
+ */
+class PooledDataBufferFactoryTests {
+
+	private final PooledDataBufferFactory bufferFactory = new PooledDataBufferFactory();
+
+
+	@Test
+	void recycleOnRelease() {
+		DefaultPooledDataBuffer buffer = this.bufferFactory.allocateBuffer(1000);
+		assertThat(buffer.capacity()).isEqualTo(1000);
+		byte[] memory = buffer.getNativeBuffer().array();
+		assertThat(memory).hasSize(1024);
+		assertThat(DataBufferUtils.release(buffer)).isTrue();
+		assertThat(buffer.isAllocated()).isFalse();
+
+		DefaultPooledDataBuffer recycled = this.bufferFactory.allocateBuffer(600);
+		assertThat(recycled.capacity()).isEqualTo(600);
+		assertThat(recycled.readableByteCount()).isEqualTo(0);
+		assertThat(recycled.getNativeBuffer().array()).isSameAs(memory);
+		release(recycled);
+
+		DefaultPooledDataBuffer otherSizeClass = this.bufferFactory.allocateBuffer(200);
+		assertThat(otherSizeClass.getNativeBuffer().array()).isNotSameAs(memory);
+		release(otherSizeClass);
+	}
+
+	@Test
+	void growWithinSizeClass() {
+		DefaultPooledDataBuffer buffer = this.bufferFactory.allocateBuffer(600);
+		byte[] memory = buffer.getNativeBuffer().array();
+		buffer.write(new byte[600]);
+		buffer.ensureCapacity(400).write(new byte[400]);
+		assertThat(buffer.capacity()).isGreaterThanOrEqualTo(1000);
+		assertThat(buffer.readableByteCount()).isEqualTo(1000);
+		assertThat(buffer.getNativeBuffer().array()).isSameAs(memory);
+		release(buffer);
+	}
+
+	@Test
+	void recycleAcrossThreads() throws Exception {
+		DefaultPooledDataBuffer buffer = this.bufferFactory.allocateBuffer(100);
+		byte[] memory = buffer.getNativeBuffer().array();
+		CompletableFuture.runAsync(buffer::release).get();
+
+		DefaultPooledDataBuffer recycled = CompletableFuture.supplyAsync(() -> this.bufferFactory.allocateBuffer(100)).get();
+		assertThat(recycled.getNativeBuffer().array()).isSameAs(memory);
+		release(recycled);
+	}
+
+	@Test
+	void directBuffers() {
+		PooledDataBufferFactory bufferFactory = new PooledDataBufferFactory(true);
+		DefaultPooledDataBuffer buffer = bufferFactory.allocateBuffer();
+		assertThat(buffer.getNativeBuffer().isDirect()).isTrue();
+		assertThat(buffer.capacity()).isEqualTo(PooledDataBufferFactory.MIN_POOLED_CAPACITY);
+		release(buffer);
+	}
+
+	@Test
+	void unpooledAboveMaxPooledCapacity() {
+		PooledDataBufferFactory bufferFactory = new PooledDataBufferFactory(false, 1000);
+		assertThat(bufferFactory.getMaxPooledCapacity()).isEqualTo(1024);
+
+		DefaultPooledDataBuffer buffer = bufferFactory.allocateBuffer(2000);
+		byte[] memory = buffer.getNativeBuffer().array();
+		assertThat(memory).hasSize(2000);
+		release(buffer);
+
+		DefaultPooledDataBuffer other = bufferFactory.allocateBuffer(2000);
+		assertThat(other.getNativeBuffer().array()).isNotSameAs(memory);
+		release(other);
+	}
+
+	@Test
+	void fluentWritesReturnPooledBuffer() {
+		DataBuffer buffer = this.bufferFactory.allocateBuffer(4)
+				.write("foo", StandardCharsets.UTF_8)
+				.write(new byte[] {'!'})
+				.write(ByteBuffer.wrap(new byte[] {'?'}));
+		assertThat(buffer).isInstanceOf(DefaultPooledDataBuffer.class);
+		assertThat(buffer.toString(StandardCharsets.UTF_8)).isEqualTo("foo!?");
+		assertThat(buffer.factory()).isSameAs(this.bufferFactory);
+		release(buffer);
+	}
+
+	@Test
+	void retainedSliceSharesReferenceCount() {
+		DefaultPooledDataBuffer buffer = this.bufferFactory.allocateBuffer();
+		buffer.write("foobar", StandardCharsets.UTF_8);
+		DefaultPooledDataBuffer slice = buffer.retainedSlice(3, 3);
+
+		assertThat(buffer.release()).isFalse();
+		assertThat(slice.isAllocated()).isTrue();
+		assertThat(slice.toString(StandardCharsets.UTF_8)).isEqualTo("bar");
+
+		assertThat(slice.release()).isTrue();
+		assertThat(buffer.isAllocated()).isFalse();
+	}
+
+	@Test
+	void accessAfterRelease() {
+		DefaultPooledDataBuffer buffer = this.bufferFactory.allocateBuffer();
+		buffer.release();
+		assertThat(DataBufferUtils.release(buffer)).isFalse();
+		assertThatIllegalStateException().isThrownBy(() -> buffer.write((byte) 'a'));
+		assertThatIllegalStateException().isThrownBy(buffer::retain);
+		assertThatIllegalStateException().isThrownBy(buffer::release);
+	}
+
+	@Test
+	void releaseOnInputStreamClose() throws Exception {
+		DefaultPooledDataBuffer buffer = this.bufferFactory.allocateBuffer();
+		buffer.write("foo", StandardCharsets.UTF_8);
+		buffer.asInputStream(true).close();
+		assertThat(buffer.isAllocated()).isFalse();
+	}
+
+	@Test
+	void join() {
+		DefaultPooledDataBuffer foo = this.bufferFactory.allocateBuffer().write("foo", StandardCharsets.UTF_8);
+		DefaultPooledDataBuffer bar = this.bufferFactory.allocateBuffer().write("bar", StandardCharsets.UTF_8);
+		DefaultPooledDataBuffer result = this.bufferFactory.join(Arrays.asList(foo, bar));
+
+		assertThat(result.toString(StandardCharsets.UTF_8)).isEqualTo("foobar");
+		assertThat(foo.isAllocated()).isFalse();
+		assertThat(bar.isAllocated()).isFalse();
+		release(result);
+	}
+
+	@Test
+	void leakDetection() throws Exception {
+		PooledDataBufferFactory bufferFactory = new PooledDataBufferFactory();
+		bufferFactory.setLeakDetection(true);
+		release(bufferFactory.allocateBuffer());
+		bufferFactory.allocateBuffer();
+
+		for (int i = 0; i < 50 && bufferFactory.getLeakCount() == 0; i++) {
+			System.gc();
+			Thread.sleep(20);
+		}
+		assertThat(bufferFactory.getLeakCount()).isEqualTo(1);
+	}
+
+
+	private static void release(DataBuffer buffer) {
+		assertThat(DataBufferUtils.release(buffer)).isTrue();
+	}
+
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.task;
+
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.util.ReflectionUtils;
+import org.springframework.util.concurrent.ListenableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Tests for {@link VirtualThreadTaskExecutor} and virtual threads in
+ * {@link SimpleAsyncTaskExecutor}, only run on JDK 21+ unless noted otherwise.
+ */
+class VirtualThreadTaskExecutorTests {
+
+	@Test
+	void submitWithThreadNamePrefix() throws Exception {
+		assumeTrue(VirtualThreadTaskExecutor.isSupported());
+		VirtualThreadTaskExecutor executor = new VirtualThreadTaskExecutor("test-");
+		Future<Thread> future = executor.submit(Thread::currentThread);
+		Thread thread = future.get(1, TimeUnit.SECONDS);
+		assertThat(isVirtual(thread)).isTrue();
+		assertThat(thread.getName()).startsWith("test-");
+	}
+
+	@Test
+	void submitListenableWithoutThreadName() throws Exception {
+		assumeTrue(VirtualThreadTaskExecutor.isSupported());
+		VirtualThreadTaskExecutor executor = new VirtualThreadTaskExecutor();
+		AtomicReference<Thread> threadRef = new AtomicReference<>();
+		ListenableFuture<?> future = executor.submitListenable(() -> threadRef.set(Thread.currentThread()));
+		future.get(1, TimeUnit.SECONDS);
+		assertThat(isVirtual(threadRef.get())).isTrue();
+		assertThat(threadRef.get().getName()).isEmpty();
+	}
+
+	@Test
+	void simpleAsyncTaskExecutorWithVirtualThreads() throws Exception {
+		assumeTrue(VirtualThreadTaskExecutor.isSupported());
+		SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("test-");
+		executor.setVirtualThreads(true);
+		assertThat(executor.isVirtualThreads()).isTrue();
+		Thread thread = executor.submit(Thread::currentThread).get(1, TimeUnit.SECONDS);
+		assertThat(isVirtual(thread)).isTrue();
+		assertThat(thread.getName()).startsWith("test-");
+	}
+
+	@Test
+	void virtualThreadsNotSupported() {
+		assumeFalse(VirtualThreadTaskExecutor.isSupported());
+		assertThatExceptionOfType(UnsupportedOperationException.class).isThrownBy(
+				VirtualThreadTaskExecutor::new);
+		assertThatExceptionOfType(UnsupportedOperationException.class).isThrownBy(() ->
+				new SimpleAsyncTaskExecutor().setVirtualThreads(true));
+	}
+
+
+	private static boolean isVirtual(Thread thread) {
+		return Boolean.TRUE.equals(ReflectionUtils.invokeMethod(
+				ReflectionUtils.findMethod(Thread.class, "isVirtual"), thread));
+	}
+
+}
@@ -0,0 +1,266 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.type.classreading;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.UrlResource;
+import org.springframework.core.type.AnnotationMetadata;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.StreamUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link PersistentMetadataCache}.
+ */
+class PersistentMetadataCacheTests {
+
+	private static final String SAMPLE_CLASS_FILE = "PersistentMetadataCacheTests$Sample.class";
+
+
+	private final MetadataReaderFactory metadataReaderFactory = new SimpleMetadataReaderFactory();
+
+	@TempDir
+	Path tempDir;
+
+
+	@Test
+	void missingFileResultsInEmptyCache() {
+		PersistentMetadataCache cache = PersistentMetadataCache.load(this.tempDir.resolve("cache"));
+		assertThat(cache.size()).isEqualTo(0);
+	}
+
+	@Test
+	void saveAndLoad() throws IOException {
+		Resource resource = copySampleClassFile();
+		Path cacheFile = this.tempDir.resolve("cache");
+		PersistentMetadataCache cache = PersistentMetadataCache.load(cacheFile);
+		assertThat(cache.getMetadataReader(resource, this.metadataReaderFactory)).isNull();
+		cache.put(this.metadataReaderFactory.getMetadataReader(resource));
+		cache.save();
+
+		PersistentMetadataCache loaded = PersistentMetadataCache.load(cacheFile);
+		assertThat(loaded.size()).isEqualTo(1);
+		MetadataReader reader = loaded.getMetadataReader(resource, this.metadataReaderFactory);
+		assertThat(reader).isNotNull();
+		assertThat(reader.getResource()).isSameAs(resource);
+		AnnotationMetadata metadata = reader.getAnnotationMetadata();
+		assertThat(metadata.getClassName()).isEqualTo(Sample.class.getName());
+		assertThat(metadata.isAbstract()).isTrue();
+		assertThat(metadata.isInterface()).isFalse();
+		assertThat(metadata.isIndependent()).isTrue();
+		assertThat(metadata.getEnclosingClassName()).isEqualTo(PersistentMetadataCacheTests.class.getName());
+		assertThat(metadata.getSuperClassName()).isEqualTo(Object.class.getName());
+		assertThat(metadata.getInterfaceNames()).containsExactly(Serializable.class.getName());
+		assertThat(metadata.getAnnotationTypes()).containsExactly(Composed.class.getName());
+		assertThat(metadata.getMetaAnnotationTypes(Composed.class.getName())).containsExactly(Meta.class.getName());
+		assertThat(metadata.hasAnnotation(Composed.class.getName())).isTrue();
+		assertThat(metadata.hasAnnotation(Meta.class.getName())).isFalse();
+		assertThat(metadata.hasMetaAnnotation(Meta.class.getName())).isTrue();
+		assertThat(metadata.isAnnotated(Meta.class.getName())).isTrue();
+		assertThat(metadata.isAnnotated(Retention.class.getName())).isFalse();
+	}
+
+	@Test
+	void saveOnlyIfModified() throws IOException {
+		Resource resource = copySampleClassFile();
+		Path cacheFile = this.tempDir.resolve("cache");
+		PersistentMetadataCache cache = PersistentMetadataCache.load(cacheFile);
+		cache.save();
+		assertThat(cacheFile).doesNotExist();
+
+		cache.put(this.metadataReaderFactory.getMetadataReader(resource));
+		cache.save();
+		Files.delete(cacheFile);
+		cache.put(this.metadataReaderFactory.getMetadataReader(resource));
+		cache.save();
+		assertThat(cacheFile).doesNotExist();
+	}
+
+	@Test
+	void annotationAttributesReadOnDemand() throws IOException {
+		Resource resource = copySampleClassFile();
+		PersistentMetadataCache cache = PersistentMetadataCache.load(this.tempDir.resolve("cache"));
+		cache.put(this.metadataReaderFactory.getMetadataReader(resource));
+		AtomicInteger readCount = new AtomicInteger();
+		MetadataReaderFactory countingFactory = new SimpleMetadataReaderFactory() {
+			@Override
+			public MetadataReader getMetadataReader(Resource resource) throws IOException {
+				readCount.incrementAndGet();
+				return super.getMetadataReader(resource);
+			}
+		};
+
+		AnnotationMetadata metadata = cache.getMetadataReader(resource, countingFactory).getAnnotationMetadata();
+		assertThat(metadata.isAnnotated(Composed.class.getName())).isTrue();
+		assertThat(readCount.get()).isEqualTo(0);
+		assertThat(metadata.getAnnotationAttributes(Composed.class.getName())).isEmpty();
+		assertThat(metadata.hasAnnotatedMethods(Composed.class.getName())).isFalse();
+		assertThat(readCount.get()).isEqualTo(1);
+	}
+
+	@Test
+	void unaccessedEntriesDroppedOnSave() throws IOException {
+		Resource resource = copySampleClassFile();
+		Path cacheFile = this.tempDir.resolve("cache");
+		PersistentMetadataCache cache = PersistentMetadataCache.load(cacheFile);
+		cache.put(this.metadataReaderFactory.getMetadataReader(resource));
+		cache.save();
+
+		PersistentMetadataCache accessed = PersistentMetadataCache.load(cacheFile);
+		assertThat(accessed.getMetadataReader(resource, this.metadataReaderFactory)).isNotNull();
+		accessed.save();
+		assertThat(PersistentMetadataCache.load(cacheFile).size()).isEqualTo(1);
+
+		PersistentMetadataCache unaccessed = PersistentMetadataCache.load(cacheFile);
+		unaccessed.save();
+		assertThat(PersistentMetadataCache.load(cacheFile).size()).isEqualTo(0);
+	}
+
+	@Test
+	void modifiedClassFileInvalidatesEntry() throws IOException {
+		Resource resource = copySampleClassFile();
+		PersistentMetadataCache cache = PersistentMetadataCache.load(this.tempDir.resolve("cache"));
+		cache.put(this.metadataReaderFactory.getMetadataReader(resource));
+		assertThat(cache.getMetadataReader(resource, this.metadataReaderFactory)).isNotNull();
+
+		resource.getFile().setLastModified(resource.lastModified() - 10_000);
+		assertThat(cache.getMetadataReader(resource, this.metadataReaderFactory)).isNull();
+	}
+
+	@Test
+	void modifiedArchiveInvalidatesEntries() throws IOException {
+		Path jar = this.tempDir.resolve("sample.jar");
+		writeSampleJar(jar);
+		Resource resource = new UrlResource("jar:" + jar.toUri() + "!/sample/" + SAMPLE_CLASS_FILE);
+		Path cacheFile = this.tempDir.resolve("cache");
+		PersistentMetadataCache cache = PersistentMetadataCache.load(cacheFile);
+		cache.put(this.metadataReaderFactory.getMetadataReader(resource));
+		cache.save();
+		assertThat(PersistentMetadataCache.load(cacheFile).getMetadataReader(resource, this.metadataReaderFactory)).isNotNull();
+
+		jar.toFile().setLastModified(jar.toFile().lastModified() - 10_000);
+		assertThat(PersistentMetadataCache.load(cacheFile).getMetadataReader(resource, this.metadataReaderFactory)).isNull();
+	}
+
+	@Test
+	void modifiedAnnotationArchiveInvalidatesEntry() throws IOException {
+		Resource resource = copySampleClassFile();
+		Path jar = this.tempDir.resolve("annotations.jar");
+		writeJar(jar, Composed.class, Meta.class);
+		Path cacheFile = this.tempDir.resolve("cache");
+		try (URLClassLoader classLoader = new URLClassLoader(new URL[] {jar.toUri().toURL()}, null)) {
+			PersistentMetadataCache cache = PersistentMetadataCache.load(cacheFile, classLoader);
+			cache.put(this.metadataReaderFactory.getMetadataReader(resource));
+			cache.save();
+			assertThat(PersistentMetadataCache.load(cacheFile, classLoader).getMetadataReader(resource, this.metadataReaderFactory)).isNotNull();
+
+			jar.toFile().setLastModified(jar.toFile().lastModified() - 10_000);
+			assertThat(PersistentMetadataCache.load(cacheFile, classLoader).getMetadataReader(resource, this.metadataReaderFactory)).isNull();
+		}
+	}
+
+	@Test
+	void missingAnnotationTypeInvalidatesEntry() throws IOException {
+		Resource resource = copySampleClassFile();
+		Path cacheFile = this.tempDir.resolve("cache");
+		PersistentMetadataCache cache = PersistentMetadataCache.load(cacheFile);
+		cache.put(this.metadataReaderFactory.getMetadataReader(resource));
+		cache.save();
+		assertThat(PersistentMetadataCache.load(cacheFile).getMetadataReader(resource, this.metadataReaderFactory)).isNotNull();
+
+		try (URLClassLoader classLoader = new URLClassLoader(new URL[0], null)) {
+			assertThat(PersistentMetadataCache.load(cacheFile, classLoader).getMetadataReader(resource, this.metadataReaderFactory)).isNull();
+		}
+	}
+
+	@Test
+	void corruptFileResultsInEmptyCache() throws IOException {
+		Path cacheFile = this.tempDir.resolve("cache");
+		Files.write(cacheFile, "# Spring class metadata cache v1\ngarbage\n".getBytes());
+		assertThat(PersistentMetadataCache.load(cacheFile).size()).isEqualTo(0);
+	}
+
+
+	private Resource copySampleClassFile() throws IOException {
+		Path file = this.tempDir.resolve(SAMPLE_CLASS_FILE);
+		try (InputStream in = new ClassPathResource(SAMPLE_CLASS_FILE, getClass()).getInputStream()) {
+			Files.copy(in, file);
+		}
+		return new FileSystemResource(file);
+	}
+
+	private void writeSampleJar(Path jar) throws IOException {
+		try (OutputStream out = Files.newOutputStream(jar);
+				JarOutputStream jarOut = new JarOutputStream(out);
+				InputStream in = new ClassPathResource(SAMPLE_CLASS_FILE, getClass()).getInputStream()) {
+			jarOut.putNextEntry(new JarEntry("sample/" + SAMPLE_CLASS_FILE));
+			StreamUtils.copy(in, jarOut);
+			jarOut.closeEntry();
+		}
+	}
+
+	private void writeJar(Path jar, Class<?>... classes) throws IOException {
+		try (OutputStream out = Files.newOutputStream(jar);
+				JarOutputStream jarOut = new JarOutputStream(out)) {
+			for (Class<?> clazz : classes) {
+				String path = ClassUtils.convertClassNameToResourcePath(clazz.getName()) + ClassUtils.CLASS_FILE_SUFFIX;
+				try (InputStream in = new ClassPathResource(path).getInputStream()) {
+					jarOut.putNextEntry(new JarEntry(path));
+					StreamUtils.copy(in, jarOut);
+					jarOut.closeEntry();
+				}
+			}
+		}
+	}
+
+
+	@Retention(RetentionPolicy.RUNTIME)
+	@interface Meta {
+	}
+
+
+	@Retention(RetentionPolicy.RUNTIME)
+	@Meta
+	@interface Composed {
+	}
+
+
+	@Composed
+	abstract static class Sample implements Serializable {
+	}
+
+}
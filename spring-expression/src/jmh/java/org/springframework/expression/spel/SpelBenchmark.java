@@ -0,0 +1,125 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.expression.spel;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import org.springframework.expression.Expression;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+
+/**
+ * Benchmarks for parsing SpEL expressions and for evaluating them in interpreted
+ * and compiled mode.
+ */
+@BenchmarkMode(Mode.Throughput)
+public class SpelBenchmark {
+
+	@Benchmark
+	public Expression parse(ExpressionData data) {
+		return data.parser.parseExpression(data.expressionString);
+	}
+
+	@Benchmark
+	public Object evaluate(ExpressionData data) {
+		return data.expression.getValue(data.context);
+	}
+
+
+	@State(Scope.Benchmark)
+	public static class ExpressionData {
+
+		@Param({"OFF", "IMMEDIATE"})
+		public SpelCompilerMode compilerMode;
+
+		@Param({"name", "address.city", "name.length() > 3 and age >= 18", "tags[1]", "attributes['key']"})
+		public String expressionString;
+
+		public SpelExpressionParser parser;
+
+		public Expression expression;
+
+		public StandardEvaluationContext context;
+
+		@Setup(Level.Trial)
+		public void setup() {
+			this.parser = new SpelExpressionParser(
+					new SpelParserConfiguration(this.compilerMode, SpelBenchmark.class.getClassLoader()));
+			this.context = new StandardEvaluationContext(new Person());
+			this.expression = this.parser.parseExpression(this.expressionString);
+			// Evaluate once so that compilation happens up front in IMMEDIATE mode
+			this.expression.getValue(this.context);
+		}
+	}
+
+
+	public static class Person {
+
+		private final String name = "Jane";
+
+		private final int age = 42;
+
+		private final Address address = new Address();
+
+		private final List<String> tags = Arrays.asList("a", "b", "c");
+
+		private final Map<String, String> attributes = Collections.singletonMap("key", "value");
+
+		public String getName() {
+			return this.name;
+		}
+
+		public int getAge() {
+			return this.age;
+		}
+
+		public Address getAddress() {
+			return this.address;
+		}
+
+		public List<String> getTags() {
+			return this.tags;
+		}
+
+		public Map<String, String> getAttributes() {
+			return this.attributes;
+		}
+	}
+
+
+	public static class Address {
+
+		private final String city = "Paris";
+
+		public String getCity() {
+			return this.city;
+		}
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -85,9 +85,17 @@ public class CodeFlow implements Opcodes {
 
 	/**
 	 * When code generation requires an intermediate variable within a method,
-	 * this method records the next available variable (variable 0 is 'this').
+	 * this method records the next available variable (variable 0 is 'this',
+	 * variables 1 and 2 are the arguments passed to the getValue method).
 	 */
-	private int nextFreeVariableId = 1;
+	private int nextFreeVariableId = 3;
+
+	/**
+	 * The local variables that {@link #loadTarget} should load from, with the
+	 * innermost one first. Empty when the target is the first argument passed
+	 * to the getValue method.
+	 */
+	private final Deque<Integer> targetVariables = new ArrayDeque<>();
 
 
 	/**
@@ -105,11 +113,34 @@ public class CodeFlow implements Opcodes {
 
 	/**
 	 * Push the byte code to load the target (i.e. what was passed as the first argument
-	 * to CompiledExpression.getValue(target, context))
+	 * to CompiledExpression.getValue(target, context)), or the element currently
+	 * being processed if within a {@link #enterTargetScope target scope}.
 	 * @param mv the visitor into which the load instruction should be inserted
 	 */
 	public void loadTarget(MethodVisitor mv) {
-		mv.visitVarInsn(ALOAD, 1);
+		Integer targetVariable = this.targetVariables.peek();
+		mv.visitVarInsn(ALOAD, (targetVariable != null ? targetVariable : 1));
+	}
+
+	/**
+	 * Enter a new target scope in which {@link #loadTarget} loads the given local
+	 * variable rather than the first argument passed to the getValue method. For
+	 * example a collection selection uses this while evaluating its criteria
+	 * against each element of the collection.
+	 * @param variable the local variable holding the new target
+	 * @since 5.2.1
+	 * @see #nextFreeVariableId()
+	 */
+	public void enterTargetScope(int variable) {
+		this.targetVariables.push(variable);
+	}
+
+	/**
+	 * Exit a target scope, returning to the previous (outer) target.
+	 * @since 5.2.1
+	 */
+	public void exitTargetScope() {
+		this.targetVariables.pop();
 	}
 
 	/**
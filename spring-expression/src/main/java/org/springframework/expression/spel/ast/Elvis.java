@@ -53,6 +53,10 @@ public class Elvis extends SpelNodeImpl {
 		TypedValue value = this.children[0].getValueInternal(state);
 		// If this check is changed, the generateCode method will need changing too
 		if (!StringUtils.isEmpty(value.getValue())) {
+			if (CodeFlow.isPrimitive(this.children[0].exitTypeDescriptor)) {
+				// A primitive value can never be null: the other value is irrelevant
+				this.exitTypeDescriptor = this.children[0].exitTypeDescriptor;
+			}
 			return value;
 		}
 		else {
@@ -71,6 +75,9 @@ public class Elvis extends SpelNodeImpl {
 	public boolean isCompilable() {
 		SpelNodeImpl condition = this.children[0];
 		SpelNodeImpl ifNullValue = this.children[1];
+		if (condition.isCompilable() && CodeFlow.isPrimitive(condition.exitTypeDescriptor)) {
+			return true;
+		}
 		return (condition.isCompilable() && ifNullValue.isCompilable() &&
 				condition.exitTypeDescriptor != null && ifNullValue.exitTypeDescriptor != null);
 	}
@@ -83,6 +90,11 @@ public class Elvis extends SpelNodeImpl {
 		this.children[0].generateCode(mv, cf);
 		String lastDesc = cf.lastDescriptor();
 		Assert.state(lastDesc != null, "No last descriptor");
+		if (CodeFlow.isPrimitive(lastDesc)) {
+			cf.exitCompilationScope();
+			cf.pushDescriptor(lastDesc);
+			return;
+		}
 		CodeFlow.insertBoxIfNecessary(mv, lastDesc.charAt(0));
 		cf.exitCompilationScope();
 		Label elseTarget = new Label();
@@ -117,6 +129,11 @@ public class Elvis extends SpelNodeImpl {
 			if (ObjectUtils.nullSafeEquals(conditionDescriptor, ifNullValueDescriptor)) {
 				this.exitTypeDescriptor = conditionDescriptor;
 			}
+			else if (CodeFlow.isPrimitive(ifNullValueDescriptor) &&
+					conditionDescriptor.equals(CodeFlow.toBoxedDescriptor(ifNullValueDescriptor))) {
+				// The other value gets boxed to match the condition, e.g. for "#integer ?: 0"
+				this.exitTypeDescriptor = conditionDescriptor;
+			}
 			else {
 				// Use the easiest to compute common super type
 				this.exitTypeDescriptor = "Ljava/lang/Object";
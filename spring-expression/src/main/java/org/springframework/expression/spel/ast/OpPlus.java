@@ -127,13 +127,19 @@ public class OpPlus extends Operator {
 		}
 
 		if (leftOperand instanceof String) {
-			return new TypedValue(
-					leftOperand + (rightOperand == null ? "null" : convertTypedValueToString(operandTwoValue, state)));
+			String rightString = (rightOperand == null ? "null" : convertTypedValueToString(operandTwoValue, state));
+			if (isAppendable(rightOperand, rightString)) {
+				this.exitTypeDescriptor = "Ljava/lang/String";
+			}
+			return new TypedValue(leftOperand + rightString);
 		}
 
 		if (rightOperand instanceof String) {
-			return new TypedValue(
-					(leftOperand == null ? "null" : convertTypedValueToString(operandOneValue, state)) + rightOperand);
+			String leftString = (leftOperand == null ? "null" : convertTypedValueToString(operandOneValue, state));
+			if (isAppendable(leftOperand, leftString)) {
+				this.exitTypeDescriptor = "Ljava/lang/String";
+			}
+			return new TypedValue(leftString + rightOperand);
 		}
 
 		return state.operate(Operation.ADD, leftOperand, rightOperand);
@@ -172,6 +178,17 @@ public class OpPlus extends Operator {
 		return String.valueOf(value.getValue());
 	}
 
+	/**
+	 * Determine whether the given operand, converted to the given {@code String},
+	 * can be appended to a {@code StringBuilder} as-is by compiled code: that is,
+	 * whether it is a number, boolean or character that the type converter turned
+	 * into its plain {@code toString()} form.
+	 */
+	private static boolean isAppendable(@Nullable Object operand, String convertedOperand) {
+		return ((operand instanceof Number || operand instanceof Boolean || operand instanceof Character) &&
+				convertedOperand.equals(operand.toString()));
+	}
+
 	@Override
 	public boolean isCompilable() {
 		if (!getLeftOperand().isCompilable()) {
@@ -190,7 +207,7 @@ public class OpPlus extends Operator {
 	 * them all to the same (on stack) StringBuilder.
 	 */
 	private void walk(MethodVisitor mv, CodeFlow cf, @Nullable SpelNodeImpl operand) {
-		if (operand instanceof OpPlus) {
+		if (operand instanceof OpPlus && "Ljava/lang/String".equals(operand.exitTypeDescriptor)) {
 			OpPlus plus = (OpPlus)operand;
 			walk(mv, cf, plus.getLeftOperand());
 			walk(mv, cf, plus.getRightOperand());
@@ -198,11 +215,18 @@ public class OpPlus extends Operator {
 		else if (operand != null) {
 			cf.enterCompilationScope();
 			operand.generateCode(mv,cf);
-			if (!"Ljava/lang/String".equals(cf.lastDescriptor())) {
-				mv.visitTypeInsn(CHECKCAST, "java/lang/String");
-			}
+			String lastDesc = cf.lastDescriptor();
 			cf.exitCompilationScope();
-			mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/StringBuilder", "append", "(Ljava/lang/String;)Ljava/lang/StringBuilder;", false);
+			if ("Ljava/lang/String".equals(lastDesc)) {
+				mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/StringBuilder", "append", "(Ljava/lang/String;)Ljava/lang/StringBuilder;", false);
+			}
+			else {
+				// Numbers, booleans and characters mixed with strings: append their toString() form
+				if (lastDesc != null) {
+					CodeFlow.insertBoxIfNecessary(mv, lastDesc.charAt(0));
+				}
+				mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/StringBuilder", "append", "(Ljava/lang/Object;)Ljava/lang/StringBuilder;", false);
+			}
 		}
 	}
 
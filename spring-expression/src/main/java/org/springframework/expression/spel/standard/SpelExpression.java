@@ -530,6 +530,52 @@ public class SpelExpression implements Expression {
 		this.failedAttempts = 0;
 	}
 
+	/**
+	 * Describe why this expression is currently interpreted rather than evaluated
+	 * in compiled form: the innermost AST node that cannot be compiled, a failure
+	 * during code generation, or compilation not having been triggered yet.
+	 * @return a description of the reason, or {@code null} if the expression
+	 * has been compiled
+	 * @since 5.2.1
+	 * @see #compileExpression()
+	 */
+	@Nullable
+	public String getCompilationFailureReason() {
+		if (this.compiledAst != null) {
+			return null;
+		}
+		SpelNodeImpl node = findNonCompilableNode(this.ast);
+		if (node != null) {
+			StringBuilder reason = new StringBuilder(node.getClass().getSimpleName())
+					.append(" '").append(node.toStringAST()).append("' at position ")
+					.append(node.getStartPosition()).append(" is not compilable");
+			if (node.getExitDescriptor() == null) {
+				reason.append(": its result type is not known, possibly because it has not been evaluated yet");
+			}
+			return reason.toString();
+		}
+		if (this.failedAttempts > 0) {
+			return "Generating bytecode failed " + this.failedAttempts +
+					" time(s), see debug log output of " + SpelCompiler.class.getName();
+		}
+		return "Not compiled yet: compiler mode is " + this.configuration.getCompilerMode() +
+				" and the expression has been interpreted " + this.interpretedCount.get() + " time(s)";
+	}
+
+	@Nullable
+	private static SpelNodeImpl findNonCompilableNode(SpelNodeImpl node) {
+		if (node.isCompilable()) {
+			return null;
+		}
+		for (int i = 0; i < node.getChildCount(); i++) {
+			SpelNodeImpl child = findNonCompilableNode((SpelNodeImpl) node.getChild(i));
+			if (child != null) {
+				return child;
+			}
+		}
+		return node;
+	}
+
 	/**
 	 * Return the Abstract Syntax Tree for the expression.
 	 */
@@ -20,6 +20,7 @@ import java.io.IOException;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -892,6 +893,142 @@ public class SpelCompilationCoverageTests extends AbstractExpressionTests {
 		assertCanCompile(expression);
 	}
 
+	@Test
+	public void elvisWithPrimitiveAndBoxedValues() throws Exception {
+		expression = parser.parseExpression("length() ?: 5");
+		assertThat(expression.getValue("abc")).isEqualTo(3);
+		assertCanCompile(expression);
+		assertThat(expression.getValue("abc")).isEqualTo(3);
+
+		Map<String, Integer> map = new HashMap<>();
+		expression = parser.parseExpression("['a'] ?: 5");
+		assertThat(expression.getValue(map)).isEqualTo(5);
+		assertCanCompile(expression);
+		assertThat(expression.getValue(map)).isEqualTo(5);
+		map.put("a", 3);
+		assertThat(expression.getValue(map)).isEqualTo(3);
+
+		// The other value gets boxed to the type of the condition
+		expression = parser.parseExpression("(new Integer(#root) ?: 5) + 1");
+		assertThat(expression.getValue("3")).isEqualTo(4);
+		assertCanCompile(expression);
+		assertThat(expression.getValue("3")).isEqualTo(4);
+	}
+
+	@Test
+	public void selection() throws Exception {
+		List<String> names = Arrays.asList("a", "bb", "ccc");
+
+		expression = parser.parseExpression("?[length() > 1]");
+		assertThat(expression.getValue(names)).isEqualTo(Arrays.asList("bb", "ccc"));
+		assertCanCompile(expression);
+		assertThat(expression.getValue(names)).isEqualTo(Arrays.asList("bb", "ccc"));
+		assertThat(expression.getValue(Collections.emptyList())).isEqualTo(Collections.emptyList());
+
+		expression = parser.parseExpression("^[length() > 1]");
+		assertThat(expression.getValue(names)).isEqualTo("bb");
+		assertCanCompile(expression);
+		assertThat(expression.getValue(names)).isEqualTo("bb");
+		assertThat(expression.getValue(Collections.emptyList())).isNull();
+
+		expression = parser.parseExpression("$[length() > 1].toUpperCase()");
+		assertThat(expression.getValue(names)).isEqualTo("CCC");
+		assertCanCompile(expression);
+		assertThat(expression.getValue(names)).isEqualTo("CCC");
+
+		expression = parser.parseExpression("?[length() > 1].size()");
+		assertThat(expression.getValue(names)).isEqualTo(2);
+		assertCanCompile(expression);
+		assertThat(expression.getValue(names)).isEqualTo(2);
+
+		// Nested selection
+		expression = parser.parseExpression("?[{'aa', 'b'}.?[length() == 2].size() == length()]");
+		assertThat(expression.getValue(names)).isEqualTo(Collections.singletonList("a"));
+		assertCanCompile(expression);
+		assertThat(expression.getValue(names)).isEqualTo(Collections.singletonList("a"));
+
+		expression = parser.parseExpression("#root?.?[length() > 1]");
+		assertThat(expression.getValue(names)).isEqualTo(Arrays.asList("bb", "ccc"));
+		assertCanCompile(expression);
+		assertThat(expression.getValue((Object) null)).isNull();
+
+		// Arrays yield typed arrays
+		expression = parser.parseExpression("?[length() > 1]");
+		assertThat(expression.getValue(new String[] {"a", "bb"})).isEqualTo(new String[] {"bb"});
+		assertCantCompile(expression);
+	}
+
+	@Test
+	public void selectionOnMap() throws Exception {
+		Map<String, String> map = new HashMap<>();
+		map.put("a", "x");
+		map.put("b", "y");
+
+		expression = parser.parseExpression("?[value == 'y']");
+		assertThat(expression.getValue(map)).isEqualTo(Collections.singletonMap("b", "y"));
+		assertCanCompile(expression);
+		assertThat(expression.getValue(map)).isEqualTo(Collections.singletonMap("b", "y"));
+
+		expression = parser.parseExpression("^[key == 'a']");
+		assertThat(expression.getValue(map)).isEqualTo(Collections.singletonMap("a", "x"));
+		assertCanCompile(expression);
+		assertThat(expression.getValue(map)).isEqualTo(Collections.singletonMap("a", "x"));
+
+		expression = parser.parseExpression("$[key == 'b']");
+		assertThat(expression.getValue(map)).isEqualTo(Collections.singletonMap("b", "y"));
+		assertCanCompile(expression);
+		assertThat(expression.getValue(map)).isEqualTo(Collections.singletonMap("b", "y"));
+		assertThat(expression.getValue(Collections.emptyMap())).isNull();
+	}
+
+	@Test
+	public void projection() throws Exception {
+		List<String> names = Arrays.asList("a", "bb", "ccc");
+
+		expression = parser.parseExpression("![length()]");
+		assertThat(expression.getValue(names)).isEqualTo(Arrays.asList(1, 2, 3));
+		assertCanCompile(expression);
+		assertThat(expression.getValue(names)).isEqualTo(Arrays.asList(1, 2, 3));
+
+		expression = parser.parseExpression("![toUpperCase() + length()]");
+		assertThat(expression.getValue(names)).isEqualTo(Arrays.asList("A1", "BB2", "CCC3"));
+		assertCanCompile(expression);
+		assertThat(expression.getValue(names)).isEqualTo(Arrays.asList("A1", "BB2", "CCC3"));
+
+		expression = parser.parseExpression("?[length() > 1].![length()]");
+		assertThat(expression.getValue(names)).isEqualTo(Arrays.asList(2, 3));
+		assertCanCompile(expression);
+		assertThat(expression.getValue(names)).isEqualTo(Arrays.asList(2, 3));
+
+		Map<String, String> map = Collections.singletonMap("a", "x");
+		expression = parser.parseExpression("![key + value]");
+		assertThat(expression.getValue(map)).isEqualTo(Collections.singletonList("ax"));
+		assertCanCompile(expression);
+		assertThat(expression.getValue(map)).isEqualTo(Collections.singletonList("ax"));
+
+		// #this is not compilable
+		expression = parser.parseExpression("![#this]");
+		assertThat(expression.getValue(names)).isEqualTo(names);
+		assertCantCompile(expression);
+	}
+
+	@Test
+	public void compilationFailureReason() throws Exception {
+		SpelParserConfiguration configuration = new SpelParserConfiguration(SpelCompilerMode.OFF, null);
+		SpelExpression expression = new SpelExpressionParser(configuration).parseRaw("![#this]");
+		assertThat(expression.getCompilationFailureReason())
+				.isEqualTo("VariableReference '#this' at position 2 is not compilable: " +
+						"its result type is not known, possibly because it has not been evaluated yet");
+
+		expression = new SpelExpressionParser(configuration).parseRaw("length()");
+		assertThat(expression.getCompilationFailureReason()).startsWith("MethodReference 'length()'");
+		assertThat(expression.getValue("abc")).isEqualTo(3);
+		assertThat(expression.getCompilationFailureReason())
+				.isEqualTo("Not compiled yet: compiler mode is OFF and the expression has been interpreted 1 time(s)");
+		assertThat(expression.compileExpression()).isTrue();
+		assertThat(expression.getCompilationFailureReason()).isNull();
+	}
+
 	@Test
 	public void variableReference_root() throws Exception {
 		String s = "hello";
@@ -2368,7 +2505,19 @@ public class SpelCompilationCoverageTests extends AbstractExpressionTests {
 		// Three strings, optimal bytecode would only use one StringBuilder
 		expression = parse("'hello' + 3 + ' spring'");
 		assertThat(expression.getValue(new Greeter())).isEqualTo("hello3 spring");
-		assertCantCompile(expression);
+		assertCanCompile(expression);
+		assertThat(expression.getValue(new Greeter())).isEqualTo("hello3 spring");
+
+		// Numbers, booleans and characters mixed with strings
+		expression = parse("'a' + (1 + 2) + true + 'b'.charAt(0) + 2.5d");
+		assertThat(expression.getValue()).isEqualTo("a3trueb2.5");
+		assertCanCompile(expression);
+		assertThat(expression.getValue()).isEqualTo("a3trueb2.5");
+
+		expression = parse("1 + 2 + 'a'");
+		assertThat(expression.getValue()).isEqualTo("3a");
+		assertCanCompile(expression);
+		assertThat(expression.getValue()).isEqualTo("3a");
 
 		expression = parse("object + 'a'");
 		assertThat(expression.getValue(new Greeter())).isEqualTo("objecta");
@@ -0,0 +1,810 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.core;
+
+import java.beans.ConstructorProperties;
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.beans.BeanUtils;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.core.convert.support.DefaultConversionService;
+import org.springframework.dao.DataRetrievalFailureException;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.dao.TypeMismatchDataAccessException;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ConcurrentLruCache;
+import org.springframework.util.ConcurrentReferenceHashMap;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.util.StringUtils;
+
+/**
+ * {@link RowMapper} implementation that converts a row into a new instance
+ * of the specified mapped target class, like {@link BeanPropertyRowMapper},
+ * but without per-row reflection or bean wrapper overhead.
+ *
+ * <p>The constructor, setters and fields of the mapped class are resolved into
+ * {@link MethodHandle MethodHandles} once per class. For each distinct column
+ * layout of a {@code ResultSet}, a mapping plan is computed once and cached:
+ * it binds every column to a constructor argument, a setter or a field, along
+ * with a typed accessor such as {@link ResultSet#getInt} or {@link ResultSet#getLong}
+ * matching the target type. Mapping a row then simply executes the plan, with
+ * primitive values passed to setters and fields without boxing. Values of
+ * types without a dedicated accessor are retrieved through
+ * {@link JdbcUtils#getResultSetValue(ResultSet, int, Class)} and converted
+ * through the {@link #setConversionService ConversionService} if necessary.
+ *
+ * <p>Column names are matched the same way as in {@link BeanPropertyRowMapper}:
+ * against the lower-cased property name as well as its underscored variant,
+ * e.g. "first_name" for a property "firstName".
+ *
+ * <p>The mapped class needs to either have a no-arg constructor, in which case
+ * columns are bound to setters or non-final fields, or a single constructor with
+ * parameter names available through {@link ConstructorProperties @ConstructorProperties}
+ * or the {@code -parameters} compiler flag (or debug symbols). Any columns that
+ * do not match a constructor argument are bound to setters or fields after
+ * construction; constructor arguments without a matching column receive
+ * {@code null} or the primitive default value.
+ *
+ * <p>A {@code MethodHandleRowMapper} instance is thread-safe and is meant to be
+ * reused across queries in order to benefit from its cached plans.
+ *
+ * @since 5.2.1
+ * @param <T> the result type
+ * @see BeanPropertyRowMapper
+ */
+public class MethodHandleRowMapper<T> implements RowMapper<T> {
+
+	private static final int PLAN_CACHE_LIMIT = 32;
+
+	private static final ParameterNameDiscoverer parameterNameDiscoverer = new DefaultParameterNameDiscoverer();
+
+	private static final Map<Class<?>, MappedClass> mappedClassCache = new ConcurrentReferenceHashMap<>(64);
+
+
+	/** Logger available to subclasses. */
+	protected final Log logger = LogFactory.getLog(getClass());
+
+	private final Class<T> mappedClass;
+
+	private final MappedClass mappedClassMetadata;
+
+	private final ConcurrentLruCache<ColumnLayout, MappingPlan> planCache =
+			new ConcurrentLruCache<>(PLAN_CACHE_LIMIT, this::createPlan);
+
+	@Nullable
+	private volatile CurrentPlan currentPlan;
+
+	private boolean checkFullyPopulated = false;
+
+	private boolean primitivesDefaultedForNullValue = false;
+
+	@Nullable
+	private ConversionService conversionService = DefaultConversionService.getSharedInstance();
+
+
+	/**
+	 * Create a new {@code MethodHandleRowMapper}.
+	 * @param mappedClass the class that each row should be mapped to
+	 */
+	public MethodHandleRowMapper(Class<T> mappedClass) {
+		Assert.notNull(mappedClass, "Mapped class must not be null");
+		this.mappedClass = mappedClass;
+		this.mappedClassMetadata = mappedClassCache.computeIfAbsent(mappedClass, MappedClass::new);
+	}
+
+	/**
+	 * Create a new {@code MethodHandleRowMapper}.
+	 * @param mappedClass the class that each row should be mapped to
+	 * @param checkFullyPopulated whether we're strictly validating that
+	 * all bean properties have been mapped from corresponding database fields
+	 */
+	public MethodHandleRowMapper(Class<T> mappedClass, boolean checkFullyPopulated) {
+		this(mappedClass);
+		this.checkFullyPopulated = checkFullyPopulated;
+	}
+
+
+	/**
+	 * Get the class that we are mapping to.
+	 */
+	public final Class<T> getMappedClass() {
+		return this.mappedClass;
+	}
+
+	/**
+	 * Set whether we're strictly validating that all bean properties have been mapped
+	 * from corresponding database fields.
+	 * <p>Default is {@code false}, accepting unpopulated properties in the target bean.
+	 */
+	public void setCheckFullyPopulated(boolean checkFullyPopulated) {
+		this.checkFullyPopulated = checkFullyPopulated;
+		this.planCache.clear();
+		this.currentPlan = null;
+	}
+
+	/**
+	 * Return whether we're strictly validating that all bean properties have been
+	 * mapped from corresponding database fields.
+	 */
+	public boolean isCheckFullyPopulated() {
+		return this.checkFullyPopulated;
+	}
+
+	/**
+	 * Set whether we're defaulting Java primitives in the case of mapping a null value
+	 * from corresponding database fields.
+	 * <p>Default is {@code false}, throwing an exception when nulls are mapped to Java primitives.
+	 */
+	public void setPrimitivesDefaultedForNullValue(boolean primitivesDefaultedForNullValue) {
+		this.primitivesDefaultedForNullValue = primitivesDefaultedForNullValue;
+	}
+
+	/**
+	 * Return whether we're defaulting Java primitives in the case of mapping a null value
+	 * from corresponding database fields.
+	 */
+	public boolean isPrimitivesDefaultedForNullValue() {
+		return this.primitivesDefaultedForNullValue;
+	}
+
+	/**
+	 * Set a {@link ConversionService} for converting JDBC values that do not
+	 * match the target type of their property or constructor argument.
+	 * <p>Default is a {@link DefaultConversionService}.
+	 * Can be set to {@code null}, expecting values of matching types then.
+	 */
+	public void setConversionService(@Nullable ConversionService conversionService) {
+		this.conversionService = conversionService;
+	}
+
+	/**
+	 * Return a {@link ConversionService} for converting JDBC values,
+	 * or {@code null} if none.
+	 */
+	@Nullable
+	public ConversionService getConversionService() {
+		return this.conversionService;
+	}
+
+
+	/**
+	 * Extract the values for all columns in the current row, using the cached
+	 * mapping plan for the column layout of the given {@code ResultSet}.
+	 */
+	@Override
+	public T mapRow(ResultSet rs, int rowNumber) throws SQLException {
+		MappingPlan plan = getPlan(rs, rowNumber);
+		try {
+			return plan.mapRow(rs);
+		}
+		catch (SQLException | RuntimeException | Error ex) {
+			throw ex;
+		}
+		catch (Throwable ex) {
+			throw new DataRetrievalFailureException(
+					"Failed to map row to instance of [" + this.mappedClass.getName() + "]", ex);
+		}
+	}
+
+	/**
+	 * Determine the mapping plan for the given {@code ResultSet}, only inspecting
+	 * its meta-data for the first row or when a different {@code ResultSet} is seen.
+	 */
+	private MappingPlan getPlan(ResultSet rs, int rowNumber) throws SQLException {
+		CurrentPlan current = this.currentPlan;
+		if (current != null && rowNumber != 0 && current.resultSet.get() == rs) {
+			return current.plan;
+		}
+		ResultSetMetaData rsmd = rs.getMetaData();
+		int columnCount = rsmd.getColumnCount();
+		String[] columns = new String[columnCount];
+		for (int index = 1; index <= columnCount; index++) {
+			columns[index - 1] = JdbcUtils.lookupColumnName(rsmd, index);
+		}
+		MappingPlan plan = this.planCache.get(new ColumnLayout(columns));
+		this.currentPlan = new CurrentPlan(rs, plan);
+		return plan;
+	}
+
+	private MappingPlan createPlan(ColumnLayout layout) {
+		MappedClass metadata = this.mappedClassMetadata;
+		String[] columns = layout.columns;
+		int[] argumentColumns = new int[metadata.parameterTypes.length];
+		List<PropertyBinding> bindings = new ArrayList<>(columns.length);
+		Set<String> populatedProperties = new HashSet<>();
+
+		for (int index = 1; index <= columns.length; index++) {
+			String column = columns[index - 1];
+			String field = lowerCaseName(StringUtils.delete(column, " "));
+			Integer argumentIndex = metadata.parameterIndexes.get(field);
+			if (argumentIndex != null && argumentColumns[argumentIndex] == 0) {
+				argumentColumns[argumentIndex] = index;
+				populatedProperties.add(metadata.parameterNames[argumentIndex]);
+				if (logger.isDebugEnabled()) {
+					logger.debug("Mapping column '" + column + "' to constructor argument '" +
+							metadata.parameterNames[argumentIndex] + "'");
+				}
+				continue;
+			}
+			MappedProperty property = metadata.properties.get(field);
+			if (property != null) {
+				bindings.add(createBinding(property, column, index));
+				populatedProperties.add(property.name);
+				if (logger.isDebugEnabled()) {
+					logger.debug("Mapping column '" + column + "' to property '" + property.name +
+							"' of type '" + ClassUtils.getQualifiedName(property.type) + "'");
+				}
+			}
+		}
+
+		if (this.checkFullyPopulated && !populatedProperties.containsAll(metadata.propertyNames)) {
+			throw new InvalidDataAccessApiUsageException("Given ResultSet does not contain all fields " +
+					"necessary to populate object of " + this.mappedClass + ": " + metadata.propertyNames);
+		}
+
+		ColumnReader[] argumentReaders = new ColumnReader[argumentColumns.length];
+		for (int i = 0; i < argumentColumns.length; i++) {
+			if (argumentColumns[i] != 0) {
+				argumentReaders[i] = createReader(metadata.parameterTypes[i], columns[argumentColumns[i] - 1]);
+			}
+		}
+		return new MappingPlan(argumentColumns, argumentReaders, bindings);
+	}
+
+	private PropertyBinding createBinding(MappedProperty property, String column, int index) {
+		Class<?> type = property.type;
+		if (type == int.class) {
+			return new IntBinding(property, column, index);
+		}
+		else if (type == long.class) {
+			return new LongBinding(property, column, index);
+		}
+		else if (type == double.class) {
+			return new DoubleBinding(property, column, index);
+		}
+		else if (type == boolean.class) {
+			return new BooleanBinding(property, column, index);
+		}
+		else {
+			return new ObjectBinding(property, column, index, createReader(type, column));
+		}
+	}
+
+	/**
+	 * Create a reader for the given target type, selecting the typed
+	 * {@code ResultSet} accessor once rather than for every row.
+	 */
+	private ColumnReader createReader(Class<?> type, String column) {
+		Class<?> wrapperType = ClassUtils.resolvePrimitiveIfNecessary(type);
+		ColumnReader reader;
+		if (String.class == type) {
+			reader = ResultSet::getString;
+		}
+		else if (Integer.class == wrapperType) {
+			reader = (rs, index) -> {
+				int value = rs.getInt(index);
+				return (value == 0 && rs.wasNull() ? null : value);
+			};
+		}
+		else if (Long.class == wrapperType) {
+			reader = (rs, index) -> {
+				long value = rs.getLong(index);
+				return (value == 0 && rs.wasNull() ? null : value);
+			};
+		}
+		else if (Double.class == wrapperType) {
+			reader = (rs, index) -> {
+				double value = rs.getDouble(index);
+				return (value == 0 && rs.wasNull() ? null : value);
+			};
+		}
+		else if (Boolean.class == wrapperType) {
+			reader = (rs, index) -> {
+				boolean value = rs.getBoolean(index);
+				return (!value && rs.wasNull() ? null : value);
+			};
+		}
+		else if (BigDecimal.class == type) {
+			reader = ResultSet::getBigDecimal;
+		}
+		else if (java.sql.Timestamp.class == type || java.util.Date.class == type) {
+			reader = ResultSet::getTimestamp;
+		}
+		else if (java.sql.Date.class == type) {
+			reader = ResultSet::getDate;
+		}
+		else if (java.sql.Time.class == type) {
+			reader = ResultSet::getTime;
+		}
+		else if (byte[].class == type) {
+			reader = ResultSet::getBytes;
+		}
+		else {
+			reader = (rs, index) -> convertIfNecessary(JdbcUtils.getResultSetValue(rs, index, type), type);
+		}
+		if (type.isPrimitive()) {
+			ColumnReader nullable = reader;
+			reader = (rs, index) -> {
+				Object value = nullable.read(rs, index);
+				return (value != null ? value : nullPrimitiveValue(column, type));
+			};
+		}
+		return reader;
+	}
+
+	@Nullable
+	private Object convertIfNecessary(@Nullable Object value, Class<?> type) {
+		if (value == null || ClassUtils.isAssignableValue(type, value)) {
+			return value;
+		}
+		ConversionService conversionService = this.conversionService;
+		if (conversionService == null) {
+			throw new TypeMismatchDataAccessException("Value of type [" + value.getClass().getName() +
+					"] cannot be mapped to required type [" + type.getName() + "]");
+		}
+		return conversionService.convert(value, type);
+	}
+
+	/**
+	 * Handle a {@code null} value for a primitive target: either return the
+	 * primitive default value or throw an exception.
+	 * @see #setPrimitivesDefaultedForNullValue
+	 */
+	@Nullable
+	private Object nullPrimitiveValue(String column, Class<?> type) {
+		if (!this.primitivesDefaultedForNullValue) {
+			throw new TypeMismatchDataAccessException("Cannot map null value of column '" + column +
+					"' to primitive type [" + type.getName() + "] in " + this.mappedClass);
+		}
+		if (logger.isDebugEnabled()) {
+			logger.debug("Mapping null value of column '" + column + "' to default value of primitive type [" +
+					type.getName() + "] in " + this.mappedClass);
+		}
+		return primitiveDefaultValue(type);
+	}
+
+	@Nullable
+	private static Object primitiveDefaultValue(Class<?> type) {
+		if (!type.isPrimitive()) {
+			return null;
+		}
+		return Array.get(Array.newInstance(type, 1), 0);
+	}
+
+	/**
+	 * Convert the given name to lower case.
+	 * By default, conversions will happen within the US locale.
+	 * @param name the original name
+	 * @return the converted name
+	 */
+	private static String lowerCaseName(String name) {
+		return name.toLowerCase(Locale.US);
+	}
+
+	/**
+	 * Convert a name in camelCase to an underscored name in lower case.
+	 * @param name the original name
+	 * @return the converted name
+	 * @see BeanPropertyRowMapper#underscoreName
+	 */
+	private static String underscoreName(String name) {
+		if (!StringUtils.hasLength(name)) {
+			return "";
+		}
+		StringBuilder result = new StringBuilder();
+		result.append(lowerCaseName(name.substring(0, 1)));
+		for (int i = 1; i < name.length(); i++) {
+			String s = name.substring(i, i + 1);
+			String slc = lowerCaseName(s);
+			if (!s.equals(slc)) {
+				result.append("_").append(slc);
+			}
+			else {
+				result.append(s);
+			}
+		}
+		return result.toString();
+	}
+
+
+	/**
+	 * Static factory method to create a new {@code MethodHandleRowMapper}.
+	 * @param mappedClass the class that each row should be mapped to
+	 * @see #newInstance(Class, ConversionService)
+	 */
+	public static <T> MethodHandleRowMapper<T> newInstance(Class<T> mappedClass) {
+		return new MethodHandleRowMapper<>(mappedClass);
+	}
+
+	/**
+	 * Static factory method to create a new {@code MethodHandleRowMapper}.
+	 * @param mappedClass the class that each row should be mapped to
+	 * @param conversionService the {@link ConversionService} for converting
+	 * JDBC values (can be {@code null} for none)
+	 * @see #newInstance(Class)
+	 */
+	public static <T> MethodHandleRowMapper<T> newInstance(
+			Class<T> mappedClass, @Nullable ConversionService conversionService) {
+
+		MethodHandleRowMapper<T> rowMapper = newInstance(mappedClass);
+		rowMapper.setConversionService(conversionService);
+		return rowMapper;
+	}
+
+
+	/**
+	 * Strategy for reading the value of a single column.
+	 */
+	@FunctionalInterface
+	private interface ColumnReader {
+
+		@Nullable
+		Object read(ResultSet rs, int index) throws SQLException;
+	}
+
+
+	/**
+	 * The column labels of a {@code ResultSet}, used as plan cache key.
+	 */
+	private static final class ColumnLayout {
+
+		private final String[] columns;
+
+		private final int hashCode;
+
+		ColumnLayout(String[] columns) {
+			this.columns = columns;
+			this.hashCode = Arrays.hashCode(columns);
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			return (this == other || (other instanceof ColumnLayout &&
+					Arrays.equals(this.columns, ((ColumnLayout) other).columns)));
+		}
+
+		@Override
+		public int hashCode() {
+			return this.hashCode;
+		}
+	}
+
+
+	/**
+	 * The plan used for the most recently seen {@code ResultSet}, avoiding
+	 * meta-data access for subsequent rows of the same {@code ResultSet}.
+	 */
+	private final class CurrentPlan {
+
+		final WeakReference<ResultSet> resultSet;
+
+		final MappingPlan plan;
+
+		CurrentPlan(ResultSet resultSet, MappingPlan plan) {
+			this.resultSet = new WeakReference<>(resultSet);
+			this.plan = plan;
+		}
+	}
+
+
+	/**
+	 * Mapping plan for a specific column layout: constructor arguments
+	 * followed by property bindings.
+	 */
+	private final class MappingPlan {
+
+		private final int[] argumentColumns;
+
+		private final ColumnReader[] argumentReaders;
+
+		private final List<PropertyBinding> bindings;
+
+		MappingPlan(int[] argumentColumns, ColumnReader[] argumentReaders, List<PropertyBinding> bindings) {
+			this.argumentColumns = argumentColumns;
+			this.argumentReaders = argumentReaders;
+			this.bindings = bindings;
+		}
+
+		@SuppressWarnings("unchecked")
+		T mapRow(ResultSet rs) throws Throwable {
+			MappedClass metadata = mappedClassMetadata;
+			Object target;
+			if (this.argumentColumns.length == 0) {
+				target = (Object) metadata.constructor.invokeExact();
+			}
+			else {
+				Object[] args = new Object[this.argumentColumns.length];
+				for (int i = 0; i < args.length; i++) {
+					int index = this.argumentColumns[i];
+					args[i] = (index != 0 ? this.argumentReaders[i].read(rs, index) :
+							primitiveDefaultValue(metadata.parameterTypes[i]));
+				}
+				target = (Object) metadata.constructor.invokeExact(args);
+			}
+			for (int i = 0; i < this.bindings.size(); i++) {
+				this.bindings.get(i).bind(rs, target);
+			}
+			return (T) target;
+		}
+	}
+
+
+	/**
+	 * Binding of a column to a setter or field of the mapped class.
+	 */
+	private abstract class PropertyBinding {
+
+		protected final MethodHandle setter;
+
+		protected final String column;
+
+		protected final int index;
+
+		PropertyBinding(MappedProperty property, String column, int index, Class<?> valueType) {
+			this.setter = property.setter.asType(MethodType.methodType(void.class, Object.class, valueType));
+			this.column = column;
+			this.index = index;
+		}
+
+		abstract void bind(ResultSet rs, Object target) throws Throwable;
+
+		/**
+		 * Check a {@code null} column value for a primitive property.
+		 * @return {@code true} to leave the property at its default value
+		 */
+		protected boolean skipNullPrimitive(Class<?> type) {
+			nullPrimitiveValue(this.column, type);
+			return true;
+		}
+	}
+
+
+	private final class IntBinding extends PropertyBinding {
+
+		IntBinding(MappedProperty property, String column, int index) {
+			super(property, column, index, int.class);
+		}
+
+		@Override
+		void bind(ResultSet rs, Object target) throws Throwable {
+			int value = rs.getInt(this.index);
+			if (value == 0 && rs.wasNull() && skipNullPrimitive(int.class)) {
+				return;
+			}
+			this.setter.invokeExact(target, value);
+		}
+	}
+
+
+	private final class LongBinding extends PropertyBinding {
+
+		LongBinding(MappedProperty property, String column, int index) {
+			super(property, column, index, long.class);
+		}
+
+		@Override
+		void bind(ResultSet rs, Object target) throws Throwable {
+			long value = rs.getLong(this.index);
+			if (value == 0 && rs.wasNull() && skipNullPrimitive(long.class)) {
+				return;
+			}
+			this.setter.invokeExact(target, value);
+		}
+	}
+
+
+	private final class DoubleBinding extends PropertyBinding {
+
+		DoubleBinding(MappedProperty property, String column, int index) {
+			super(property, column, index, double.class);
+		}
+
+		@Override
+		void bind(ResultSet rs, Object target) throws Throwable {
+			double value = rs.getDouble(this.index);
+			if (value == 0 && rs.wasNull() && skipNullPrimitive(double.class)) {
+				return;
+			}
+			this.setter.invokeExact(target, value);
+		}
+	}
+
+
+	private final class BooleanBinding extends PropertyBinding {
+
+		BooleanBinding(MappedProperty property, String column, int index) {
+			super(property, column, index, boolean.class);
+		}
+
+		@Override
+		void bind(ResultSet rs, Object target) throws Throwable {
+			boolean value = rs.getBoolean(this.index);
+			if (!value && rs.wasNull() && skipNullPrimitive(boolean.class)) {
+				return;
+			}
+			this.setter.invokeExact(target, value);
+		}
+	}
+
+
+	private final class ObjectBinding extends PropertyBinding {
+
+		private final ColumnReader reader;
+
+		ObjectBinding(MappedProperty property, String column, int index, ColumnReader reader) {
+			super(property, column, index, Object.class);
+			this.reader = reader;
+		}
+
+		@Override
+		void bind(ResultSet rs, Object target) throws Throwable {
+			Object value = this.reader.read(rs, this.index);
+			this.setter.invokeExact(target, value);
+		}
+	}
+
+
+	/**
+	 * A writable property of the mapped class, backed by a setter or a field.
+	 */
+	private static final class MappedProperty {
+
+		final String name;
+
+		final Class<?> type;
+
+		final MethodHandle setter;
+
+		MappedProperty(String name, Class<?> type, MethodHandle setter) {
+			this.name = name;
+			this.type = type;
+			this.setter = setter;
+		}
+	}
+
+
+	/**
+	 * Method handles for the constructor and writable properties of
+	 * a mapped class, resolved once per class.
+	 */
+	private static final class MappedClass {
+
+		/** Constructor handle of type {@code ()Object} or {@code (Object[])Object}. */
+		final MethodHandle constructor;
+
+		final Class<?>[] parameterTypes;
+
+		final String[] parameterNames;
+
+		final Map<String, Integer> parameterIndexes = new LinkedHashMap<>();
+
+		final Map<String, MappedProperty> properties = new LinkedHashMap<>();
+
+		final Set<String> propertyNames = new HashSet<>();
+
+		MappedClass(Class<?> clazz) {
+			MethodHandles.Lookup lookup = MethodHandles.lookup();
+			Constructor<?> ctor = determineConstructor(clazz);
+			this.parameterTypes = ctor.getParameterTypes();
+			this.parameterNames = determineParameterNames(ctor);
+			try {
+				ReflectionUtils.makeAccessible(ctor);
+				MethodHandle handle = lookup.unreflectConstructor(ctor);
+				if (this.parameterTypes.length == 0) {
+					this.constructor = handle.asType(MethodType.methodType(Object.class));
+				}
+				else {
+					this.constructor = handle.asSpreader(Object[].class, this.parameterTypes.length)
+							.asType(MethodType.methodType(Object.class, Object[].class));
+				}
+				for (int i = 0; i < this.parameterNames.length; i++) {
+					String name = this.parameterNames[i];
+					this.parameterIndexes.putIfAbsent(lowerCaseName(name), i);
+					this.parameterIndexes.putIfAbsent(underscoreName(name), i);
+					this.propertyNames.add(name);
+				}
+				for (PropertyDescriptor pd : BeanUtils.getPropertyDescriptors(clazz)) {
+					Method writeMethod = pd.getWriteMethod();
+					if (writeMethod != null) {
+						ReflectionUtils.makeAccessible(writeMethod);
+						addProperty(new MappedProperty(pd.getName(), pd.getPropertyType(),
+								lookup.unreflect(writeMethod)));
+					}
+				}
+				for (Class<?> current = clazz; current != null && current != Object.class;
+						current = current.getSuperclass()) {
+					for (Field field : current.getDeclaredFields()) {
+						int modifiers = field.getModifiers();
+						if (!Modifier.isStatic(modifiers) && !Modifier.isFinal(modifiers) &&
+								!field.isSynthetic() && !this.propertyNames.contains(field.getName())) {
+							ReflectionUtils.makeAccessible(field);
+							addProperty(new MappedProperty(field.getName(), field.getType(),
+									lookup.unreflectSetter(field)));
+						}
+					}
+				}
+			}
+			catch (IllegalAccessException ex) {
+				throw new InvalidDataAccessApiUsageException(
+						"Cannot access constructor or properties of " + clazz, ex);
+			}
+		}
+
+		private void addProperty(MappedProperty property) {
+			this.properties.putIfAbsent(lowerCaseName(property.name), property);
+			this.properties.putIfAbsent(underscoreName(property.name), property);
+			this.propertyNames.add(property.name);
+		}
+
+		private static Constructor<?> determineConstructor(Class<?> clazz) {
+			if (clazz.isInterface() || Modifier.isAbstract(clazz.getModifiers())) {
+				throw new InvalidDataAccessApiUsageException("Cannot map rows to abstract " + clazz);
+			}
+			try {
+				return clazz.getDeclaredConstructor();
+			}
+			catch (NoSuchMethodException ex) {
+				Constructor<?>[] ctors = clazz.getDeclaredConstructors();
+				if (ctors.length != 1) {
+					throw new InvalidDataAccessApiUsageException(
+							"No default constructor and no unique constructor found in " + clazz);
+				}
+				return ctors[0];
+			}
+		}
+
+		private static String[] determineParameterNames(Constructor<?> ctor) {
+			ConstructorProperties cp = ctor.getAnnotation(ConstructorProperties.class);
+			String[] names = (cp != null ? cp.value() : parameterNameDiscoverer.getParameterNames(ctor));
+			if (names == null || names.length != ctor.getParameterCount()) {
+				throw new InvalidDataAccessApiUsageException("Cannot resolve parameter names for " + ctor +
+						": compile with '-parameters' or declare @ConstructorProperties");
+			}
+			return names;
+		}
+	}
+
+}
@@ -0,0 +1,556 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.core.support;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.jdbc.core.JdbcOperations;
+import org.springframework.jdbc.core.ParameterDisposer;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.jdbc.core.PreparedStatementCallback;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Helper for writing a potentially unbounded sequence of items through a
+ * batched SQL statement, e.g. for bulk loading millions of rows.
+ *
+ * <p>In contrast to {@link org.springframework.jdbc.core.JdbcTemplate#batchUpdate(String,
+ * java.util.Collection, int, ParameterizedPreparedStatementSetter)}, the input
+ * is pulled from an {@link Iterator} or {@link Stream} one chunk at a time,
+ * so only a bounded number of chunks is held in memory, and no result array
+ * covering all items is accumulated. Per-chunk update counts and overall
+ * progress are reported to a {@link ChunkCallback} instead.
+ *
+ * <p>By default, chunks are executed one after another in the calling thread,
+ * participating in a transaction that may be active there. With a
+ * {@link #setConcurrency concurrency} greater than 1, chunks are handed
+ * to a {@link TaskExecutor}, with each chunk executed on a connection of
+ * its own, while the calling thread already assembles the next chunk.
+ * Note that such chunks run outside of any transaction of the calling
+ * thread, and that a failed chunk does not roll back chunks written before.
+ *
+ * <p>For drivers which process multi-row {@code VALUES} lists more
+ * efficiently than JDBC batches, an {@code INSERT ... VALUES (?, ?)}
+ * statement may be rewritten into a single statement with one
+ * {@code VALUES} group per item of a chunk: see {@link #setMultiRowValues}.
+ *
+ * <p>A {@code JdbcBatchWriter} is thread-safe once configured and may be
+ * used for any number of {@code write} operations.
+ *
+ * @since 5.2.1
+ * @param <T> the type of items to write
+ * @see org.springframework.jdbc.core.JdbcTemplate#batchUpdate(String, java.util.Collection, int, ParameterizedPreparedStatementSetter)
+ */
+public class JdbcBatchWriter<T> {
+
+	/** Logger available to subclasses. */
+	protected final Log logger = LogFactory.getLog(getClass());
+
+	private final JdbcOperations jdbcOperations;
+
+	private final String sql;
+
+	private final ParameterizedPreparedStatementSetter<T> setter;
+
+	private int batchSize = 1000;
+
+	private int concurrency = 1;
+
+	@Nullable
+	private TaskExecutor taskExecutor;
+
+	@Nullable
+	private ChunkCallback chunkCallback;
+
+	@Nullable
+	private MultiRowValuesStatement multiRowValuesStatement;
+
+
+	/**
+	 * Create a new {@code JdbcBatchWriter} for the given SQL statement.
+	 * @param jdbcOperations the JDBC accessor to execute chunks with,
+	 * typically a {@link org.springframework.jdbc.core.JdbcTemplate}
+	 * @param sql the SQL statement to execute for each item
+	 * @param setter the callback that sets the parameters of the statement
+	 * for a single item
+	 */
+	public JdbcBatchWriter(JdbcOperations jdbcOperations, String sql,
+			ParameterizedPreparedStatementSetter<T> setter) {
+
+		Assert.notNull(jdbcOperations, "JdbcOperations must not be null");
+		Assert.hasText(sql, "SQL must not be empty");
+		Assert.notNull(setter, "ParameterizedPreparedStatementSetter must not be null");
+		this.jdbcOperations = jdbcOperations;
+		this.sql = sql;
+		this.setter = setter;
+	}
+
+
+	/**
+	 * Set the number of items to send to the database as one chunk.
+	 * <p>Default is 1000.
+	 */
+	public void setBatchSize(int batchSize) {
+		Assert.isTrue(batchSize > 0, "Batch size must be greater than 0");
+		this.batchSize = batchSize;
+	}
+
+	/**
+	 * Return the number of items to send to the database as one chunk.
+	 */
+	public int getBatchSize() {
+		return this.batchSize;
+	}
+
+	/**
+	 * Set the maximum number of chunks to execute in parallel, each
+	 * on a connection of its own.
+	 * <p>Default is 1, executing all chunks in the calling thread.
+	 * @see #setTaskExecutor
+	 */
+	public void setConcurrency(int concurrency) {
+		Assert.isTrue(concurrency > 0, "Concurrency must be greater than 0");
+		this.concurrency = concurrency;
+	}
+
+	/**
+	 * Return the maximum number of chunks to execute in parallel.
+	 */
+	public int getConcurrency() {
+		return this.concurrency;
+	}
+
+	/**
+	 * Set the {@link TaskExecutor} to execute chunks with if the
+	 * {@link #setConcurrency concurrency} is greater than 1.
+	 * <p>Default is a {@link SimpleAsyncTaskExecutor} per write operation.
+	 * A given executor should provide at least as many threads as the
+	 * configured concurrency, and the underlying {@code DataSource} should
+	 * allow for a corresponding number of concurrent connections.
+	 */
+	public void setTaskExecutor(@Nullable TaskExecutor taskExecutor) {
+		this.taskExecutor = taskExecutor;
+	}
+
+	/**
+	 * Set a callback to be notified of each completed chunk.
+	 * <p>Notifications are never concurrent but, with a concurrency greater
+	 * than 1, may arrive from different threads and out of chunk order.
+	 */
+	public void setChunkCallback(@Nullable ChunkCallback chunkCallback) {
+		this.chunkCallback = chunkCallback;
+	}
+
+	/**
+	 * Set whether to rewrite the SQL statement into a multi-row {@code VALUES}
+	 * statement, executing each chunk as a single statement with one
+	 * {@code VALUES} group per item rather than as a JDBC batch.
+	 * <p>Default is {@code false}. Only supported for statements ending with
+	 * a single {@code VALUES (...)} group which contains all parameter
+	 * placeholders, e.g. {@code INSERT INTO t (a, b) VALUES (?, ?)}.
+	 * The batch size needs to be chosen in line with the driver's limit
+	 * on the number of parameters per statement.
+	 * <p>Each chunk reports a single update count for all of its items then.
+	 * @throws InvalidDataAccessApiUsageException if the statement cannot be rewritten
+	 */
+	public void setMultiRowValues(boolean multiRowValues) {
+		this.multiRowValuesStatement = (multiRowValues ? MultiRowValuesStatement.parse(this.sql) : null);
+	}
+
+	/**
+	 * Return whether the SQL statement gets rewritten into a multi-row
+	 * {@code VALUES} statement.
+	 */
+	public boolean isMultiRowValues() {
+		return (this.multiRowValuesStatement != null);
+	}
+
+
+	/**
+	 * Write all items of the given {@code Iterable}.
+	 * @param items the items to write
+	 * @return the number of items written
+	 * @throws org.springframework.dao.DataAccessException if writing a chunk failed
+	 */
+	public long write(Iterable<? extends T> items) {
+		return write(items.iterator());
+	}
+
+	/**
+	 * Write all items of the given {@code Stream}.
+	 * <p>The stream is consumed but not closed by this method.
+	 * @param items the items to write
+	 * @return the number of items written
+	 * @throws org.springframework.dao.DataAccessException if writing a chunk failed
+	 */
+	public long write(Stream<? extends T> items) {
+		return write(items.iterator());
+	}
+
+	/**
+	 * Write all items of the given {@code Iterator}, pulling one chunk
+	 * at a time from it.
+	 * <p>If a chunk fails, no further chunks are started and the exception
+	 * is rethrown once all chunks in progress have completed.
+	 * @param items the items to write
+	 * @return the number of items written
+	 * @throws org.springframework.dao.DataAccessException if writing a chunk failed
+	 */
+	public long write(Iterator<? extends T> items) {
+		Assert.notNull(items, "Items must not be null");
+		if (logger.isDebugEnabled()) {
+			logger.debug("Executing SQL batch writes [" + this.sql + "] with a batch size of " +
+					this.batchSize + " and a concurrency of " + this.concurrency);
+		}
+		WriteProgress progress = new WriteProgress();
+		try {
+			if (this.concurrency == 1) {
+				writeSequentially(items, progress);
+			}
+			else {
+				writeInParallel(items, progress);
+			}
+		}
+		finally {
+			if (this.setter instanceof ParameterDisposer) {
+				((ParameterDisposer) this.setter).cleanupParameters();
+			}
+		}
+		return progress.getItemCount();
+	}
+
+	private void writeSequentially(Iterator<? extends T> items, WriteProgress progress) {
+		int chunkIndex = 0;
+		List<T> chunk = nextChunk(items);
+		while (!chunk.isEmpty()) {
+			int[] updateCounts = writeChunk(chunk);
+			progress.chunkCompleted(chunkIndex++, chunk.size(), updateCounts);
+			chunk = nextChunk(items);
+		}
+	}
+
+	private void writeInParallel(Iterator<? extends T> items, WriteProgress progress) {
+		TaskExecutor executor = this.taskExecutor;
+		if (executor == null) {
+			executor = new SimpleAsyncTaskExecutor(ClassUtils.getShortName(getClass()) + "-");
+		}
+		int concurrency = this.concurrency;
+		Semaphore permits = new Semaphore(concurrency);
+		AtomicReference<Throwable> failure = new AtomicReference<>();
+		int chunkIndex = 0;
+		try {
+			// The next chunk is assembled while up to 'concurrency' chunks are in progress
+			List<T> chunk = nextChunk(items);
+			while (!chunk.isEmpty()) {
+				permits.acquire();
+				if (failure.get() != null) {
+					permits.release();
+					break;
+				}
+				List<T> chunkToWrite = chunk;
+				int index = chunkIndex++;
+				try {
+					executor.execute(() -> {
+						try {
+							int[] updateCounts = writeChunk(chunkToWrite);
+							progress.chunkCompleted(index, chunkToWrite.size(), updateCounts);
+						}
+						catch (Throwable ex) {
+							failure.compareAndSet(null, ex);
+						}
+						finally {
+							permits.release();
+						}
+					});
+				}
+				catch (RuntimeException ex) {
+					permits.release();
+					throw ex;
+				}
+				chunk = nextChunk(items);
+			}
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while waiting for batch chunks to complete", ex);
+		}
+		finally {
+			// Wait for all chunks in progress, even in case of a local exception
+			permits.acquireUninterruptibly(concurrency);
+		}
+
+		Throwable ex = failure.get();
+		if (ex instanceof RuntimeException) {
+			throw (RuntimeException) ex;
+		}
+		else if (ex instanceof Error) {
+			throw (Error) ex;
+		}
+		else if (ex != null) {
+			throw new IllegalStateException("Unexpected exception while writing batch chunk", ex);
+		}
+	}
+
+	private List<T> nextChunk(Iterator<? extends T> items) {
+		List<T> chunk = new ArrayList<>(this.batchSize);
+		while (chunk.size() < this.batchSize && items.hasNext()) {
+			chunk.add(items.next());
+		}
+		return chunk;
+	}
+
+	/**
+	 * Execute a single chunk of items, either as a JDBC batch or
+	 * as a multi-row {@code VALUES} statement.
+	 * @param chunk the items of the chunk
+	 * @return the update counts reported by the driver
+	 */
+	protected int[] writeChunk(List<T> chunk) {
+		int[] updateCounts;
+		MultiRowValuesStatement multiRowValues = this.multiRowValuesStatement;
+		if (multiRowValues != null) {
+			updateCounts = this.jdbcOperations.execute(multiRowValues.getSql(chunk.size()),
+					(PreparedStatementCallback<int[]>) ps -> {
+						ParameterOffsetHandler handler = new ParameterOffsetHandler(ps);
+						PreparedStatement proxy = handler.createProxy();
+						for (T item : chunk) {
+							this.setter.setValues(proxy, item);
+							handler.offset += multiRowValues.parameterCount;
+						}
+						return new int[] {ps.executeUpdate()};
+					});
+		}
+		else {
+			updateCounts = this.jdbcOperations.execute(this.sql, (PreparedStatementCallback<int[]>) ps -> {
+				if (JdbcUtils.supportsBatchUpdates(ps.getConnection())) {
+					for (T item : chunk) {
+						this.setter.setValues(ps, item);
+						ps.addBatch();
+					}
+					return ps.executeBatch();
+				}
+				int[] counts = new int[chunk.size()];
+				for (int i = 0; i < counts.length; i++) {
+					this.setter.setValues(ps, chunk.get(i));
+					counts[i] = ps.executeUpdate();
+				}
+				return counts;
+			});
+		}
+		Assert.state(updateCounts != null, "No update counts");
+		return updateCounts;
+	}
+
+
+	/**
+	 * Callback interface for progress notifications of a {@link JdbcBatchWriter}.
+	 */
+	@FunctionalInterface
+	public interface ChunkCallback {
+
+		/**
+		 * Called after a chunk has been written successfully.
+		 * @param chunkIndex the 0-based index of the chunk in input order
+		 * @param itemCount the number of items in the chunk
+		 * @param updateCounts the update counts reported by the driver for the chunk
+		 * @param totalItemCount the number of items in all chunks completed so far
+		 * within the current write operation, including this chunk
+		 */
+		void chunkCompleted(int chunkIndex, int itemCount, int[] updateCounts, long totalItemCount);
+	}
+
+
+	/**
+	 * Progress of a single write operation.
+	 */
+	private class WriteProgress {
+
+		private long itemCount;
+
+		synchronized void chunkCompleted(int chunkIndex, int chunkItemCount, int[] updateCounts) {
+			this.itemCount += chunkItemCount;
+			if (logger.isTraceEnabled()) {
+				logger.trace("Completed SQL batch chunk #" + (chunkIndex + 1) + " with " + chunkItemCount + " items");
+			}
+			if (chunkCallback != null) {
+				chunkCallback.chunkCompleted(chunkIndex, chunkItemCount, updateCounts, this.itemCount);
+			}
+		}
+
+		synchronized long getItemCount() {
+			return this.itemCount;
+		}
+	}
+
+
+	/**
+	 * An {@code INSERT ... VALUES (...)} statement split into the part before
+	 * the {@code VALUES} group and the group itself.
+	 */
+	private static final class MultiRowValuesStatement {
+
+		private static final Pattern VALUES_PATTERN =
+				Pattern.compile("^(.*\\bVALUES\\s*)(\\(.*\\))\\s*;?\\s*$", Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+
+		private final String prefix;
+
+		private final String valuesGroup;
+
+		final int parameterCount;
+
+		private MultiRowValuesStatement(String prefix, String valuesGroup, int parameterCount) {
+			this.prefix = prefix;
+			this.valuesGroup = valuesGroup;
+			this.parameterCount = parameterCount;
+		}
+
+		String getSql(int rows) {
+			StringBuilder sb = new StringBuilder(this.prefix.length() + rows * (this.valuesGroup.length() + 2));
+			sb.append(this.prefix);
+			for (int i = 0; i < rows; i++) {
+				if (i > 0) {
+					sb.append(", ");
+				}
+				sb.append(this.valuesGroup);
+			}
+			return sb.toString();
+		}
+
+		static MultiRowValuesStatement parse(String sql) {
+			Matcher matcher = VALUES_PATTERN.matcher(sql);
+			if (matcher.matches()) {
+				String prefix = matcher.group(1);
+				String valuesGroup = matcher.group(2);
+				if (countParameters(prefix) == 0 && isSingleGroup(valuesGroup)) {
+					int parameterCount = countParameters(valuesGroup);
+					if (parameterCount > 0) {
+						return new MultiRowValuesStatement(prefix, valuesGroup, parameterCount);
+					}
+				}
+			}
+			throw new InvalidDataAccessApiUsageException("Cannot rewrite SQL statement [" + sql +
+					"] into multi-row VALUES statement: expected a single trailing VALUES group " +
+					"containing all parameter placeholders");
+		}
+
+		private static int countParameters(String sql) {
+			int count = 0;
+			boolean inLiteral = false;
+			for (int i = 0; i < sql.length(); i++) {
+				char c = sql.charAt(i);
+				if (c == '\'') {
+					inLiteral = !inLiteral;
+				}
+				else if (c == '?' && !inLiteral) {
+					count++;
+				}
+			}
+			return count;
+		}
+
+		private static boolean isSingleGroup(String group) {
+			int depth = 0;
+			boolean inLiteral = false;
+			for (int i = 0; i < group.length(); i++) {
+				char c = group.charAt(i);
+				if (c == '\'') {
+					inLiteral = !inLiteral;
+				}
+				else if (!inLiteral && c == '(') {
+					depth++;
+				}
+				else if (!inLiteral && c == ')') {
+					depth--;
+					if (depth == 0 && i < group.length() - 1) {
+						return false;
+					}
+				}
+			}
+			return (depth == 0 && !inLiteral);
+		}
+	}
+
+
+	/**
+	 * Invocation handler that shifts the parameter index of all parameter
+	 * setters on a {@link PreparedStatement}, allowing a per-item setter to
+	 * populate its own {@code VALUES} group of a multi-row statement.
+	 */
+	private static class ParameterOffsetHandler implements InvocationHandler {
+
+		private final PreparedStatement target;
+
+		int offset;
+
+		ParameterOffsetHandler(PreparedStatement target) {
+			this.target = target;
+		}
+
+		PreparedStatement createProxy() {
+			return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+					new Class<?>[] {PreparedStatement.class}, this);
+		}
+
+		@Override
+		@Nullable
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			if (isParameterSetter(method)) {
+				args[0] = (Integer) args[0] + this.offset;
+			}
+			else if (method.getName().equals("equals")) {
+				return (proxy == args[0]);
+			}
+			else if (method.getName().equals("hashCode")) {
+				return System.identityHashCode(proxy);
+			}
+			try {
+				return method.invoke(this.target, args);
+			}
+			catch (InvocationTargetException ex) {
+				throw ex.getTargetException();
+			}
+		}
+
+		private static boolean isParameterSetter(Method method) {
+			Class<?>[] parameterTypes = method.getParameterTypes();
+			return (method.getName().startsWith("set") && parameterTypes.length >= 2 &&
+					parameterTypes[0] == int.class);
+		}
+	}
+
+}
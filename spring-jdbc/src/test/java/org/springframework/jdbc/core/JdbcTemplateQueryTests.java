@@ -24,21 +24,28 @@ import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import javax.sql.DataSource;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import org.springframework.dao.DataAccessException;
 import org.springframework.dao.IncorrectResultSizeDataAccessException;
+import org.springframework.jdbc.support.SQLStateSQLExceptionTranslator;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
 /**
@@ -391,4 +398,68 @@ public class JdbcTemplateQueryTests {
 		verify(this.preparedStatement).close();
 	}
 
+	@Test
+	public void testQueryForStreamIsLazyAndReleasesResourcesOnClose() throws Exception {
+		String sql = "SELECT AGE FROM CUSTMR WHERE ID < 3";
+		given(this.resultSet.next()).willReturn(true, true, false);
+		given(this.resultSet.getInt(1)).willReturn(11, 12);
+		given(this.statement.getConnection()).willReturn(this.connection);
+		this.template.setFetchSize(10);
+		try (Stream<Integer> stream = this.template.queryForStream(sql, (rs, rowNum) -> rs.getInt(1))) {
+			Iterator<Integer> iterator = stream.iterator();
+			assertThat(iterator.next()).isEqualTo(11);
+			verify(this.resultSet, times(1)).next();
+			verify(this.statement).setFetchSize(10);
+			verify(this.resultSet, never()).close();
+			verify(this.statement, never()).close();
+			verify(this.connection, never()).close();
+			assertThat(iterator.next()).isEqualTo(12);
+			assertThat(iterator.hasNext()).isFalse();
+		}
+		verify(this.resultSet).close();
+		verify(this.statement).close();
+		verify(this.connection).close();
+	}
+
+	@Test
+	public void testQueryForStreamWithArgs() throws Exception {
+		String sql = "SELECT AGE FROM CUSTMR WHERE ID = ?";
+		given(this.resultSet.next()).willReturn(true, false);
+		given(this.resultSet.getInt(1)).willReturn(22);
+		given(this.preparedStatement.getConnection()).willReturn(this.connection);
+		try (Stream<Integer> stream = this.template.queryForStream(sql, (rs, rowNum) -> rs.getInt(1), 3)) {
+			assertThat(stream.collect(Collectors.toList())).containsExactly(22);
+			verify(this.preparedStatement).setObject(1, 3);
+			verify(this.preparedStatement, never()).close();
+		}
+		verify(this.resultSet).close();
+		verify(this.preparedStatement).close();
+		verify(this.connection).close();
+	}
+
+	@Test
+	public void testQueryForStreamWithFailingResultSet() throws Exception {
+		String sql = "SELECT AGE FROM CUSTMR WHERE ID < 3";
+		this.template.setExceptionTranslator(new SQLStateSQLExceptionTranslator());
+		given(this.resultSet.next()).willThrow(new SQLException("broken"));
+		given(this.statement.getConnection()).willReturn(this.connection);
+		Stream<Integer> stream = this.template.queryForStream(sql, (rs, rowNum) -> rs.getInt(1));
+		assertThatExceptionOfType(DataAccessException.class).isThrownBy(() -> stream.forEach(value -> {}));
+		stream.close();
+		verify(this.resultSet).close();
+		verify(this.statement).close();
+		verify(this.connection).close();
+	}
+
+	@Test
+	public void testQueryForStreamReleasesConnectionIfQueryFails() throws Exception {
+		String sql = "SELECT AGE FROM CUSTMR WHERE ID < 3";
+		this.template.setExceptionTranslator(new SQLStateSQLExceptionTranslator());
+		given(this.statement.executeQuery(sql)).willThrow(new SQLException("broken"));
+		assertThatExceptionOfType(DataAccessException.class).isThrownBy(() ->
+				this.template.queryForStream(sql, (rs, rowNum) -> rs.getInt(1)));
+		verify(this.statement).close();
+		verify(this.connection).close();
+	}
+
 }
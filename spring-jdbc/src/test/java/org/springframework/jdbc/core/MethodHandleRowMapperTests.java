@@ -0,0 +1,204 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.core;
+
+import java.beans.ConstructorProperties;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.dao.TypeMismatchDataAccessException;
+import org.springframework.jdbc.core.test.AbstractPerson;
+import org.springframework.jdbc.core.test.ConcretePerson;
+import org.springframework.jdbc.core.test.DatePerson;
+import org.springframework.jdbc.core.test.ExtendedPerson;
+import org.springframework.jdbc.core.test.Person;
+import org.springframework.jdbc.core.test.SpacePerson;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Tests for {@link MethodHandleRowMapper}.
+ */
+public class MethodHandleRowMapperTests extends AbstractRowMapperTests {
+
+	@Test
+	public void staticQueryWithRowMapper() throws Exception {
+		Mock mock = new Mock();
+		List<Person> result = mock.getJdbcTemplate().query(
+				"select name, age, birth_date, balance from people",
+				new MethodHandleRowMapper<>(Person.class));
+		assertThat(result.size()).isEqualTo(1);
+		verifyPerson(result.get(0));
+		mock.verifyClosed();
+	}
+
+	@Test
+	public void mappingWithInheritance() throws Exception {
+		Mock mock = new Mock();
+		List<ConcretePerson> result = mock.getJdbcTemplate().query(
+				"select name, age, birth_date, balance from people",
+				new MethodHandleRowMapper<>(ConcretePerson.class, true));
+		assertThat(result.size()).isEqualTo(1);
+		verifyPerson(result.get(0));
+		mock.verifyClosed();
+	}
+
+	@Test
+	public void mappingWithUnpopulatedFieldsNotAccepted() throws Exception {
+		Mock mock = new Mock();
+		assertThatExceptionOfType(InvalidDataAccessApiUsageException.class).isThrownBy(() ->
+				mock.getJdbcTemplate().query("select name, age, birth_date, balance from people",
+						new MethodHandleRowMapper<>(ExtendedPerson.class, true)));
+	}
+
+	@Test
+	public void queryWithSpaceInColumnNameAndLocalDateTime() throws Exception {
+		Mock mock = new Mock(MockType.THREE);
+		List<SpacePerson> result = mock.getJdbcTemplate().query(
+				"select last_name as \"Last Name\", age, birth_date, balance from people",
+				new MethodHandleRowMapper<>(SpacePerson.class));
+		assertThat(result.size()).isEqualTo(1);
+		verifyPerson(result.get(0));
+		mock.verifyClosed();
+	}
+
+	@Test
+	public void queryWithSpaceInColumnNameAndLocalDate() throws Exception {
+		Mock mock = new Mock(MockType.THREE);
+		List<DatePerson> result = mock.getJdbcTemplate().query(
+				"select last_name as \"Last Name\", age, birth_date, balance from people",
+				new MethodHandleRowMapper<>(DatePerson.class));
+		assertThat(result.size()).isEqualTo(1);
+		verifyPerson(result.get(0));
+		mock.verifyClosed();
+	}
+
+	@Test
+	public void mappingToConstructorAndFields() throws Exception {
+		ResultSet rs = mockResultSet("name", "age", "balance", "active_flag");
+		given(rs.getString(1)).willReturn("Bubba");
+		given(rs.getInt(2)).willReturn(22);
+		given(rs.getBigDecimal(3)).willReturn(new BigDecimal("1234.56"));
+		given(rs.getBoolean(4)).willReturn(true);
+
+		ConstructorPerson person = new MethodHandleRowMapper<>(ConstructorPerson.class).mapRow(rs, 0);
+		assertThat(person.name).isEqualTo("Bubba");
+		assertThat(person.age).isEqualTo(22);
+		assertThat(person.balance).isEqualTo(new BigDecimal("1234.56"));
+		assertThat(person.activeFlag).isTrue();
+	}
+
+	@Test
+	public void mappingNullValueToPrimitive() throws Exception {
+		ResultSet rs = mockResultSet("name", "age");
+		given(rs.getString(1)).willReturn("Bubba");
+		given(rs.wasNull()).willReturn(true);
+		MethodHandleRowMapper<Person> mapper = new MethodHandleRowMapper<>(Person.class);
+
+		assertThatExceptionOfType(TypeMismatchDataAccessException.class).isThrownBy(() -> mapper.mapRow(rs, 0));
+
+		mapper.setPrimitivesDefaultedForNullValue(true);
+		Person person = mapper.mapRow(rs, 0);
+		assertThat(person.getName()).isEqualTo("Bubba");
+		assertThat(person.getAge()).isEqualTo(0L);
+	}
+
+	@Test
+	public void mappingNullValueToPrimitiveConstructorArgument() throws Exception {
+		ResultSet rs = mockResultSet("name", "age");
+		given(rs.getString(1)).willReturn("Bubba");
+		given(rs.wasNull()).willReturn(true);
+		MethodHandleRowMapper<ConstructorPerson> mapper = new MethodHandleRowMapper<>(ConstructorPerson.class);
+
+		assertThatExceptionOfType(TypeMismatchDataAccessException.class).isThrownBy(() -> mapper.mapRow(rs, 0));
+
+		mapper.setPrimitivesDefaultedForNullValue(true);
+		ConstructorPerson person = mapper.mapRow(rs, 0);
+		assertThat(person.name).isEqualTo("Bubba");
+		assertThat(person.age).isEqualTo(0);
+		assertThat(person.balance).isNull();
+	}
+
+	@Test
+	public void metaDataInspectedOncePerResultSet() throws Exception {
+		ResultSet rs = mockResultSet("name", "age");
+		given(rs.getString(1)).willReturn("Bubba");
+		given(rs.getLong(2)).willReturn(22L);
+		MethodHandleRowMapper<Person> mapper = new MethodHandleRowMapper<>(Person.class);
+
+		for (int i = 0; i < 3; i++) {
+			Person person = mapper.mapRow(rs, i);
+			assertThat(person.getName()).isEqualTo("Bubba");
+			assertThat(person.getAge()).isEqualTo(22L);
+		}
+		verify(rs, times(1)).getMetaData();
+
+		ResultSet other = mockResultSet("age");
+		given(other.getLong(1)).willReturn(33L);
+		assertThat(mapper.mapRow(other, 0).getAge()).isEqualTo(33L);
+		assertThat(mapper.mapRow(other, 1).getName()).isNull();
+		verify(other, times(1)).getMetaData();
+	}
+
+	@Test
+	public void abstractClassNotAccepted() {
+		assertThatExceptionOfType(InvalidDataAccessApiUsageException.class).isThrownBy(() ->
+				new MethodHandleRowMapper<>(AbstractPerson.class));
+	}
+
+
+	private static ResultSet mockResultSet(String... columns) throws Exception {
+		ResultSet rs = mock(ResultSet.class);
+		ResultSetMetaData rsmd = mock(ResultSetMetaData.class);
+		given(rs.getMetaData()).willReturn(rsmd);
+		given(rsmd.getColumnCount()).willReturn(columns.length);
+		for (int i = 0; i < columns.length; i++) {
+			given(rsmd.getColumnLabel(i + 1)).willReturn(columns[i]);
+		}
+		return rs;
+	}
+
+
+	public static class ConstructorPerson {
+
+		private final String name;
+
+		private final int age;
+
+		private final BigDecimal balance;
+
+		private boolean activeFlag;
+
+		@ConstructorProperties({"name", "age", "balance"})
+		public ConstructorPerson(String name, int age, BigDecimal balance) {
+			this.name = name;
+			this.age = age;
+			this.balance = balance;
+		}
+	}
+
+}
@@ -28,6 +28,8 @@ import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import javax.sql.DataSource;
 
@@ -41,6 +43,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 
 /**
@@ -335,4 +338,22 @@ public class NamedParameterQueryTests {
 		}
 	}
 
+	@Test
+	public void testQueryForStreamWithParamMap() throws Exception {
+		given(resultSet.next()).willReturn(true, true, false);
+		given(resultSet.getInt(1)).willReturn(11, 12);
+		given(preparedStatement.getConnection()).willReturn(connection);
+
+		Map<String, Object> params = new HashMap<>();
+		params.put("id", 3);
+		try (Stream<Integer> stream = template.queryForStream(
+				"SELECT AGE FROM CUSTMR WHERE ID < :id", params, (rs, rowNum) -> rs.getInt(1))) {
+			assertThat(stream.collect(Collectors.toList())).containsExactly(11, 12);
+			verify(preparedStatement, never()).close();
+		}
+
+		verify(connection).prepareStatement("SELECT AGE FROM CUSTMR WHERE ID < ?");
+		verify(preparedStatement).setObject(1, 3);
+	}
+
 }
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.core.support;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+/**
+ * Tests for {@link JdbcBatchWriter}.
+ */
+public class JdbcBatchWriterTests {
+
+	private static final String INSERT_SQL = "insert into item (id, name) values (?, ?)";
+
+	private static final ParameterizedPreparedStatementSetter<Integer> SETTER = (ps, id) -> {
+		ps.setInt(1, id);
+		ps.setString(2, "item" + id);
+	};
+
+
+	private final EmbeddedDatabase database = new EmbeddedDatabaseBuilder()
+			.generateUniqueName(true)
+			.addScript("classpath:org/springframework/jdbc/core/support/batch-writer-schema.sql")
+			.build();
+
+	private final JdbcTemplate jdbcTemplate = new JdbcTemplate(this.database);
+
+
+	@AfterEach
+	public void shutdown() {
+		this.database.shutdown();
+	}
+
+
+	@Test
+	public void writeSequentially() {
+		List<int[]> chunks = Collections.synchronizedList(new ArrayList<>());
+		List<Long> totals = Collections.synchronizedList(new ArrayList<>());
+		JdbcBatchWriter<Integer> writer = new JdbcBatchWriter<>(this.jdbcTemplate, INSERT_SQL, SETTER);
+		writer.setBatchSize(4);
+		writer.setChunkCallback((chunkIndex, itemCount, updateCounts, totalItemCount) -> {
+			assertThat(chunkIndex).isEqualTo(chunks.size());
+			assertThat(updateCounts).hasSize(itemCount);
+			chunks.add(updateCounts);
+			totals.add(totalItemCount);
+		});
+
+		assertThat(writer.write(IntStream.range(0, 10).boxed())).isEqualTo(10);
+		assertThat(chunks).hasSize(3);
+		assertThat(totals).containsExactly(4L, 8L, 10L);
+		assertItemsWritten(10);
+	}
+
+	@Test
+	public void writeInParallel() {
+		Set<String> threads = ConcurrentHashMap.newKeySet();
+		AtomicInteger chunkCount = new AtomicInteger();
+		JdbcBatchWriter<Integer> writer = new JdbcBatchWriter<>(this.jdbcTemplate, INSERT_SQL, (ps, id) -> {
+			threads.add(Thread.currentThread().getName());
+			SETTER.setValues(ps, id);
+		});
+		writer.setBatchSize(100);
+		writer.setConcurrency(4);
+		writer.setChunkCallback((chunkIndex, itemCount, updateCounts, totalItemCount) -> chunkCount.incrementAndGet());
+
+		assertThat(writer.write(IntStream.range(0, 5000).boxed()::iterator)).isEqualTo(5000);
+		assertThat(chunkCount.get()).isEqualTo(50);
+		assertThat(threads).doesNotContain(Thread.currentThread().getName());
+		assertItemsWritten(5000);
+	}
+
+	@Test
+	public void writeWithMultiRowValues() {
+		List<int[]> chunks = Collections.synchronizedList(new ArrayList<>());
+		JdbcBatchWriter<Integer> writer = new JdbcBatchWriter<>(this.jdbcTemplate, INSERT_SQL, SETTER);
+		writer.setBatchSize(3);
+		writer.setMultiRowValues(true);
+		writer.setChunkCallback((chunkIndex, itemCount, updateCounts, totalItemCount) -> chunks.add(updateCounts));
+
+		assertThat(writer.isMultiRowValues()).isTrue();
+		assertThat(writer.write(IntStream.range(0, 7).boxed())).isEqualTo(7);
+		assertThat(chunks).containsExactlyInAnyOrder(new int[] {3}, new int[] {3}, new int[] {1});
+		assertItemsWritten(7);
+	}
+
+	@Test
+	public void writeInParallelWithMultiRowValues() {
+		JdbcBatchWriter<Integer> writer = new JdbcBatchWriter<>(this.jdbcTemplate, INSERT_SQL, SETTER);
+		writer.setBatchSize(50);
+		writer.setConcurrency(3);
+		writer.setMultiRowValues(true);
+
+		assertThat(writer.write(IntStream.range(0, 1234).boxed())).isEqualTo(1234);
+		assertItemsWritten(1234);
+	}
+
+	@Test
+	public void multiRowValuesNotSupportedForStatement() {
+		JdbcBatchWriter<Integer> writer = new JdbcBatchWriter<>(this.jdbcTemplate,
+				"update item set name = ? where id = ?", SETTER);
+		assertThatExceptionOfType(InvalidDataAccessApiUsageException.class).isThrownBy(() ->
+				writer.setMultiRowValues(true));
+	}
+
+	@Test
+	public void failedChunkStopsWriting() {
+		this.jdbcTemplate.update(INSERT_SQL, 150, "existing");
+		AtomicInteger chunkCount = new AtomicInteger();
+		AtomicInteger itemsRead = new AtomicInteger();
+		JdbcBatchWriter<Integer> writer = new JdbcBatchWriter<>(this.jdbcTemplate, INSERT_SQL, SETTER);
+		writer.setBatchSize(100);
+		writer.setConcurrency(2);
+		writer.setChunkCallback((chunkIndex, itemCount, updateCounts, totalItemCount) -> chunkCount.incrementAndGet());
+
+		assertThatExceptionOfType(DataIntegrityViolationException.class).isThrownBy(() ->
+				writer.write(IntStream.range(0, 100_000).peek(i -> itemsRead.incrementAndGet()).boxed()));
+		assertThat(itemsRead.get()).isLessThan(100_000);
+		assertThat(chunkCount.get()).isLessThan(1000);
+	}
+
+
+	private void assertItemsWritten(int count) {
+		assertThat(this.jdbcTemplate.queryForObject("select count(*) from item", Integer.class)).isEqualTo(count);
+		assertThat(this.jdbcTemplate.queryForObject("select count(distinct id) from item", Integer.class)).isEqualTo(count);
+		assertThat(this.jdbcTemplate.queryForObject(
+				"select name from item where id = ?", String.class, count - 1)).isEqualTo("item" + (count - 1));
+	}
+
+}
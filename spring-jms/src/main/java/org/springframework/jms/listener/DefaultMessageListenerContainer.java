@@ -186,6 +186,8 @@ public class DefaultMessageListenerContainer extends AbstractPollingMessageListe
 
 	private int maxConcurrentConsumers = 1;
 
+	private boolean virtualThreads = false;
+
 	private int maxMessagesPerTask = Integer.MIN_VALUE;
 
 	private int idleConsumerLimit = 1;
@@ -228,6 +230,19 @@ public class DefaultMessageListenerContainer extends AbstractPollingMessageListe
 		this.taskExecutor = taskExecutor;
 	}
 
+	/**
+	 * Specify whether the default {@code TaskExecutor} should run the listener
+	 * threads as virtual threads on JDK 21+. Default is "false".
+	 * <p>Only applies if no explicit {@link #setTaskExecutor TaskExecutor} has
+	 * been specified.
+	 * @since 5.2.1
+	 * @see #createDefaultTaskExecutor()
+	 * @see org.springframework.core.task.SimpleAsyncTaskExecutor#setVirtualThreads
+	 */
+	public void setVirtualThreads(boolean virtualThreads) {
+		this.virtualThreads = virtualThreads;
+	}
+
 	/**
 	 * Specify the {@link BackOff} instance to use to compute the interval
 	 * between recovery attempts. If the {@link BackOffExecution} implementation
@@ -694,13 +709,16 @@ public class DefaultMessageListenerContainer extends AbstractPollingMessageListe
 	/**
 	 * Create a default TaskExecutor. Called if no explicit TaskExecutor has been specified.
 	 * <p>The default implementation builds a {@link org.springframework.core.task.SimpleAsyncTaskExecutor}
-	 * with the specified bean name (or the class name, if no bean name specified) as thread name prefix.
+	 * with the specified bean name (or the class name, if no bean name specified) as thread name prefix,
+	 * using virtual threads if {@link #setVirtualThreads virtualThreads} is enabled.
 	 * @see org.springframework.core.task.SimpleAsyncTaskExecutor#SimpleAsyncTaskExecutor(String)
 	 */
 	protected TaskExecutor createDefaultTaskExecutor() {
 		String beanName = getBeanName();
 		String threadNamePrefix = (beanName != null ? beanName + "-" : DEFAULT_THREAD_NAME_PREFIX);
-		return new SimpleAsyncTaskExecutor(threadNamePrefix);
+		SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(threadNamePrefix);
+		executor.setVirtualThreads(this.virtualThreads);
+		return executor;
 	}
 
 	/**
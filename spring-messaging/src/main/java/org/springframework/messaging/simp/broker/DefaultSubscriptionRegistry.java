@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,15 +16,22 @@
 
 package org.springframework.messaging.simp.broker;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.HashSet;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.springframework.expression.EvaluationContext;
 import org.springframework.expression.Expression;
@@ -41,6 +48,7 @@ import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
 import org.springframework.messaging.support.MessageHeaderAccessor;
 import org.springframework.util.AntPathMatcher;
 import org.springframework.util.Assert;
+import org.springframework.util.ConcurrentLruCache;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
 import org.springframework.util.PathMatcher;
@@ -55,6 +63,14 @@ import org.springframework.util.StringUtils;
  * header on subscription messages with Spring EL expressions evaluated against
  * the headers to filter out messages in addition to destination matching.
  *
+ * <p>As of 5.2.1, subscriptions are indexed by destination: with the default
+ * {@code AntPathMatcher}, subscriptions to non-pattern destinations are looked
+ * up directly, while destination patterns, and all destinations with a custom
+ * {@code PathMatcher}, are kept in a concurrent trie keyed by destination
+ * segments, so that finding
+ * the subscriptions for a destination does not require matching against every
+ * subscription, and registry updates do not contend on a shared lock.
+ *
  * @author Rossen Stoyanchev
  * @author Sebastien Deleuze
  * @author Juergen Hoeller
@@ -65,6 +81,9 @@ public class DefaultSubscriptionRegistry extends AbstractSubscriptionRegistry {
 	/** Default maximum number of entries for the destination cache: 1024. */
 	public static final int DEFAULT_CACHE_LIMIT = 1024;
 
+	/** Empty segment with the separator of the default AntPathMatcher. */
+	private static final String DOUBLE_SEPARATOR = "//";
+
 	/** Static evaluation context to reuse. */
 	private static final EvaluationContext messageEvalContext =
 			SimpleEvaluationContext.forPropertyAccessors(new SimpMessageHeaderPropertyAccessor()).build();
@@ -72,6 +91,12 @@ public class DefaultSubscriptionRegistry extends AbstractSubscriptionRegistry {
 
 	private PathMatcher pathMatcher = new AntPathMatcher();
 
+	/**
+	 * Whether subscriptions to non-pattern destinations can be looked up by
+	 * destination, which is only the case with the default AntPathMatcher.
+	 */
+	private volatile boolean literalLookup = true;
+
 	private volatile int cacheLimit = DEFAULT_CACHE_LIMIT;
 
 	@Nullable
@@ -81,7 +106,9 @@ public class DefaultSubscriptionRegistry extends AbstractSubscriptionRegistry {
 
 	private final ExpressionParser expressionParser = new SpelExpressionParser();
 
-	private final DestinationCache destinationCache = new DestinationCache();
+	private final AtomicLong subscriptionSequence = new AtomicLong();
+
+	private final DestinationIndex destinationIndex = new DestinationIndex();
 
 	private final SessionSubscriptionRegistry subscriptionRegistry = new SessionSubscriptionRegistry();
 
@@ -91,6 +118,8 @@ public class DefaultSubscriptionRegistry extends AbstractSubscriptionRegistry {
 	 */
 	public void setPathMatcher(PathMatcher pathMatcher) {
 		this.pathMatcher = pathMatcher;
+		this.literalLookup = false;
+		this.destinationIndex.rebuildPatternTrie();
 	}
 
 	/**
@@ -101,11 +130,13 @@ public class DefaultSubscriptionRegistry extends AbstractSubscriptionRegistry {
 	}
 
 	/**
-	 * Specify the maximum number of entries for the resolved destination cache.
+	 * Specify the maximum number of entries for the resolved destination cache,
+	 * i.e. the destination patterns found to match a given destination.
 	 * Default is 1024.
 	 */
 	public void setCacheLimit(int cacheLimit) {
 		this.cacheLimit = cacheLimit;
+		this.destinationIndex.resetResolvedPatternCache();
 	}
 
 	/**
@@ -148,8 +179,9 @@ public class DefaultSubscriptionRegistry extends AbstractSubscriptionRegistry {
 			String sessionId, String subsId, String destination, Message<?> message) {
 
 		Expression expression = getSelectorExpression(message.getHeaders());
-		this.subscriptionRegistry.addSubscription(sessionId, subsId, destination, expression);
-		this.destinationCache.updateAfterNewSubscription(destination, sessionId, subsId);
+		Subscription subscription = new Subscription(subsId, expression, this.subscriptionSequence.incrementAndGet());
+		this.subscriptionRegistry.addSubscription(sessionId, destination, subscription);
+		this.destinationIndex.addSubscription(destination, sessionId, subscription);
 	}
 
 	@Nullable
@@ -181,7 +213,7 @@ public class DefaultSubscriptionRegistry extends AbstractSubscriptionRegistry {
 		if (info != null) {
 			String destination = info.removeSubscription(subsId);
 			if (destination != null) {
-				this.destinationCache.updateAfterRemovedSubscription(sessionId, subsId);
+				this.destinationIndex.removeSubscription(destination, sessionId, subsId);
 			}
 		}
 	}
@@ -190,13 +222,15 @@ public class DefaultSubscriptionRegistry extends AbstractSubscriptionRegistry {
 	public void unregisterAllSubscriptions(String sessionId) {
 		SessionSubscriptionInfo info = this.subscriptionRegistry.removeSubscriptions(sessionId);
 		if (info != null) {
-			this.destinationCache.updateAfterRemovedSession(info);
+			for (String destination : info.getDestinations()) {
+				this.destinationIndex.removeSession(destination, sessionId);
+			}
 		}
 	}
 
 	@Override
 	protected MultiValueMap<String, String> findSubscriptionsInternal(String destination, Message<?> message) {
-		MultiValueMap<String, String> result = this.destinationCache.getSubscriptions(destination, message);
+		MultiValueMap<String, String> result = this.destinationIndex.getSubscriptions(destination);
 		return filterSubscriptions(result, message);
 	}
 
@@ -242,123 +276,390 @@ public class DefaultSubscriptionRegistry extends AbstractSubscriptionRegistry {
 
 	@Override
 	public String toString() {
-		return "DefaultSubscriptionRegistry[" + this.destinationCache + ", " + this.subscriptionRegistry + "]";
+		return "DefaultSubscriptionRegistry[" + this.destinationIndex + ", " + this.subscriptionRegistry + "]";
 	}
 
 
 	/**
-	 * A cache for destinations previously resolved via
-	 * {@link DefaultSubscriptionRegistry#findSubscriptionsInternal(String, Message)}.
+	 * Index of subscriptions by destination. With the default AntPathMatcher,
+	 * subscriptions to non-pattern destinations are looked up directly by
+	 * destination, while all other subscribed destinations are found through a
+	 * {@link DestinationPatternTrie} and matched with the {@code PathMatcher},
+	 * with the destinations resolved for a destination cached up to the cache limit.
+	 * A cached resolution remains valid as long as the trie nodes it was collected
+	 * from are unchanged, so adding or removing a pattern only affects destinations
+	 * that the pattern may apply to.
+	 * <p>All structures are concurrent, with updates for a given destination
+	 * applied atomically through {@link ConcurrentMap#compute}.
 	 */
-	private class DestinationCache {
-
-		/** Map from destination to {@code <sessionId, subscriptionId>} for fast look-ups. */
-		private final Map<String, LinkedMultiValueMap<String, String>> accessCache =
-				new ConcurrentHashMap<>(DEFAULT_CACHE_LIMIT);
-
-		/** Map from destination to {@code <sessionId, subscriptionId>} with locking. */
-		@SuppressWarnings("serial")
-		private final Map<String, LinkedMultiValueMap<String, String>> updateCache =
-				new LinkedHashMap<String, LinkedMultiValueMap<String, String>>(DEFAULT_CACHE_LIMIT, 0.75f, true) {
-					@Override
-					protected boolean removeEldestEntry(Map.Entry<String, LinkedMultiValueMap<String, String>> eldest) {
-						if (size() > getCacheLimit()) {
-							accessCache.remove(eldest.getKey());
-							return true;
-						}
-						else {
-							return false;
-						}
-					}
-				};
-
-
-		public LinkedMultiValueMap<String, String> getSubscriptions(String destination, Message<?> message) {
-			LinkedMultiValueMap<String, String> result = this.accessCache.get(destination);
-			if (result == null) {
-				synchronized (this.updateCache) {
-					result = new LinkedMultiValueMap<>();
-					for (SessionSubscriptionInfo info : subscriptionRegistry.getAllSubscriptions()) {
-						for (String destinationPattern : info.getDestinations()) {
-							if (getPathMatcher().match(destinationPattern, destination)) {
-								for (Subscription sub : info.getSubscriptions(destinationPattern)) {
-									result.add(info.sessionId, sub.getId());
-								}
-							}
+	private class DestinationIndex {
+
+		/** Map from destination or destination pattern to {@code <sessionId, subscriptions>}. */
+		private final ConcurrentMap<String, ConcurrentMap<String, Set<Subscription>>> subscriptions =
+				new ConcurrentHashMap<>();
+
+		private volatile DestinationPatternTrie patternTrie = new DestinationPatternTrie(getPathMatcher());
+
+		/** Cache from destination to the destination patterns that match it. */
+		private volatile ConcurrentLruCache<String, ResolvedPatterns> resolvedPatternCache = createCache();
+
+
+		public LinkedMultiValueMap<String, String> getSubscriptions(String destination) {
+			Map<String, Map<String, Subscription>> matches = new LinkedHashMap<>();
+			if (literalLookup && !getPathMatcher().isPattern(destination)) {
+				if (destination.contains(DOUBLE_SEPARATOR)) {
+					// AntPathMatcher ignores empty segments: "/a/b" matches "/a//b"
+					for (String literal : this.subscriptions.keySet()) {
+						if (!requiresMatching(literal) && getPathMatcher().match(literal, destination)) {
+							addMatches(this.subscriptions.get(literal), matches);
 						}
 					}
-					if (!result.isEmpty()) {
-						this.updateCache.put(destination, result.deepCopy());
-						this.accessCache.put(destination, result);
-					}
+				}
+				else {
+					addMatches(this.subscriptions.get(destination), matches);
 				}
 			}
+			for (String pattern : getMatchingPatterns(destination)) {
+				addMatches(this.subscriptions.get(pattern), matches);
+			}
+			LinkedMultiValueMap<String, String> result = new LinkedMultiValueMap<>(matches.size());
+			matches.forEach((sessionId, subsById) -> {
+				Collection<Subscription> subs = subsById.values();
+				if (subs.size() > 1) {
+					// Keep the order in which the session subscribed
+					List<Subscription> sorted = new ArrayList<>(subs);
+					sorted.sort(Comparator.comparingLong(Subscription::getSequence));
+					subs = sorted;
+				}
+				for (Subscription sub : subs) {
+					result.add(sessionId, sub.getId());
+				}
+			});
 			return result;
 		}
 
-		public void updateAfterNewSubscription(String destination, String sessionId, String subsId) {
-			synchronized (this.updateCache) {
-				this.updateCache.forEach((cachedDestination, subscriptions) -> {
-					if (getPathMatcher().match(destination, cachedDestination)) {
-						// Subscription id's may also be populated via getSubscriptions()
-						List<String> subsForSession = subscriptions.get(sessionId);
-						if (subsForSession == null || !subsForSession.contains(subsId)) {
-							subscriptions.add(sessionId, subsId);
-							this.accessCache.put(cachedDestination, subscriptions.deepCopy());
-						}
+		private void addMatches(@Nullable Map<String, Set<Subscription>> sessionMap,
+				Map<String, Map<String, Subscription>> matches) {
+
+			if (sessionMap != null) {
+				sessionMap.forEach((sessionId, subs) -> {
+					Map<String, Subscription> subsById = matches.computeIfAbsent(sessionId, id -> new LinkedHashMap<>());
+					for (Subscription sub : subs) {
+						subsById.putIfAbsent(sub.getId(), sub);
 					}
 				});
 			}
 		}
 
-		public void updateAfterRemovedSubscription(String sessionId, String subsId) {
-			synchronized (this.updateCache) {
-				Set<String> destinationsToRemove = new HashSet<>();
-				this.updateCache.forEach((destination, sessionMap) -> {
-					List<String> subscriptions = sessionMap.get(sessionId);
-					if (subscriptions != null) {
-						subscriptions.remove(subsId);
-						if (subscriptions.isEmpty()) {
-							sessionMap.remove(sessionId);
-						}
-						if (sessionMap.isEmpty()) {
-							destinationsToRemove.add(destination);
-						}
-						else {
-							this.accessCache.put(destination, sessionMap.deepCopy());
-						}
+		/**
+		 * Whether the given subscribed destination is indexed in the trie and
+		 * matched with the {@code PathMatcher}, rather than looked up directly.
+		 */
+		private boolean requiresMatching(String destination) {
+			return (!literalLookup || getPathMatcher().isPattern(destination) ||
+					destination.contains(DOUBLE_SEPARATOR));
+		}
+
+		private List<String> getMatchingPatterns(String destination) {
+			ConcurrentLruCache<String, ResolvedPatterns> cache = this.resolvedPatternCache;
+			ResolvedPatterns resolved = cache.get(destination);
+			if (resolved.trie != this.patternTrie || !resolved.nodes.isCurrent()) {
+				cache.remove(destination);
+				resolved = cache.get(destination);
+			}
+			return resolved.patterns;
+		}
+
+		private ResolvedPatterns resolvePatterns(String destination) {
+			DestinationPatternTrie trie = this.patternTrie;
+			VisitedNodes nodes = new VisitedNodes();
+			List<String> patterns = Collections.emptyList();
+			for (String pattern : trie.findCandidates(destination, nodes)) {
+				if (getPathMatcher().match(pattern, destination)) {
+					if (patterns.isEmpty()) {
+						patterns = new ArrayList<>(1);
 					}
-				});
-				for (String destination : destinationsToRemove) {
-					this.updateCache.remove(destination);
-					this.accessCache.remove(destination);
+					patterns.add(pattern);
 				}
 			}
+			return new ResolvedPatterns(patterns, trie, nodes);
 		}
 
-		public void updateAfterRemovedSession(SessionSubscriptionInfo info) {
-			synchronized (this.updateCache) {
-				Set<String> destinationsToRemove = new HashSet<>();
-				this.updateCache.forEach((destination, sessionMap) -> {
-					if (sessionMap.remove(info.getSessionId()) != null) {
-						if (sessionMap.isEmpty()) {
-							destinationsToRemove.add(destination);
-						}
-						else {
-							this.accessCache.put(destination, sessionMap.deepCopy());
-						}
+		public void resetResolvedPatternCache() {
+			this.resolvedPatternCache = createCache();
+		}
+
+		private ConcurrentLruCache<String, ResolvedPatterns> createCache() {
+			return new ConcurrentLruCache<>(Math.max(getCacheLimit(), 0), this::resolvePatterns);
+		}
+
+		public void addSubscription(String destination, String sessionId, Subscription subscription) {
+			this.subscriptions.compute(destination, (key, sessionMap) -> {
+				if (sessionMap == null) {
+					sessionMap = new ConcurrentHashMap<>(4);
+					if (requiresMatching(destination)) {
+						this.patternTrie.addPattern(destination);
 					}
+				}
+				sessionMap.computeIfAbsent(sessionId, id -> new CopyOnWriteArraySet<>()).add(subscription);
+				return sessionMap;
+			});
+		}
+
+		public void removeSubscription(String destination, String sessionId, String subsId) {
+			this.subscriptions.computeIfPresent(destination, (key, sessionMap) -> {
+				sessionMap.computeIfPresent(sessionId, (id, subs) -> {
+					subs.removeIf(sub -> sub.getId().equals(subsId));
+					return (subs.isEmpty() ? null : subs);
 				});
-				for (String destination : destinationsToRemove) {
-					this.updateCache.remove(destination);
-					this.accessCache.remove(destination);
+				return removeIfEmpty(destination, sessionMap);
+			});
+		}
+
+		public void removeSession(String destination, String sessionId) {
+			this.subscriptions.computeIfPresent(destination, (key, sessionMap) -> {
+				sessionMap.remove(sessionId);
+				return removeIfEmpty(destination, sessionMap);
+			});
+		}
+
+		@Nullable
+		private ConcurrentMap<String, Set<Subscription>> removeIfEmpty(
+				String destination, ConcurrentMap<String, Set<Subscription>> sessionMap) {
+
+			if (!sessionMap.isEmpty()) {
+				return sessionMap;
+			}
+			if (requiresMatching(destination)) {
+				this.patternTrie.removePattern(destination);
+			}
+			return null;
+		}
+
+		public void rebuildPatternTrie() {
+			DestinationPatternTrie trie = new DestinationPatternTrie(getPathMatcher());
+			for (String destination : this.subscriptions.keySet()) {
+				if (requiresMatching(destination)) {
+					trie.addPattern(destination);
 				}
 			}
+			this.patternTrie = trie;
 		}
 
 		@Override
 		public String toString() {
-			return "cache[" + this.accessCache.size() + " destination(s)]";
+			return "cache[" + this.resolvedPatternCache.size() + " destination(s)]";
+		}
+	}
+
+
+	/**
+	 * Destination patterns previously resolved for a destination, along with
+	 * the trie nodes they were collected from.
+	 */
+	private static final class ResolvedPatterns {
+
+		final List<String> patterns;
+
+		final DestinationPatternTrie trie;
+
+		final VisitedNodes nodes;
+
+		ResolvedPatterns(List<String> patterns, DestinationPatternTrie trie, VisitedNodes nodes) {
+			this.patterns = patterns;
+			this.trie = trie;
+			this.nodes = nodes;
+		}
+	}
+
+
+	/**
+	 * Trie nodes visited while collecting candidate patterns for a destination,
+	 * along with their versions at the time of the visit.
+	 */
+	private static final class VisitedNodes {
+
+		private TrieNode[] nodes = new TrieNode[4];
+
+		private int[] versions = new int[4];
+
+		private int size;
+
+		void add(TrieNode node) {
+			if (this.size == this.nodes.length) {
+				this.nodes = Arrays.copyOf(this.nodes, this.size * 2);
+				this.versions = Arrays.copyOf(this.versions, this.size * 2);
+			}
+			// Read the version before the patterns of the node
+			this.versions[this.size] = node.version.get();
+			this.nodes[this.size] = node;
+			this.size++;
+		}
+
+		/**
+		 * Whether none of the visited nodes has changed since it was visited.
+		 */
+		boolean isCurrent() {
+			for (int i = 0; i < this.size; i++) {
+				if (this.nodes[i].version.get() != this.versions[i]) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+
+
+	/**
+	 * Concurrent trie of destination patterns keyed by the segments between
+	 * path separators, with literal segments indexed by their value, segments
+	 * with wildcards or template variables sharing a single wildcard node, and
+	 * "**" segments matching any remaining segments.
+	 * <p>Candidates found for a destination are a superset of the patterns that
+	 * match it, to be checked against the {@code PathMatcher}. If the separator
+	 * of the {@code PathMatcher} is not known, all patterns are candidates.
+	 * Nodes are not removed once created, so their number is bounded by the
+	 * distinct segments of the patterns subscribed to over time.
+	 */
+	private static final class DestinationPatternTrie {
+
+		private static final String WILDCARD_KEY = "*";
+
+		@Nullable
+		private final String separator;
+
+		private final TrieNode root = new TrieNode();
+
+		DestinationPatternTrie(PathMatcher pathMatcher) {
+			this.separator = determineSeparator(pathMatcher);
+		}
+
+		@Nullable
+		private static String determineSeparator(PathMatcher pathMatcher) {
+			if (pathMatcher.getClass() != AntPathMatcher.class) {
+				return null;
+			}
+			// AntPathMatcher does not expose its separator: it is used to join two literal patterns
+			String combined = pathMatcher.combine("a", "b");
+			return (combined.length() > 2 && combined.startsWith("a") && combined.endsWith("b") ?
+					combined.substring(1, combined.length() - 1) : null);
+		}
+
+		public void addPattern(String pattern) {
+			TrieNode node = this.root;
+			TrieNode parentOfNewNode = null;
+			if (this.separator != null) {
+				for (String segment : StringUtils.tokenizeToStringArray(pattern, this.separator, false, true)) {
+					if (segment.contains("**")) {
+						break;
+					}
+					String key = (isWildcardSegment(segment) ? WILDCARD_KEY : normalize(segment));
+					TrieNode child = node.children.get(key);
+					if (child == null) {
+						child = node.children.computeIfAbsent(key, k -> new TrieNode());
+						if (parentOfNewNode == null) {
+							parentOfNewNode = node;
+						}
+					}
+					node = child;
+				}
+			}
+			node.getPatterns(pattern, this.separator).add(pattern);
+			// Invalidate destinations resolved through the node, or through
+			// the parent of a new node, after the pattern has been added
+			node.version.incrementAndGet();
+			if (parentOfNewNode != null) {
+				parentOfNewNode.version.incrementAndGet();
+			}
+		}
+
+		public void removePattern(String pattern) {
+			TrieNode node = this.root;
+			if (this.separator != null) {
+				for (String segment : StringUtils.tokenizeToStringArray(pattern, this.separator, false, true)) {
+					if (segment.contains("**")) {
+						break;
+					}
+					node = node.children.get(isWildcardSegment(segment) ? WILDCARD_KEY : normalize(segment));
+					if (node == null) {
+						return;
+					}
+				}
+			}
+			if (node.getPatterns(pattern, this.separator).remove(pattern)) {
+				node.version.incrementAndGet();
+			}
+		}
+
+		/**
+		 * Find the candidate patterns for the given destination.
+		 * @param destination the destination to find candidates for
+		 * @param visitedNodes to record the nodes that the candidates are
+		 * collected from, along with their current versions
+		 */
+		public Set<String> findCandidates(String destination, VisitedNodes visitedNodes) {
+			Set<String> result = new LinkedHashSet<>();
+			if (this.separator == null) {
+				visitedNodes.add(this.root);
+				result.addAll(this.root.deepPatterns);
+				return result;
+			}
+			String[] segments = StringUtils.tokenizeToStringArray(destination, this.separator, false, true);
+			collect(this.root, segments, 0, destination.endsWith(this.separator), result, visitedNodes);
+			return result;
+		}
+
+		private void collect(TrieNode node, String[] segments, int index, boolean trailingSeparator,
+				Set<String> result, VisitedNodes visitedNodes) {
+
+			visitedNodes.add(node);
+			result.addAll(node.deepPatterns);
+			if (index == segments.length) {
+				result.addAll(node.terminalPatterns);
+				TrieNode wildcardChild = node.children.get(WILDCARD_KEY);
+				if (trailingSeparator && wildcardChild != null) {
+					// "/a/*" matches "/a/"
+					visitedNodes.add(wildcardChild);
+					result.addAll(wildcardChild.terminalPatterns);
+				}
+				return;
+			}
+			TrieNode literalChild = node.children.get(normalize(segments[index]));
+			if (literalChild != null) {
+				collect(literalChild, segments, index + 1, trailingSeparator, result, visitedNodes);
+			}
+			TrieNode wildcardChild = node.children.get(WILDCARD_KEY);
+			if (wildcardChild != null) {
+				collect(wildcardChild, segments, index + 1, trailingSeparator, result, visitedNodes);
+			}
+		}
+
+		private static boolean isWildcardSegment(String segment) {
+			return (segment.indexOf('*') != -1 || segment.indexOf('?') != -1 || segment.indexOf('{') != -1);
+		}
+
+		private static String normalize(String segment) {
+			// Superset of case-sensitive and case-insensitive, trimmed and untrimmed matching
+			return segment.trim().toLowerCase(Locale.ROOT);
+		}
+	}
+
+
+	private static final class TrieNode {
+
+		final ConcurrentMap<String, TrieNode> children = new ConcurrentHashMap<>(4);
+
+		/** Patterns that end at this node. */
+		final Set<String> terminalPatterns = ConcurrentHashMap.newKeySet(1);
+
+		/** Patterns with a "**" segment following this node, or all patterns without a trie. */
+		final Set<String> deepPatterns = ConcurrentHashMap.newKeySet(1);
+
+		/** Incremented whenever the patterns of this node, or its set of children, change. */
+		final AtomicInteger version = new AtomicInteger();
+
+		Set<String> getPatterns(String pattern, @Nullable String separator) {
+			return (separator == null || pattern.contains("**") ? this.deepPatterns : this.terminalPatterns);
 		}
 	}
 
@@ -380,8 +681,7 @@ public class DefaultSubscriptionRegistry extends AbstractSubscriptionRegistry {
 			return this.sessions.values();
 		}
 
-		public SessionSubscriptionInfo addSubscription(String sessionId, String subscriptionId,
-				String destination, @Nullable Expression selectorExpression) {
+		public SessionSubscriptionInfo addSubscription(String sessionId, String destination, Subscription subscription) {
 
 			SessionSubscriptionInfo info = this.sessions.get(sessionId);
 			if (info == null) {
@@ -391,7 +691,7 @@ public class DefaultSubscriptionRegistry extends AbstractSubscriptionRegistry {
 					info = value;
 				}
 			}
-			info.addSubscription(destination, subscriptionId, selectorExpression);
+			info.addSubscription(destination, subscription);
 			return info;
 		}
 
@@ -447,7 +747,7 @@ public class DefaultSubscriptionRegistry extends AbstractSubscriptionRegistry {
 			return null;
 		}
 
-		public void addSubscription(String destination, String subscriptionId, @Nullable Expression selectorExpression) {
+		public void addSubscription(String destination, Subscription subscription) {
 			Set<Subscription> subs = this.destinationLookup.get(destination);
 			if (subs == null) {
 				synchronized (this.destinationLookup) {
@@ -458,7 +758,7 @@ public class DefaultSubscriptionRegistry extends AbstractSubscriptionRegistry {
 					}
 				}
 			}
-			subs.add(new Subscription(subscriptionId, selectorExpression));
+			subs.add(subscription);
 		}
 
 		@Nullable
@@ -496,16 +796,23 @@ public class DefaultSubscriptionRegistry extends AbstractSubscriptionRegistry {
 		@Nullable
 		private final Expression selectorExpression;
 
-		public Subscription(String id, @Nullable Expression selector) {
+		private final long sequence;
+
+		public Subscription(String id, @Nullable Expression selector, long sequence) {
 			Assert.notNull(id, "Subscription id must not be null");
 			this.id = id;
 			this.selectorExpression = selector;
+			this.sequence = sequence;
 		}
 
 		public String getId() {
 			return this.id;
 		}
 
+		public long getSequence() {
+			return this.sequence;
+		}
+
 		@Nullable
 		public Expression getSelectorExpression() {
 			return this.selectorExpression;
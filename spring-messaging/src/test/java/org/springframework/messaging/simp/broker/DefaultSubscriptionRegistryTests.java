@@ -28,6 +28,7 @@ import org.springframework.messaging.Message;
 import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
 import org.springframework.messaging.simp.SimpMessageType;
 import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.util.AntPathMatcher;
 import org.springframework.util.MultiValueMap;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -438,6 +439,147 @@ public class DefaultSubscriptionRegistryTests {
 		assertThat(this.registry.findSubscriptions(createMessage("/bar")).size()).isEqualTo(2);
 	}
 
+	@Test
+	public void registerSubscriptionsWithDotSeparatedPatterns() {
+		this.registry.setPathMatcher(new AntPathMatcher("."));
+		this.registry.registerSubscription(subscribeMessage("sess1", "1", "price.stock.*"));
+		this.registry.registerSubscription(subscribeMessage("sess1", "2", "price.stock.**"));
+		this.registry.registerSubscription(subscribeMessage("sess1", "3", "price.{type}.IBM"));
+		this.registry.registerSubscription(subscribeMessage("sess2", "4", "price.stock.IBM"));
+		this.registry.registerSubscription(subscribeMessage("sess2", "5", "price.bond.*"));
+
+		MultiValueMap<String, String> actual = this.registry.findSubscriptions(createMessage("price.stock.IBM"));
+		assertThat(actual.get("sess1")).containsExactly("1", "2", "3");
+		assertThat(actual.get("sess2")).containsExactly("4");
+
+		actual = this.registry.findSubscriptions(createMessage("price.stock.NASDAQ.IBM"));
+		assertThat(actual).hasSize(1);
+		assertThat(actual.get("sess1")).containsExactly("2");
+
+		actual = this.registry.findSubscriptions(createMessage("price.bond.IBM"));
+		assertThat(actual.get("sess1")).containsExactly("3");
+		assertThat(actual.get("sess2")).containsExactly("5");
+
+		assertThat(this.registry.findSubscriptions(createMessage("/price/stock/IBM"))).isEmpty();
+	}
+
+	@Test
+	public void registerSubscriptionsWithCustomPathMatcher() {
+		this.registry.setPathMatcher(new AntPathMatcher() {
+			@Override
+			public boolean match(String pattern, String path) {
+				return path.startsWith(pattern.substring(0, pattern.length() - 1));
+			}
+		});
+		this.registry.registerSubscription(subscribeMessage("sess1", "1", "/topic/a*"));
+		this.registry.registerSubscription(subscribeMessage("sess1", "2", "/topic/b*"));
+
+		MultiValueMap<String, String> actual = this.registry.findSubscriptions(createMessage("/topic/a/b/c"));
+		assertThat(actual).hasSize(1);
+		assertThat(actual.get("sess1")).containsExactly("1");
+	}
+
+	@Test
+	public void setPathMatcherAfterRegistration() {
+		this.registry.registerSubscription(subscribeMessage("sess1", "1", "price.*"));
+		assertThat(this.registry.findSubscriptions(createMessage("price.stock.IBM")).get("sess1")).containsExactly("1");
+
+		this.registry.setPathMatcher(new AntPathMatcher("."));
+		assertThat(this.registry.findSubscriptions(createMessage("price.stock.IBM"))).isEmpty();
+		assertThat(this.registry.findSubscriptions(createMessage("price.stock")).get("sess1")).containsExactly("1");
+	}
+
+	@Test
+	public void findSubscriptionsAfterPatternUnsubscribed() {
+		this.registry.registerSubscription(subscribeMessage("sess1", "1", "/topic/*"));
+		this.registry.registerSubscription(subscribeMessage("sess1", "2", "/topic/**"));
+		this.registry.registerSubscription(subscribeMessage("sess2", "3", "/topic/*"));
+
+		MultiValueMap<String, String> actual = this.registry.findSubscriptions(createMessage("/topic/a"));
+		assertThat(actual.get("sess1")).containsExactly("1", "2");
+		assertThat(actual.get("sess2")).containsExactly("3");
+
+		this.registry.unregisterSubscription(unsubscribeMessage("sess1", "1"));
+		this.registry.unregisterAllSubscriptions("sess2");
+		actual = this.registry.findSubscriptions(createMessage("/topic/a"));
+		assertThat(actual).hasSize(1);
+		assertThat(actual.get("sess1")).containsExactly("2");
+
+		this.registry.unregisterSubscription(unsubscribeMessage("sess1", "2"));
+		assertThat(this.registry.findSubscriptions(createMessage("/topic/a"))).isEmpty();
+
+		this.registry.registerSubscription(subscribeMessage("sess3", "4", "/topic/a"));
+		actual = this.registry.findSubscriptions(createMessage("/topic/a"));
+		assertThat(actual.get("sess3")).containsExactly("4");
+	}
+
+	@Test
+	public void findSubscriptionsAfterPatternsChangedForOtherDestinations() {
+		this.registry.registerSubscription(subscribeMessage("sess1", "1", "/topic/a/*"));
+		assertThat(this.registry.findSubscriptions(createMessage("/topic/a/b")).get("sess1")).containsExactly("1");
+		assertThat(this.registry.findSubscriptions(createMessage("/queue/a")).get("sess1")).isNull();
+
+		this.registry.registerSubscription(subscribeMessage("sess1", "2", "/queue/*"));
+		this.registry.registerSubscription(subscribeMessage("sess1", "3", "/topic/c/*"));
+		assertThat(this.registry.findSubscriptions(createMessage("/topic/a/b")).get("sess1")).containsExactly("1");
+		assertThat(this.registry.findSubscriptions(createMessage("/queue/a")).get("sess1")).containsExactly("2");
+
+		this.registry.registerSubscription(subscribeMessage("sess1", "4", "/topic/*/b"));
+		this.registry.registerSubscription(subscribeMessage("sess1", "5", "/topic/a/b/**"));
+		assertThat(this.registry.findSubscriptions(createMessage("/topic/a/b")).get("sess1")).containsExactly("1", "4", "5");
+
+		this.registry.unregisterSubscription(unsubscribeMessage("sess1", "2"));
+		this.registry.unregisterSubscription(unsubscribeMessage("sess1", "4"));
+		assertThat(this.registry.findSubscriptions(createMessage("/topic/a/b")).get("sess1")).containsExactly("1", "5");
+		assertThat(this.registry.findSubscriptions(createMessage("/queue/a")).get("sess1")).isNull();
+	}
+
+	@Test
+	public void registerSubscriptionsWithCaseInsensitivePathMatcher() {
+		AntPathMatcher pathMatcher = new AntPathMatcher();
+		pathMatcher.setCaseSensitive(false);
+		pathMatcher.setTrimTokens(true);
+		this.registry.setPathMatcher(pathMatcher);
+		this.registry.registerSubscription(subscribeMessage("sess1", "1", "/Topic/Price"));
+		this.registry.registerSubscription(subscribeMessage("sess1", "2", "/topic/ price"));
+		this.registry.registerSubscription(subscribeMessage("sess2", "3", "/TOPIC/*"));
+
+		MultiValueMap<String, String> actual = this.registry.findSubscriptions(createMessage("/topic/price"));
+		assertThat(actual.get("sess1")).containsExactly("1", "2");
+		assertThat(actual.get("sess2")).containsExactly("3");
+	}
+
+	@Test
+	public void findSubscriptionsForDestinationWithEmptySegment() {
+		this.registry.registerSubscription(subscribeMessage("sess1", "1", "/topic/price"));
+		this.registry.registerSubscription(subscribeMessage("sess1", "2", "/topic//price"));
+
+		assertThat(this.registry.findSubscriptions(createMessage("/topic/price")).get("sess1")).containsExactly("1", "2");
+		assertThat(this.registry.findSubscriptions(createMessage("/topic//price")).get("sess1")).containsExactly("1", "2");
+	}
+
+	@Test
+	public void findSubscriptionsForDestinationEqualToPattern() {
+		this.registry.registerSubscription(subscribeMessage("sess1", "1", "/topic/*"));
+		this.registry.registerSubscription(subscribeMessage("sess1", "2", "/topic/{id:[0-9]+}"));
+
+		MultiValueMap<String, String> actual = this.registry.findSubscriptions(createMessage("/topic/*"));
+		assertThat(actual.get("sess1")).containsExactly("1");
+
+		actual = this.registry.findSubscriptions(createMessage("/topic/{id:[0-9]+}"));
+		assertThat(actual.get("sess1")).containsExactly("1");
+	}
+
+	@Test
+	public void findSubscriptionsAddsSubscriptionIdOnce() {
+		this.registry.registerSubscription(subscribeMessage("sess1", "1", "/topic/*"));
+		this.registry.registerSubscription(subscribeMessage("sess1", "1", "/topic/**"));
+		this.registry.registerSubscription(subscribeMessage("sess1", "2", "/topic/a"));
+
+		MultiValueMap<String, String> actual = this.registry.findSubscriptions(createMessage("/topic/a"));
+		assertThat(actual.get("sess1")).containsExactly("1", "2");
+	}
+
 	private Message<?> createMessage(String destination) {
 		SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create();
 		accessor.setDestination(destination);
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.client.reactive;
+
+import java.net.URI;
+import java.util.Arrays;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import reactor.core.publisher.Flux;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import org.springframework.beans.BeanUtils;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpMethod;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Benchmarks for exchanges through the {@code JdkClientHttpConnector},
+ * compared with the {@link ReactorClientHttpConnector}, against a local
+ * Reactor Netty server.
+ */
+@BenchmarkMode(Mode.Throughput)
+public class ClientHttpConnectorBenchmark {
+
+	@Benchmark
+	public long exchange(BenchmarkData data) {
+		return exchanges(data, 1);
+	}
+
+	@Benchmark
+	public long concurrentExchanges(BenchmarkData data) {
+		return exchanges(data, data.concurrency);
+	}
+
+	private long exchanges(BenchmarkData data, int count) {
+		Long bytes = Flux.range(0, count)
+				.flatMap(i -> data.connector.connect(HttpMethod.GET, data.uri, ClientHttpRequest::setComplete)
+						.flatMapMany(ClientHttpResponse::getBody)
+						.map(buffer -> {
+							int length = buffer.readableByteCount();
+							DataBufferUtils.release(buffer);
+							return (long) length;
+						}))
+				.reduce(0L, Long::sum)
+				.block();
+		return (bytes != null ? bytes : 0);
+	}
+
+
+	@State(Scope.Benchmark)
+	public static class BenchmarkData {
+
+		@Param({"jdk", "reactor"})
+		public String client;
+
+		@Param({"1024", "65536"})
+		public int responseSize;
+
+		@Param({"16"})
+		public int concurrency;
+
+		public DisposableServer server;
+
+		public ClientHttpConnector connector;
+
+		public URI uri;
+
+		@Setup(Level.Trial)
+		public void setup() {
+			byte[] content = new byte[this.responseSize];
+			Arrays.fill(content, (byte) 'a');
+			this.server = HttpServer.create()
+					.host("localhost")
+					.handle((request, response) -> response.sendByteArray(Flux.just(content)))
+					.bindNow();
+			this.uri = URI.create("http://localhost:" + this.server.port() + "/");
+			// The JDK connector is compiled for Java 11, hence created by name
+			this.connector = ("jdk".equals(this.client) ?
+					(ClientHttpConnector) BeanUtils.instantiateClass(ClassUtils.resolveClassName(
+							"org.springframework.http.client.reactive.JdkClientHttpConnector", null)) :
+					new ReactorClientHttpConnector());
+		}
+
+		@TearDown(Level.Trial)
+		public void tearDown() {
+			this.server.disposeNow();
+		}
+	}
+
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.util.pattern;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import org.springframework.http.server.PathContainer;
+import org.springframework.util.AntPathMatcher;
+
+/**
+ * Benchmarks for parsing {@link PathPattern PathPatterns} and matching them
+ * against request paths, compared with {@link AntPathMatcher}.
+ */
+@BenchmarkMode(Mode.Throughput)
+public class PathPatternBenchmark {
+
+	@Benchmark
+	public void parse(BenchmarkData data, Blackhole blackhole) {
+		for (String pattern : data.patterns) {
+			blackhole.consume(data.parser.parse(pattern));
+		}
+	}
+
+	@Benchmark
+	public void matchPathPattern(BenchmarkData data, Blackhole blackhole) {
+		for (PathContainer path : data.pathContainers) {
+			for (PathPattern pattern : data.parsedPatterns) {
+				blackhole.consume(pattern.matches(path));
+			}
+		}
+	}
+
+	@Benchmark
+	public void matchAndExtractPathPattern(BenchmarkData data, Blackhole blackhole) {
+		for (PathContainer path : data.pathContainers) {
+			for (PathPattern pattern : data.parsedPatterns) {
+				blackhole.consume(pattern.matchAndExtract(path));
+			}
+		}
+	}
+
+	@Benchmark
+	public void matchAntPathMatcher(BenchmarkData data, Blackhole blackhole) {
+		for (String path : data.paths) {
+			for (String pattern : data.patterns) {
+				blackhole.consume(data.antPathMatcher.match(pattern, path));
+			}
+		}
+	}
+
+
+	@State(Scope.Benchmark)
+	public static class BenchmarkData {
+
+		@Param({"10", "100"})
+		public int patternCount;
+
+		public final PathPatternParser parser = new PathPatternParser();
+
+		public final AntPathMatcher antPathMatcher = new AntPathMatcher();
+
+		public List<String> patterns;
+
+		public List<PathPattern> parsedPatterns;
+
+		public List<String> paths;
+
+		public List<PathContainer> pathContainers;
+
+		@Setup(Level.Trial)
+		public void setup() {
+			this.patterns = new ArrayList<>(this.patternCount);
+			this.paths = new ArrayList<>(this.patternCount);
+			for (int i = 0; i < this.patternCount; i++) {
+				switch (i % 4) {
+					case 0:
+						this.patterns.add("/api/resource" + i);
+						this.paths.add("/api/resource" + i);
+						break;
+					case 1:
+						this.patterns.add("/api/resource" + i + "/{id}");
+						this.paths.add("/api/resource" + i + "/42");
+						break;
+					case 2:
+						this.patterns.add("/api/resource" + i + "/{id}/items/*.json");
+						this.paths.add("/api/resource" + i + "/42/items/first.json");
+						break;
+					default:
+						this.patterns.add("/static/resource" + i + "/**");
+						this.paths.add("/static/resource" + i + "/css/site.css");
+				}
+			}
+			this.parsedPatterns = new ArrayList<>(this.patternCount);
+			for (String pattern : this.patterns) {
+				this.parsedPatterns.add(this.parser.parse(pattern));
+			}
+			this.pathContainers = new ArrayList<>(this.patternCount);
+			for (String path : this.paths) {
+				this.pathContainers.add(PathContainer.parsePath(path));
+			}
+		}
+	}
+
+}
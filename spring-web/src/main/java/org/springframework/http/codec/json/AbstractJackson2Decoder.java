@@ -30,6 +30,7 @@ import com.fasterxml.jackson.databind.util.TokenBuffer;
 import org.reactivestreams.Publisher;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.SynchronousSink;
 
 import org.springframework.core.MethodParameter;
 import org.springframework.core.ResolvableType;
@@ -85,26 +86,34 @@ public abstract class AbstractJackson2Decoder extends Jackson2CodecSupport imple
 
 		ObjectReader reader = getObjectReader(elementType, hints);
 
-		return tokens.handle((tokenBuffer, sink) -> {
-			try {
-				Object value = reader.readValue(tokenBuffer.asParser(getObjectMapper()));
-				logValue(value, hints);
-				if (value != null) {
-					sink.next(value);
-				}
-			}
-			catch (IOException ex) {
-				sink.error(processException(ex));
-			}
-		});
+		return tokens.handle((tokenBuffer, sink) -> readValue(reader, tokenBuffer, hints, sink));
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * <p>If the {@link com.fasterxml.jackson.core.JsonFactory} supports
+	 * non-blocking parsing, the input is fed to the parser chunk by chunk as
+	 * it arrives, with each chunk released once parsed, rather than joined
+	 * into a single buffer and parsed at the end.
+	 */
 	@Override
 	public Mono<Object> decodeToMono(Publisher<DataBuffer> input, ResolvableType elementType,
 			@Nullable MimeType mimeType, @Nullable Map<String, Object> hints) {
 
-		return DataBufferUtils.join(input)
-				.map(dataBuffer -> decode(dataBuffer, elementType, mimeType, hints));
+		ObjectMapper mapper = getObjectMapper();
+		if (!mapper.getFactory().canParseAsync()) {
+			return DataBufferUtils.join(input)
+					.map(dataBuffer -> decode(dataBuffer, elementType, mimeType, hints));
+		}
+
+		Flux<TokenBuffer> tokens = Jackson2Tokenizer.tokenize(
+				Flux.from(input), mapper.getFactory(), mapper, false);
+
+		ObjectReader reader = getObjectReader(elementType, hints);
+
+		// Like ObjectReader#readValue, use the first value and ignore any that follow
+		return tokens.reduce((first, ignored) -> first)
+				.handle((tokenBuffer, sink) -> readValue(reader, tokenBuffer, hints, sink));
 	}
 
 	@Override
@@ -125,6 +134,21 @@ public abstract class AbstractJackson2Decoder extends Jackson2CodecSupport imple
 		}
 	}
 
+	private void readValue(ObjectReader reader, TokenBuffer tokenBuffer,
+			@Nullable Map<String, Object> hints, SynchronousSink<Object> sink) {
+
+		try {
+			Object value = reader.readValue(tokenBuffer.asParser(getObjectMapper()));
+			logValue(value, hints);
+			if (value != null) {
+				sink.next(value);
+			}
+		}
+		catch (IOException ex) {
+			sink.error(processException(ex));
+		}
+	}
+
 	private ObjectReader getObjectReader(ResolvableType elementType, @Nullable Map<String, Object> hints) {
 		Assert.notNull(elementType, "'elementType' must not be null");
 		MethodParameter param = getParameter(elementType);
@@ -0,0 +1,487 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.codec.multipart;
+
+import java.io.IOException;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.core.codec.Hints;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.PooledDataBuffer;
+import org.springframework.core.log.LogFormatUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ReactiveHttpInputMessage;
+import org.springframework.http.codec.HttpMessageReader;
+import org.springframework.http.codec.LoggingCodecSupport;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+
+/**
+ * Default {@code HttpMessageReader} for parsing {@code "multipart/form-data"}
+ * requests to a stream of {@link Part}'s, without depending on a third-party
+ * multipart library.
+ *
+ * <p>The request body is parsed as it arrives, without aggregating it, and the
+ * content of each part is kept in memory up to
+ * {@linkplain #setMaxInMemorySize(int) a configurable threshold}. Above that,
+ * the content is written to a temporary file through an
+ * {@link AsynchronousFileChannel}, and streamed back from that file with
+ * backpressure when the part's {@link Part#content() content} is consumed.
+ * As a result, the memory used for a request depends on the threshold and
+ * the number of buffers in flight, rather than on the size of the upload.
+ *
+ * <p>Note that a part is emitted only once its content has been received in
+ * full, so the content of a part cannot be consumed while it is still being
+ * uploaded. Form fields are always kept in memory, and a form field larger
+ * than the in-memory threshold is rejected with a {@link DecodingException}.
+ *
+ * <p>Temporary files of parts obtained through
+ * {@code ServerWebExchange#getMultipartData()} are deleted once the exchange
+ * has completed. When parts are read from this reader directly, use
+ * {@link Part#delete()} once a part has been handled.
+ *
+ * <p>This reader can be provided to {@link MultipartHttpMessageReader} in order
+ * to aggregate all parts into a Map.
+ *
+ * @since 5.2.1
+ * @see MultipartHttpMessageReader
+ * @see SynchronossPartHttpMessageReader
+ */
+public class DefaultPartHttpMessageReader extends LoggingCodecSupport implements HttpMessageReader<Part> {
+
+	private static final String FILE_PREFIX = "spring-multipart-";
+
+	private static final String FILE_SUFFIX = ".multipart";
+
+
+	private int maxInMemorySize = 256 * 1024;
+
+	private int maxHeadersSize = 8 * 1024;
+
+	private long maxDiskUsagePerPart = -1;
+
+	private int maxParts = -1;
+
+	@Nullable
+	private Path fileStorageDirectory;
+
+	private Scheduler blockingOperationScheduler = Schedulers.boundedElastic();
+
+	private Charset headersCharset = StandardCharsets.UTF_8;
+
+
+	/**
+	 * Configure the maximum amount of memory allowed per part. When the limit
+	 * is exceeded, file parts and other non-form-field parts are written to a
+	 * temporary file, while form fields are rejected.
+	 * <p>By default this is set to 256K. Use -1 to keep all parts in memory.
+	 * @param maxInMemorySize the in-memory limit in bytes, or -1 for unlimited
+	 */
+	public void setMaxInMemorySize(int maxInMemorySize) {
+		Assert.isTrue(maxInMemorySize >= -1, "maxInMemorySize must be -1 or greater");
+		this.maxInMemorySize = maxInMemorySize;
+	}
+
+	/**
+	 * Return the {@link #setMaxInMemorySize configured} in-memory limit.
+	 */
+	public int getMaxInMemorySize() {
+		return this.maxInMemorySize;
+	}
+
+	/**
+	 * Configure the maximum amount of memory allowed for the headers of a part.
+	 * <p>By default this is set to 8K.
+	 * @param maxHeadersSize the maximum size of the headers of a part in bytes
+	 */
+	public void setMaxHeadersSize(int maxHeadersSize) {
+		Assert.isTrue(maxHeadersSize > 0, "maxHeadersSize must be greater than 0");
+		this.maxHeadersSize = maxHeadersSize;
+	}
+
+	/**
+	 * Return the {@link #setMaxHeadersSize configured} headers limit.
+	 */
+	public int getMaxHeadersSize() {
+		return this.maxHeadersSize;
+	}
+
+	/**
+	 * Configure the maximum amount of disk space allowed per part. When the
+	 * limit is exceeded, the request is rejected with a {@link DecodingException}.
+	 * <p>By default this is set to -1, i.e. unlimited.
+	 * @param maxDiskUsagePerPart the disk limit in bytes, or -1 for unlimited
+	 */
+	public void setMaxDiskUsagePerPart(long maxDiskUsagePerPart) {
+		Assert.isTrue(maxDiskUsagePerPart >= -1, "maxDiskUsagePerPart must be -1 or greater");
+		this.maxDiskUsagePerPart = maxDiskUsagePerPart;
+	}
+
+	/**
+	 * Return the {@link #setMaxDiskUsagePerPart configured} disk limit.
+	 */
+	public long getMaxDiskUsagePerPart() {
+		return this.maxDiskUsagePerPart;
+	}
+
+	/**
+	 * Specify the maximum number of parts allowed in a given multipart request.
+	 * <p>By default this is set to -1, i.e. unlimited.
+	 * @param maxParts the maximum number of parts, or -1 for unlimited
+	 */
+	public void setMaxParts(int maxParts) {
+		Assert.isTrue(maxParts >= -1, "maxParts must be -1 or greater");
+		this.maxParts = maxParts;
+	}
+
+	/**
+	 * Return the {@link #setMaxParts configured} limit on the number of parts.
+	 */
+	public int getMaxParts() {
+		return this.maxParts;
+	}
+
+	/**
+	 * Set the directory used to store parts larger than
+	 * {@link #setMaxInMemorySize(int) maxInMemorySize}.
+	 * <p>By default, temporary files are created in the default temporary
+	 * directory, as determined by {@code java.io.tmpdir}.
+	 * @param fileStorageDirectory the directory for temporary files
+	 */
+	public void setFileStorageDirectory(Path fileStorageDirectory) {
+		Assert.notNull(fileStorageDirectory, "FileStorageDirectory must not be null");
+		Assert.isTrue(Files.isDirectory(fileStorageDirectory),
+				() -> "FileStorageDirectory is not a directory: " + fileStorageDirectory);
+		this.fileStorageDirectory = fileStorageDirectory;
+	}
+
+	/**
+	 * Set the Reactor {@link Scheduler} to be used for creating, copying and
+	 * deleting temporary files.
+	 * <p>By default, {@link Schedulers#boundedElastic()} is used.
+	 * @param blockingOperationScheduler the scheduler for blocking file operations
+	 */
+	public void setBlockingOperationScheduler(Scheduler blockingOperationScheduler) {
+		Assert.notNull(blockingOperationScheduler, "BlockingOperationScheduler must not be null");
+		this.blockingOperationScheduler = blockingOperationScheduler;
+	}
+
+	/**
+	 * Set the character set used to decode the headers of a part.
+	 * <p>By default this is set to UTF-8, as used by browsers for file names.
+	 * @param headersCharset the charset for part headers
+	 */
+	public void setHeadersCharset(Charset headersCharset) {
+		Assert.notNull(headersCharset, "HeadersCharset must not be null");
+		this.headersCharset = headersCharset;
+	}
+
+
+	@Override
+	public List<MediaType> getReadableMediaTypes() {
+		return Collections.singletonList(MediaType.MULTIPART_FORM_DATA);
+	}
+
+	@Override
+	public boolean canRead(ResolvableType elementType, @Nullable MediaType mediaType) {
+		return Part.class.equals(elementType.toClass()) &&
+				(mediaType == null || MediaType.MULTIPART_FORM_DATA.isCompatibleWith(mediaType));
+	}
+
+
+	@Override
+	public Flux<Part> read(ResolvableType elementType, ReactiveHttpInputMessage message, Map<String, Object> hints) {
+		return Flux.defer(() -> {
+			byte[] boundary = getBoundary(message.getHeaders());
+			if (boundary == null) {
+				return Flux.error(new DecodingException("No multipart boundary found in Content-Type: \"" +
+						message.getHeaders().getContentType() + "\""));
+			}
+			Flux<MultipartParser.Token> tokens = MultipartParser.parse(
+					message.getBody(), boundary, this.maxHeadersSize, this.headersCharset);
+			return new PartGenerator().generate(tokens);
+		})
+		.doOnNext(part -> {
+			if (!Hints.isLoggingSuppressed(hints)) {
+				LogFormatUtils.traceDebug(logger, traceOn -> Hints.getLogPrefix(hints) + "Parsed " +
+						(isEnableLoggingRequestDetails() ?
+								LogFormatUtils.formatValue(part, !traceOn) :
+								"parts '" + part.name() + "' (content masked)"));
+			}
+		});
+	}
+
+	@Override
+	public Mono<Part> readMono(ResolvableType elementType, ReactiveHttpInputMessage message, Map<String, Object> hints) {
+		return Mono.error(new UnsupportedOperationException("Cannot read multipart request body into single Part"));
+	}
+
+	@Nullable
+	private static byte[] getBoundary(HttpHeaders headers) {
+		MediaType contentType = headers.getContentType();
+		if (contentType != null) {
+			String boundary = contentType.getParameter("boundary");
+			if (StringUtils.hasLength(boundary)) {
+				if (boundary.length() > 2 && boundary.startsWith("\"") && boundary.endsWith("\"")) {
+					boundary = boundary.substring(1, boundary.length() - 1);
+				}
+				return boundary.getBytes(StandardCharsets.ISO_8859_1);
+			}
+		}
+		return null;
+	}
+
+
+	/**
+	 * Turns the tokens of a single request into parts. Tokens are handled one
+	 * at a time, so that the body of a part is written to disk before further
+	 * input is requested. Body tokens received but not yet handled are tracked,
+	 * so that they can be released if parsing ends early.
+	 */
+	private final class PartGenerator {
+
+		private final Queue<MultipartParser.BodyToken> pendingTokens = new ConcurrentLinkedQueue<>();
+
+		@Nullable
+		private PartBuilder current;
+
+		private int partCount;
+
+		Flux<Part> generate(Flux<MultipartParser.Token> tokens) {
+			return tokens
+					.doOnNext(token -> {
+						if (token instanceof MultipartParser.BodyToken) {
+							this.pendingTokens.add((MultipartParser.BodyToken) token);
+						}
+					})
+					.concatMap(this::handleToken)
+					.concatWith(Mono.defer(this::completeCurrent))
+					.doFinally(signalType -> {
+						if (signalType != SignalType.ON_COMPLETE) {
+							dispose();
+						}
+					})
+					.doOnDiscard(PooledDataBuffer.class, DataBufferUtils::release);
+		}
+
+		private Publisher<Part> handleToken(MultipartParser.Token token) {
+			if (token instanceof MultipartParser.HeadersToken) {
+				HttpHeaders headers = ((MultipartParser.HeadersToken) token).headers();
+				Mono<Part> previous = completeCurrent();
+				if (maxParts != -1 && ++this.partCount > maxParts) {
+					return previous.concatWith(Mono.error(
+							new DecodingException("Too many parts (" + maxParts + " allowed)")));
+				}
+				if (headers.getContentDisposition().getName() == null) {
+					return previous.concatWith(Mono.error(new DecodingException(
+							"No name found in Content-Disposition of part: " + headers)));
+				}
+				this.current = new PartBuilder(headers);
+				return previous;
+			}
+			MultipartParser.BodyToken bodyToken = (MultipartParser.BodyToken) token;
+			this.pendingTokens.remove(bodyToken);
+			PartBuilder builder = this.current;
+			if (builder == null) {
+				DataBufferUtils.release(bodyToken.buffer());
+				return Mono.error(new IllegalStateException("Body received before part headers"));
+			}
+			return builder.write(bodyToken.buffer()).then(Mono.empty());
+		}
+
+		private Mono<Part> completeCurrent() {
+			PartBuilder builder = this.current;
+			this.current = null;
+			return (builder != null ? builder.complete() : Mono.empty());
+		}
+
+		private void dispose() {
+			PartBuilder builder = this.current;
+			this.current = null;
+			if (builder != null) {
+				builder.dispose();
+			}
+			MultipartParser.BodyToken token;
+			while ((token = this.pendingTokens.poll()) != null) {
+				DataBufferUtils.release(token.buffer());
+			}
+		}
+	}
+
+
+	/**
+	 * Collects the content of a single part, in memory up to the configured
+	 * limit, and in a temporary file beyond that.
+	 */
+	private final class PartBuilder {
+
+		private final HttpHeaders headers;
+
+		private final boolean formField;
+
+		private final List<DataBuffer> memory = new ArrayList<>();
+
+		private long memorySize;
+
+		@Nullable
+		private Path file;
+
+		@Nullable
+		private AsynchronousFileChannel channel;
+
+		private long fileSize;
+
+		PartBuilder(HttpHeaders headers) {
+			this.headers = headers;
+			this.formField = DefaultParts.isFormField(headers);
+		}
+
+		Mono<Void> write(DataBuffer buffer) {
+			if (this.channel != null) {
+				return writeToFile(buffer);
+			}
+			this.memory.add(buffer);
+			this.memorySize += buffer.readableByteCount();
+			if (maxInMemorySize == -1 || this.memorySize <= maxInMemorySize) {
+				return Mono.empty();
+			}
+			if (this.formField) {
+				return Mono.error(new DecodingException("Form field part '" + getName() +
+						"' exceeded the in-memory limit of " + maxInMemorySize + " bytes"));
+			}
+			return createFile().then(Mono.defer(this::flushMemory));
+		}
+
+		private Mono<Void> createFile() {
+			return Mono.<Void>fromRunnable(() -> {
+				try {
+					this.file = (fileStorageDirectory != null ?
+							Files.createTempFile(fileStorageDirectory, FILE_PREFIX, FILE_SUFFIX) :
+							Files.createTempFile(FILE_PREFIX, FILE_SUFFIX));
+					this.channel = AsynchronousFileChannel.open(this.file, StandardOpenOption.WRITE);
+				}
+				catch (IOException ex) {
+					throw new DecodingException("Could not create temporary file for part '" + getName() + "'", ex);
+				}
+			}).subscribeOn(blockingOperationScheduler);
+		}
+
+		private Mono<Void> flushMemory() {
+			if (this.memory.isEmpty()) {
+				return Mono.empty();
+			}
+			DataBuffer buffer = this.memory.remove(0);
+			this.memorySize -= buffer.readableByteCount();
+			return writeToFile(buffer).then(Mono.defer(this::flushMemory));
+		}
+
+		private Mono<Void> writeToFile(DataBuffer buffer) {
+			AsynchronousFileChannel channel = this.channel;
+			Assert.state(channel != null, "No file channel");
+			int size = buffer.readableByteCount();
+			if (maxDiskUsagePerPart != -1 && this.fileSize + size > maxDiskUsagePerPart) {
+				DataBufferUtils.release(buffer);
+				return Mono.error(new DecodingException("Part '" + getName() +
+						"' exceeded the disk usage limit of " + maxDiskUsagePerPart + " bytes"));
+			}
+			long position = this.fileSize;
+			this.fileSize += size;
+			return DataBufferUtils.write(Mono.just(buffer), channel, position)
+					.then()
+					.doFinally(signalType -> DataBufferUtils.release(buffer));
+		}
+
+		Mono<Part> complete() {
+			if (this.channel != null && this.file != null) {
+				closeChannel();
+				return Mono.just(DefaultParts.part(this.headers, this.file, blockingOperationScheduler));
+			}
+			byte[] content = new byte[(int) this.memorySize];
+			int offset = 0;
+			for (DataBuffer buffer : this.memory) {
+				int length = buffer.readableByteCount();
+				buffer.read(content, offset, length);
+				offset += length;
+				DataBufferUtils.release(buffer);
+			}
+			this.memory.clear();
+			if (this.formField) {
+				String value = new String(content, DefaultParts.formFieldCharset(this.headers));
+				return Mono.just(DefaultParts.formFieldPart(this.headers, value));
+			}
+			return Mono.just(DefaultParts.part(this.headers, content));
+		}
+
+		void dispose() {
+			this.memory.forEach(DataBufferUtils::release);
+			this.memory.clear();
+			closeChannel();
+			Path file = this.file;
+			if (file != null) {
+				blockingOperationScheduler.schedule(() -> {
+					try {
+						Files.deleteIfExists(file);
+					}
+					catch (IOException ex) {
+						// ignore
+					}
+				});
+			}
+		}
+
+		private void closeChannel() {
+			AsynchronousFileChannel channel = this.channel;
+			if (channel != null) {
+				try {
+					channel.close();
+				}
+				catch (IOException ex) {
+					// ignore
+				}
+			}
+		}
+
+		private String getName() {
+			String name = this.headers.getContentDisposition().getName();
+			return (name != null ? name : "");
+		}
+	}
+
+}
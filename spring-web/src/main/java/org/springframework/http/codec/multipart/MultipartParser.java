@@ -0,0 +1,329 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.codec.multipart;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import org.springframework.core.codec.DecodingException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+
+/**
+ * Parser that splits a stream of {@link DataBuffer DataBuffers} into a stream
+ * of {@link Token tokens}: for each part a {@link HeadersToken} followed by
+ * zero or more {@link BodyToken BodyTokens}.
+ *
+ * <p>The parser never aggregates body content: the boundary is searched for
+ * incrementally, and body tokens are slices of the incoming buffers, so that
+ * memory use is bounded by the size of the buffers in flight rather than by
+ * the size of the parts. Only bytes that may be the start of a boundary split
+ * across buffers are held back, and since those are by definition a prefix of
+ * the boundary, they are not retained but recreated from the boundary itself.
+ *
+ * @since 5.2.1
+ * @see DefaultPartHttpMessageReader
+ */
+final class MultipartParser {
+
+	private static final byte CR = '\r';
+
+	private static final byte LF = '\n';
+
+	private static final byte HYPHEN = '-';
+
+	private static final byte[] HEADERS_END = {CR, LF, CR, LF};
+
+	private static final int[] HEADERS_END_TABLE = failureTable(HEADERS_END);
+
+
+	private final byte[] delimiter;
+
+	private final int[] delimiterTable;
+
+	private final int maxHeadersSize;
+
+	private final Charset headersCharset;
+
+	private State state = State.PREAMBLE;
+
+	private int matched;
+
+	private final byte[] afterDelimiter = new byte[2];
+
+	private int afterDelimiterCount;
+
+	private final ByteArrayOutputStream headerBytes = new ByteArrayOutputStream(256);
+
+
+	private MultipartParser(byte[] boundary, int maxHeadersSize, Charset headersCharset) {
+		this.delimiter = new byte[boundary.length + 4];
+		this.delimiter[0] = CR;
+		this.delimiter[1] = LF;
+		this.delimiter[2] = HYPHEN;
+		this.delimiter[3] = HYPHEN;
+		System.arraycopy(boundary, 0, this.delimiter, 4, boundary.length);
+		this.delimiterTable = failureTable(this.delimiter);
+		this.maxHeadersSize = maxHeadersSize;
+		this.headersCharset = headersCharset;
+		// The first boundary may appear at the very start of the body, without CRLF
+		this.matched = 2;
+	}
+
+
+	/**
+	 * Parse the given stream of buffers into a stream of tokens.
+	 * <p>Incoming buffers are released once parsed; the returned
+	 * {@link BodyToken BodyTokens} hold buffers that need to be released
+	 * by the consumer.
+	 * @param buffers the body of a multipart message
+	 * @param boundary the multipart boundary
+	 * @param maxHeadersSize the maximum size of the headers of a single part
+	 * @param headersCharset the charset to decode part headers with
+	 * @return the stream of tokens
+	 */
+	public static Flux<Token> parse(Flux<DataBuffer> buffers, byte[] boundary, int maxHeadersSize,
+			Charset headersCharset) {
+
+		return Flux.defer(() -> {
+			MultipartParser parser = new MultipartParser(boundary, maxHeadersSize, headersCharset);
+			return buffers
+					.concatMapIterable(parser::parseBuffer)
+					.concatWith(Mono.defer(parser::complete))
+					.doOnDiscard(BodyToken.class, token -> DataBufferUtils.release(token.buffer()));
+		});
+	}
+
+
+	private List<Token> parseBuffer(DataBuffer buffer) {
+		List<Token> result = new ArrayList<>(2);
+		try {
+			int position = buffer.readPosition();
+			int end = buffer.writePosition();
+			while (position < end && this.state != State.EPILOGUE) {
+				switch (this.state) {
+					case PREAMBLE:
+					case BODY:
+						position = parseBody(buffer, position, end, result);
+						break;
+					case AFTER_DELIMITER:
+						position = parseAfterDelimiter(buffer, position, end);
+						break;
+					case HEADERS:
+						position = parseHeaders(buffer, position, end, result);
+						break;
+					default:
+						throw new IllegalStateException("Unexpected state: " + this.state);
+				}
+			}
+			return result;
+		}
+		catch (Throwable ex) {
+			result.forEach(token -> {
+				if (token instanceof BodyToken) {
+					DataBufferUtils.release(((BodyToken) token).buffer());
+				}
+			});
+			throw ex;
+		}
+		finally {
+			DataBufferUtils.release(buffer);
+		}
+	}
+
+	private int parseBody(DataBuffer buffer, int start, int end, List<Token> result) {
+		int held = this.matched;
+		int matched = held;
+		for (int i = start; i < end; i++) {
+			matched = match(this.delimiter, this.delimiterTable, matched, buffer.getByte(i));
+			if (matched == this.delimiter.length) {
+				emitBody(buffer, start, held, held + (i + 1 - start) - this.delimiter.length, result);
+				this.matched = 0;
+				this.afterDelimiterCount = 0;
+				this.state = State.AFTER_DELIMITER;
+				return i + 1;
+			}
+		}
+		emitBody(buffer, start, held, held + (end - start) - matched, result);
+		this.matched = matched;
+		return end;
+	}
+
+	/**
+	 * Emit the first {@code length} bytes of the held back delimiter prefix
+	 * followed by the buffer contents from {@code start}.
+	 */
+	private void emitBody(DataBuffer buffer, int start, int held, int length, List<Token> result) {
+		if (this.state == State.PREAMBLE || length <= 0) {
+			return;
+		}
+		int fromHeld = Math.min(held, length);
+		if (fromHeld > 0) {
+			result.add(new BodyToken(buffer.factory().wrap(Arrays.copyOf(this.delimiter, fromHeld))));
+		}
+		int fromBuffer = length - fromHeld;
+		if (fromBuffer > 0) {
+			result.add(new BodyToken(DataBufferUtils.retain(buffer.slice(start, fromBuffer))));
+		}
+	}
+
+	private int parseAfterDelimiter(DataBuffer buffer, int start, int end) {
+		int position = start;
+		while (position < end && this.afterDelimiterCount < 2) {
+			byte b = buffer.getByte(position++);
+			if (this.afterDelimiterCount == 0 && (b == ' ' || b == '\t')) {
+				// Transport padding
+				continue;
+			}
+			this.afterDelimiter[this.afterDelimiterCount++] = b;
+		}
+		if (this.afterDelimiterCount == 2) {
+			if (this.afterDelimiter[0] == HYPHEN && this.afterDelimiter[1] == HYPHEN) {
+				this.state = State.EPILOGUE;
+			}
+			else if (this.afterDelimiter[0] == CR && this.afterDelimiter[1] == LF) {
+				this.headerBytes.reset();
+				// The CRLF that ends the delimiter line also starts the headers end
+				this.matched = 2;
+				this.state = State.HEADERS;
+			}
+			else {
+				throw new DecodingException("Invalid multipart boundary line");
+			}
+		}
+		return position;
+	}
+
+	private int parseHeaders(DataBuffer buffer, int start, int end, List<Token> result) {
+		int matched = this.matched;
+		for (int i = start; i < end; i++) {
+			byte b = buffer.getByte(i);
+			matched = match(HEADERS_END, HEADERS_END_TABLE, matched, b);
+			this.headerBytes.write(b);
+			if (this.headerBytes.size() > this.maxHeadersSize) {
+				throw new DecodingException(
+						"Part headers exceeded the limit of " + this.maxHeadersSize + " bytes");
+			}
+			if (matched == HEADERS_END.length) {
+				result.add(new HeadersToken(parseHeaders(this.headerBytes.toByteArray())));
+				this.headerBytes.reset();
+				this.matched = 0;
+				this.state = State.BODY;
+				return i + 1;
+			}
+		}
+		this.matched = matched;
+		return end;
+	}
+
+	private HttpHeaders parseHeaders(byte[] bytes) {
+		HttpHeaders headers = new HttpHeaders();
+		String[] lines = new String(bytes, this.headersCharset).split("\r\n");
+		for (String line : lines) {
+			int index = line.indexOf(':');
+			if (index > 0) {
+				headers.add(line.substring(0, index).trim(), line.substring(index + 1).trim());
+			}
+		}
+		return headers;
+	}
+
+	private Mono<Token> complete() {
+		if (this.state == State.EPILOGUE) {
+			return Mono.empty();
+		}
+		return Mono.error(new DecodingException(this.state == State.PREAMBLE ?
+				"Could not find first boundary" : "Could not find end of multipart body"));
+	}
+
+
+	/**
+	 * Advance the given number of matched bytes by one byte, using the
+	 * Knuth-Morris-Pratt failure table of the pattern.
+	 */
+	private static int match(byte[] pattern, int[] table, int matched, byte b) {
+		while (matched > 0 && b != pattern[matched]) {
+			matched = table[matched - 1];
+		}
+		return (b == pattern[matched] ? matched + 1 : matched);
+	}
+
+	private static int[] failureTable(byte[] pattern) {
+		int[] table = new int[pattern.length];
+		int matched = 0;
+		for (int i = 1; i < pattern.length; i++) {
+			matched = match(pattern, table, matched, pattern[i]);
+			table[i] = matched;
+		}
+		return table;
+	}
+
+
+	private enum State {
+
+		PREAMBLE, HEADERS, BODY, AFTER_DELIMITER, EPILOGUE
+	}
+
+
+	/**
+	 * Output of the parser.
+	 */
+	abstract static class Token {
+	}
+
+
+	/**
+	 * Token that marks the start of a new part.
+	 */
+	static final class HeadersToken extends Token {
+
+		private final HttpHeaders headers;
+
+		HeadersToken(HttpHeaders headers) {
+			this.headers = headers;
+		}
+
+		public HttpHeaders headers() {
+			return this.headers;
+		}
+	}
+
+
+	/**
+	 * Token for a chunk of the body of the current part.
+	 */
+	static final class BodyToken extends Token {
+
+		private final DataBuffer buffer;
+
+		BodyToken(DataBuffer buffer) {
+			this.buffer = buffer;
+		}
+
+		public DataBuffer buffer() {
+			return this.buffer;
+		}
+	}
+
+}
@@ -37,6 +37,7 @@ import org.springframework.core.io.buffer.DataBufferFactory;
 import org.springframework.core.io.buffer.DataBufferUtils;
 import org.springframework.core.io.buffer.DataBufferWrapper;
 import org.springframework.core.io.buffer.PooledDataBuffer;
+import org.springframework.core.io.buffer.PooledDataBufferFactory;
 import org.springframework.http.HttpCookie;
 import org.springframework.http.HttpHeaders;
 import org.springframework.lang.Nullable;
@@ -169,6 +170,9 @@ class UndertowServerHttpRequest extends AbstractServerHttpRequest {
 		@Override
 		@Nullable
 		protected DataBuffer read() throws IOException {
+			if (this.bufferFactory instanceof PooledDataBufferFactory) {
+				return readIntoDataBuffer();
+			}
 			PooledByteBuffer pooledByteBuffer = this.byteBufferPool.allocate();
 			boolean release = true;
 			try {
@@ -197,6 +201,39 @@ class UndertowServerHttpRequest extends AbstractServerHttpRequest {
 			}
 		}
 
+		/**
+		 * Read directly into a buffer from the configured pool, rather than
+		 * into a buffer from Undertow's pool that is then wrapped.
+		 */
+		@Nullable
+		private DataBuffer readIntoDataBuffer() throws IOException {
+			int capacity = this.byteBufferPool.getBufferSize();
+			DataBuffer dataBuffer = this.bufferFactory.allocateBuffer(capacity);
+			boolean release = true;
+			try {
+				int read = this.channel.read(dataBuffer.asByteBuffer(0, capacity));
+
+				if (rsReadLogger.isTraceEnabled()) {
+					rsReadLogger.trace(getLogPrefix() + "Read " + read + (read != -1 ? " bytes" : ""));
+				}
+
+				if (read > 0) {
+					dataBuffer.writePosition(read);
+					release = false;
+					return dataBuffer;
+				}
+				else if (read == -1) {
+					onAllDataRead();
+				}
+				return null;
+			}
+			finally {
+				if (release) {
+					DataBufferUtils.release(dataBuffer);
+				}
+			}
+		}
+
 		@Override
 		protected void discardData() {
 			// Nothing to discard since we pass data buffers on immediately..
@@ -348,8 +348,8 @@ public final class WebAsyncManager {
 		if (taskExecutorWarning && logger.isWarnEnabled()) {
 			synchronized (DEFAULT_TASK_EXECUTOR) {
 				AsyncTaskExecutor executor = this.taskExecutor;
-				if (taskExecutorWarning &&
-						(executor instanceof SimpleAsyncTaskExecutor || executor instanceof SyncTaskExecutor)) {
+				if (taskExecutorWarning && ((executor instanceof SimpleAsyncTaskExecutor &&
+						!((SimpleAsyncTaskExecutor) executor).isVirtualThreads()) || executor instanceof SyncTaskExecutor)) {
 					String executorTypeName = executor.getClass().getSimpleName();
 					logger.warn("\n!!!\n" +
 							"An Executor is required to handle java.util.concurrent.Callable return values.\n" +
@@ -18,11 +18,11 @@ package org.springframework.web.util.pattern;
 
 import java.util.Comparator;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
 import org.springframework.http.server.PathContainer;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
+import org.springframework.util.ConcurrentLruCache;
 import org.springframework.util.RouteMatcher;
 
 /**
@@ -35,9 +35,12 @@ import org.springframework.util.RouteMatcher;
  */
 public class PathPatternRouteMatcher implements RouteMatcher {
 
+	private static final int CACHE_LIMIT = 1024;
+
+
 	private final PathPatternParser parser;
 
-	private final Map<String, PathPattern> pathPatternCache = new ConcurrentHashMap<>();
+	private final ConcurrentLruCache<String, PathPattern> pathPatternCache;
 
 
 	/**
@@ -49,6 +52,7 @@ public class PathPatternRouteMatcher implements RouteMatcher {
 		this.parser = new PathPatternParser();
 		this.parser.setPathOptions(PathContainer.Options.MESSAGE_ROUTE);
 		this.parser.setMatchOptionalTrailingSeparator(false);
+		this.pathPatternCache = new ConcurrentLruCache<>(CACHE_LIMIT, this.parser::parse);
 	}
 
 	/**
@@ -57,6 +61,7 @@ public class PathPatternRouteMatcher implements RouteMatcher {
 	public PathPatternRouteMatcher(PathPatternParser parser) {
 		Assert.notNull(parser, "PathPatternParser must not be null");
 		this.parser = parser;
+		this.pathPatternCache = new ConcurrentLruCache<>(CACHE_LIMIT, this.parser::parse);
 	}
 
 
@@ -93,7 +98,7 @@ public class PathPatternRouteMatcher implements RouteMatcher {
 	}
 
 	private PathPattern getPathPattern(String pattern) {
-		return this.pathPatternCache.computeIfAbsent(pattern, this.parser::parse);
+		return this.pathPatternCache.get(pattern);
 	}
 
 	private PathContainer getPathContainer(Route route) {
@@ -0,0 +1,278 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.client;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.lang.Nullable;
+import org.springframework.util.StreamUtils;
+
+/**
+ * {@link ClientHttpRequest} implementation based on the Java 11 HTTP client,
+ * streaming the request body to the client while it is being written.
+ *
+ * <p>Created via the {@link JdkClientHttpRequestFactory}.
+ *
+ * @since 5.2.1
+ */
+final class JdkClientHttpRequest extends AbstractClientHttpRequest {
+
+	private final HttpClient httpClient;
+
+	private final URI uri;
+
+	private final HttpMethod method;
+
+	@Nullable
+	private final Duration readTimeout;
+
+	private final int chunkSize;
+
+	private final JdkClientHttpRequestFactory.ExchangeMetrics metrics;
+
+	@Nullable
+	private BodyOutputStream body;
+
+	@Nullable
+	private CompletableFuture<HttpResponse<InputStream>> responseFuture;
+
+
+	JdkClientHttpRequest(HttpClient httpClient, URI uri, HttpMethod method, @Nullable Duration readTimeout,
+			int chunkSize, JdkClientHttpRequestFactory.ExchangeMetrics metrics) {
+
+		this.httpClient = httpClient;
+		this.uri = uri;
+		this.method = method;
+		this.readTimeout = readTimeout;
+		this.chunkSize = chunkSize;
+		this.metrics = metrics;
+	}
+
+
+	@Override
+	public HttpMethod getMethod() {
+		return this.method;
+	}
+
+	@Override
+	public String getMethodValue() {
+		return this.method.name();
+	}
+
+	@Override
+	public URI getURI() {
+		return this.uri;
+	}
+
+
+	@Override
+	protected OutputStream getBodyInternal(HttpHeaders headers) throws IOException {
+		if (this.body == null) {
+			SubmissionPublisher<ByteBuffer> publisher = this.httpClient.executor()
+					.map(executor -> new SubmissionPublisher<ByteBuffer>(executor, Flow.defaultBufferSize()))
+					.orElseGet(SubmissionPublisher::new);
+			CountDownLatch subscribed = new CountDownLatch(1);
+			Flow.Publisher<ByteBuffer> bodyPublisher = subscriber -> {
+				publisher.subscribe(subscriber);
+				subscribed.countDown();
+			};
+			long contentLength = headers.getContentLength();
+			this.responseFuture = sendAsync(headers, (contentLength > 0 ?
+					HttpRequest.BodyPublishers.fromPublisher(bodyPublisher, contentLength) :
+					HttpRequest.BodyPublishers.fromPublisher(bodyPublisher)));
+			this.body = new BodyOutputStream(publisher, subscribed, this.responseFuture, this.chunkSize);
+		}
+		return StreamUtils.nonClosing(this.body);
+	}
+
+	@Override
+	protected ClientHttpResponse executeInternal(HttpHeaders headers) throws IOException {
+		CompletableFuture<HttpResponse<InputStream>> responseFuture;
+		if (this.body != null && this.responseFuture != null) {
+			this.body.close();
+			responseFuture = this.responseFuture;
+		}
+		else {
+			responseFuture = sendAsync(headers, HttpRequest.BodyPublishers.noBody());
+		}
+		return new JdkClientHttpResponse(awaitResponse(responseFuture));
+	}
+
+	private CompletableFuture<HttpResponse<InputStream>> sendAsync(
+			HttpHeaders headers, HttpRequest.BodyPublisher bodyPublisher) {
+
+		HttpRequest.Builder builder = HttpRequest.newBuilder(this.uri).method(this.method.name(), bodyPublisher);
+		if (this.readTimeout != null) {
+			builder.timeout(this.readTimeout);
+		}
+		headers.forEach((headerName, headerValues) -> {
+			if (!JdkHttpClientHeaders.DISALLOWED_HEADERS.contains(headerName.toLowerCase(Locale.ENGLISH))) {
+				for (String headerValue : headerValues) {
+					builder.header(headerName, headerValue);
+				}
+			}
+		});
+		this.metrics.exchangeStarted();
+		return this.httpClient.sendAsync(builder.build(), HttpResponse.BodyHandlers.ofInputStream())
+				.whenComplete((response, ex) -> {
+					if (response != null) {
+						this.metrics.exchangeCompleted(response.version());
+					}
+					else {
+						this.metrics.exchangeFailed();
+					}
+				});
+	}
+
+	static HttpResponse<InputStream> awaitResponse(CompletableFuture<HttpResponse<InputStream>> responseFuture)
+			throws IOException {
+
+		try {
+			return responseFuture.get();
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			responseFuture.cancel(true);
+			throw new InterruptedIOException("Interrupted while waiting for the response");
+		}
+		catch (ExecutionException ex) {
+			Throwable cause = ex.getCause();
+			if (cause instanceof IOException) {
+				throw (IOException) cause;
+			}
+			throw new IOException(cause != null ? cause.getMessage() : ex.getMessage(), cause);
+		}
+	}
+
+
+	/**
+	 * {@code OutputStream} that hands over written bytes to the client in
+	 * chunks, blocking while the client is not ready to consume more of them.
+	 */
+	private static class BodyOutputStream extends OutputStream {
+
+		private final SubmissionPublisher<ByteBuffer> publisher;
+
+		private final CountDownLatch subscribed;
+
+		private final CompletableFuture<HttpResponse<InputStream>> responseFuture;
+
+		private final byte[] buffer;
+
+		private int count;
+
+		private boolean closed;
+
+		BodyOutputStream(SubmissionPublisher<ByteBuffer> publisher, CountDownLatch subscribed,
+				CompletableFuture<HttpResponse<InputStream>> responseFuture, int chunkSize) {
+
+			this.publisher = publisher;
+			this.subscribed = subscribed;
+			this.responseFuture = responseFuture;
+			this.buffer = new byte[chunkSize];
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			if (this.count == this.buffer.length) {
+				flush();
+			}
+			this.buffer[this.count++] = (byte) b;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			while (len > 0) {
+				if (this.count == this.buffer.length) {
+					flush();
+				}
+				int n = Math.min(len, this.buffer.length - this.count);
+				System.arraycopy(b, off, this.buffer, this.count, n);
+				this.count += n;
+				off += n;
+				len -= n;
+			}
+		}
+
+		@Override
+		public void flush() throws IOException {
+			if (this.closed) {
+				throw new IOException("Stream closed");
+			}
+			if (this.count > 0) {
+				awaitSubscriber();
+				// Items submitted after the client cancelled its subscription,
+				// e.g. on an early error response, are dropped by the publisher
+				this.publisher.submit(ByteBuffer.wrap(Arrays.copyOf(this.buffer, this.count)));
+				this.count = 0;
+			}
+		}
+
+		@Override
+		public void close() throws IOException {
+			if (!this.closed) {
+				try {
+					flush();
+				}
+				finally {
+					this.closed = true;
+					this.publisher.close();
+				}
+			}
+		}
+
+		/**
+		 * The publisher drops items until the client has subscribed, which
+		 * happens once the connection has been established.
+		 */
+		private void awaitSubscriber() throws IOException {
+			try {
+				while (!this.subscribed.await(100, TimeUnit.MILLISECONDS)) {
+					if (this.responseFuture.isDone()) {
+						awaitResponse(this.responseFuture);
+						throw new IOException("Response received before the request body was sent");
+					}
+				}
+			}
+			catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				this.responseFuture.cancel(true);
+				throw new InterruptedIOException("Interrupted while waiting for the connection");
+			}
+		}
+	}
+
+}
@@ -0,0 +1,227 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.client;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * {@link ClientHttpRequestFactory} implementation that uses the Java 11
+ * {@link HttpClient} to create requests.
+ *
+ * <p>Request bodies are streamed to the client as they are written rather
+ * than buffered in memory; wrap this factory in a
+ * {@link BufferingClientHttpRequestFactory} where buffering is required.
+ * The default client prefers HTTP/2, so that concurrent requests to the same
+ * origin are multiplexed over a shared connection, while HTTP/1.1 connections
+ * are kept alive and pooled by the client itself.
+ *
+ * <p>Requires Java 11 or higher at runtime.
+ *
+ * @since 5.2.1
+ * @see org.springframework.web.client.RestTemplate
+ * @see org.springframework.http.client.reactive.JdkClientHttpConnector
+ */
+public class JdkClientHttpRequestFactory implements ClientHttpRequestFactory {
+
+	private static final int DEFAULT_CHUNK_SIZE = 8192;
+
+
+	private final HttpClient httpClient;
+
+	@Nullable
+	private Duration readTimeout;
+
+	private int chunkSize = DEFAULT_CHUNK_SIZE;
+
+	private final ExchangeMetrics metrics = new ExchangeMetrics();
+
+
+	/**
+	 * Create a factory with a default {@link HttpClient} that prefers HTTP/2
+	 * and runs on the client's default executor.
+	 */
+	public JdkClientHttpRequestFactory() {
+		this(HttpClient.newBuilder().version(HttpClient.Version.HTTP_2).build());
+	}
+
+	/**
+	 * Create a factory with a default {@link HttpClient} that prefers HTTP/2
+	 * and runs asynchronous tasks, such as streaming request bodies to the
+	 * server, on the given executor.
+	 * @param executor the executor to use
+	 */
+	public JdkClientHttpRequestFactory(Executor executor) {
+		this(HttpClient.newBuilder().version(HttpClient.Version.HTTP_2).executor(executor).build());
+	}
+
+	/**
+	 * Create a factory with the given {@link HttpClient} instance, e.g.
+	 * configured with a connect timeout, proxy or SSL context.
+	 * @param httpClient the client to use
+	 */
+	public JdkClientHttpRequestFactory(HttpClient httpClient) {
+		Assert.notNull(httpClient, "HttpClient must not be null");
+		this.httpClient = httpClient;
+	}
+
+
+	/**
+	 * Set the timeout for receiving the response headers of each request.
+	 * <p>Default is none, i.e. the client waits indefinitely.
+	 * @see java.net.http.HttpRequest.Builder#timeout(Duration)
+	 */
+	public void setReadTimeout(Duration readTimeout) {
+		Assert.notNull(readTimeout, "Read timeout must not be null");
+		Assert.isTrue(!readTimeout.isNegative() && !readTimeout.isZero(), "Read timeout must be positive");
+		this.readTimeout = readTimeout;
+	}
+
+	/**
+	 * Set the size of the chunks in which request bodies are handed over to
+	 * the client as they are written.
+	 * <p>Default is 8192 bytes.
+	 */
+	public void setChunkSize(int chunkSize) {
+		Assert.isTrue(chunkSize > 0, "Chunk size must be greater than 0");
+		this.chunkSize = chunkSize;
+	}
+
+	/**
+	 * Return the underlying {@link HttpClient}.
+	 */
+	public HttpClient getHttpClient() {
+		return this.httpClient;
+	}
+
+	/**
+	 * Return the metrics for the exchanges performed through this factory.
+	 */
+	public ExchangeMetrics getMetrics() {
+		return this.metrics;
+	}
+
+
+	@Override
+	public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod) {
+		return new JdkClientHttpRequest(this.httpClient, uri, httpMethod, this.readTimeout, this.chunkSize, this.metrics);
+	}
+
+
+	/**
+	 * Metrics for the exchanges performed through a {@link JdkClientHttpRequestFactory}.
+	 * <p>The {@link HttpClient} does not expose its connection pool, so reuse
+	 * is reflected by the negotiated protocol version: HTTP/2 exchanges with
+	 * the same origin are multiplexed over a single connection, whereas
+	 * HTTP/1.1 exchanges reuse pooled connections only one at a time, so the
+	 * {@linkplain #getPeakConcurrentExchanges() peak concurrency} bounds the
+	 * number of HTTP/1.1 connections needed.
+	 */
+	public static final class ExchangeMetrics {
+
+		private final LongAdder exchanges = new LongAdder();
+
+		private final LongAdder http2Exchanges = new LongAdder();
+
+		private final LongAdder failedExchanges = new LongAdder();
+
+		private final AtomicInteger activeExchanges = new AtomicInteger();
+
+		private final AtomicInteger peakConcurrentExchanges = new AtomicInteger();
+
+		ExchangeMetrics() {
+		}
+
+		void exchangeStarted() {
+			int active = this.activeExchanges.incrementAndGet();
+			this.peakConcurrentExchanges.accumulateAndGet(active, Math::max);
+		}
+
+		void exchangeCompleted(HttpClient.Version version) {
+			this.activeExchanges.decrementAndGet();
+			this.exchanges.increment();
+			if (version == HttpClient.Version.HTTP_2) {
+				this.http2Exchanges.increment();
+			}
+		}
+
+		void exchangeFailed() {
+			this.activeExchanges.decrementAndGet();
+			this.failedExchanges.increment();
+		}
+
+		/**
+		 * Return the number of exchanges that received a response.
+		 */
+		public long getExchanges() {
+			return this.exchanges.sum();
+		}
+
+		/**
+		 * Return the number of exchanges that received a response over HTTP/2,
+		 * i.e. over a multiplexed connection.
+		 */
+		public long getHttp2Exchanges() {
+			return this.http2Exchanges.sum();
+		}
+
+		/**
+		 * Return the number of exchanges that received a response over HTTP/1.1.
+		 */
+		public long getHttp11Exchanges() {
+			return getExchanges() - getHttp2Exchanges();
+		}
+
+		/**
+		 * Return the number of exchanges that failed before receiving a response.
+		 */
+		public long getFailedExchanges() {
+			return this.failedExchanges.sum();
+		}
+
+		/**
+		 * Return the number of exchanges currently waiting for a response.
+		 */
+		public int getActiveExchanges() {
+			return this.activeExchanges.get();
+		}
+
+		/**
+		 * Return the highest number of exchanges that were waiting for a
+		 * response at the same time.
+		 */
+		public int getPeakConcurrentExchanges() {
+			return this.peakConcurrentExchanges.get();
+		}
+
+		@Override
+		public String toString() {
+			return "ExchangeMetrics[exchanges=" + getExchanges() + ", http2=" + getHttp2Exchanges() +
+					", failed=" + getFailedExchanges() + ", active=" + getActiveExchanges() +
+					", peakConcurrent=" + getPeakConcurrentExchanges() + "]";
+		}
+	}
+
+}
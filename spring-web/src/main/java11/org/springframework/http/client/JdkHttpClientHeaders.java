@@ -0,0 +1,41 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.client;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Header handling shared by the blocking and the reactive request
+ * implementations for the Java 11 HTTP client.
+ *
+ * <p>Mainly for internal use within the framework.
+ *
+ * @since 5.2.1
+ */
+public abstract class JdkHttpClientHeaders {
+
+	/**
+	 * Lower-case names of the headers managed by the {@code HttpClient} itself,
+	 * which are rejected when set on an {@link java.net.http.HttpRequest.Builder}.
+	 */
+	public static final Set<String> DISALLOWED_HEADERS = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+			"connection", "content-length", "date", "expect", "from", "host", "upgrade", "via", "warning")));
+
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.client.reactive;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.function.Function;
+
+import reactor.core.publisher.Mono;
+
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpMethod;
+import org.springframework.util.Assert;
+
+/**
+ * {@link ClientHttpConnector} for the Java 11 {@link HttpClient}, requiring
+ * no dependencies beyond the JDK and running on the client's own executor
+ * rather than on a separate event loop.
+ *
+ * <p>The client negotiates HTTP/2 where supported by the server, in which
+ * case concurrent requests to the same origin are multiplexed over a shared
+ * connection. Response body chunks are wrapped into {@code DataBuffers}
+ * without copying.
+ *
+ * <p>Requires Java 11 or higher at runtime.
+ *
+ * @since 5.2.1
+ * @see <a href="https://docs.oracle.com/en/java/javase/11/docs/api/java.net.http/java/net/http/HttpClient.html">HttpClient</a>
+ */
+public class JdkClientHttpConnector implements ClientHttpConnector {
+
+	private final HttpClient httpClient;
+
+	private DataBufferFactory bufferFactory = new DefaultDataBufferFactory();
+
+
+	/**
+	 * Default constructor that creates a new {@link HttpClient} which
+	 * prefers HTTP/2 and follows redirects like a browser would.
+	 */
+	public JdkClientHttpConnector() {
+		this(HttpClient.newBuilder()
+				.version(HttpClient.Version.HTTP_2)
+				.followRedirects(HttpClient.Redirect.NORMAL)
+				.build());
+	}
+
+	/**
+	 * Constructor with an initialized {@link HttpClient}, e.g. configured
+	 * with a specific executor, connect timeout or SSL context.
+	 * @param httpClient the {@link HttpClient} to use
+	 */
+	public JdkClientHttpConnector(HttpClient httpClient) {
+		Assert.notNull(httpClient, "HttpClient is required");
+		this.httpClient = httpClient;
+	}
+
+
+	/**
+	 * Set the buffer factory to use for wrapping response body chunks.
+	 * <p>Default is a {@link DefaultDataBufferFactory}.
+	 */
+	public void setBufferFactory(DataBufferFactory bufferFactory) {
+		Assert.notNull(bufferFactory, "DataBufferFactory is required");
+		this.bufferFactory = bufferFactory;
+	}
+
+
+	@Override
+	public Mono<ClientHttpResponse> connect(HttpMethod method, URI uri,
+			Function<? super ClientHttpRequest, Mono<Void>> requestCallback) {
+
+		if (!uri.isAbsolute()) {
+			return Mono.error(new IllegalArgumentException("URI is not absolute: " + uri));
+		}
+
+		JdkClientHttpRequest jdkClientHttpRequest = new JdkClientHttpRequest(method, uri, this.bufferFactory);
+
+		return requestCallback.apply(jdkClientHttpRequest).then(Mono.defer(() -> {
+			HttpRequest httpRequest = jdkClientHttpRequest.getNativeRequest();
+			CompletableFuture<HttpResponse<Flow.Publisher<List<ByteBuffer>>>> future =
+					this.httpClient.sendAsync(httpRequest, HttpResponse.BodyHandlers.ofPublisher());
+			return Mono.fromFuture(future)
+					.map(response -> new JdkClientHttpResponse(response, this.bufferFactory));
+		}));
+	}
+
+}
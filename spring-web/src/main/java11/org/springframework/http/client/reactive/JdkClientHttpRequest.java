@@ -0,0 +1,168 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.client.reactive;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.nio.ByteBuffer;
+import java.util.Locale;
+import java.util.concurrent.Flow;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.reactivestreams.Publisher;
+import reactor.adapter.JdkFlowAdapter;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.JdkHttpClientHeaders;
+import org.springframework.util.Assert;
+
+/**
+ * {@link ClientHttpRequest} implementation for the Java 11 HTTP client.
+ *
+ * @since 5.2.1
+ * @see JdkClientHttpConnector
+ */
+class JdkClientHttpRequest extends AbstractClientHttpRequest {
+
+	private final HttpMethod method;
+
+	private final URI uri;
+
+	private final DataBufferFactory bufferFactory;
+
+	private final HttpRequest.Builder builder;
+
+
+	public JdkClientHttpRequest(HttpMethod method, URI uri, DataBufferFactory bufferFactory) {
+		Assert.notNull(method, "HttpMethod is required");
+		Assert.notNull(uri, "URI is required");
+		Assert.notNull(bufferFactory, "DataBufferFactory is required");
+		this.method = method;
+		this.uri = uri;
+		this.bufferFactory = bufferFactory;
+		this.builder = HttpRequest.newBuilder(uri);
+	}
+
+
+	@Override
+	public HttpMethod getMethod() {
+		return this.method;
+	}
+
+	@Override
+	public URI getURI() {
+		return this.uri;
+	}
+
+	@Override
+	public DataBufferFactory bufferFactory() {
+		return this.bufferFactory;
+	}
+
+	/**
+	 * Return the underlying {@link HttpRequest}, once the request has been
+	 * committed through {@link #setComplete()} or one of the write methods.
+	 */
+	HttpRequest getNativeRequest() {
+		return this.builder.build();
+	}
+
+
+	@Override
+	public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+		return doCommit(() -> {
+			this.builder.method(this.method.name(), toBodyPublisher(body));
+			return Mono.empty();
+		});
+	}
+
+	@Override
+	public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+		return writeWith(Flux.from(body).flatMap(Function.identity()));
+	}
+
+	@Override
+	public Mono<Void> setComplete() {
+		return doCommit(() -> {
+			this.builder.method(this.method.name(), HttpRequest.BodyPublishers.noBody());
+			return Mono.empty();
+		});
+	}
+
+	@Override
+	protected void applyHeaders() {
+		if (!getHeaders().containsKey(HttpHeaders.ACCEPT)) {
+			// Reactor Netty and Jetty send "*/*" by default, whereas the JDK client sends none
+			this.builder.header(HttpHeaders.ACCEPT, "*/*");
+		}
+		getHeaders().forEach((name, values) -> {
+			if (!JdkHttpClientHeaders.DISALLOWED_HEADERS.contains(name.toLowerCase(Locale.ENGLISH))) {
+				for (String value : values) {
+					this.builder.header(name, value);
+				}
+			}
+		});
+	}
+
+	@Override
+	protected void applyCookies() {
+		if (!getCookies().isEmpty()) {
+			this.builder.header(HttpHeaders.COOKIE, getCookies().values().stream()
+					.flatMap(cookies -> cookies.stream().map(cookie -> cookie.getName() + "=" + cookie.getValue()))
+					.collect(Collectors.joining("; ")));
+		}
+	}
+
+	private HttpRequest.BodyPublisher toBodyPublisher(Publisher<? extends DataBuffer> body) {
+		Publisher<ByteBuffer> byteBuffers = (body instanceof Mono ?
+				Mono.from(body).map(this::toByteBuffer) : Flux.from(body).map(this::toByteBuffer));
+		Flow.Publisher<ByteBuffer> flow = JdkFlowAdapter.publisherToFlowPublisher(byteBuffers);
+		long contentLength = getHeaders().getContentLength();
+		return (contentLength > 0 ?
+				HttpRequest.BodyPublishers.fromPublisher(flow, contentLength) :
+				HttpRequest.BodyPublishers.fromPublisher(flow));
+	}
+
+	/**
+	 * Expose the readable bytes of the given buffer as a {@code ByteBuffer}.
+	 * Unpooled heap buffers are handed over as they are, whereas the content
+	 * of pooled buffers is copied so that they can be released right away.
+	 */
+	private ByteBuffer toByteBuffer(DataBuffer dataBuffer) {
+		if (dataBuffer instanceof DefaultDataBuffer) {
+			return dataBuffer.asByteBuffer();
+		}
+		try {
+			ByteBuffer copy = ByteBuffer.allocate(dataBuffer.readableByteCount());
+			copy.put(dataBuffer.asByteBuffer());
+			copy.flip();
+			return copy;
+		}
+		finally {
+			DataBufferUtils.release(dataBuffer);
+		}
+	}
+
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.client.reactive;
+
+import java.net.HttpCookie;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Flow;
+import java.util.function.Function;
+
+import reactor.adapter.JdkFlowAdapter;
+import reactor.core.publisher.Flux;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseCookie;
+import org.springframework.util.CollectionUtils;
+import org.springframework.util.LinkedCaseInsensitiveMap;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+
+/**
+ * {@link ClientHttpResponse} implementation for the Java 11 HTTP client.
+ *
+ * @since 5.2.1
+ * @see JdkClientHttpConnector
+ */
+class JdkClientHttpResponse implements ClientHttpResponse {
+
+	private final HttpResponse<Flow.Publisher<List<ByteBuffer>>> response;
+
+	private final DataBufferFactory bufferFactory;
+
+	private final HttpHeaders headers;
+
+
+	public JdkClientHttpResponse(HttpResponse<Flow.Publisher<List<ByteBuffer>>> response,
+			DataBufferFactory bufferFactory) {
+
+		this.response = response;
+		this.bufferFactory = bufferFactory;
+		LinkedCaseInsensitiveMap<List<String>> headers = new LinkedCaseInsensitiveMap<>(
+				response.headers().map().size(), Locale.ENGLISH);
+		headers.putAll(response.headers().map());
+		this.headers = HttpHeaders.readOnlyHttpHeaders(new HttpHeaders(CollectionUtils.toMultiValueMap(headers)));
+	}
+
+
+	@Override
+	public HttpStatus getStatusCode() {
+		return HttpStatus.valueOf(getRawStatusCode());
+	}
+
+	@Override
+	public int getRawStatusCode() {
+		return this.response.statusCode();
+	}
+
+	@Override
+	public HttpHeaders getHeaders() {
+		return this.headers;
+	}
+
+	@Override
+	public MultiValueMap<String, ResponseCookie> getCookies() {
+		MultiValueMap<String, ResponseCookie> result = new LinkedMultiValueMap<>();
+		List<String> cookieHeader = getHeaders().get(HttpHeaders.SET_COOKIE);
+		if (cookieHeader != null) {
+			for (String header : cookieHeader) {
+				for (HttpCookie cookie : HttpCookie.parse(header)) {
+					result.add(cookie.getName(), ResponseCookie.from(cookie.getName(), cookie.getValue())
+							.domain(cookie.getDomain())
+							.path(cookie.getPath())
+							.maxAge(cookie.getMaxAge())
+							.secure(cookie.getSecure())
+							.httpOnly(cookie.isHttpOnly())
+							.build());
+				}
+			}
+		}
+		return CollectionUtils.unmodifiableMultiValueMap(result);
+	}
+
+	/**
+	 * Return the response body, wrapping each {@code ByteBuffer} received
+	 * from the client into a {@link DataBuffer} without copying its content.
+	 */
+	@Override
+	public Flux<DataBuffer> getBody() {
+		return JdkFlowAdapter.flowPublisherToFlux(this.response.body())
+				.flatMapIterable(Function.identity())
+				.map(this.bufferFactory::wrap)
+				.doOnDiscard(DataBuffer.class, DataBufferUtils::release);
+	}
+
+}
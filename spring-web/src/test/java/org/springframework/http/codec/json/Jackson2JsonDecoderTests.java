@@ -38,6 +38,7 @@ import org.springframework.core.codec.AbstractDecoderTests;
 import org.springframework.core.codec.CodecException;
 import org.springframework.core.codec.DecodingException;
 import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.PooledDataBuffer;
 import org.springframework.http.MediaType;
 import org.springframework.http.codec.Pojo;
 import org.springframework.http.codec.json.JacksonViewBean.MyJacksonView1;
@@ -130,6 +131,35 @@ public class Jackson2JsonDecoderTests extends AbstractDecoderTests<Jackson2JsonD
 	}
 
 
+	@Test
+	public void decodeToMonoReleasesBuffersAsParsed() {
+		DataBuffer first = stringBuffer("{\"bar\":\"b1\",").block();
+		Flux<DataBuffer> input = Flux.concat(
+				Mono.just(first),
+				Mono.defer(() -> {
+					assertThat(((PooledDataBuffer) first).isAllocated()).isFalse();
+					return stringBuffer("\"foo\":\"f1\"}");
+				}));
+
+		testDecodeToMono(input, forClass(Pojo.class), step -> step
+				.expectNext(pojo1)
+				.verifyComplete(), null, null);
+	}
+
+	@Test
+	public void decodeToMonoWithNullLiteral() {
+		testDecodeToMono(stringBuffer("null"), forClass(Pojo.class), step -> step
+				.verifyComplete(), null, null);
+	}
+
+	@Test
+	public void decodeToMonoInvalidData() {
+		Flux<DataBuffer> input =
+				Flux.from(stringBuffer("{\"foofoo\": \"foofoo\", \"barbar\": \"barbar\""));
+		testDecodeToMono(input, forClass(Pojo.class), step -> step
+				.verifyError(DecodingException.class), null, null);
+	}
+
 	@Test
 	public void decodeEmptyArrayToFlux() {
 		Flux<DataBuffer> input = Flux.from(stringBuffer("[]"));
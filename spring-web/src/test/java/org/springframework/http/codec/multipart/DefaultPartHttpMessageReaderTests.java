@@ -0,0 +1,378 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.codec.multipart;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.buffer.AbstractLeakCheckingTests;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.MultipartBodyBuilder;
+import org.springframework.http.codec.ServerCodecConfigurer;
+import org.springframework.http.server.reactive.HttpHandler;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.mock.http.client.reactive.test.MockClientHttpRequest;
+import org.springframework.mock.http.server.reactive.test.MockServerHttpRequest;
+import org.springframework.mock.http.server.reactive.test.MockServerHttpResponse;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.server.adapter.WebHttpHandlerBuilder;
+
+import static java.util.Collections.emptyMap;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.core.ResolvableType.forClass;
+import static org.springframework.core.ResolvableType.forClassWithGenerics;
+
+/**
+ * Unit tests for {@link DefaultPartHttpMessageReader}.
+ */
+public class DefaultPartHttpMessageReaderTests extends AbstractLeakCheckingTests {
+
+	private static final String BOUNDARY = "simple-boundary";
+
+	private static final String BODY = "This is the preamble. It is to be ignored.\r\n" +
+			"--simple-boundary\r\n" +
+			"Content-Disposition: form-data; name=\"field\"\r\n" +
+			"\r\n" +
+			"value\r\n" +
+			"--simple-boundary\r\n" +
+			"Content-Disposition: form-data; name=\"file\"; filename=\"foo.txt\"\r\n" +
+			"Content-Type: text/plain\r\n" +
+			"\r\n" +
+			"Lorem Ipsum.\r\n--simple\r\n" +
+			"--simple-boundary\r\n" +
+			"Content-Disposition: form-data; name=\"empty\"; filename=\"empty.txt\"\r\n" +
+			"\r\n" +
+			"\r\n" +
+			"--simple-boundary--\r\n" +
+			"This is the epilogue. It is also to be ignored.\r\n";
+
+
+	private final DefaultPartHttpMessageReader reader = new DefaultPartHttpMessageReader();
+
+	private Path tempDir;
+
+
+	@BeforeEach
+	public void setUp() throws IOException {
+		this.tempDir = Files.createTempDirectory("DefaultPartHttpMessageReaderTests");
+		this.reader.setFileStorageDirectory(this.tempDir);
+	}
+
+	@AfterEach
+	public void tearDown() throws IOException {
+		FileSystemUtils.deleteRecursively(this.tempDir);
+	}
+
+
+	@Test
+	public void canRead() {
+		assertThat(this.reader.canRead(forClass(Part.class), MediaType.MULTIPART_FORM_DATA)).isTrue();
+		assertThat(this.reader.canRead(forClass(Part.class), null)).isTrue();
+		assertThat(this.reader.canRead(forClass(Part.class), MediaType.APPLICATION_FORM_URLENCODED)).isFalse();
+		assertThat(this.reader.canRead(forClass(Object.class), MediaType.MULTIPART_FORM_DATA)).isFalse();
+	}
+
+	@Test
+	public void parts() {
+		List<Part> parts = readParts(request(BODY, BODY.length()));
+		assertParts(parts);
+	}
+
+	@Test
+	public void partsSplitIntoSingleBytes() {
+		List<Part> parts = readParts(request(BODY, 1));
+		assertParts(parts);
+	}
+
+	@Test
+	public void partsSplitIntoSmallBuffers() {
+		for (int size = 2; size < 20; size++) {
+			List<Part> parts = readParts(request(BODY, size));
+			assertParts(parts);
+		}
+	}
+
+	@Test
+	public void quotedBoundary() {
+		MockServerHttpRequest request = MockServerHttpRequest.post("/")
+				.header("Content-Type", "multipart/form-data; boundary=\"" + BOUNDARY + "\"")
+				.body(Flux.defer(() -> Flux.just(buffer(BODY))));
+		assertParts(readParts(request));
+	}
+
+	@Test
+	public void multipartHttpMessageWriter() {
+		MultipartBodyBuilder partsBuilder = new MultipartBodyBuilder();
+		partsBuilder.part("fooPart", new ClassPathResource("org/springframework/http/codec/multipart/foo.txt"));
+		partsBuilder.part("barPart", "bar");
+
+		MockClientHttpRequest outputMessage = new MockClientHttpRequest(HttpMethod.POST, "/");
+		new MultipartHttpMessageWriter()
+				.write(Mono.just(partsBuilder.build()), null, MediaType.MULTIPART_FORM_DATA, outputMessage, null)
+				.block(Duration.ofSeconds(5));
+		ServerHttpRequest request = MockServerHttpRequest.post("/")
+				.contentType(outputMessage.getHeaders().getContentType())
+				.body(outputMessage.getBody());
+
+		MultipartHttpMessageReader multipartReader = new MultipartHttpMessageReader(this.reader);
+		ResolvableType elementType = forClassWithGenerics(MultiValueMap.class, String.class, Part.class);
+		MultiValueMap<String, Part> parts = multipartReader.readMono(elementType, request, emptyMap()).block();
+
+		assertThat(parts).containsOnlyKeys("fooPart", "barPart");
+		FilePart filePart = (FilePart) parts.getFirst("fooPart");
+		assertThat(filePart.filename()).isEqualTo("foo.txt");
+		assertThat(content(filePart)).isEqualTo("Lorem Ipsum.");
+		assertThat(((FormFieldPart) parts.getFirst("barPart")).value()).isEqualTo("bar");
+	}
+
+	@Test
+	public void largePartWrittenToFile() throws IOException {
+		this.reader.setMaxInMemorySize(16);
+		String content = repeat("0123456789", 1000);
+		List<Part> parts = readParts(request(filePart("file", "file.txt", content), 100));
+
+		assertThat(parts).hasSize(1);
+		FilePart part = (FilePart) parts.get(0);
+		assertThat(content(part)).isEqualTo(content);
+		assertThat(content(part)).as("repeated read").isEqualTo(content);
+		assertThat(tempFiles()).hasSize(1);
+
+		Path dest = this.tempDir.resolve("dest.txt");
+		part.transferTo(dest).block(Duration.ofSeconds(5));
+		assertThat(new String(Files.readAllBytes(dest), StandardCharsets.UTF_8)).isEqualTo(content);
+		Files.delete(dest);
+
+		part.delete().block(Duration.ofSeconds(5));
+		assertThat(tempFiles()).isEmpty();
+	}
+
+	@Test
+	public void tempFilesDeletedWhenExchangeCompletes() throws IOException {
+		this.reader.setMaxInMemorySize(16);
+		ServerCodecConfigurer configurer = ServerCodecConfigurer.create();
+		configurer.registerDefaults(false);
+		configurer.customCodecs().reader(new MultipartHttpMessageReader(this.reader));
+		AtomicInteger tempFileCount = new AtomicInteger();
+		HttpHandler httpHandler = WebHttpHandlerBuilder
+				.webHandler(exchange -> exchange.getMultipartData()
+						.doOnNext(parts -> tempFileCount.set(this.tempDir.toFile().list().length))
+						.then())
+				.codecConfigurer(configurer)
+				.build();
+
+		MockServerHttpRequest request = request(filePart("file", "file.txt", repeat("0123456789", 100)), 100);
+		httpHandler.handle(request, new MockServerHttpResponse()).block(Duration.ofSeconds(5));
+
+		assertThat(tempFileCount.get()).isEqualTo(1);
+		assertThat(tempFiles()).isEmpty();
+	}
+
+	@Test
+	public void smallPartKeptInMemory() throws IOException {
+		this.reader.setMaxInMemorySize(16);
+		List<Part> parts = readParts(request(filePart("file", "file.txt", "0123456789"), 3));
+
+		assertThat(parts).hasSize(1);
+		assertThat(content(parts.get(0))).isEqualTo("0123456789");
+		assertThat(tempFiles()).isEmpty();
+	}
+
+	@Test
+	public void maxDiskUsagePerPartExceeded() throws IOException {
+		this.reader.setMaxInMemorySize(16);
+		this.reader.setMaxDiskUsagePerPart(100);
+		String content = repeat("0123456789", 20);
+
+		StepVerifier.create(this.reader.read(forClass(Part.class), request(filePart("file", "file.txt", content), 10), emptyMap()))
+				.expectError(DecodingException.class)
+				.verify(Duration.ofSeconds(5));
+		awaitTempFilesDeleted();
+	}
+
+	@Test
+	public void formFieldTooLarge() {
+		this.reader.setMaxInMemorySize(16);
+		String body = "--" + BOUNDARY + "\r\n" +
+				"Content-Disposition: form-data; name=\"field\"\r\n" +
+				"\r\n" +
+				repeat("0123456789", 10) + "\r\n" +
+				"--" + BOUNDARY + "--\r\n";
+
+		StepVerifier.create(this.reader.read(forClass(Part.class), request(body, 10), emptyMap()))
+				.expectError(DecodingException.class)
+				.verify(Duration.ofSeconds(5));
+	}
+
+	@Test
+	public void tooManyParts() {
+		this.reader.setMaxParts(2);
+
+		StepVerifier.create(this.reader.read(forClass(Part.class), request(BODY, BODY.length()), emptyMap()))
+				.expectNextCount(2)
+				.expectError(DecodingException.class)
+				.verify(Duration.ofSeconds(5));
+	}
+
+	@Test
+	public void headersTooLarge() {
+		this.reader.setMaxHeadersSize(20);
+
+		StepVerifier.create(this.reader.read(forClass(Part.class), request(BODY, 10), emptyMap()))
+				.expectError(DecodingException.class)
+				.verify(Duration.ofSeconds(5));
+	}
+
+	@Test
+	public void noEndBoundary() {
+		String body = "--" + BOUNDARY + "\r\n" +
+				"Content-Disposition: form-data; name=\"field\"\r\n" +
+				"\r\n" +
+				"value";
+
+		StepVerifier.create(this.reader.read(forClass(Part.class), request(body, 4), emptyMap()))
+				.expectError(DecodingException.class)
+				.verify(Duration.ofSeconds(5));
+	}
+
+	@Test
+	public void noBoundary() {
+		MockServerHttpRequest request = MockServerHttpRequest.post("/")
+				.contentType(MediaType.MULTIPART_FORM_DATA)
+				.body(Flux.defer(() -> Flux.just(buffer(BODY))));
+
+		StepVerifier.create(this.reader.read(forClass(Part.class), request, emptyMap()))
+				.expectError(DecodingException.class)
+				.verify(Duration.ofSeconds(5));
+	}
+
+	@Test
+	public void cancelReleasesBuffers() {
+		this.reader.setMaxInMemorySize(16);
+		String content = repeat("0123456789", 100);
+
+		StepVerifier.create(this.reader.read(forClass(Part.class), request(filePart("file", "file.txt", content), 10), emptyMap()), 0)
+				.thenCancel()
+				.verify(Duration.ofSeconds(5));
+	}
+
+
+	private void assertParts(List<Part> parts) {
+		assertThat(parts).hasSize(3);
+
+		assertThat(parts.get(0)).isInstanceOf(FormFieldPart.class);
+		assertThat(parts.get(0).name()).isEqualTo("field");
+		assertThat(((FormFieldPart) parts.get(0)).value()).isEqualTo("value");
+
+		assertThat(parts.get(1)).isInstanceOf(FilePart.class);
+		FilePart filePart = (FilePart) parts.get(1);
+		assertThat(filePart.name()).isEqualTo("file");
+		assertThat(filePart.filename()).isEqualTo("foo.txt");
+		assertThat(filePart.headers().getContentType()).isEqualTo(MediaType.TEXT_PLAIN);
+		assertThat(content(filePart)).isEqualTo("Lorem Ipsum.\r\n--simple");
+
+		assertThat(parts.get(2)).isInstanceOf(FilePart.class);
+		assertThat(((FilePart) parts.get(2)).filename()).isEqualTo("empty.txt");
+		assertThat(content(parts.get(2))).isEqualTo("");
+	}
+
+	private List<Part> readParts(ServerHttpRequest request) {
+		List<Part> parts = this.reader.read(forClass(Part.class), request, emptyMap())
+				.collectList()
+				.block(Duration.ofSeconds(5));
+		assertThat(parts).isNotNull();
+		return parts;
+	}
+
+	private MockServerHttpRequest request(String body, int bufferSize) {
+		List<String> chunks = new ArrayList<>();
+		for (int i = 0; i < body.length(); i += bufferSize) {
+			chunks.add(body.substring(i, Math.min(body.length(), i + bufferSize)));
+		}
+		return MockServerHttpRequest.post("/")
+				.header("Content-Type", "multipart/form-data; boundary=" + BOUNDARY)
+				.body(Flux.fromIterable(chunks).map(this::buffer));
+	}
+
+	private DataBuffer buffer(String value) {
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		DataBuffer buffer = this.bufferFactory.allocateBuffer(bytes.length);
+		buffer.write(bytes);
+		return buffer;
+	}
+
+	private List<Path> tempFiles() throws IOException {
+		try (Stream<Path> files = Files.list(this.tempDir)) {
+			return files.collect(Collectors.toList());
+		}
+	}
+
+	private void awaitTempFilesDeleted() throws IOException {
+		long deadline = System.currentTimeMillis() + 5000;
+		while (!tempFiles().isEmpty() && System.currentTimeMillis() < deadline) {
+			Thread.yield();
+		}
+		assertThat(tempFiles()).isEmpty();
+	}
+
+	private static String filePart(String name, String filename, String content) {
+		return "--" + BOUNDARY + "\r\n" +
+				"Content-Disposition: form-data; name=\"" + name + "\"; filename=\"" + filename + "\"\r\n" +
+				"Content-Type: application/octet-stream\r\n" +
+				"\r\n" +
+				content + "\r\n" +
+				"--" + BOUNDARY + "--\r\n";
+	}
+
+	private static String content(Part part) {
+		DataBuffer buffer = DataBufferUtils.join(part.content()).block(Duration.ofSeconds(5));
+		assertThat(buffer).isNotNull();
+		String result = buffer.toString(StandardCharsets.UTF_8);
+		DataBufferUtils.release(buffer);
+		return result;
+	}
+
+	private static String repeat(String value, int count) {
+		StringBuilder builder = new StringBuilder();
+		for (int i = 0; i < count; i++) {
+			builder.append(value);
+		}
+		return builder.toString();
+	}
+
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.client;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.StreamUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+/**
+ * Tests for {@link JdkClientHttpRequestFactory}.
+ */
+public class JdkClientHttpRequestFactoryTests extends AbstractHttpRequestFactoryTests {
+
+	@Override
+	protected ClientHttpRequestFactory createRequestFactory() {
+		return new JdkClientHttpRequestFactory();
+	}
+
+	@Override
+	@Test
+	public void httpMethods() throws Exception {
+		super.httpMethods();
+		assertHttpMethod("patch", HttpMethod.PATCH);
+	}
+
+	@Test
+	public void streamLargeBody() throws Exception {
+		JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory();
+		requestFactory.setChunkSize(1024);
+		ClientHttpRequest request = requestFactory.createRequest(new URI(baseUrl + "/echo"), HttpMethod.POST);
+		byte[] chunk = "0123456789".getBytes(StandardCharsets.UTF_8);
+		for (int i = 0; i < 10_000; i++) {
+			request.getBody().write(chunk);
+		}
+
+		try (ClientHttpResponse response = request.execute()) {
+			assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+			assertThat(StreamUtils.copyToByteArray(response.getBody())).hasSize(100_000);
+		}
+	}
+
+	@Test
+	public void metrics() throws Exception {
+		JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory();
+		for (int i = 0; i < 3; i++) {
+			ClientHttpRequest request = requestFactory.createRequest(new URI(baseUrl + "/status/ok"), HttpMethod.GET);
+			try (ClientHttpResponse response = request.execute()) {
+				assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+			}
+		}
+
+		JdkClientHttpRequestFactory.ExchangeMetrics metrics = requestFactory.getMetrics();
+		assertThat(metrics.getExchanges()).isEqualTo(3);
+		assertThat(metrics.getHttp11Exchanges()).isEqualTo(3);
+		assertThat(metrics.getHttp2Exchanges()).isEqualTo(0);
+		assertThat(metrics.getFailedExchanges()).isEqualTo(0);
+		assertThat(metrics.getActiveExchanges()).isEqualTo(0);
+		assertThat(metrics.getPeakConcurrentExchanges()).isEqualTo(1);
+	}
+
+	@Test
+	public void invalidReadTimeout() {
+		JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory();
+		assertThatIllegalArgumentException().isThrownBy(() -> requestFactory.setReadTimeout(Duration.ZERO));
+	}
+
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.client.reactive;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.test.StepVerifier;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseCookie;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Integration tests for {@link JdkClientHttpConnector}.
+ */
+public class JdkClientHttpConnectorTests {
+
+	private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+	private final JdkClientHttpConnector connector = new JdkClientHttpConnector();
+
+	private DisposableServer server;
+
+
+	@BeforeEach
+	public void startServer() {
+		this.server = HttpServer.create()
+				.host("localhost")
+				.route(routes -> routes
+						.get("/text", (request, response) -> response
+								.header("X-Request-Header", String.valueOf(request.requestHeaders().get("X-Custom")))
+								.addHeader("Set-Cookie", "id=42; Path=/; HttpOnly")
+								.sendString(Flux.just("foo", "bar")))
+						.post("/echo", (request, response) -> response
+								.status(201)
+								.send(request.receive().retain()))
+						.get("/missing", (request, response) -> response.status(404).send()))
+				.bindNow();
+	}
+
+	@AfterEach
+	public void stopServer() {
+		this.server.disposeNow();
+	}
+
+
+	@Test
+	public void receiveBody() {
+		Mono<String> result = this.connector
+				.connect(HttpMethod.GET, uri("/text"), request -> {
+					request.getHeaders().add("X-Custom", "bar");
+					return request.setComplete();
+				})
+				.flatMap(response -> {
+					assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+					assertThat(response.getHeaders().getFirst("x-request-header")).isEqualTo("bar");
+					ResponseCookie cookie = response.getCookies().getFirst("id");
+					assertThat(cookie).isNotNull();
+					assertThat(cookie.getValue()).isEqualTo("42");
+					assertThat(cookie.isHttpOnly()).isTrue();
+					return bodyToString(response);
+				});
+
+		StepVerifier.create(result).expectNext("foobar").expectComplete().verify(TIMEOUT);
+	}
+
+	@Test
+	public void sendBody() {
+		DefaultDataBufferFactory bufferFactory = new DefaultDataBufferFactory();
+		Flux<DataBuffer> body = Flux.just("foo", "bar", "baz")
+				.map(s -> bufferFactory.wrap(s.getBytes(StandardCharsets.UTF_8)));
+
+		Mono<String> result = this.connector
+				.connect(HttpMethod.POST, uri("/echo"), request -> request.writeWith(body))
+				.flatMap(response -> {
+					assertThat(response.getRawStatusCode()).isEqualTo(201);
+					return bodyToString(response);
+				});
+
+		StepVerifier.create(result).expectNext("foobarbaz").expectComplete().verify(TIMEOUT);
+	}
+
+	@Test
+	public void errorStatus() {
+		Mono<HttpStatus> result = this.connector
+				.connect(HttpMethod.GET, uri("/missing"), ClientHttpRequest::setComplete)
+				.map(ClientHttpResponse::getStatusCode);
+
+		StepVerifier.create(result).expectNext(HttpStatus.NOT_FOUND).expectComplete().verify(TIMEOUT);
+	}
+
+	@Test
+	public void relativeUriRejected() {
+		StepVerifier.create(this.connector.connect(HttpMethod.GET, URI.create("/text"), ClientHttpRequest::setComplete))
+				.expectError(IllegalArgumentException.class)
+				.verify(TIMEOUT);
+	}
+
+
+	private URI uri(String path) {
+		return URI.create("http://localhost:" + this.server.port() + path);
+	}
+
+	private static Mono<String> bodyToString(ClientHttpResponse response) {
+		return DataBufferUtils.join(response.getBody()).map(buffer -> {
+			String s = buffer.toString(StandardCharsets.UTF_8);
+			DataBufferUtils.release(buffer);
+			return s;
+		});
+	}
+
+}
@@ -23,6 +23,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.function.Consumer;
 
+import org.springframework.beans.BeanUtils;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.client.reactive.ClientHttpConnector;
 import org.springframework.http.client.reactive.JettyClientHttpConnector;
@@ -44,14 +45,22 @@ import org.springframework.web.util.UriBuilderFactory;
  */
 final class DefaultWebClientBuilder implements WebClient.Builder {
 
+	/** Compiled for Java 11, hence only referenced by name. */
+	private static final String JDK_CLIENT_CONNECTOR_CLASS_NAME =
+			"org.springframework.http.client.reactive.JdkClientHttpConnector";
+
 	private static final boolean reactorClientPresent;
 
 	private static final boolean jettyClientPresent;
 
+	private static final boolean jdkClientPresent;
+
 	static {
 		ClassLoader loader = DefaultWebClientBuilder.class.getClassLoader();
 		reactorClientPresent = ClassUtils.isPresent("reactor.netty.http.client.HttpClient", loader);
 		jettyClientPresent = ClassUtils.isPresent("org.eclipse.jetty.client.HttpClient", loader);
+		jdkClientPresent = ClassUtils.isPresent("java.net.http.HttpClient", loader) &&
+				ClassUtils.isPresent(JDK_CLIENT_CONNECTOR_CLASS_NAME, loader);
 	}
 
 
@@ -251,9 +260,24 @@ final class DefaultWebClientBuilder implements WebClient.Builder {
 		else if (jettyClientPresent) {
 			return new JettyClientHttpConnector();
 		}
+		else if (jdkClientPresent) {
+			return createJdkClientHttpConnector();
+		}
 		throw new IllegalStateException("No suitable default ClientHttpConnector found");
 	}
 
+	private static ClientHttpConnector createJdkClientHttpConnector() {
+		try {
+			Class<? extends ClientHttpConnector> connectorClass = ClassUtils.forName(
+					JDK_CLIENT_CONNECTOR_CLASS_NAME, DefaultWebClientBuilder.class.getClassLoader())
+					.asSubclass(ClientHttpConnector.class);
+			return BeanUtils.instantiateClass(connectorClass);
+		}
+		catch (ClassNotFoundException ex) {
+			throw new IllegalStateException("Failed to load " + JDK_CLIENT_CONNECTOR_CLASS_NAME, ex);
+		}
+	}
+
 	private UriBuilderFactory initUriBuilderFactory() {
 		if (this.uriBuilderFactory != null) {
 			return this.uriBuilderFactory;
@@ -42,6 +42,7 @@ import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
+import org.springframework.beans.BeanUtils;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.core.io.Resource;
@@ -58,6 +59,7 @@ import org.springframework.http.client.reactive.ClientHttpConnector;
 import org.springframework.http.client.reactive.JettyClientHttpConnector;
 import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.http.codec.Pojo;
+import org.springframework.util.ClassUtils;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -72,6 +74,10 @@ import static org.assertj.core.api.Assertions.assertThat;
  */
 class WebClientIntegrationTests {
 
+	private static final String JDK_CONNECTOR_CLASS_NAME =
+			"org.springframework.http.client.reactive.JdkClientHttpConnector";
+
+
 	@Retention(RetentionPolicy.RUNTIME)
 	@Target(ElementType.METHOD)
 	@ParameterizedTest(name = "[{index}] webClient [{0}]")
@@ -80,6 +86,13 @@ class WebClientIntegrationTests {
 	}
 
 	static Stream<ClientHttpConnector> arguments() {
+		ClassLoader classLoader = WebClientIntegrationTests.class.getClassLoader();
+		if (ClassUtils.isPresent(JDK_CONNECTOR_CLASS_NAME, classLoader)) {
+			// Compiled for Java 11, hence created by name
+			ClientHttpConnector jdkConnector = (ClientHttpConnector) BeanUtils.instantiateClass(
+					ClassUtils.resolveClassName(JDK_CONNECTOR_CLASS_NAME, classLoader));
+			return Stream.of(new JettyClientHttpConnector(), new ReactorClientHttpConnector(), jdkConnector);
+		}
 		return Stream.of(new JettyClientHttpConnector(), new ReactorClientHttpConnector());
 	}
 
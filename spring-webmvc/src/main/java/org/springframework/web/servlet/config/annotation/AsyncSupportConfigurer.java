@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -23,6 +23,7 @@ import java.util.concurrent.Callable;
 
 import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
 import org.springframework.lang.Nullable;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.web.context.request.async.CallableProcessingInterceptor;
@@ -40,6 +41,9 @@ public class AsyncSupportConfigurer {
 	@Nullable
 	private AsyncTaskExecutor taskExecutor;
 
+	@Nullable
+	private AsyncTaskExecutor virtualThreadExecutor;
+
 	@Nullable
 	private Long timeout;
 
@@ -65,6 +69,21 @@ public class AsyncSupportConfigurer {
 		return this;
 	}
 
+	/**
+	 * Whether to use a {@link VirtualThreadTaskExecutor} on JDK 21+ for the above
+	 * purposes, unless an explicit {@link #setTaskExecutor task executor} is set.
+	 * <p>By default this is set to "false". When set to "true", new virtual
+	 * threads named with an "MvcAsync" prefix are started for each task.
+	 * @param virtualThreads whether to use virtual threads
+	 * @throws UnsupportedOperationException if set to "true" and virtual
+	 * threads are not supported by the current JVM
+	 * @since 5.2.1
+	 */
+	public AsyncSupportConfigurer setVirtualThreads(boolean virtualThreads) {
+		this.virtualThreadExecutor = (virtualThreads ? new VirtualThreadTaskExecutor("MvcAsync") : null);
+		return this;
+	}
+
 	/**
 	 * Specify the amount of time, in milliseconds, before asynchronous request
 	 * handling times out. In Servlet 3, the timeout begins after the main request
@@ -105,7 +124,7 @@ public class AsyncSupportConfigurer {
 
 	@Nullable
 	protected AsyncTaskExecutor getTaskExecutor() {
-		return this.taskExecutor;
+		return (this.taskExecutor != null ? this.taskExecutor : this.virtualThreadExecutor);
 	}
 
 	@Nullable
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -51,6 +51,9 @@ public class PathMatchConfigurer {
 	@Nullable
 	private Boolean registeredSuffixPatternMatch;
 
+	@Nullable
+	private Boolean mappingIndex;
+
 	@Nullable
 	private UrlPathHelper urlPathHelper;
 
@@ -96,6 +99,20 @@ public class PathMatchConfigurer {
 		return this;
 	}
 
+	/**
+	 * Whether to index request mappings by the segments of their URL patterns,
+	 * so that finding the mappings for a request with a pattern-based match
+	 * does not require checking every mapping. This is generally recommended
+	 * for applications with a large number of mappings with URI variables.
+	 * <p>By default this is set to "false".
+	 * @since 5.2.1
+	 * @see org.springframework.web.servlet.handler.AbstractHandlerMethodMapping#setUseMappingIndex
+	 */
+	public PathMatchConfigurer setUseMappingIndex(Boolean mappingIndex) {
+		this.mappingIndex = mappingIndex;
+		return this;
+	}
+
 	/**
 	 * Set the UrlPathHelper to use for resolution of lookup paths.
 	 * <p>Use this to override the default UrlPathHelper with a custom subclass,
@@ -152,6 +169,11 @@ public class PathMatchConfigurer {
 		return this.registeredSuffixPatternMatch;
 	}
 
+	@Nullable
+	public Boolean isUseMappingIndex() {
+		return this.mappingIndex;
+	}
+
 	@Nullable
 	public UrlPathHelper getUrlPathHelper() {
 		return this.urlPathHelper;
@@ -298,6 +298,10 @@ public class WebMvcConfigurationSupport implements ApplicationContextAware, Serv
 		if (useTrailingSlashMatch != null) {
 			mapping.setUseTrailingSlashMatch(useTrailingSlashMatch);
 		}
+		Boolean useMappingIndex = configurer.isUseMappingIndex();
+		if (useMappingIndex != null) {
+			mapping.setUseMappingIndex(useMappingIndex);
+		}
 
 		UrlPathHelper pathHelper = configurer.getUrlPathHelper();
 		if (pathHelper != null) {
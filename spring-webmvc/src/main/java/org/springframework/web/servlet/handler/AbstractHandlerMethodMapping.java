@@ -116,6 +116,31 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 		this.detectHandlerMethodsInAncestorContexts = detectHandlerMethodsInAncestorContexts;
 	}
 
+	/**
+	 * Whether to maintain an index of all registered mappings by the segments
+	 * of their URL patterns, used to narrow down the mappings to check for a
+	 * lookup path that does not have a direct (non-pattern) URL match.
+	 * <p>Default is "false": All registered mappings are checked in such a case.
+	 * Switch this flag on for a large number of pattern-based mappings, e.g.
+	 * with URI variables, so that the lookup cost depends on the depth of the
+	 * path rather than on the number of mappings.
+	 * <p>The index assumes the default "/" path separator of
+	 * {@link org.springframework.util.AntPathMatcher AntPathMatcher}.
+	 * @since 5.2.1
+	 */
+	public void setUseMappingIndex(boolean useMappingIndex) {
+		this.mappingRegistry.setUseMappingIndex(useMappingIndex);
+	}
+
+	/**
+	 * Whether mappings are indexed by the segments of their URL patterns.
+	 * @since 5.2.1
+	 * @see #setUseMappingIndex
+	 */
+	public boolean useMappingIndex() {
+		return this.mappingRegistry.useMappingIndex();
+	}
+
 	/**
 	 * Configure the naming strategy to use for assigning a default name to every
 	 * mapped handler method.
@@ -389,8 +414,8 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 			addMatchingMappings(directPathMatches, matches, request);
 		}
 		if (matches.isEmpty()) {
-			// No choice but to go through all mappings...
-			addMatchingMappings(this.mappingRegistry.getMappings().keySet(), matches, request);
+			// Go through all mappings that may match (all of them, unless indexed)...
+			addMatchingMappings(this.mappingRegistry.getCandidateMappings(lookupPath), matches, request);
 		}
 
 		if (!matches.isEmpty()) {
@@ -540,6 +565,9 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 
 		private final Map<HandlerMethod, CorsConfiguration> corsLookup = new ConcurrentHashMap<>();
 
+		@Nullable
+		private PathSegmentMappingIndex<T> mappingIndex;
+
 		private final ReentrantReadWriteLock readWriteLock = new ReentrantReadWriteLock();
 
 		/**
@@ -559,6 +587,46 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 			return this.urlLookup.get(urlPath);
 		}
 
+		/**
+		 * Return the mappings that may match the given URL path, as determined by
+		 * the mapping index if enabled, or all mappings otherwise. Not thread-safe.
+		 * @see #acquireReadLock()
+		 */
+		public Collection<T> getCandidateMappings(String urlPath) {
+			return (this.mappingIndex != null ?
+					this.mappingIndex.getCandidates(urlPath) : this.mappingLookup.keySet());
+		}
+
+		/**
+		 * Enable or disable the mapping index, (re-)building it from all
+		 * mappings registered so far. Thread-safe for concurrent use.
+		 */
+		public void setUseMappingIndex(boolean useMappingIndex) {
+			this.readWriteLock.writeLock().lock();
+			try {
+				if (!useMappingIndex) {
+					this.mappingIndex = null;
+				}
+				else if (this.mappingIndex == null) {
+					PathSegmentMappingIndex<T> index = new PathSegmentMappingIndex<>();
+					for (T mapping : this.mappingLookup.keySet()) {
+						index.add(mapping, getMappingPathPatterns(mapping));
+					}
+					this.mappingIndex = index;
+				}
+			}
+			finally {
+				this.readWriteLock.writeLock().unlock();
+			}
+		}
+
+		/**
+		 * Whether the mapping index is enabled.
+		 */
+		public boolean useMappingIndex() {
+			return (this.mappingIndex != null);
+		}
+
 		/**
 		 * Return handler methods by mapping name. Thread-safe for concurrent use.
 		 */
@@ -605,6 +673,10 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 					this.urlLookup.add(url, mapping);
 				}
 
+				if (this.mappingIndex != null) {
+					this.mappingIndex.add(mapping, getMappingPathPatterns(mapping));
+				}
+
 				String name = null;
 				if (getNamingStrategy() != null) {
 					name = getNamingStrategy().getName(handlerMethod, mapping);
@@ -682,6 +754,10 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 					}
 				}
 
+				if (this.mappingIndex != null) {
+					this.mappingIndex.remove(definition.getMapping(), getMappingPathPatterns(definition.getMapping()));
+				}
+
 				removeMappingName(definition);
 
 				this.corsLookup.remove(definition.getHandlerMethod());
@@ -0,0 +1,234 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.servlet.handler;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.lang.Nullable;
+import org.springframework.util.StringUtils;
+
+/**
+ * Index of mappings keyed by the segments of their URL patterns, used by
+ * {@link AbstractHandlerMethodMapping} to narrow down the mappings to check
+ * for a lookup path that has no direct URL match.
+ *
+ * <p>Patterns are split into "/"-separated segments and arranged in a tree:
+ * literal segments are indexed by their (lower-cased) value, segments with
+ * wildcards or URI variables share a single wildcard branch, and a "**"
+ * segment matches everything below it. A lookup walks the tree along the
+ * segments of the lookup path and returns every mapping it passes, so its
+ * cost depends on the depth of the path rather than on the number of mappings.
+ *
+ * <p>The result is a superset of the mappings that can match: suffix pattern
+ * matching, trailing slash matching and case-insensitive matching are all
+ * accounted for, while the actual match is still determined by the mapping's
+ * own conditions. Not thread-safe; access is guarded by the lock of the
+ * enclosing mapping registry.
+ *
+ * @since 5.2.1
+ * @param <T> the mapping type
+ */
+class PathSegmentMappingIndex<T> {
+
+	private static final String PATH_SEPARATOR = "/";
+
+
+	private final Node<T> root = new Node<>();
+
+
+	/**
+	 * Add the given mapping under each of its URL patterns.
+	 * <p>A mapping without any patterns matches every lookup path.
+	 * @param mapping the mapping to add
+	 * @param patterns the URL patterns of the mapping
+	 */
+	public void add(T mapping, Collection<String> patterns) {
+		if (patterns.isEmpty()) {
+			this.root.getOrCreateDeepMatches().add(mapping);
+			return;
+		}
+		for (String pattern : patterns) {
+			Node<T> node = this.root;
+			boolean deep = false;
+			for (String segment : tokenize(pattern)) {
+				if (segment.contains("**")) {
+					node.getOrCreateDeepMatches().add(mapping);
+					deep = true;
+					break;
+				}
+				node = (isWildcardSegment(segment) ? node.getOrCreateWildcardChild() :
+						node.getOrCreateLiteralChild(segment.toLowerCase(Locale.ROOT)));
+			}
+			if (!deep) {
+				node.getOrCreateTerminalMatches().add(mapping);
+			}
+		}
+	}
+
+	/**
+	 * Remove the given mapping from under each of its URL patterns.
+	 * @param mapping the mapping to remove
+	 * @param patterns the URL patterns the mapping was added with
+	 */
+	public void remove(T mapping, Collection<String> patterns) {
+		if (patterns.isEmpty()) {
+			removeFrom(this.root.deepMatches, mapping);
+			return;
+		}
+		for (String pattern : patterns) {
+			Node<T> node = this.root;
+			for (String segment : tokenize(pattern)) {
+				if (segment.contains("**")) {
+					removeFrom(node.deepMatches, mapping);
+					node = null;
+					break;
+				}
+				node = (isWildcardSegment(segment) ? node.wildcardChild :
+						node.getLiteralChild(segment.toLowerCase(Locale.ROOT)));
+				if (node == null) {
+					break;
+				}
+			}
+			if (node != null) {
+				removeFrom(node.terminalMatches, mapping);
+			}
+		}
+	}
+
+	/**
+	 * Return the mappings that may match the given lookup path, in the
+	 * order in which they were added where possible.
+	 * @param lookupPath the lookup path to find candidate mappings for
+	 */
+	public Set<T> getCandidates(String lookupPath) {
+		Set<T> result = new LinkedHashSet<>();
+		String[] segments = tokenize(lookupPath);
+		boolean trailingSlash = lookupPath.endsWith(PATH_SEPARATOR);
+		collect(this.root, segments, 0, trailingSlash, result);
+		return result;
+	}
+
+	private void collect(Node<T> node, String[] segments, int index, boolean trailingSlash, Set<T> result) {
+		addAll(node.deepMatches, result);
+		if (index == segments.length) {
+			addAll(node.terminalMatches, result);
+			if (trailingSlash && node.wildcardChild != null) {
+				// "/a/*" matches "/a/"
+				addAll(node.wildcardChild.terminalMatches, result);
+			}
+			return;
+		}
+		String segment = segments[index].toLowerCase(Locale.ROOT);
+		Node<T> literalChild = node.getLiteralChild(segment);
+		if (literalChild != null) {
+			collect(literalChild, segments, index + 1, trailingSlash, result);
+		}
+		if (index == segments.length - 1) {
+			// Suffix pattern match: "/a" matches "/a.json", "/a.b" matches "/a.b.json"
+			int dotIndex = segment.indexOf('.');
+			while (dotIndex != -1) {
+				Node<T> prefixChild = node.getLiteralChild(segment.substring(0, dotIndex));
+				if (prefixChild != null) {
+					collect(prefixChild, segments, index + 1, trailingSlash, result);
+				}
+				dotIndex = segment.indexOf('.', dotIndex + 1);
+			}
+		}
+		if (node.wildcardChild != null) {
+			collect(node.wildcardChild, segments, index + 1, trailingSlash, result);
+		}
+	}
+
+	private static String[] tokenize(String path) {
+		return StringUtils.tokenizeToStringArray(path, PATH_SEPARATOR, false, true);
+	}
+
+	private static boolean isWildcardSegment(String segment) {
+		return (segment.indexOf('*') != -1 || segment.indexOf('?') != -1 || segment.indexOf('{') != -1);
+	}
+
+	private static <T> void addAll(@Nullable Set<T> source, Set<T> target) {
+		if (source != null) {
+			target.addAll(source);
+		}
+	}
+
+	private static <T> void removeFrom(@Nullable Set<T> source, T mapping) {
+		if (source != null) {
+			source.remove(mapping);
+		}
+	}
+
+
+	/**
+	 * A node in the segment tree; collections are created on demand since most
+	 * nodes only ever hold one kind of entry.
+	 */
+	private static class Node<T> {
+
+		@Nullable
+		private Map<String, Node<T>> literalChildren;
+
+		@Nullable
+		private Node<T> wildcardChild;
+
+		@Nullable
+		private Set<T> terminalMatches;
+
+		@Nullable
+		private Set<T> deepMatches;
+
+		@Nullable
+		public Node<T> getLiteralChild(String segment) {
+			return (this.literalChildren != null ? this.literalChildren.get(segment) : null);
+		}
+
+		public Node<T> getOrCreateLiteralChild(String segment) {
+			if (this.literalChildren == null) {
+				this.literalChildren = new HashMap<>();
+			}
+			return this.literalChildren.computeIfAbsent(segment, key -> new Node<>());
+		}
+
+		public Node<T> getOrCreateWildcardChild() {
+			if (this.wildcardChild == null) {
+				this.wildcardChild = new Node<>();
+			}
+			return this.wildcardChild;
+		}
+
+		public Set<T> getOrCreateTerminalMatches() {
+			if (this.terminalMatches == null) {
+				this.terminalMatches = new LinkedHashSet<>();
+			}
+			return this.terminalMatches;
+		}
+
+		public Set<T> getOrCreateDeepMatches() {
+			if (this.deepMatches == null) {
+				this.deepMatches = new LinkedHashSet<>();
+			}
+			return this.deepMatches;
+		}
+	}
+
+}
@@ -0,0 +1,430 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.servlet.resource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URL;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.StreamUtils;
+
+/**
+ * Resolver that delegates to the chain, and if a resource is found, serves its
+ * content from an in-memory cache, gzip-compressing it once if the request
+ * accepts gzip and the resource has a {@link #setCompressibleMediaTypes
+ * compressible} media type.
+ *
+ * <p>Unlike {@link EncodedResourceResolver}, this resolver does not require
+ * pre-compressed files next to the original. The content of each variant is
+ * kept in direct memory, keyed by request path and content coding, with the
+ * total size bounded by {@link #setMaxCacheSize maxCacheSize} and the least
+ * recently used variants evicted first. A cached variant is discarded when the
+ * last-modified timestamp of the underlying resource changes.
+ *
+ * <p>Resolved resources expose an {@code ETag} response header that is computed
+ * from the cached content, so that conditional requests can be answered with a
+ * {@code 304} without reading the resource again.
+ *
+ * <p>Like {@link EncodedResourceResolver}, this resolver must be ordered ahead
+ * of a {@link VersionResourceResolver} with a content-based version strategy.
+ * Resources that are already encoded further down the chain are returned as-is.
+ *
+ * @since 5.2.1
+ * @see EncodedResourceResolver
+ */
+public class CompressingResourceResolver extends AbstractResourceResolver {
+
+	/**
+	 * The default compressible media types.
+	 */
+	public static final List<MediaType> DEFAULT_COMPRESSIBLE_MEDIA_TYPES = Collections.unmodifiableList(
+			Arrays.asList(MediaType.parseMediaType("text/*"), MediaType.parseMediaType("application/javascript"),
+					MediaType.APPLICATION_JSON, MediaType.APPLICATION_XML, MediaType.parseMediaType("image/svg+xml")));
+
+	private static final String GZIP_CODING = "gzip";
+
+	private static final String IDENTITY_CODING = "identity";
+
+
+	private final List<MediaType> compressibleMediaTypes = new ArrayList<>(DEFAULT_COMPRESSIBLE_MEDIA_TYPES);
+
+	private long maxCacheSize = 10 * 1024 * 1024;
+
+	private long maxResourceSize = 1024 * 1024;
+
+	private int minCompressionSize = 256;
+
+	private final Map<String, CachedResource> cache = new LinkedHashMap<>(64, 0.75f, true);
+
+	private long cacheSize;
+
+
+	/**
+	 * Configure the media types of resources to compress. Resources of other
+	 * media types are cached, but served uncompressed.
+	 * <p>By default this is set to {@link #DEFAULT_COMPRESSIBLE_MEDIA_TYPES}.
+	 */
+	public void setCompressibleMediaTypes(List<MediaType> mediaTypes) {
+		this.compressibleMediaTypes.clear();
+		this.compressibleMediaTypes.addAll(mediaTypes);
+	}
+
+	/**
+	 * Return a read-only list with the compressible media types.
+	 */
+	public List<MediaType> getCompressibleMediaTypes() {
+		return Collections.unmodifiableList(this.compressibleMediaTypes);
+	}
+
+	/**
+	 * Set the maximum total size, in bytes, of the cached content across all
+	 * resources and content codings.
+	 * <p>By default this is set to 10M.
+	 */
+	public void setMaxCacheSize(long maxCacheSize) {
+		Assert.isTrue(maxCacheSize >= 0, "'maxCacheSize' must not be negative");
+		this.maxCacheSize = maxCacheSize;
+	}
+
+	/**
+	 * Return the maximum total size of the cached content.
+	 */
+	public long getMaxCacheSize() {
+		return this.maxCacheSize;
+	}
+
+	/**
+	 * Set the maximum size, in bytes, of resources to cache. Larger resources
+	 * are returned as resolved by the chain.
+	 * <p>By default this is set to 1M.
+	 */
+	public void setMaxResourceSize(long maxResourceSize) {
+		this.maxResourceSize = maxResourceSize;
+	}
+
+	/**
+	 * Return the maximum size of resources to cache.
+	 */
+	public long getMaxResourceSize() {
+		return this.maxResourceSize;
+	}
+
+	/**
+	 * Set the minimum size, in bytes, of resources to compress. Smaller
+	 * resources are cached, but served uncompressed.
+	 * <p>By default this is set to 256.
+	 */
+	public void setMinCompressionSize(int minCompressionSize) {
+		this.minCompressionSize = minCompressionSize;
+	}
+
+	/**
+	 * Return the minimum size of resources to compress.
+	 */
+	public int getMinCompressionSize() {
+		return this.minCompressionSize;
+	}
+
+	/**
+	 * Return the current total size, in bytes, of the cached content.
+	 */
+	public long getCacheSize() {
+		synchronized (this.cache) {
+			return this.cacheSize;
+		}
+	}
+
+	/**
+	 * Remove all cached content.
+	 */
+	public void clearCache() {
+		synchronized (this.cache) {
+			this.cache.clear();
+			this.cacheSize = 0;
+		}
+	}
+
+
+	@Override
+	protected Resource resolveResourceInternal(@Nullable HttpServletRequest request, String requestPath,
+			List<? extends Resource> locations, ResourceResolverChain chain) {
+
+		Resource resource = chain.resolveResource(request, requestPath, locations);
+		if (resource == null || isEncoded(resource)) {
+			return resource;
+		}
+
+		String coding = (acceptsGzip(request) && isCompressible(resource) ? GZIP_CODING : IDENTITY_CODING);
+		String key = requestPath + "+encoding=" + coding;
+
+		try {
+			long lastModified = resource.lastModified();
+			CachedResource cached;
+			synchronized (this.cache) {
+				cached = this.cache.get(key);
+			}
+			if (cached != null && cached.lastModified() == lastModified) {
+				if (logger.isTraceEnabled()) {
+					logger.trace("Resource content served from cache");
+				}
+				return cached;
+			}
+			long contentLength = resource.contentLength();
+			if (contentLength > this.maxResourceSize || contentLength > this.maxCacheSize) {
+				return resource;
+			}
+			cached = createCachedResource(resource, coding, lastModified);
+			putCachedResource(key, cached);
+			return cached;
+		}
+		catch (IOException ex) {
+			if (logger.isTraceEnabled()) {
+				logger.trace("Failed to cache content of [" + resource.getFilename() + "]", ex);
+			}
+			return resource;
+		}
+	}
+
+	private boolean isEncoded(Resource resource) {
+		return (resource instanceof HttpResource &&
+				((HttpResource) resource).getResponseHeaders().containsKey(HttpHeaders.CONTENT_ENCODING));
+	}
+
+	private boolean acceptsGzip(@Nullable HttpServletRequest request) {
+		String header = (request != null ? request.getHeader(HttpHeaders.ACCEPT_ENCODING) : null);
+		return (header != null && header.toLowerCase().contains(GZIP_CODING));
+	}
+
+	private boolean isCompressible(Resource resource) {
+		MediaType mediaType = MediaTypeFactory.getMediaType(resource).orElse(null);
+		if (mediaType == null) {
+			return false;
+		}
+		for (MediaType compressible : this.compressibleMediaTypes) {
+			if (compressible.includes(mediaType)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private CachedResource createCachedResource(Resource resource, String coding, long lastModified)
+			throws IOException {
+
+		byte[] content = StreamUtils.copyToByteArray(resource.getInputStream());
+		String contentCoding = null;
+		if (GZIP_CODING.equals(coding) && content.length >= this.minCompressionSize) {
+			byte[] compressed = gzip(content);
+			if (compressed.length < content.length) {
+				content = compressed;
+				contentCoding = GZIP_CODING;
+			}
+		}
+		ByteBuffer buffer = ByteBuffer.allocateDirect(content.length);
+		buffer.put(content);
+		((Buffer) buffer).flip();
+		String eTag = "\"" + DigestUtils.md5DigestAsHex(content) + "\"";
+		return new CachedResource(resource, buffer, contentCoding, eTag, lastModified);
+	}
+
+	private static byte[] gzip(byte[] content) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream(content.length / 2);
+		try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+			gzip.write(content);
+		}
+		return out.toByteArray();
+	}
+
+	private void putCachedResource(String key, CachedResource cached) {
+		synchronized (this.cache) {
+			CachedResource previous = this.cache.put(key, cached);
+			if (previous != null) {
+				this.cacheSize -= previous.contentLength();
+			}
+			this.cacheSize += cached.contentLength();
+			Iterator<CachedResource> iterator = this.cache.values().iterator();
+			while (this.cacheSize > this.maxCacheSize && iterator.hasNext()) {
+				this.cacheSize -= iterator.next().contentLength();
+				iterator.remove();
+			}
+		}
+	}
+
+	@Override
+	protected String resolveUrlPathInternal(String resourceUrlPath,
+			List<? extends Resource> locations, ResourceResolverChain chain) {
+
+		return chain.resolveUrlPath(resourceUrlPath, locations);
+	}
+
+
+	/**
+	 * An {@link HttpResource} with content held in memory.
+	 */
+	static final class CachedResource extends AbstractResource implements HttpResource {
+
+		private final Resource original;
+
+		private final ByteBuffer content;
+
+		@Nullable
+		private final String coding;
+
+		private final String eTag;
+
+		private final long lastModified;
+
+		CachedResource(Resource original, ByteBuffer content, @Nullable String coding,
+				String eTag, long lastModified) {
+
+			this.original = original;
+			this.content = content;
+			this.coding = coding;
+			this.eTag = eTag;
+			this.lastModified = lastModified;
+		}
+
+
+		/**
+		 * Return the content coding of the cached content, or {@code null}
+		 * if it is not encoded.
+		 */
+		@Nullable
+		public String getCoding() {
+			return this.coding;
+		}
+
+		@Override
+		public InputStream getInputStream() {
+			return new ByteBufferInputStream(this.content.duplicate());
+		}
+
+		@Override
+		public boolean exists() {
+			return true;
+		}
+
+		@Override
+		public URL getURL() throws IOException {
+			return this.original.getURL();
+		}
+
+		@Override
+		public URI getURI() throws IOException {
+			return this.original.getURI();
+		}
+
+		@Override
+		public long contentLength() {
+			return this.content.remaining();
+		}
+
+		@Override
+		public long lastModified() {
+			return this.lastModified;
+		}
+
+		@Override
+		public Resource createRelative(String relativePath) throws IOException {
+			return this.original.createRelative(relativePath);
+		}
+
+		@Override
+		@Nullable
+		public String getFilename() {
+			return this.original.getFilename();
+		}
+
+		@Override
+		public String getDescription() {
+			return "Cached content of " + this.original.getDescription();
+		}
+
+		@Override
+		public HttpHeaders getResponseHeaders() {
+			HttpHeaders headers;
+			if (this.original instanceof HttpResource) {
+				headers = ((HttpResource) this.original).getResponseHeaders();
+			}
+			else {
+				headers = new HttpHeaders();
+			}
+			if (this.coding != null) {
+				headers.add(HttpHeaders.CONTENT_ENCODING, this.coding);
+			}
+			headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+			headers.setETag(this.eTag);
+			return headers;
+		}
+	}
+
+
+	private static class ByteBufferInputStream extends InputStream {
+
+		private final ByteBuffer buffer;
+
+		ByteBufferInputStream(ByteBuffer buffer) {
+			this.buffer = buffer;
+		}
+
+		@Override
+		public int read() {
+			return (this.buffer.hasRemaining() ? this.buffer.get() & 0xFF : -1);
+		}
+
+		@Override
+		public int read(byte[] bytes, int off, int len) {
+			if (len == 0) {
+				return 0;
+			}
+			if (!this.buffer.hasRemaining()) {
+				return -1;
+			}
+			len = Math.min(len, this.buffer.remaining());
+			this.buffer.get(bytes, off, len);
+			return len;
+		}
+
+		@Override
+		public int available() {
+			return this.buffer.remaining();
+		}
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -74,7 +74,9 @@ public class CssLinkResourceTransformer extends ResourceTransformerSupport {
 		String filename = resource.getFilename();
 		if (!"css".equals(StringUtils.getFilenameExtension(filename)) ||
 				resource instanceof EncodedResourceResolver.EncodedResource ||
-				resource instanceof GzipResourceResolver.GzippedResource) {
+				resource instanceof GzipResourceResolver.GzippedResource ||
+				(resource instanceof CompressingResourceResolver.CachedResource &&
+						((CompressingResourceResolver.CachedResource) resource).getCoding() != null)) {
 			return resource;
 		}
 
@@ -28,6 +28,8 @@ import java.util.Map;
 import java.util.stream.Collectors;
 
 import javax.servlet.ServletException;
+import javax.servlet.ServletRequestWrapper;
+import javax.servlet.ServletResponseWrapper;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
@@ -39,10 +41,12 @@ import org.springframework.context.ApplicationContext;
 import org.springframework.context.EmbeddedValueResolverAware;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.UrlResource;
+import org.springframework.core.io.support.ResourceRegion;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpRange;
 import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
 import org.springframework.http.converter.ResourceHttpMessageConverter;
 import org.springframework.http.converter.ResourceRegionHttpMessageConverter;
 import org.springframework.http.server.ServletServerHttpRequest;
@@ -87,6 +91,14 @@ import org.springframework.web.util.UrlPathHelper;
  * <p>This handler also properly evaluates the {@code Last-Modified} header
  * (if present) so that a {@code 304} status code will be returned as appropriate,
  * avoiding unnecessary overhead for resources that are already cached by the client.
+ * An {@code ETag} provided by an {@link HttpResource}, e.g. by the
+ * {@link CompressingResourceResolver}, is evaluated as well.
+ *
+ * <p>On Servlet containers that expose sendfile support through request attributes
+ * (e.g. Tomcat with an NIO or APR connector), file-based resources above the
+ * {@link #setSendfileThreshold sendfile threshold} are handed to the container
+ * and written with zero-copy transfers rather than streamed through the
+ * {@link ResourceHttpMessageConverter}.
  *
  * @author Keith Donald
  * @author Jeremy Grelle
@@ -103,6 +115,14 @@ public class ResourceHttpRequestHandler extends WebContentGenerator
 
 	private static final String URL_RESOURCE_CHARSET_PREFIX = "[charset=";
 
+	private static final String SENDFILE_SUPPORT_ATTRIBUTE = "org.apache.tomcat.sendfile.support";
+
+	private static final String SENDFILE_FILENAME_ATTRIBUTE = "org.apache.tomcat.sendfile.filename";
+
+	private static final String SENDFILE_START_ATTRIBUTE = "org.apache.tomcat.sendfile.start";
+
+	private static final String SENDFILE_END_ATTRIBUTE = "org.apache.tomcat.sendfile.end";
+
 
 	private final List<String> locationValues = new ArrayList<>(4);
 
@@ -141,6 +161,8 @@ public class ResourceHttpRequestHandler extends WebContentGenerator
 	@Nullable
 	private StringValueResolver embeddedValueResolver;
 
+	private long sendfileThreshold = 48 * 1024;
+
 
 	public ResourceHttpRequestHandler() {
 		super(HttpMethod.GET.name(), HttpMethod.HEAD.name());
@@ -312,6 +334,25 @@ public class ResourceHttpRequestHandler extends WebContentGenerator
 		return this.urlPathHelper;
 	}
 
+	/**
+	 * Set the minimum content length, in bytes, of file-based resources to
+	 * hand over to the Servlet container for sendfile transfer, if supported.
+	 * Smaller resources are cheaper to copy through the response.
+	 * <p>By default this is set to 48K. Set it to -1 to disable sendfile.
+	 * @since 5.2.1
+	 */
+	public void setSendfileThreshold(long sendfileThreshold) {
+		this.sendfileThreshold = sendfileThreshold;
+	}
+
+	/**
+	 * Return the configured sendfile threshold.
+	 * @since 5.2.1
+	 */
+	public long getSendfileThreshold() {
+		return this.sendfileThreshold;
+	}
+
 	@Override
 	public void setEmbeddedValueResolver(StringValueResolver resolver) {
 		this.embeddedValueResolver = resolver;
@@ -465,7 +506,9 @@ public class ResourceHttpRequestHandler extends WebContentGenerator
 		checkRequest(request);
 
 		// Header phase
-		if (new ServletWebRequest(request, response).checkNotModified(resource.lastModified())) {
+		String eTag = (resource instanceof HttpResource ?
+				((HttpResource) resource).getResponseHeaders().getETag() : null);
+		if (new ServletWebRequest(request, response).checkNotModified(eTag, resource.lastModified())) {
 			logger.trace("Resource not modified");
 			return;
 		}
@@ -486,7 +529,9 @@ public class ResourceHttpRequestHandler extends WebContentGenerator
 		if (request.getHeader(HttpHeaders.RANGE) == null) {
 			Assert.state(this.resourceHttpMessageConverter != null, "Not initialized");
 			setHeaders(response, resource, mediaType);
-			this.resourceHttpMessageConverter.write(resource, mediaType, outputMessage);
+			if (!sendfile(request, response, resource, 0, resource.contentLength())) {
+				this.resourceHttpMessageConverter.write(resource, mediaType, outputMessage);
+			}
 		}
 		else {
 			Assert.state(this.resourceRegionHttpMessageConverter != null, "Not initialized");
@@ -494,9 +539,11 @@ public class ResourceHttpRequestHandler extends WebContentGenerator
 			ServletServerHttpRequest inputMessage = new ServletServerHttpRequest(request);
 			try {
 				List<HttpRange> httpRanges = inputMessage.getHeaders().getRange();
+				List<ResourceRegion> regions = HttpRange.toResourceRegions(httpRanges, resource);
 				response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
-				this.resourceRegionHttpMessageConverter.write(
-						HttpRange.toResourceRegions(httpRanges, resource), mediaType, outputMessage);
+				if (regions.size() != 1 || !sendfileRegion(request, response, regions.get(0), mediaType)) {
+					this.resourceRegionHttpMessageConverter.write(regions, mediaType, outputMessage);
+				}
 			}
 			catch (IllegalArgumentException ex) {
 				response.setHeader("Content-Range", "bytes */" + resource.contentLength());
@@ -505,6 +552,50 @@ public class ResourceHttpRequestHandler extends WebContentGenerator
 		}
 	}
 
+	private boolean sendfileRegion(HttpServletRequest request, HttpServletResponse response,
+			ResourceRegion region, @Nullable MediaType mediaType) throws IOException {
+
+		Resource resource = region.getResource();
+		long start = region.getPosition();
+		long end = start + region.getCount() - 1;
+		if (!sendfile(request, response, resource, start, region.getCount())) {
+			return false;
+		}
+		if (mediaType == null) {
+			mediaType = MediaTypeFactory.getMediaType(resource).orElse(MediaType.APPLICATION_OCTET_STREAM);
+		}
+		response.setContentType(mediaType.toString());
+		response.setContentLengthLong(region.getCount());
+		response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + '-' + end + '/' + resource.contentLength());
+		return true;
+	}
+
+	/**
+	 * Hand the given range of a file-based resource over to the Servlet
+	 * container for a sendfile transfer, if the container supports it and the
+	 * request and response are not wrapped, since wrappers may expect to see
+	 * the content written through the response.
+	 * @return {@code true} if the container is going to write the content,
+	 * {@code false} if it must be written through the response
+	 */
+	private boolean sendfile(HttpServletRequest request, HttpServletResponse response,
+			Resource resource, long position, long count) throws IOException {
+
+		if (this.sendfileThreshold < 0 || count < this.sendfileThreshold ||
+				!Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT_ATTRIBUTE)) ||
+				request instanceof ServletRequestWrapper || response instanceof ServletResponseWrapper ||
+				!resource.isFile()) {
+			return false;
+		}
+		request.setAttribute(SENDFILE_FILENAME_ATTRIBUTE, resource.getFile().getAbsolutePath());
+		request.setAttribute(SENDFILE_START_ATTRIBUTE, position);
+		request.setAttribute(SENDFILE_END_ATTRIBUTE, position + count);
+		if (logger.isTraceEnabled()) {
+			logger.trace("Sendfile " + count + " bytes at position " + position + " of [" + resource + "]");
+		}
+		return true;
+	}
+
 	@Nullable
 	protected Resource getResource(HttpServletRequest request) throws IOException {
 		String path = (String) request.getAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE);
@@ -99,6 +99,39 @@ public class HandlerMethodMappingTests {
 		assertThat(request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE)).isEqualTo(result);
 	}
 
+	@Test
+	public void patternMatchWithMappingIndex() throws Exception {
+		AbstractHandlerMethodMapping<String> mapping = new PathPatternHandlerMethodMapping();
+		mapping.setUseMappingIndex(true);
+		mapping.registerMapping("/fo*", this.handler, this.method1);
+		mapping.registerMapping("/bar/*", this.handler, this.method2);
+
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/foo");
+		HandlerMethod result = mapping.getHandlerInternal(request);
+		assertThat(result.getMethod()).isEqualTo(method1);
+		assertThat(mapping.getMappingRegistry().getCandidateMappings("/foo")).containsExactly("/fo*");
+
+		request = new MockHttpServletRequest("GET", "/bar/foo");
+		result = mapping.getHandlerInternal(request);
+		assertThat(result.getMethod()).isEqualTo(method2);
+		assertThat(mapping.getMappingRegistry().getCandidateMappings("/bar/foo")).containsExactly("/bar/*");
+	}
+
+	@Test
+	public void mappingIndexEnabledAfterRegistration() throws Exception {
+		AbstractHandlerMethodMapping<String> mapping = new PathPatternHandlerMethodMapping();
+		mapping.registerMapping("/fo*", this.handler, this.method1);
+		mapping.registerMapping("/f*", this.handler, this.method2);
+		assertThat(mapping.useMappingIndex()).isFalse();
+
+		mapping.setUseMappingIndex(true);
+		assertThat(mapping.useMappingIndex()).isTrue();
+		assertThat(mapping.getMappingRegistry().getCandidateMappings("/foo")).containsExactly("/fo*", "/f*");
+
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/foo");
+		assertThat(mapping.getHandlerInternal(request).getMethod()).isEqualTo(method1);
+	}
+
 	@Test
 	public void ambiguousMatch() throws Exception {
 		this.mapping.registerMapping("/f?o", this.handler, this.method1);
@@ -228,6 +261,18 @@ public class HandlerMethodMappingTests {
 		assertThat(this.mapping.getMappingRegistry().getCorsConfiguration(handlerMethod)).isNull();
 	}
 
+	@Test
+	public void unregisterMappingWithMappingIndex() throws Exception {
+		AbstractHandlerMethodMapping<String> mapping = new PathPatternHandlerMethodMapping();
+		mapping.setUseMappingIndex(true);
+		mapping.registerMapping("/foo/{id}", this.handler, this.method1);
+		assertThat(mapping.getHandlerInternal(new MockHttpServletRequest("GET", "/foo/1"))).isNotNull();
+
+		mapping.unregisterMapping("/foo/{id}");
+		assertThat(mapping.getHandlerInternal(new MockHttpServletRequest("GET", "/foo/1"))).isNull();
+		assertThat(mapping.getMappingRegistry().getCandidateMappings("/foo/1")).isEmpty();
+	}
+
 	@Test
 	public void getCorsConfigWithBeanNameHandler() throws Exception {
 
@@ -296,6 +341,14 @@ public class HandlerMethodMappingTests {
 
 	}
 
+	private static class PathPatternHandlerMethodMapping extends MyHandlerMethodMapping {
+
+		@Override
+		protected Set<String> getMappingPathPatterns(String key) {
+			return Collections.singleton(key);
+		}
+	}
+
 	private static class SimpleMappingNamingStrategy implements HandlerMethodMappingNamingStrategy<String> {
 
 		@Override
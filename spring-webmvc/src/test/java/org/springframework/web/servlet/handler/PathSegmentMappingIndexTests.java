@@ -0,0 +1,140 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.servlet.handler;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link PathSegmentMappingIndex}.
+ */
+public class PathSegmentMappingIndexTests {
+
+	private final PathSegmentMappingIndex<String> index = new PathSegmentMappingIndex<>();
+
+
+	@Test
+	public void literalSegments() {
+		add("/foo/bar");
+		add("/foo/baz");
+		add("/other");
+
+		assertThat(this.index.getCandidates("/foo/bar")).containsExactly("/foo/bar");
+		assertThat(this.index.getCandidates("/foo/baz")).containsExactly("/foo/baz");
+		assertThat(this.index.getCandidates("/foo")).isEmpty();
+		assertThat(this.index.getCandidates("/foo/bar/baz")).isEmpty();
+	}
+
+	@Test
+	public void wildcardSegments() {
+		add("/foo/{id}");
+		add("/foo/*.html");
+		add("/foo/b?r");
+		add("/foo/bar");
+
+		assertThat(this.index.getCandidates("/foo/bar"))
+				.containsExactlyInAnyOrder("/foo/bar", "/foo/{id}", "/foo/*.html", "/foo/b?r");
+		assertThat(this.index.getCandidates("/foo/1"))
+				.containsExactlyInAnyOrder("/foo/{id}", "/foo/*.html", "/foo/b?r");
+		assertThat(this.index.getCandidates("/bar/1")).isEmpty();
+	}
+
+	@Test
+	public void doubleWildcardSegment() {
+		add("/foo/**");
+		add("/foo/**/bar");
+		add("/**");
+
+		assertThat(this.index.getCandidates("/foo")).containsExactlyInAnyOrder("/**", "/foo/**", "/foo/**/bar");
+		assertThat(this.index.getCandidates("/foo/a/b/c")).containsExactlyInAnyOrder("/**", "/foo/**", "/foo/**/bar");
+		assertThat(this.index.getCandidates("/bar")).containsExactly("/**");
+	}
+
+	@Test
+	public void mappingWithoutPatterns() {
+		this.index.add("none", Collections.emptySet());
+		add("/foo");
+
+		assertThat(this.index.getCandidates("/foo")).containsExactlyInAnyOrder("none", "/foo");
+		assertThat(this.index.getCandidates("/bar")).containsExactly("none");
+
+		this.index.remove("none", Collections.emptySet());
+		assertThat(this.index.getCandidates("/bar")).isEmpty();
+	}
+
+	@Test
+	public void suffixPatternMatch() {
+		add("/foo/bar");
+		add("/foo/bar.json");
+
+		assertThat(this.index.getCandidates("/foo/bar.json")).containsExactlyInAnyOrder("/foo/bar", "/foo/bar.json");
+		assertThat(this.index.getCandidates("/foo/bar.json.xml"))
+				.containsExactlyInAnyOrder("/foo/bar", "/foo/bar.json");
+		assertThat(this.index.getCandidates("/foo.json/bar")).isEmpty();
+	}
+
+	@Test
+	public void trailingSlashMatch() {
+		add("/foo");
+		add("/foo/*");
+
+		assertThat(this.index.getCandidates("/foo")).containsExactly("/foo");
+		assertThat(this.index.getCandidates("/foo/")).containsExactlyInAnyOrder("/foo", "/foo/*");
+	}
+
+	@Test
+	public void caseInsensitiveMatch() {
+		add("/Foo/Bar");
+
+		assertThat(this.index.getCandidates("/foo/BAR")).containsExactly("/Foo/Bar");
+	}
+
+	@Test
+	public void multiplePatterns() {
+		this.index.add("foo", Arrays.asList("/foo", "/bar/{id}"));
+
+		assertThat(this.index.getCandidates("/foo")).containsExactly("foo");
+		assertThat(this.index.getCandidates("/bar/1")).containsExactly("foo");
+
+		this.index.remove("foo", Arrays.asList("/foo", "/bar/{id}"));
+		assertThat(this.index.getCandidates("/foo")).isEmpty();
+		assertThat(this.index.getCandidates("/bar/1")).isEmpty();
+	}
+
+	@Test
+	public void remove() {
+		add("/foo/{id}");
+		add("/foo/**");
+		add("/foo/bar");
+
+		this.index.remove("/foo/{id}", Collections.singleton("/foo/{id}"));
+		this.index.remove("/foo/**", Collections.singleton("/foo/**"));
+		this.index.remove("/unknown/path", Collections.singleton("/unknown/path"));
+
+		assertThat(this.index.getCandidates("/foo/bar")).containsExactly("/foo/bar");
+	}
+
+
+	private void add(String pattern) {
+		this.index.add(pattern, Collections.singleton(pattern));
+	}
+
+}
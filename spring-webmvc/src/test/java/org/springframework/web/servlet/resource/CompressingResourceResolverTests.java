@@ -0,0 +1,186 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.servlet.resource;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.test.MockHttpServletRequest;
+import org.springframework.mock.web.test.MockHttpServletResponse;
+import org.springframework.mock.web.test.MockServletContext;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.servlet.HandlerMapping;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link CompressingResourceResolver}.
+ */
+public class CompressingResourceResolverTests {
+
+	private static final String CSS = String.join("", Collections.nCopies(50, "h1 { color:red; }\n"));
+
+
+	@TempDir
+	Path directory;
+
+	private CompressingResourceResolver compressingResolver;
+
+	private ResourceResolverChain resolver;
+
+	private List<Resource> locations;
+
+
+	@BeforeEach
+	public void setup() throws IOException {
+		Files.write(this.directory.resolve("foo.css"), CSS.getBytes(StandardCharsets.UTF_8));
+		Files.write(this.directory.resolve("foo.png"), new byte[1024]);
+
+		this.compressingResolver = new CompressingResourceResolver();
+		List<ResourceResolver> resolvers = new ArrayList<>();
+		resolvers.add(this.compressingResolver);
+		resolvers.add(new PathResourceResolver());
+		this.resolver = new DefaultResourceResolverChain(resolvers);
+		this.locations = Collections.singletonList(new FileSystemResource(this.directory.toString() + "/"));
+	}
+
+
+	@Test
+	public void resolveCompressed() throws IOException {
+		Resource resource = this.resolver.resolveResource(gzipRequest(), "foo.css", this.locations);
+
+		assertThat(resource).isInstanceOf(HttpResource.class);
+		assertThat(resource.isFile()).isFalse();
+		assertThat(resource.getFilename()).isEqualTo("foo.css");
+		assertThat(resource.contentLength()).isLessThan(CSS.length());
+		HttpHeaders headers = ((HttpResource) resource).getResponseHeaders();
+		assertThat(headers.getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+		assertThat(headers.getFirst(HttpHeaders.VARY)).isEqualTo("Accept-Encoding");
+		assertThat(headers.getETag()).isNotNull();
+		assertThat(gunzip(resource)).isEqualTo(CSS);
+		assertThat(this.compressingResolver.getCacheSize()).isEqualTo(resource.contentLength());
+
+		Resource cached = this.resolver.resolveResource(gzipRequest(), "foo.css", this.locations);
+		assertThat(cached).isSameAs(resource);
+	}
+
+	@Test
+	public void resolveUncompressed() throws IOException {
+		Resource compressed = this.resolver.resolveResource(gzipRequest(), "foo.css", this.locations);
+		Resource resource = this.resolver.resolveResource(new MockHttpServletRequest(), "foo.css", this.locations);
+
+		HttpHeaders headers = ((HttpResource) resource).getResponseHeaders();
+		assertThat(headers.containsKey(HttpHeaders.CONTENT_ENCODING)).isFalse();
+		assertThat(headers.getFirst(HttpHeaders.VARY)).isEqualTo("Accept-Encoding");
+		assertThat(headers.getETag()).isNotEqualTo(((HttpResource) compressed).getResponseHeaders().getETag());
+		assertThat(StreamUtils.copyToString(resource.getInputStream(), StandardCharsets.UTF_8)).isEqualTo(CSS);
+		assertThat(this.compressingResolver.getCacheSize()).isEqualTo(compressed.contentLength() + CSS.length());
+	}
+
+	@Test
+	public void resolveNotCompressible() throws IOException {
+		Resource resource = this.resolver.resolveResource(gzipRequest(), "foo.png", this.locations);
+
+		HttpHeaders headers = ((HttpResource) resource).getResponseHeaders();
+		assertThat(headers.containsKey(HttpHeaders.CONTENT_ENCODING)).isFalse();
+		assertThat(resource.contentLength()).isEqualTo(1024);
+	}
+
+	@Test
+	public void resolveAboveMaxResourceSize() {
+		this.compressingResolver.setMaxResourceSize(100);
+		Resource resource = this.resolver.resolveResource(gzipRequest(), "foo.css", this.locations);
+
+		assertThat(resource).isInstanceOf(FileSystemResource.class);
+		assertThat(this.compressingResolver.getCacheSize()).isEqualTo(0);
+	}
+
+	@Test
+	public void evictLeastRecentlyUsed() {
+		this.compressingResolver.setMaxCacheSize(1500);
+		Resource css = this.resolver.resolveResource(new MockHttpServletRequest(), "foo.css", this.locations);
+		this.resolver.resolveResource(gzipRequest(), "foo.png", this.locations);
+
+		assertThat(this.compressingResolver.getCacheSize()).isEqualTo(1024);
+		assertThat(this.resolver.resolveResource(new MockHttpServletRequest(), "foo.css", this.locations))
+				.isNotSameAs(css);
+	}
+
+	@Test
+	public void refreshModifiedResource() throws IOException {
+		Resource resource = this.resolver.resolveResource(gzipRequest(), "foo.css", this.locations);
+		File file = this.directory.resolve("foo.css").toFile();
+		Files.write(file.toPath(), (CSS + CSS).getBytes(StandardCharsets.UTF_8));
+		file.setLastModified(resource.lastModified() + 2000);
+
+		Resource refreshed = this.resolver.resolveResource(gzipRequest(), "foo.css", this.locations);
+		assertThat(refreshed).isNotSameAs(resource);
+		assertThat(gunzip(refreshed)).isEqualTo(CSS + CSS);
+		assertThat(this.compressingResolver.getCacheSize()).isEqualTo(refreshed.contentLength());
+	}
+
+	@Test
+	public void notModifiedWithETag() throws Exception {
+		ResourceHttpRequestHandler handler = new ResourceHttpRequestHandler();
+		handler.setServletContext(new MockServletContext());
+		handler.setLocations(this.locations);
+		handler.setResourceResolvers(Arrays.asList(this.compressingResolver, new PathResourceResolver()));
+		handler.afterPropertiesSet();
+
+		MockHttpServletRequest request = gzipRequest();
+		request.setAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE, "foo.css");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		handler.handleRequest(request, response);
+		String eTag = response.getHeader(HttpHeaders.ETAG);
+		assertThat(eTag).isNotNull();
+		assertThat(response.getHeader(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+
+		request = gzipRequest();
+		request.addHeader(HttpHeaders.IF_NONE_MATCH, eTag);
+		request.setAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE, "foo.css");
+		response = new MockHttpServletResponse();
+		handler.handleRequest(request, response);
+		assertThat(response.getStatus()).isEqualTo(304);
+	}
+
+
+	private static MockHttpServletRequest gzipRequest() {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "");
+		request.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate");
+		return request;
+	}
+
+	private static String gunzip(Resource resource) throws IOException {
+		return StreamUtils.copyToString(new GZIPInputStream(resource.getInputStream()), StandardCharsets.UTF_8);
+	}
+
+}